@@ -1,5 +1,6 @@
 package org.verwandlung.voj.judger.application;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -12,6 +13,8 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 
 import org.verwandlung.voj.judger.mapper.LanguageMapper;
+import org.verwandlung.voj.judger.messenger.MessagePoller;
+import org.verwandlung.voj.judger.messenger.StaleSubmissionSweeper;
 import org.verwandlung.voj.judger.model.Language;
 
 /**
@@ -27,8 +30,12 @@ public class ApplicationBootstrap {
 		LOGGER.info("Starting Verwandlung Online Judge Judger...");
 		ApplicationBootstrap app = new ApplicationBootstrap();
 		app.getApplicationContext();
-		app.setupHeartBeat();
+		app.checkIdentity();
 		app.getSystemEnvironment();
+		app.sweepStaleSubmissions();
+		app.setupMessageListener();
+		app.setupHeartBeat();
+		app.setupMetricsEndpoint();
 		app.setUpShutdownHook();
 		LOGGER.info("Verwandlung Online Judge Judger started.");
 	}
@@ -41,17 +48,80 @@ public class ApplicationBootstrap {
 				ClassPathXmlApplicationContext("application-context.xml");
 	}
 	
+	/**
+	 * 验证评测机的身份信息.
+	 * 身份信息无效时退出应用程序.
+	 */
+	private void checkIdentity() {
+		ApplicationHeartbeat heartbeat = applicationContext.getBean(ApplicationHeartbeat.class);
+		if ( !heartbeat.isIdentityValid() ) {
+			LOGGER.error("Unauthorized: Please check your username and password.");
+			System.exit(-1);
+		}
+	}
+	
+	/**
+	 * 将丢失评测任务的提交记录重新加入消息队列.
+	 */
+	private void sweepStaleSubmissions() {
+		StaleSubmissionSweeper sweeper = applicationContext.getBean(StaleSubmissionSweeper.class);
+		try {
+			sweeper.sweep();
+		} catch ( Exception ex ) {
+			LOGGER.catching(ex);
+		}
+	}
+
+	/**
+	 * 配置消息队列的监听器.
+	 * 按权重从各优先级通道拉取评测任务, 且仅接收评测机支持的编程语言的评测任务.
+	 */
+	private void setupMessageListener() {
+		MessagePoller messagePoller = applicationContext.getBean(MessagePoller.class);
+		messagePoller.setMessageSelector(getMessageSelector(supportedLanguages));
+		messagePoller.start();
+	}
+	
+	/**
+	 * 获取消息队列的消息选择器.
+	 * 未指定编程语言的消息可被任意评测机接收.
+	 * @param languageSlugs - 评测机支持的编程语言唯一英文缩写的列表
+	 * @return 消息队列的消息选择器
+	 */
+	private String getMessageSelector(List<String> languageSlugs) {
+		StringBuilder selectorBuilder = new StringBuilder("languageSlug IS NULL");
+		if ( !languageSlugs.isEmpty() ) {
+			selectorBuilder.append(" OR languageSlug IN (");
+			for ( int i = 0; i < languageSlugs.size(); ++ i ) {
+				if ( i != 0 ) {
+					selectorBuilder.append(", ");
+				}
+				selectorBuilder.append("'").append(languageSlugs.get(i).replace("'", "''")).append("'");
+			}
+			selectorBuilder.append(")");
+		}
+		return selectorBuilder.toString();
+	}
+	
 	/**
 	 * 配置与Web模块的心跳连接.
 	 * 定时向Web模块发送Keep-Alive信号.
 	 */
 	private void setupHeartBeat() {
 		final int INITIAL_DELAY = 0;
-		final int PERIOD = 25;
 		
 		ApplicationHeartbeat heartbeat = applicationContext.getBean(ApplicationHeartbeat.class);
+		heartbeat.setSupportedLanguages(supportedLanguages);
 		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-		scheduler.scheduleAtFixedRate(heartbeat, INITIAL_DELAY, PERIOD, TimeUnit.MINUTES);
+		scheduler.scheduleAtFixedRate(heartbeat, INITIAL_DELAY, heartbeat.getHeartbeatInterval(), TimeUnit.SECONDS);
+	}
+	
+	/**
+	 * 启动评测机运行指标的HTTP接口.
+	 */
+	private void setupMetricsEndpoint() {
+		ApplicationMetricsEndpoint metricsEndpoint = applicationContext.getBean(ApplicationMetricsEndpoint.class);
+		metricsEndpoint.start();
 	}
 	
 	/**
@@ -64,6 +134,8 @@ public class ApplicationBootstrap {
 			public void run() {
 				try {
 					LOGGER.info("Verwandlung Online Judge Judger is shutting down...");
+					applicationContext.getBean(MessagePoller.class).stop();
+					applicationContext.getBean(ApplicationMetricsEndpoint.class).stop();
 					mainThread.join();
 				} catch (InterruptedException ex) {
 					LOGGER.catching(ex);
@@ -89,7 +161,12 @@ public class ApplicationBootstrap {
 		for ( Language language : languages ) {
 			String languageName = language.getLanguageName();
 			String compileProgram = getCompileProgram(language.getCompileCommand());
-			LOGGER.info("\t" + languageName + ": " + getCompilerVersion(languageName, compileProgram));   
+			String compilerVersion = getCompilerVersion(languageName, compileProgram);
+			LOGGER.info("\t" + languageName + ": " + compilerVersion);
+			
+			if ( !COMPILER_NOT_FOUND.equals(compilerVersion) ) {
+				supportedLanguages.add(language.getLanguageSlug());
+			}
 		}
 	}
 	
@@ -126,7 +203,7 @@ public class ApplicationBootstrap {
 			compilerVersion.append(IOUtils.toString(process.getInputStream()));
 			compilerVersion.append(IOUtils.toString(process.getErrorStream()));
 		} catch ( Exception ex ) {
-			return "Not Found";
+			return COMPILER_NOT_FOUND;
 		}
 		return compilerVersion.toString();
 	}
@@ -148,6 +225,17 @@ public class ApplicationBootstrap {
 	 */
 	private ApplicationContext applicationContext;
 	
+	/**
+	 * 评测机支持的编程语言.
+	 * 列表中的元素为编程语言的唯一英文缩写.
+	 */
+	private List<String> supportedLanguages = new ArrayList<>();
+	
+	/**
+	 * 未找到编译器时的版本信息.
+	 */
+	private static final String COMPILER_NOT_FOUND = "Not Found";
+	
 	/**
 	 * 日志记录器.
 	 */
@@ -10,8 +10,12 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import org.verwandlung.voj.judger.application.ApplicationMetrics.Stage;
 import org.verwandlung.voj.judger.core.Dispatcher;
+import org.verwandlung.voj.judger.core.Preprocessor;
+import org.verwandlung.voj.judger.exception.IllgealSubmissionException;
 import org.verwandlung.voj.judger.mapper.JudgeResultMapper;
+import org.verwandlung.voj.judger.mapper.ProblemMapper;
 import org.verwandlung.voj.judger.mapper.SubmissionMapper;
 import org.verwandlung.voj.judger.messenger.MessageSender;
 import org.verwandlung.voj.judger.model.JudgeResult;
@@ -26,14 +30,43 @@ import org.verwandlung.voj.judger.model.Submission;
 public class ApplicationDispatcher {
 	/**
 	 * 收到消息队列的新的评测请求时的回调函数.
+	 * 评测开始前取得提交记录的评测租约, 租约过期的提交记录将被重新投递至原消息队列.
+	 * 评测过程中的异常将被抛出, 以便消息队列重新投递该评测任务.
 	 * @param submissionId - 评测记录的唯一标识符
+	 * @param taskQueue - 评测任务所在的消息队列
+	 * @throws IllgealSubmissionException
+	 * @throws InterruptedException
 	 */
-	public void onSubmissionCreated(long submissionId) {
-		try {
-			judgerDispatcher.createNewTask(submissionId);
-		} catch (Exception ex) {
-			LOGGER.catching(ex);
+	public void onSubmissionCreated(long submissionId, String taskQueue) 
+			throws IllgealSubmissionException, InterruptedException {
+		submissionMapper.acquireSubmissionLease(submissionId, taskQueue);
+		judgerDispatcher.createNewTask(submissionId);
+	}
+	
+	/**
+	 * 收到比赛即将开始的消息时的回调函数.
+	 * 预先抓取比赛中全部试题的评测数据, 以免比赛开始后的首次评测从数据库抓取评测数据.
+	 * @param problemIds - 比赛包含的试题的唯一标识符列表
+	 * @param expireTime - 评测数据的过期时间(比赛结束时间, ms)
+	 */
+	public void onContestStarting(List<Long> problemIds, long expireTime) {
+		for ( long problemId : problemIds ) {
+			try {
+				preprocessor.stageTestPoints(problemId, expireTime);
+			} catch ( Exception ex ) {
+				LOGGER.catching(ex);
+			}
 		}
+		LOGGER.info(String.format("Finished staging test points of problems %s.", new Object[] { problemIds }));
+	}
+	
+	/**
+	 * 收到试题被修改的消息时的回调函数.
+	 * 使预先抓取的评测数据失效, 下次评测时重新从数据库抓取.
+	 * @param problemId - 试题的唯一标识符(为0时表示全部试题)
+	 */
+	public void onProblemUpdated(long problemId) {
+		preprocessor.evictTestPoints(problemId);
 	}
 	
 	/**
@@ -41,11 +74,12 @@ public class ApplicationDispatcher {
 	 * @param submissionId - 评测记录的唯一标识符
 	 */
 	public void onErrorOccurred(long submissionId) {
-		updateSubmission(submissionId, 0, 0, 0, "SE", "Internal error occured.");
+		Submission submission = updateSubmission(submissionId, 0, 0, 0, "SE", "Internal error occured.");
 		
 		Map<String, Object> mapMessage = new HashMap<>();
 		mapMessage.put("event", "ErrorOccurred");
 		mapMessage.put("submissionId", submissionId);
+		putSubmitterOfSubmission(mapMessage, submission);
 		
 		messageSender.sendMessage(mapMessage);
 	}
@@ -59,14 +93,15 @@ public class ApplicationDispatcher {
 		boolean isSuccessful = (Boolean)result.get("isSuccessful");
 		String log = getJudgeLog((String)result.get("log"));
 		
-		if ( !isSuccessful ) {
-			updateSubmission(submissionId, 0, 0, 0, "CE", log);
-		}
 		Map<String, Object> mapMessage = new HashMap<>();
 		mapMessage.put("event", "CompileFinished");
 		mapMessage.put("submissionId", submissionId);
 		mapMessage.put("isSuccessful", isSuccessful);
 		mapMessage.put("log", log);
+		if ( !isSuccessful ) {
+			Submission submission = updateSubmission(submissionId, 0, 0, 0, "CE", log);
+			putSubmitterOfSubmission(mapMessage, submission);
+		}
 		
 		messageSender.sendMessage(mapMessage);
 	}
@@ -126,12 +161,14 @@ public class ApplicationDispatcher {
 			}
 		}
 		log = getJudgeLog(runtimeResults, runtimeResultSlug, totalTime, maxMemory, totalScore);
-		updateSubmission(submissionId, totalTime, maxMemory, totalScore, runtimeResultSlug, log);
+		Submission submission = updateSubmission(submissionId, totalTime, maxMemory, totalScore, runtimeResultSlug, log);
 		
 		Map<String, Object> mapMessage = new HashMap<>();
 		mapMessage.put("event", "AllTestPointsFinished");
 		mapMessage.put("submissionId", submissionId);
+		putSubmitterOfSubmission(mapMessage, submission);
 		mapMessage.put("runtimeResult", getRuntimeResultName(runtimeResultSlug));
+		mapMessage.put("runtimeResultSlug", runtimeResultSlug);
 		mapMessage.put("totalTime", totalTime);
 		mapMessage.put("maxMemory", maxMemory);
 		mapMessage.put("totalScore", totalScore);
@@ -258,16 +295,20 @@ public class ApplicationDispatcher {
 	
 	/**
 	 * 更新提交记录信息.
+	 * 若评测结果由通过变为未通过(或相反), 则同时更新试题的通过次数.
 	 * @param submissionId - 提交记录的唯一标识符
 	 * @param usedTime - 提交运行使用时间(所有时间之和)
 	 * @param usedMemory - 提交运行使用内存(最大内存占用)
 	 * @param score - 运行得分
 	 * @param judgeResult - 运行结果(JudgeResultSlug)
 	 * @param log - 运行日志记录
+	 * @return 更新后的提交记录对象
 	 */
-	private void updateSubmission(long submissionId, int usedTime, 
+	private Submission updateSubmission(long submissionId, int usedTime, 
 			int usedMemory, int score, String judgeResult, String log) {
+		long startTime = System.nanoTime();
 		Submission submission = submissionMapper.getSubmission(submissionId);
+		boolean isPreviouslyAccepted = "AC".equals(submission.getJudgeResultSlug());
 		submission.setExecuteTime(new Date());
 		submission.setUsedTime(usedTime);
 		submission.setUsedMemory(usedMemory);
@@ -276,6 +317,27 @@ public class ApplicationDispatcher {
 		submission.setJudgeLog(log);
 		
 		submissionMapper.updateSubmission(submission);
+		submissionMapper.updateSubmissionJudgeLog(submission);
+		
+		boolean isAccepted = "AC".equals(judgeResult);
+		if ( isAccepted != isPreviouslyAccepted ) {
+			problemMapper.updateAcceptedSubmissionOfProblem(
+					submission.getProblem().getProblemId(), isAccepted ? 1 : -1);
+		}
+		applicationMetrics.recordLatency(Stage.WRITE_BACK, startTime);
+		applicationMetrics.onVerdict(submission.getLanguage().getLanguageSlug(), judgeResult);
+		return submission;
+	}
+	
+	/**
+	 * 在评测结果消息中附带提交者及试题的唯一标识符.
+	 * 以便Web模块更新用户的评测状态时无需查询数据库.
+	 * @param mapMessage - 评测结果消息
+	 * @param submission - 提交记录对象
+	 */
+	private void putSubmitterOfSubmission(Map<String, Object> mapMessage, Submission submission) {
+		mapMessage.put("uid", submission.getUid());
+		mapMessage.put("problemId", submission.getProblem().getProblemId());
 	}
 	
 	/**
@@ -285,6 +347,13 @@ public class ApplicationDispatcher {
 	@Autowired
 	private Dispatcher judgerDispatcher;
 	
+	/**
+	 * 自动注入的Preprocessor对象.
+	 * 用于预先抓取评测数据.
+	 */
+	@Autowired
+	private Preprocessor preprocessor;
+	
 	/**
 	 * 自动注入的MessageSender对象.
 	 * 用于向消息队列发送消息.
@@ -306,6 +375,20 @@ public class ApplicationDispatcher {
 	@Autowired
 	private JudgeResultMapper judgeResultMapper;
 	
+	/**
+	 * 自动注入的ProblemMapper对象.
+	 * 用于更新试题的通过次数.
+	 */
+	@Autowired
+	private ProblemMapper problemMapper;
+	
+	/**
+	 * 自动注入的ApplicationMetrics对象.
+	 * 用于记录评测结果的写回耗时及评测结果计数.
+	 */
+	@Autowired
+	private ApplicationMetrics applicationMetrics;
+	
 	/**
 	 * 日志记录器.
 	 */
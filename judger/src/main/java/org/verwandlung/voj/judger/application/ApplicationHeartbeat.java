@@ -1,7 +1,10 @@
 package org.verwandlung.voj.judger.application;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.logging.log4j.LogManager;
@@ -10,14 +13,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import org.verwandlung.voj.judger.core.Dispatcher;
 import org.verwandlung.voj.judger.mapper.UserMapper;
+import org.verwandlung.voj.judger.messenger.MessagePoller;
 import org.verwandlung.voj.judger.messenger.MessageSender;
 import org.verwandlung.voj.judger.model.User;
 import org.verwandlung.voj.judger.util.DigestUtils;
 
 /**
  * 应用程序心跳.
- * 用于向Web模块发送Keep-Alive信息.
+ * 用于向Web模块发送Keep-Alive信息, 并报告评测机的负载, 吞吐量及支持的编程语言.
  * 
  * @author Haozhe Xie
  */
@@ -27,27 +32,115 @@ public class ApplicationHeartbeat implements Runnable {
 	 * @see java.lang.Runnable#run()
 	 */
 	public void run() {
-		if ( !isIdentityValid() ) {
-			LOGGER.error("Unauthorized: Please check your username and password.");
-			System.exit(-1);
+		// 抛出的异常将导致ScheduledExecutorService取消后续的心跳任务, 因此仅记录异常
+		try {
+			Calendar calendar = Calendar.getInstance();
+			long currentTime = calendar.getTimeInMillis();
+			if ( !isIdentityStillValid(currentTime) ) {
+				return;
+			}
+			
+			Map<String, Object> mapMessage = new HashMap<>();
+			mapMessage.put("event", "KeepAlive");
+			mapMessage.put("username", judgerUsername);
+			mapMessage.put("description", getDescription());
+			mapMessage.put("heartbeatTime", currentTime);
+			mapMessage.put("freeSlots", getFreeSlots());
+			mapMessage.put("cpuLoad", getCpuLoad());
+			mapMessage.put("languages", getSupportedLanguages());
+			mapMessage.put("finishedTasks", applicationMetrics.getFinishedTasks());
+			messageSender.sendMessage(mapMessage);
+			LOGGER.debug("Heartbeat sent to the web server.");
+		} catch ( Exception ex ) {
+			LOGGER.catching(ex);
 		}
-		Calendar calendar = Calendar.getInstance();
-		long currentTime = calendar.getTimeInMillis();
-		
-		Map<String, Object> mapMessage = new HashMap<>();
-		mapMessage.put("event", "KeepAlive");
-		mapMessage.put("username", judgerUsername);
-		mapMessage.put("description", getDescription());
-		mapMessage.put("heartbeatTime", currentTime);
-		messageSender.sendMessage(mapMessage);
-		LOGGER.info("Heartbeat sent to the web server.");
+	}
+	
+	/**
+	 * 获取空闲的评测槽位数量.
+	 * 该值仅用于在评测机列表中展示负载以及限制重新评测任务的提交速度, 不参与评测任务的分配:
+	 * 评测任务由评测机在空闲时主动拉取, 并仅按编程语言进行筛选.
+	 * @return 空闲的评测槽位数量
+	 */
+	private int getFreeSlots() {
+		int freeSlots = dispatcher.getNumberOfSlots() - applicationMetrics.getActiveTasks();
+		return freeSlots > 0 ? freeSlots : 0;
+	}
+	
+	/**
+	 * 获取评测机的CPU负载.
+	 * 即最近1分钟内的系统平均负载, 当操作系统不支持时返回-1.
+	 * @return 评测机的CPU负载
+	 */
+	private double getCpuLoad() {
+		return ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+	}
+	
+	/**
+	 * 获取评测机支持的编程语言.
+	 * @return 以逗号分隔的编程语言唯一英文缩写
+	 */
+	private String getSupportedLanguages() {
+		StringBuilder languagesBuilder = new StringBuilder();
+		for ( String languageSlug : supportedLanguages ) {
+			if ( languagesBuilder.length() != 0 ) {
+				languagesBuilder.append(",");
+			}
+			languagesBuilder.append(languageSlug);
+		}
+		return languagesBuilder.toString();
+	}
+	
+	/**
+	 * 设置评测机支持的编程语言.
+	 * @param supportedLanguages - 编程语言唯一英文缩写的列表
+	 */
+	public void setSupportedLanguages(List<String> supportedLanguages) {
+		this.supportedLanguages = new ArrayList<>(supportedLanguages);
+	}
+	
+	/**
+	 * 获取发送心跳的时间间隔(秒).
+	 * @return 发送心跳的时间间隔(秒)
+	 */
+	public int getHeartbeatInterval() {
+		return heartbeatInterval;
+	}
+	
+	/**
+	 * 定期重新验证评测机的身份信息.
+	 * 验证结果在一段时间内有效, 以免每次发送心跳时都查询数据库; 查询失败时沿用之前的验证结果.
+	 * 身份信息失效(如评测机的账户被删除或修改密码)时, 停止领取评测任务并停止发送心跳.
+	 * @param currentTime - 当前时间的时间戳
+	 * @return 评测机的身份信息是否仍然有效
+	 */
+	private boolean isIdentityStillValid(long currentTime) {
+		if ( isIdentityRevoked ) {
+			return false;
+		}
+		if ( currentTime < identityExpireTime ) {
+			return true;
+		}
+		try {
+			if ( !isIdentityValid() ) {
+				isIdentityRevoked = true;
+				messagePoller.stop();
+				LOGGER.error("Unauthorized: The identity of the judger is no longer valid, stop taking judge tasks.");
+				return false;
+			}
+			identityExpireTime = currentTime + IDENTITY_VALIDATION_INTERVAL;
+		} catch ( Exception ex ) {
+			LOGGER.catching(ex);
+		}
+		return true;
 	}
 	
 	/**
 	 * 检查评测机的身份信息是否有效.
+	 * 评测机启动时检查一次, 之后随心跳定期检查.
 	 * @return 评测机的身份信息是否有效
 	 */
-	private boolean isIdentityValid() {
+	public boolean isIdentityValid() {
 		User user = userMapper.getUserUsingUsername(judgerUsername);
 		
 		if ( user != null && "judgers".equals(user.getUserGroup().getUserGroupSlug()) &&
@@ -82,11 +175,47 @@ public class ApplicationHeartbeat implements Runnable {
 	
 	/**
 	 * 评测机身份信息.
-	 * 评测机的密码.
+	 * 评测机的描述信息.
 	 */
 	@Value("${judger.description}")
 	private String judgerDescription;
 	
+	/**
+	 * 发送心跳的时间间隔(秒).
+	 */
+	@Value("${judger.heartbeatInterval}")
+	private int heartbeatInterval;
+	
+	/**
+	 * 评测机支持的编程语言.
+	 * 列表中的元素为编程语言的唯一英文缩写.
+	 */
+	private volatile List<String> supportedLanguages = new ArrayList<>();
+	
+	/**
+	 * 评测机身份信息验证结果的过期时间的时间戳.
+	 */
+	private long identityExpireTime = 0;
+	
+	/**
+	 * 评测机的身份信息是否已失效.
+	 */
+	private boolean isIdentityRevoked = false;
+	
+	/**
+	 * 自动注入的Dispatcher对象.
+	 * 用于获取评测槽位的数量.
+	 */
+	@Autowired
+	private Dispatcher dispatcher;
+	
+	/**
+	 * 自动注入的ApplicationMetrics对象.
+	 * 用于获取评测机的负载情况.
+	 */
+	@Autowired
+	private ApplicationMetrics applicationMetrics;
+	
 	/**
 	 * 自动注入的MessageSender对象.
 	 * 用于向消息队列发送消息.
@@ -101,6 +230,18 @@ public class ApplicationHeartbeat implements Runnable {
 	@Autowired
 	private UserMapper userMapper;
 	
+	/**
+	 * 自动注入的MessagePoller对象.
+	 * 用于在身份信息失效时停止领取评测任务.
+	 */
+	@Autowired
+	private MessagePoller messagePoller;
+	
+	/**
+	 * 评测机身份信息验证结果的有效时间(毫秒).
+	 */
+	private static final long IDENTITY_VALIDATION_INTERVAL = 60 * 1000;
+	
 	/**
 	 * 日志记录器.
 	 */
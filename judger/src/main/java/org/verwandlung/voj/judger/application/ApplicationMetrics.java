@@ -0,0 +1,267 @@
+package org.verwandlung.voj.judger.application;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.stereotype.Component;
+
+/**
+ * 评测机运行指标.
+ * 记录评测流程中各个阶段的耗时分布, 评测槽位的使用情况以及各语言的评测结果计数.
+ *
+ * @author Haozhe Xie
+ */
+@Component
+public class ApplicationMetrics {
+	/**
+	 * 评测流程中的各个阶段.
+	 */
+	public enum Stage {
+		QUEUE_WAIT("queue_wait"),
+		PREPROCESS("preprocess"),
+		COMPILE("compile"),
+		RUN("run"),
+		COMPARE("compare"),
+		WRITE_BACK("write_back"),
+		MESSAGE_SEND("message_send");
+
+		/**
+		 * Stage的构造函数.
+		 * @param name - 阶段在指标中的名称
+		 */
+		Stage(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * 获取阶段在指标中的名称.
+		 * @return 阶段在指标中的名称
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * 阶段在指标中的名称.
+		 */
+		private final String name;
+	}
+
+	/**
+	 * ApplicationMetrics的构造函数.
+	 */
+	public ApplicationMetrics() {
+		for ( Stage stage : Stage.values() ) {
+			latencies.put(stage, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROSECONDS, SIGNIFICANT_DIGITS));
+		}
+	}
+
+	/**
+	 * 记录某个阶段的耗时.
+	 * @param stage - 评测阶段
+	 * @param startNanoTime - 阶段开始时System.nanoTime()的值
+	 */
+	public void recordLatency(Stage stage, long startNanoTime) {
+		long elapsedMicroseconds = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanoTime);
+		recordLatencyInMicroseconds(stage, elapsedMicroseconds);
+	}
+
+	/**
+	 * 记录某个阶段的耗时.
+	 * @param stage - 评测阶段
+	 * @param elapsedMicroseconds - 阶段耗时(us)
+	 */
+	public void recordLatencyInMicroseconds(Stage stage, long elapsedMicroseconds) {
+		if ( elapsedMicroseconds < 0 ) {
+			elapsedMicroseconds = 0;
+		}
+		if ( elapsedMicroseconds > HIGHEST_TRACKABLE_MICROSECONDS ) {
+			elapsedMicroseconds = HIGHEST_TRACKABLE_MICROSECONDS;
+		}
+		latencies.get(stage).recordValue(elapsedMicroseconds);
+	}
+
+	/**
+	 * 评测任务开始时的回调函数.
+	 * 用于统计评测槽位的使用情况.
+	 */
+	public void onTaskStarted() {
+		activeTasks.incrementAndGet();
+	}
+
+	/**
+	 * 评测任务结束时的回调函数.
+	 * @param startNanoTime - 任务开始时System.nanoTime()的值
+	 */
+	public void onTaskFinished(long startNanoTime) {
+		activeTasks.decrementAndGet();
+		finishedTasks.increment();
+		busyNanoTime.add(System.nanoTime() - startNanoTime);
+	}
+
+	/**
+	 * 记录一次评测结果.
+	 * @param languageSlug - 编程语言的唯一英文缩写
+	 * @param judgeResultSlug - 评测结果的唯一英文缩写
+	 */
+	public void onVerdict(String languageSlug, String judgeResultSlug) {
+		String key = String.format("%s|%s", new Object[] { languageSlug, judgeResultSlug });
+		LongAdder counter = verdicts.get(key);
+
+		if ( counter == null ) {
+			LongAdder newCounter = new LongAdder();
+			counter = verdicts.putIfAbsent(key, newCounter);
+			if ( counter == null ) {
+				counter = newCounter;
+			}
+		}
+		counter.increment();
+	}
+
+	/**
+	 * 获取某个阶段耗时分布的快照.
+	 * @param stage - 评测阶段
+	 * @return 耗时分布(us)的快照
+	 */
+	public Histogram getLatencySnapshot(Stage stage) {
+		return latencies.get(stage).copy();
+	}
+
+	/**
+	 * 获取正在进行的评测任务数量.
+	 * @return 正在进行的评测任务数量
+	 */
+	public int getActiveTasks() {
+		return activeTasks.get();
+	}
+
+	/**
+	 * 获取已完成的评测任务数量.
+	 * @return 已完成的评测任务数量
+	 */
+	public long getFinishedTasks() {
+		return finishedTasks.sum();
+	}
+
+	/**
+	 * 获取评测槽位的利用率.
+	 * 即自评测机启动以来, 评测槽位处于忙碌状态的时间所占的比例.
+	 * @param slots - 评测槽位的数量
+	 * @return 评测槽位的利用率(0~1)
+	 */
+	public double getSlotUtilization(int slots) {
+		long uptime = System.nanoTime() - startupNanoTime;
+		if ( uptime <= 0 || slots <= 0 ) {
+			return 0;
+		}
+		return Math.min(1.0, (double) busyNanoTime.sum() / uptime / slots);
+	}
+
+	/**
+	 * 获取各语言的评测结果计数.
+	 * Map中的Key形如"cpp|AC".
+	 * @return 各语言的评测结果计数
+	 */
+	public Map<String, Long> getVerdicts() {
+		Map<String, Long> verdictCounts = new TreeMap<>();
+		for ( Entry<String, LongAdder> e : verdicts.entrySet() ) {
+			verdictCounts.put(e.getKey(), e.getValue().sum());
+		}
+		return verdictCounts;
+	}
+
+	/**
+	 * 以Prometheus文本格式导出全部指标.
+	 * @param slots - 评测槽位的数量
+	 * @return Prometheus文本格式的指标
+	 */
+	public String export(int slots) {
+		StringBuilder metricsBuilder = new StringBuilder();
+
+		metricsBuilder.append("# TYPE voj_judger_stage_latency_ms summary\n");
+		for ( Stage stage : Stage.values() ) {
+			Histogram histogram = getLatencySnapshot(stage);
+			String stageName = stage.getName();
+
+			for ( double quantile : QUANTILES ) {
+				double value = histogram.getTotalCount() == 0 ? 0 :
+						histogram.getValueAtPercentile(quantile * 100) / 1000.0;
+				metricsBuilder.append(String.format("voj_judger_stage_latency_ms{stage=\"%s\",quantile=\"%s\"} %.3f\n",
+						new Object[] { stageName, quantile, value }));
+			}
+			metricsBuilder.append(String.format("voj_judger_stage_latency_ms_max{stage=\"%s\"} %.3f\n",
+					new Object[] { stageName, histogram.getMaxValue() / 1000.0 }));
+			metricsBuilder.append(String.format("voj_judger_stage_latency_ms_sum{stage=\"%s\"} %.3f\n",
+					new Object[] { stageName, histogram.getMean() * histogram.getTotalCount() / 1000.0 }));
+			metricsBuilder.append(String.format("voj_judger_stage_latency_ms_count{stage=\"%s\"} %d\n",
+					new Object[] { stageName, histogram.getTotalCount() }));
+		}
+		metricsBuilder.append("# TYPE voj_judger_slots gauge\n");
+		metricsBuilder.append(String.format("voj_judger_slots %d\n", new Object[] { slots }));
+		metricsBuilder.append("# TYPE voj_judger_active_tasks gauge\n");
+		metricsBuilder.append(String.format("voj_judger_active_tasks %d\n", new Object[] { getActiveTasks() }));
+		metricsBuilder.append("# TYPE voj_judger_slot_utilization gauge\n");
+		metricsBuilder.append(String.format("voj_judger_slot_utilization %.4f\n", new Object[] { getSlotUtilization(slots) }));
+		metricsBuilder.append("# TYPE voj_judger_tasks_total counter\n");
+		metricsBuilder.append(String.format("voj_judger_tasks_total %d\n", new Object[] { getFinishedTasks() }));
+		metricsBuilder.append("# TYPE voj_judger_verdicts_total counter\n");
+		for ( Entry<String, Long> e : getVerdicts().entrySet() ) {
+			String[] keys = e.getKey().split("\\|", 2);
+			metricsBuilder.append(String.format("voj_judger_verdicts_total{language=\"%s\",result=\"%s\"} %d\n",
+					new Object[] { keys[0], keys[1], e.getValue() }));
+		}
+		return metricsBuilder.toString();
+	}
+
+	/**
+	 * 各阶段的耗时分布(us).
+	 */
+	private final Map<Stage, Histogram> latencies = new ConcurrentHashMap<>();
+
+	/**
+	 * 各语言的评测结果计数.
+	 */
+	private final ConcurrentHashMap<String, LongAdder> verdicts = new ConcurrentHashMap<>();
+
+	/**
+	 * 正在进行的评测任务数量.
+	 */
+	private final AtomicInteger activeTasks = new AtomicInteger();
+
+	/**
+	 * 已完成的评测任务数量.
+	 */
+	private final LongAdder finishedTasks = new LongAdder();
+
+	/**
+	 * 评测槽位处于忙碌状态的累计时间(ns).
+	 */
+	private final LongAdder busyNanoTime = new LongAdder();
+
+	/**
+	 * 评测机启动时System.nanoTime()的值.
+	 */
+	private final long startupNanoTime = System.nanoTime();
+
+	/**
+	 * 导出的分位数.
+	 */
+	private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+	/**
+	 * 可记录的最大耗时(us), 即1小时.
+	 */
+	private static final long HIGHEST_TRACKABLE_MICROSECONDS = TimeUnit.HOURS.toMicros(1);
+
+	/**
+	 * 耗时分布的有效数字位数.
+	 */
+	private static final int SIGNIFICANT_DIGITS = 3;
+}
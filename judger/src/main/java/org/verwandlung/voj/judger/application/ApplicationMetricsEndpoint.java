@@ -0,0 +1,103 @@
+package org.verwandlung.voj.judger.application;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import org.verwandlung.voj.judger.core.Dispatcher;
+
+/**
+ * 评测机运行指标的HTTP接口.
+ * 以Prometheus文本格式通过 GET /metrics 导出评测机的运行指标.
+ * HTTP服务不进行身份验证, 因此默认仅监听本机地址.
+ *
+ * @author Haozhe Xie
+ */
+@Component
+public class ApplicationMetricsEndpoint {
+	/**
+	 * 启动HTTP服务.
+	 * 当端口号小于等于0时, 不启动HTTP服务.
+	 */
+	public void start() {
+		if ( metricsPort <= 0 ) {
+			LOGGER.info("Metrics endpoint is disabled.");
+			return;
+		}
+		try {
+			httpServer = HttpServer.create(new InetSocketAddress(metricsBindAddress, metricsPort), 0);
+			httpServer.createContext("/metrics", new HttpHandler() {
+				@Override
+				public void handle(HttpExchange exchange) throws IOException {
+					byte[] responseBody = applicationMetrics.export(dispatcher.getNumberOfSlots()).getBytes(StandardCharsets.UTF_8);
+
+					exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+					exchange.sendResponseHeaders(200, responseBody.length);
+					OutputStream outputStream = exchange.getResponseBody();
+					outputStream.write(responseBody);
+					outputStream.close();
+				}
+			});
+			httpServer.start();
+			LOGGER.info(String.format("Metrics endpoint is listening on %s:%d.", new Object[] { metricsBindAddress, metricsPort }));
+		} catch ( IOException ex ) {
+			LOGGER.catching(ex);
+		}
+	}
+
+	/**
+	 * 停止HTTP服务.
+	 */
+	public void stop() {
+		if ( httpServer != null ) {
+			httpServer.stop(0);
+		}
+	}
+
+	/**
+	 * HTTP服务器对象.
+	 */
+	private HttpServer httpServer;
+
+	/**
+	 * HTTP服务监听的端口.
+	 */
+	@Value("${judger.metricsPort}")
+	private int metricsPort;
+
+	/**
+	 * HTTP服务监听的地址.
+	 * 默认为127.0.0.1, 以免评测机的运行指标暴露给其他主机.
+	 */
+	@Value("${judger.metricsBindAddress}")
+	private String metricsBindAddress;
+
+	/**
+	 * 自动注入的ApplicationMetrics对象.
+	 * 用于获取评测机的运行指标.
+	 */
+	@Autowired
+	private ApplicationMetrics applicationMetrics;
+
+	/**
+	 * 自动注入的Dispatcher对象.
+	 * 用于获取评测槽位的数量.
+	 */
+	@Autowired
+	private Dispatcher dispatcher;
+
+	/**
+	 * 日志记录器.
+	 */
+	private static final Logger LOGGER = LogManager.getLogger(ApplicationMetricsEndpoint.class);
+}
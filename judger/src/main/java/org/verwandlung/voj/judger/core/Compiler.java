@@ -2,6 +2,7 @@ package org.verwandlung.voj.judger.core;
 
 import java.io.FileInputStream;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.commons.io.IOUtils;
@@ -15,6 +16,10 @@ import org.verwandlung.voj.judger.model.Submission;
 /**
  * 程序编译器, 用于编译用户提交的代码.
  * 
+ * 编译错误的结果按代码摘要和编译命令缓存, 且仅在有效期内可被复用.
+ * 重复提交相同的无法编译的代码时, 直接返回缓存的编译日志而不再调用编译器.
+ * 编译超时或编译器无法执行等与代码无关的错误不会被缓存.
+ * 
  * @author Haozhe Xie
  */
 @Component
@@ -30,8 +35,80 @@ public class Compiler {
 			String workDirectory, String baseFileName) {
 		String commandLine = getCompileCommandLine(submission, workDirectory, baseFileName);
 		String compileLogPath = getCompileLogPath(workDirectory, baseFileName);
-
-		return getCompileResult(commandLine, compileLogPath);
+		String filePathWithoutExtension = String.format("%s/%s", 
+											new Object[] {workDirectory, baseFileName});
+		String compileErrorKey = getCompileErrorKey(submission);
+		
+		String cachedCompileLog = getCachedCompileLog(compileErrorKey);
+		if ( cachedCompileLog != null ) {
+			LOGGER.info(String.format("Compile error of submission #%d is found in cache.", 
+					new Object[] { submission.getSubmissionId() }));
+			Map<String, Object> result = new HashMap<>(3, 1);
+			result.put("isSuccessful", false);
+			result.put("log", cachedCompileLog.replace(FILENAME_PLACEHOLDER, filePathWithoutExtension)
+												.replace(WORKDIR_PLACEHOLDER, workDirectory));
+			return result;
+		}
+		Map<String, Object> result = getCompileResult(commandLine, compileLogPath);
+		if ( (Boolean) result.get("isDeterministic") ) {
+			String compileLog = (String) result.get("log");
+			putCachedCompileLog(compileErrorKey, 
+					compileLog.replace(filePathWithoutExtension, FILENAME_PLACEHOLDER)
+								.replace(workDirectory, WORKDIR_PLACEHOLDER));
+		}
+		return result;
+	}
+	
+	/**
+	 * 获取编译错误缓存的键.
+	 * 编译结果仅由代码和编译命令决定, 因此使用二者作为键.
+	 * @param submission - 提交记录对象
+	 * @return 编译错误缓存的键, 若提交记录不包含代码摘要则返回空引用
+	 */
+	private String getCompileErrorKey(Submission submission) {
+		String codeHash = submission.getCodeHash();
+		if ( codeHash == null || codeHash.isEmpty() ) {
+			return null;
+		}
+		return String.format("%s:%s", 
+				new Object[] { codeHash, submission.getLanguage().getCompileCommand() });
+	}
+	
+	/**
+	 * 获取缓存的编译日志.
+	 * 已过期的记录将被移除.
+	 * @param compileErrorKey - 编译错误缓存的键
+	 * @return 编译日志, 若未缓存或已过期则返回空引用
+	 */
+	private String getCachedCompileLog(String compileErrorKey) {
+		if ( compileErrorKey == null ) {
+			return null;
+		}
+		synchronized ( compileErrors ) {
+			CompileError compileError = compileErrors.get(compileErrorKey);
+			if ( compileError == null ) {
+				return null;
+			}
+			if ( compileError.isExpired() ) {
+				compileErrors.remove(compileErrorKey);
+				return null;
+			}
+			return compileError.compileLog;
+		}
+	}
+	
+	/**
+	 * 缓存编译日志.
+	 * @param compileErrorKey - 编译错误缓存的键
+	 * @param compileLog - 编译日志(文件名和工作目录已替换为占位符)
+	 */
+	private void putCachedCompileLog(String compileErrorKey, String compileLog) {
+		if ( compileErrorKey == null ) {
+			return;
+		}
+		synchronized ( compileErrors ) {
+			compileErrors.put(compileErrorKey, new CompileError(compileLog));
+		}
 	}
 	
 	/**
@@ -67,6 +144,7 @@ public class Compiler {
 	 * @param commandLine - 编译命令
 	 * @param outputFilePath - 编译日志输出路径
 	 * @return 包含编译输出结果的Map<String, Object>对象
+	 *         其中isDeterministic表示编译错误是否仅由代码决定(可被缓存)
 	 */
 	private Map<String, Object> getCompileResult(String commandLine, String compileLogPath) {
 		String inputFilePath = null;
@@ -79,12 +157,18 @@ public class Compiler {
 		Map<String, Object> result = new HashMap<>(3, 1);
 		
 		boolean isSuccessful = false;	
+		boolean isDeterministic = false;
+		String compileLog = getCompileOutput(compileLogPath);
 		if ( runningResult != null ) {
 			int exitCode = (Integer)runningResult.get("exitCode");
+			int usedTime = (Integer)runningResult.get("usedTime");
 			isSuccessful = exitCode == 0;
+			// 编译器正常退出并输出错误信息时, 编译错误才由代码决定; 编译超时的结果不可复用
+			isDeterministic = !isSuccessful && usedTime < timeLimit && !compileLog.isEmpty();
 		}
 		result.put("isSuccessful", isSuccessful);
-		result.put("log", getCompileOutput(compileLogPath));
+		result.put("isDeterministic", isDeterministic);
+		result.put("log", compileLog);
 		return result;
 	}
 	
@@ -106,6 +190,38 @@ public class Compiler {
 		return compileLog;
 	}
 	
+	/**
+	 * 缓存的编译错误.
+	 */
+	private static class CompileError {
+		/**
+		 * CompileError的构造函数.
+		 * @param compileLog - 编译日志(文件名和工作目录已替换为占位符)
+		 */
+		public CompileError(String compileLog) {
+			this.compileLog = compileLog;
+			this.cachedTime = System.currentTimeMillis();
+		}
+		
+		/**
+		 * 检查缓存的记录是否已过期.
+		 * @return 缓存的记录是否已过期
+		 */
+		public boolean isExpired() {
+			return System.currentTimeMillis() - cachedTime > COMPILE_ERROR_TTL;
+		}
+		
+		/**
+		 * 编译日志.
+		 */
+		final String compileLog;
+		
+		/**
+		 * 缓存的时间.
+		 */
+		final long cachedTime;
+	}
+	
 	/**
 	 * 自动注入的Runner对象.
 	 * 用于执行编译命令.
@@ -113,6 +229,41 @@ public class Compiler {
 	@Autowired
 	private Runner compilerRunner;
 	
+	/**
+	 * 编译错误的缓存.
+	 * 键为代码摘要和编译命令, 值为编译错误; 超过容量时移除最久未使用的记录.
+	 * 编译命令变化后, 旧的记录不会再被命中, 并在过期或超过容量时被移除.
+	 */
+	private final Map<String, CompileError> compileErrors = new LinkedHashMap<String, CompileError>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CompileError> eldest) {
+			return size() > MAX_CACHED_COMPILE_ERRORS;
+		}
+		
+		private static final long serialVersionUID = 8271350478195312406L;
+	};
+	
+	/**
+	 * 编译错误缓存的容量.
+	 */
+	private static final int MAX_CACHED_COMPILE_ERRORS = 1024;
+	
+	/**
+	 * 编译错误缓存的有效期(毫秒).
+	 * 以免编译器环境变化后仍返回过时的编译日志.
+	 */
+	private static final long COMPILE_ERROR_TTL = 30 * 60 * 1000;
+	
+	/**
+	 * 编译日志中文件路径(工作目录和文件名)的占位符.
+	 */
+	private static final String FILENAME_PLACEHOLDER = "{filename}";
+	
+	/**
+	 * 编译日志中工作目录的占位符.
+	 */
+	private static final String WORKDIR_PLACEHOLDER = "{workdir}";
+	
 	/**
 	 * 日志记录器.
 	 */
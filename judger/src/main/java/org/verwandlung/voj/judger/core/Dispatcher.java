@@ -16,6 +16,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import org.verwandlung.voj.judger.application.ApplicationDispatcher;
+import org.verwandlung.voj.judger.application.ApplicationMetrics;
+import org.verwandlung.voj.judger.application.ApplicationMetrics.Stage;
 import org.verwandlung.voj.judger.exception.IllgealSubmissionException;
 import org.verwandlung.voj.judger.mapper.CheckpointMapper;
 import org.verwandlung.voj.judger.mapper.SubmissionMapper;
@@ -40,28 +42,64 @@ public class Dispatcher {
 	 */
 	public void createNewTask(long submissionId) throws IllgealSubmissionException, InterruptedException {
 		synchronized(this) {
-			String baseDirectory = String.format("%s/voj-%s", new Object[] {workBaseDirectory, submissionId});
-			String baseFileName = DigestUtils.getRandomString(12, DigestUtils.Mode.ALPHA);
-			
-			// 解决由于未知原因无法获取到数据记录的问题
-			int tryTimes = 0;
-			Submission submission = null;
-			do {
-				Thread.sleep(1000);
-				submission = submissionMapper.getSubmission(submissionId);
-			} while ( submission == null && ++ tryTimes <= 3 );
-			
-			if ( submission == null ) {
-				throw new IllgealSubmissionException(
-						String.format("Illegal submission #%s",
-								new Object[] { submissionId }));
+			long taskStartTime = System.nanoTime();
+			applicationMetrics.onTaskStarted();
+			try {
+				runTask(submissionId);
+			} finally {
+				applicationMetrics.onTaskFinished(taskStartTime);
 			}
+		}
+	}
+
+	/**
+	 * 执行评测任务.
+	 * @param submissionId - 提交记录的唯一标识符
+	 * @throws IllgealSubmissionException
+	 * @throws InterruptedException 
+	 */
+	private void runTask(long submissionId) throws IllgealSubmissionException, InterruptedException {
+		String baseDirectory = String.format("%s/voj-%s", new Object[] {workBaseDirectory, submissionId});
+		String baseFileName = DigestUtils.getRandomString(12, DigestUtils.Mode.ALPHA);
+		
+		// 解决由于未知原因无法获取到数据记录的问题
+		int tryTimes = 0;
+		Submission submission = null;
+		do {
+			Thread.sleep(1000);
+			submission = submissionMapper.getSubmission(submissionId);
+		} while ( submission == null && ++ tryTimes <= 3 );
+		
+		if ( submission == null ) {
+			throw new IllgealSubmissionException(
+					String.format("Illegal submission #%s",
+							new Object[] { submissionId }));
+		}
+		// 清理该评测任务上一次未完成时遗留的文件
+		cleanUp(baseDirectory);
+		// 预处理失败时抛出异常, 由消息队列重新投递该评测任务; 超过最大投递次数后才标记为系统错误
+		try {
 			preprocess(submission, baseDirectory, baseFileName);
-			if ( compile(submission, baseDirectory, baseFileName) ) {
-				runProgram(submission, baseDirectory, baseFileName);
-			}
-			cleanUp(baseDirectory);
+		} catch ( Exception ex ) {
+			LOGGER.warn(String.format("Preprocess of submission #%d failed, the workspace %s is kept.",
+					new Object[] { submissionId, baseDirectory }));
+			throw new IllegalStateException(String.format("Preprocess of submission #%d failed",
+					new Object[] { submissionId }), ex);
+		}
+		if ( compile(submission, baseDirectory, baseFileName) ) {
+			runProgram(submission, baseDirectory, baseFileName);
 		}
+		// 评测过程中抛出异常时保留工作目录, 以便排查问题
+		cleanUp(baseDirectory);
+	}
+
+	/**
+	 * 获取评测槽位的数量.
+	 * 每次只运行一个评测任务, 因此评测槽位的数量为1.
+	 * @return 评测槽位的数量
+	 */
+	public int getNumberOfSlots() {
+		return NUMBER_OF_SLOTS;
 	}
 
 	/**
@@ -71,18 +109,17 @@ public class Dispatcher {
 	 * @param submission - 评测记录对象
 	 * @param workDirectory - 用于产生编译输出的目录
 	 * @param baseFileName - 随机文件名(不包含后缀)
+	 * @throws Exception - 生成代码文件或获取评测数据失败
 	 */
 	private void preprocess(Submission submission,
-							String workDirectory, String baseFileName) {
+							String workDirectory, String baseFileName) throws Exception {
+		long startTime = System.nanoTime();
 		try {
 			long problemId = submission.getProblem().getProblemId();
 			preprocessor.createTestCode(submission, workDirectory, baseFileName);
 			preprocessor.fetchTestPoints(problemId);
-		} catch (Exception ex) {
-			LOGGER.catching(ex);
-
-			long submissionId = submission.getSubmissionId();
-			applicationDispatcher.onErrorOccurred(submissionId);
+		} finally {
+			applicationMetrics.recordLatency(Stage.PREPROCESS, startTime);
 		}
 	}
 
@@ -97,8 +134,10 @@ public class Dispatcher {
 	private boolean compile(Submission submission,
 							String workDirectory, String baseFileName) {
 		long submissionId = submission.getSubmissionId();
+		long startTime = System.nanoTime();
 		Map<String, Object> result =
 				compiler.getCompileResult(submission, workDirectory, baseFileName);
+		applicationMetrics.recordLatency(Stage.COMPILE, startTime);
 
 		applicationDispatcher.onCompileFinished(submissionId, result);
 		return (Boolean)result.get("isSuccessful");
@@ -126,9 +165,12 @@ public class Dispatcher {
 					new Object[] { checkpointDirectory, problemId, checkpointId });
 			String outputFilePath = getOutputFilePath(workDirectory, checkpointId);
 
-			Map<String, Object> runtimeResult = getRuntimeResult(
-					runner.getRuntimeResult(submission, workDirectory, baseFileName, inputFilePath, outputFilePath),
-					stdOutputFilePath, outputFilePath);
+			long startTime = System.nanoTime();
+			Map<String, Object> result =
+					runner.getRuntimeResult(submission, workDirectory, baseFileName, inputFilePath, outputFilePath);
+			applicationMetrics.recordLatency(Stage.RUN, startTime);
+
+			Map<String, Object> runtimeResult = getRuntimeResult(result, stdOutputFilePath, outputFilePath);
 			runtimeResult.put("score", checkpointScore);
 			runtimeResults.add(runtimeResult);
 			applicationDispatcher.onOneTestPointFinished(submissionId, checkpointId, runtimeResult);
@@ -178,10 +220,13 @@ public class Dispatcher {
 	 * @return 用户输出和标准输出是否相同
 	 */
 	private boolean isOutputTheSame(String standardOutputFilePath, String outputFilePath) {
+		long startTime = System.nanoTime();
 		try {
 			return comparator.isOutputTheSame(standardOutputFilePath, outputFilePath);
 		} catch (IOException ex) {
 			LOGGER.catching(ex);
+		} finally {
+			applicationMetrics.recordLatency(Stage.COMPARE, startTime);
 		}
 		return false;
 	}
@@ -236,6 +281,13 @@ public class Dispatcher {
 	@Autowired
 	private Comparator comparator;
 
+	/**
+	 * 自动注入的ApplicationMetrics对象.
+	 * 用于记录评测各阶段的耗时.
+	 */
+	@Autowired
+	private ApplicationMetrics applicationMetrics;
+
 	/**
 	 * 自动注入的SubmissionMapper对象.
 	 */
@@ -263,6 +315,11 @@ public class Dispatcher {
 	@Value("${judger.checkpointDir}")
 	private String checkpointDirectory;
 
+	/**
+	 * 评测槽位的数量.
+	 */
+	private static final int NUMBER_OF_SLOTS = 1;
+
 	/**
 	 * 日志记录器.
 	 */
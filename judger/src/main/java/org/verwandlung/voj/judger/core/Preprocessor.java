@@ -4,10 +4,13 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.PosixFilePermission;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -110,10 +113,72 @@ public class Preprocessor {
 	
 	/**
 	 * 从数据库抓取评测数据.
+	 * 若该试题的评测数据已被预先抓取且尚未过期, 则直接使用本地的评测数据.
 	 * @param problemId - 试题的唯一标识符
 	 * @throws Exception 
 	 */
 	public void fetchTestPoints(long problemId) throws Exception {
+		if ( isTestPointsStaged(problemId) ) {
+			return;
+		}
+		writeTestPoints(problemId);
+	}
+	
+	/**
+	 * 预先抓取评测数据(用于比赛开始前的预热).
+	 * 在过期时间之前, 评测该试题时不再从数据库抓取评测数据.
+	 * @param problemId - 试题的唯一标识符
+	 * @param expireTime - 评测数据的过期时间(ms)
+	 * @throws Exception 
+	 */
+	public void stageTestPoints(long problemId, long expireTime) throws Exception {
+		if ( isTestPointsStaged(problemId) ) {
+			Long currentExpireTime = stagedTestPoints.get(problemId);
+			if ( currentExpireTime != null && currentExpireTime >= expireTime ) {
+				return;
+			}
+		} else {
+			writeTestPoints(problemId);
+		}
+		stagedTestPoints.put(problemId, expireTime);
+	}
+	
+	/**
+	 * 使预先抓取的评测数据失效(用于试题的测试点被修改后).
+	 * @param problemId - 试题的唯一标识符(为0时使全部试题的评测数据失效)
+	 */
+	public void evictTestPoints(long problemId) {
+		if ( problemId == 0 ) {
+			stagedTestPoints.clear();
+		} else {
+			stagedTestPoints.remove(problemId);
+		}
+	}
+	
+	/**
+	 * 检查某个试题的评测数据是否已被预先抓取且尚未过期.
+	 * @param problemId - 试题的唯一标识符
+	 * @return 评测数据是否已被预先抓取且尚未过期
+	 */
+	private boolean isTestPointsStaged(long problemId) {
+		Long expireTime = stagedTestPoints.get(problemId);
+		if ( expireTime == null ) {
+			return false;
+		}
+		if ( expireTime < System.currentTimeMillis() ) {
+			stagedTestPoints.remove(problemId, expireTime);
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * 从数据库抓取评测数据并写入本地磁盘.
+	 * 每个文件先写入临时文件再替换原有的文件, 以免正在进行的评测读取到不完整的评测数据.
+	 * @param problemId - 试题的唯一标识符
+	 * @throws Exception 
+	 */
+	private void writeTestPoints(long problemId) throws Exception {
 		String checkpointsFilePath = String.format("%s/%s", 
 				new Object[] {checkpointDirectory, problemId});
 		File checkpointsDirFile = new File(checkpointsFilePath);
@@ -128,22 +193,36 @@ public class Preprocessor {
 			{ // Standard Input File
 				String filePath = String.format("%s/input#%s.txt", 
 						new Object[] { checkpointsFilePath, checkpointId });
-				FileOutputStream outputStream = new FileOutputStream(new File(filePath));
-				String input = checkpoint.getInput();
-				IOUtils.write(input, outputStream);
-				IOUtils.closeQuietly(outputStream);
+				writeFile(filePath, checkpoint.getInput());
 			}
 			{ // Standard Output File
 				String filePath = String.format("%s/output#%s.txt", 
 						new Object[] { checkpointsFilePath, checkpointId });
-				FileOutputStream outputStream = new FileOutputStream(new File(filePath));
-				String output = checkpoint.getOutput();
-				IOUtils.write(output, outputStream);
-				IOUtils.closeQuietly(outputStream);
+				writeFile(filePath, checkpoint.getOutput());
 			}
 		}
 	}
 	
+	/**
+	 * 通过临时文件写入文件内容.
+	 * 临时文件名包含线程编号, 使得多个线程可以同时写入同一个文件.
+	 * @param filePath - 文件的路径
+	 * @param content - 文件的内容
+	 * @throws IOException 
+	 */
+	private void writeFile(String filePath, String content) throws IOException {
+		File tempFile = new File(String.format("%s.%d.tmp", 
+				new Object[] { filePath, Thread.currentThread().getId() }));
+		FileOutputStream outputStream = new FileOutputStream(tempFile);
+		try {
+			IOUtils.write(content, outputStream);
+		} finally {
+			IOUtils.closeQuietly(outputStream);
+		}
+		Files.move(tempFile.toPath(), new File(filePath).toPath(), 
+				StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+	
 	/**
 	 * 自动注入的CheckpointMapper对象.
 	 * 用于获取试题的测试点.
@@ -157,4 +236,10 @@ public class Preprocessor {
 	 */
 	@Value("${judger.checkpointDir}")
 	private String checkpointDirectory;
+	
+	/**
+	 * 已被预先抓取评测数据的试题.
+	 * Map中的Key表示试题的唯一标识符, Value表示评测数据的过期时间(ms).
+	 */
+	private final Map<Long, Long> stagedTestPoints = new ConcurrentHashMap<>();
 }
@@ -6,6 +6,7 @@ import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Result;
 import org.apache.ibatis.annotations.Results;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 import org.verwandlung.voj.judger.model.Problem;
 
@@ -26,8 +27,8 @@ public interface ProblemMapper {
 		 @Result(property = "problemId", column = "problem_id"),
 		 @Result(property = "isPublic", column = "problem_is_public"),
 		 @Result(property = "problemName", column = "problem_name"),
-		 @Result(property = "totalSubmission", column = "total_submission"),
-		 @Result(property = "acceptedSubmission", column = "accepted_submission"),
+		 @Result(property = "totalSubmission", column = "problem_total_submission"),
+		 @Result(property = "acceptedSubmission", column = "problem_accepted_submission"),
 		 @Result(property = "timeLimit", column = "problem_time_limit"),
 		 @Result(property = "memoryLimit", column = "problem_memory_limit"),
 		 @Result(property = "description", column = "problem_description"),
@@ -38,4 +39,14 @@ public interface ProblemMapper {
 		 @Result(property = "hint", column = "problem_hint")
 	})
 	Problem getProblem(@Param("problemId") long problemId);
+	
+	/**
+	 * 更新试题的通过次数.
+	 * 评测机不使用试题的统计信息, 因此该操作不会刷新缓存.
+	 * @param problemId - 试题的唯一标识符
+	 * @param acceptedSubmissionDelta - 通过次数的增量
+	 */
+	@Update("UPDATE voj_problems SET problem_accepted_submission = problem_accepted_submission + #{acceptedSubmissionDelta} WHERE problem_id = #{problemId}")
+	@Options(flushCache = Options.FlushCachePolicy.FALSE)
+	void updateAcceptedSubmissionOfProblem(@Param("problemId") long problemId, @Param("acceptedSubmissionDelta") int acceptedSubmissionDelta);
 }
@@ -1,6 +1,9 @@
 package org.verwandlung.voj.judger.mapper;
 
+import java.util.List;
+
 import org.apache.ibatis.annotations.CacheNamespace;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.One;
 import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
@@ -12,6 +15,7 @@ import org.apache.ibatis.annotations.Update;
 import org.verwandlung.voj.judger.model.Language;
 import org.verwandlung.voj.judger.model.Problem;
 import org.verwandlung.voj.judger.model.Submission;
+import org.verwandlung.voj.judger.util.CompressedTextTypeHandler;
 
 /**
  * Submission Data Access Object.
@@ -24,7 +28,7 @@ public interface SubmissionMapper {
 	 * @param submissionId - 评测记录的唯一标识符
 	 * @return 一个评测记录对象
 	 */
-	@Select("SELECT * FROM voj_submissions WHERE submission_id = #{submissionId}")
+	@Select("SELECT s.*, sc.submission_code, c.submission_judge_log FROM voj_submissions s LEFT JOIN voj_submission_codes sc ON sc.submission_code_hash = s.submission_code_hash LEFT JOIN voj_submission_contents c ON c.submission_id = s.submission_id WHERE s.submission_id = #{submissionId}")
 	@Options(useCache = true)
 	@Results({
 		@Result(property = "submissionId", column = "submission_id"),
@@ -37,16 +41,60 @@ public interface SubmissionMapper {
 		@Result(property = "usedMemory", column = "submission_used_memory"),
 		@Result(property = "judgeResultSlug", column = "submission_judge_result"),
 		@Result(property = "judgeScore", column = "submission_judge_score"),
-		@Result(property = "judgeLog", column = "submission_judge_log"),
-		@Result(property = "code", column = "submission_code"),
+		@Result(property = "judgeLog", column = "submission_judge_log", typeHandler = CompressedTextTypeHandler.class),
+		@Result(property = "code", column = "submission_code", typeHandler = CompressedTextTypeHandler.class),
+		@Result(property = "codeHash", column = "submission_code_hash"),
+		@Result(property = "taskQueue", column = "submission_task_queue"),
 	})
 	Submission getSubmission(@Param("submissionId") long submissionId);
 	
+	/**
+	 * 获取评测租约已过期且仍处于等待评测(PD)状态的提交记录.
+	 * 评测机领取评测任务时取得租约, 写入评测结果时释放租约.
+	 * 从未被评测机领取(没有租约)且提交时间早于租约有效时间的提交记录同样被视为租约已过期.
+	 * @param leaseTimeout - 租约的有效时间(秒)
+	 * @param limit - 获取提交记录的最大数量
+	 * @return 提交记录唯一标识符的列表
+	 */
+	@Select("SELECT submission_id FROM voj_submissions WHERE submission_judge_result = 'PD' AND (submission_dispatch_time < NOW() - INTERVAL #{leaseTimeout} SECOND OR (submission_dispatch_time IS NULL AND submission_submit_time < NOW() - INTERVAL #{leaseTimeout} SECOND)) ORDER BY submission_id LIMIT #{limit}")
+	@Options(useCache = false)
+	List<Long> getSubmissionIdsWithExpiredLease(@Param("leaseTimeout") int leaseTimeout, @Param("limit") int limit);
+	
+	/**
+	 * 评测机领取评测任务时取得提交记录的评测租约.
+	 * @param submissionId - 提交记录的唯一标识符
+	 * @param taskQueue - 评测任务所在的消息队列
+	 */
+	@Update("UPDATE voj_submissions SET submission_dispatch_time = NOW(), submission_task_queue = #{taskQueue} WHERE submission_id = #{submissionId}")
+	@Options(flushCache = Options.FlushCachePolicy.TRUE)
+	void acquireSubmissionLease(@Param("submissionId") long submissionId, @Param("taskQueue") String taskQueue);
+	
+	/**
+	 * 续期已过期的评测租约.
+	 * 仅当租约仍处于过期状态时才会续期, 以保证多个评测机同时清理时只有一个评测机重新投递该评测任务.
+	 * @param submissionId - 提交记录的唯一标识符
+	 * @param leaseTimeout - 租约的有效时间(秒)
+	 * @return 续期成功的提交记录数量(0或1)
+	 */
+	@Update("UPDATE voj_submissions SET submission_dispatch_time = NOW() WHERE submission_id = #{submissionId} AND submission_judge_result = 'PD' AND (submission_dispatch_time < NOW() - INTERVAL #{leaseTimeout} SECOND OR (submission_dispatch_time IS NULL AND submission_submit_time < NOW() - INTERVAL #{leaseTimeout} SECOND))")
+	@Options(flushCache = Options.FlushCachePolicy.TRUE)
+	int renewExpiredSubmissionLease(@Param("submissionId") long submissionId, @Param("leaseTimeout") int leaseTimeout);
+	
 	/**
 	 * 更新提交记录.
+	 * 写入评测结果的同时释放评测租约.
 	 * @param submission - 待更新的提交记录对象
 	 */
-	@Update("UPDATE voj_submissions SET problem_id = #{problem.problemId}, uid = #{uid}, language_id = #{language.languageId}, submission_submit_time = #{submitTime}, submission_execute_time = #{executeTime}, submission_used_time = #{usedTime}, submission_used_memory = #{usedMemory}, submission_judge_result = #{judgeResultSlug}, submission_judge_score = #{judgeScore}, submission_judge_log = #{judgeLog}, submission_code = #{code} WHERE submission_id = #{submissionId}")
+	@Update("UPDATE voj_submissions SET problem_id = #{problem.problemId}, uid = #{uid}, language_id = #{language.languageId}, submission_submit_time = #{submitTime}, submission_execute_time = #{executeTime}, submission_used_time = #{usedTime}, submission_used_memory = #{usedMemory}, submission_judge_result = #{judgeResultSlug}, submission_judge_score = #{judgeScore}, submission_dispatch_time = NULL WHERE submission_id = #{submissionId}")
 	@Options(flushCache = Options.FlushCachePolicy.TRUE)
 	void updateSubmission(Submission submission);
+	
+	/**
+	 * 更新提交记录的评测日志.
+	 * 评测日志经压缩后存储在voj_submission_contents表中, 首次评测时创建对应的记录.
+	 * @param submission - 待更新的提交记录对象
+	 */
+	@Insert("INSERT INTO voj_submission_contents(submission_id, submission_judge_log) VALUES (#{submissionId}, #{judgeLog, typeHandler=org.verwandlung.voj.judger.util.CompressedTextTypeHandler}) ON DUPLICATE KEY UPDATE submission_judge_log = VALUES(submission_judge_log)")
+	@Options(flushCache = Options.FlushCachePolicy.TRUE)
+	void updateSubmissionJudgeLog(Submission submission);
 }
@@ -0,0 +1,82 @@
+package org.verwandlung.voj.judger.messenger;
+
+/**
+ * 评测任务优先级通道的调度器.
+ * 使用平滑加权轮询(Smooth Weighted Round-Robin)算法决定各通道的轮询顺序.
+ * 当所有通道都有积压的任务时, 各通道被优先轮询的次数与其权重成正比;
+ * 当被选中的通道没有任务时, 按照通道的优先级依次轮询其他通道, 以避免评测机空闲.
+ *
+ * @author Haozhe Xie
+ */
+public class LaneScheduler {
+	/**
+	 * LaneScheduler的构造函数.
+	 * @param destinationNames - 各通道对应的消息队列名称(按优先级由高到低排列)
+	 * @param weights - 各通道的权重
+	 */
+	public LaneScheduler(String[] destinationNames, int[] weights) {
+		if ( destinationNames.length != weights.length || destinationNames.length == 0 ) {
+			throw new IllegalArgumentException("The number of lanes and weights mismatch.");
+		}
+		this.destinationNames = destinationNames.clone();
+		this.weights = new int[weights.length];
+		this.currentWeights = new int[weights.length];
+
+		for ( int i = 0; i < weights.length; ++ i ) {
+			this.weights[i] = Math.max(weights[i], 1);
+			this.totalWeight += this.weights[i];
+		}
+	}
+
+	/**
+	 * 获取下一轮的轮询顺序.
+	 * @return 按轮询顺序排列的消息队列名称
+	 */
+	public synchronized String[] getPollingOrder() {
+		int selectedLane = 0;
+		for ( int i = 0; i < weights.length; ++ i ) {
+			currentWeights[i] += weights[i];
+			if ( currentWeights[i] > currentWeights[selectedLane] ) {
+				selectedLane = i;
+			}
+		}
+		currentWeights[selectedLane] -= totalWeight;
+
+		String[] pollingOrder = new String[destinationNames.length];
+		pollingOrder[0] = destinationNames[selectedLane];
+		for ( int i = 0, j = 1; i < destinationNames.length; ++ i ) {
+			if ( i != selectedLane ) {
+				pollingOrder[j ++] = destinationNames[i];
+			}
+		}
+		return pollingOrder;
+	}
+
+	/**
+	 * 获取优先级最高的通道对应的消息队列名称.
+	 * @return 优先级最高的通道对应的消息队列名称
+	 */
+	public String getHighestPriorityDestinationName() {
+		return destinationNames[0];
+	}
+
+	/**
+	 * 各通道对应的消息队列名称(按优先级由高到低排列).
+	 */
+	private final String[] destinationNames;
+
+	/**
+	 * 各通道的权重.
+	 */
+	private final int[] weights;
+
+	/**
+	 * 各通道当前的动态权重.
+	 */
+	private final int[] currentWeights;
+
+	/**
+	 * 各通道的权重之和.
+	 */
+	private int totalWeight;
+}
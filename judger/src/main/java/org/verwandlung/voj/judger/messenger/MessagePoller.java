@@ -0,0 +1,355 @@
+package org.verwandlung.voj.judger.messenger;
+
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import javax.jms.MapMessage;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import org.verwandlung.voj.judger.application.ApplicationDispatcher;
+
+/**
+ * 评测任务的拉取服务.
+ * 按权重轮流从比赛, 练习和重新评测三个优先级通道的消息队列中拉取评测任务,
+ * 使得大批量的重新评测不会影响比赛中提交的评测延迟.
+ *
+ * 评测机在完成当前评测任务之后才会拉取下一个评测任务,
+ * 因此需要将消息队列的预取数量(prefetch)设置为0.
+ * 评测任务的分配仅依赖于此: 忙碌的评测机不会拉取新的任务, Web模块也不会按评测机的负载指定评测机;
+ * 消息选择器仅用于筛选评测机支持的编程语言.
+ * 评测任务在评测结果写入数据库后才被确认, 评测失败的任务将被重新投递,
+ * 超过最大投递次数后转入死信队列.
+ *
+ * @author Haozhe Xie
+ */
+@Component
+public class MessagePoller implements Runnable {
+	/**
+	 * 设置消息选择器.
+	 * @param messageSelector - 消息队列的消息选择器
+	 */
+	public void setMessageSelector(String messageSelector) {
+		this.messageSelector = messageSelector;
+	}
+
+	/**
+	 * 启动拉取评测任务的线程.
+	 */
+	public synchronized void start() {
+		if ( pollerThread != null ) {
+			return;
+		}
+		laneScheduler = new LaneScheduler(
+				new String[] { CONTEST_TASK_QUEUE, PRACTICE_TASK_QUEUE, REJUDGE_TASK_QUEUE },
+				new int[] { contestLaneWeight, practiceLaneWeight, rejudgeLaneWeight });
+		isRunning = true;
+		pollerThread = new Thread(this, "MessagePoller");
+		pollerThread.start();
+		LOGGER.info(String.format("Message poller started with weights [Contest = %d, Practice = %d, Rejudge = %d].",
+				new Object[] { contestLaneWeight, practiceLaneWeight, rejudgeLaneWeight }));
+	}
+
+	/**
+	 * 停止拉取评测任务.
+	 * 正在进行的评测任务不会被中断.
+	 */
+	public void stop() {
+		isRunning = false;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void run() {
+		while ( isRunning ) {
+			try {
+				if ( session == null ) {
+					openSession();
+				}
+				Message message = receive();
+				if ( message != null ) {
+					handleMessage(message);
+				}
+			} catch ( JMSException ex ) {
+				LOGGER.catching(ex);
+				closeSession();
+				try {
+					Thread.sleep(RECONNECT_INTERVAL);
+				} catch ( InterruptedException e ) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+		}
+		closeSession();
+	}
+
+	/**
+	 * 建立与消息队列的连接, 并为每个优先级通道创建消费者.
+	 * 使用客户端确认(CLIENT_ACKNOWLEDGE)模式, 在评测结果写入数据库后才确认消息.
+	 * 若评测机在评测过程中退出, 未确认的消息将被重新投递给其他评测机.
+	 * @throws JMSException
+	 */
+	private void openSession() throws JMSException {
+		connection = connectionFactory.createConnection();
+		connection.start();
+		session = connection.createSession(false, Session.CLIENT_ACKNOWLEDGE);
+
+		for ( String destinationName : new String[] { CONTEST_TASK_QUEUE, PRACTICE_TASK_QUEUE, REJUDGE_TASK_QUEUE } ) {
+			consumers.put(destinationName, session.createConsumer(session.createQueue(destinationName), messageSelector));
+		}
+	}
+
+	/**
+	 * 关闭与消息队列的连接.
+	 * 未确认的消息将被重新投递.
+	 */
+	private void closeSession() {
+		if ( connection != null ) {
+			try {
+				connection.close();
+			} catch ( JMSException ex ) {
+				LOGGER.catching(ex);
+			}
+		}
+		consumers.clear();
+		session = null;
+		connection = null;
+	}
+
+	/**
+	 * 从各优先级通道中拉取一个评测任务.
+	 * 若所有通道均没有评测任务, 则在优先级最高的通道上等待一段时间.
+	 * @return 拉取到的消息, 若没有评测任务则返回空引用
+	 * @throws JMSException
+	 */
+	private Message receive() throws JMSException {
+		for ( String destinationName : laneScheduler.getPollingOrder() ) {
+			Message message = consumers.get(destinationName).receiveNoWait();
+			if ( message != null ) {
+				return message;
+			}
+		}
+		return consumers.get(laneScheduler.getHighestPriorityDestinationName()).receive(IDLE_RECEIVE_TIMEOUT);
+	}
+
+	/**
+	 * 处理评测任务.
+	 * 评测完成后确认消息; 评测失败时重新投递消息, 
+	 * 超过最大投递次数后将消息转入死信队列, 并将提交记录标记为系统错误.
+	 * @param message - 评测任务对应的消息
+	 * @throws JMSException
+	 */
+	private void handleMessage(Message message) throws JMSException {
+		try {
+			messageReceiver.handleMessage(message);
+			message.acknowledge();
+			return;
+		} catch ( InterruptedException ex ) {
+			LOGGER.catching(ex);
+			Thread.currentThread().interrupt();
+			isRunning = false;
+			return;
+		} catch ( Exception ex ) {
+			LOGGER.catching(ex);
+
+			int deliveryCount = getDeliveryCount(message);
+			if ( deliveryCount < maxDeliveries ) {
+				LOGGER.warn(String.format("Task %s failed at delivery #%d, it will be redelivered.",
+						new Object[] { message.getJMSMessageID(), deliveryCount }));
+				session.recover();
+			} else {
+				sendToDeadLetterQueue(message, deliveryCount, ex);
+				message.acknowledge();
+			}
+		}
+	}
+
+	/**
+	 * 获取消息的投递次数.
+	 * @param message - 消息队列中的消息
+	 * @return 消息的投递次数(首次投递为1)
+	 * @throws JMSException
+	 */
+	private int getDeliveryCount(Message message) throws JMSException {
+		if ( message.propertyExists("JMSXDeliveryCount") ) {
+			return message.getIntProperty("JMSXDeliveryCount");
+		}
+		return message.getJMSRedelivered() ? 2 : 1;
+	}
+
+	/**
+	 * 将无法完成评测的任务转入死信队列, 并将对应的提交记录标记为系统错误.
+	 * @param message - 评测任务对应的消息
+	 * @param deliveryCount - 消息的投递次数
+	 * @param cause - 导致评测失败的异常
+	 * @throws JMSException
+	 */
+	private void sendToDeadLetterQueue(Message message, int deliveryCount, Exception cause) throws JMSException {
+		Map<String, Object> mapMessage = new HashMap<>();
+		mapMessage.put("destination", String.valueOf(message.getJMSDestination()));
+		mapMessage.put("deliveryCount", deliveryCount);
+		mapMessage.put("error", String.valueOf(cause));
+		mapMessage.put("languageSlug", message.getStringProperty("languageSlug"));
+
+		if ( message instanceof MapMessage ) {
+			MapMessage originalMessage = (MapMessage) message;
+			for ( Enumeration<?> itr = originalMessage.getMapNames(); itr.hasMoreElements(); ) {
+				String key = (String) itr.nextElement();
+				mapMessage.put(key, originalMessage.getObject(key));
+			}
+		}
+		messageSender.sendMessage(DEAD_LETTER_QUEUE, mapMessage);
+		LOGGER.error(String.format("Task %s has been moved to the dead letter queue after %d deliveries.",
+				new Object[] { message.getJMSMessageID(), deliveryCount }));
+
+		Object submissionId = mapMessage.get("submissionId");
+		if ( submissionId instanceof Long ) {
+			try {
+				applicationDispatcher.onErrorOccurred((Long) submissionId);
+			} catch ( Exception ex ) {
+				LOGGER.catching(ex);
+			}
+		}
+	}
+
+	/**
+	 * 拉取评测任务的线程.
+	 */
+	private Thread pollerThread;
+
+	/**
+	 * 是否继续拉取评测任务.
+	 */
+	private volatile boolean isRunning = false;
+
+	/**
+	 * 评测任务优先级通道的调度器.
+	 */
+	private LaneScheduler laneScheduler;
+
+	/**
+	 * 与消息队列的连接.
+	 */
+	private Connection connection;
+
+	/**
+	 * 使用客户端确认模式的JMS会话.
+	 */
+	private Session session;
+
+	/**
+	 * 各优先级通道的消费者.
+	 * Map中的Key表示消息队列名称.
+	 */
+	private final Map<String, MessageConsumer> consumers = new HashMap<>();
+
+	/**
+	 * 消息队列的消息选择器.
+	 */
+	private volatile String messageSelector;
+
+	/**
+	 * 比赛通道的权重.
+	 */
+	@Value("${judger.lane.contestWeight}")
+	private int contestLaneWeight;
+
+	/**
+	 * 练习通道的权重.
+	 */
+	@Value("${judger.lane.practiceWeight}")
+	private int practiceLaneWeight;
+
+	/**
+	 * 重新评测通道的权重.
+	 */
+	@Value("${judger.lane.rejudgeWeight}")
+	private int rejudgeLaneWeight;
+
+	/**
+	 * 评测任务的最大投递次数.
+	 * 超过该次数仍未完成评测的任务将被转入死信队列.
+	 */
+	@Value("${judger.maxDeliveries}")
+	private int maxDeliveries;
+
+	/**
+	 * 自动注入的ConnectionFactory对象.
+	 * 用于建立与消息队列的连接.
+	 */
+	@Autowired
+	@Qualifier("amqConnectionFactory")
+	private ConnectionFactory connectionFactory;
+
+	/**
+	 * 自动注入的MessageReceiver对象.
+	 * 用于处理拉取到的评测任务.
+	 */
+	@Autowired
+	private MessageReceiver messageReceiver;
+
+	/**
+	 * 自动注入的MessageSender对象.
+	 * 用于将无法完成评测的任务转入死信队列.
+	 */
+	@Autowired
+	private MessageSender messageSender;
+
+	/**
+	 * 自动注入的ApplicationDispatcher对象.
+	 * 用于将无法完成评测的提交记录标记为系统错误.
+	 */
+	@Autowired
+	private ApplicationDispatcher applicationDispatcher;
+
+	/**
+	 * 比赛通道对应的消息队列名称.
+	 */
+	static final String CONTEST_TASK_QUEUE = "vojContestSubmissionTaskQueue";
+
+	/**
+	 * 练习通道对应的消息队列名称.
+	 */
+	static final String PRACTICE_TASK_QUEUE = "vojSubmissionTaskQueue";
+
+	/**
+	 * 重新评测通道对应的消息队列名称.
+	 */
+	static final String REJUDGE_TASK_QUEUE = "vojRejudgeTaskQueue";
+
+	/**
+	 * 死信队列的名称.
+	 * 用于存放超过最大投递次数仍未完成评测的任务.
+	 */
+	static final String DEAD_LETTER_QUEUE = "vojSubmissionTaskDeadLetterQueue";
+
+	/**
+	 * 所有通道均没有评测任务时的等待时间(ms).
+	 */
+	private static final long IDLE_RECEIVE_TIMEOUT = 200;
+
+	/**
+	 * 与消息队列的连接断开后重新连接的间隔(ms).
+	 */
+	private static final long RECONNECT_INTERVAL = 5000;
+
+	/**
+	 * 日志记录器.
+	 */
+	private static final Logger LOGGER = LogManager.getLogger(MessagePoller.class);
+}
@@ -1,9 +1,14 @@
 package org.verwandlung.voj.judger.messenger;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jms.Destination;
 import javax.jms.JMSException;
 import javax.jms.MapMessage;
 import javax.jms.Message;
 import javax.jms.MessageListener;
+import javax.jms.Queue;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -11,6 +16,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import org.verwandlung.voj.judger.application.ApplicationDispatcher;
+import org.verwandlung.voj.judger.application.ApplicationMetrics;
+import org.verwandlung.voj.judger.application.ApplicationMetrics.Stage;
+import org.verwandlung.voj.judger.exception.IllgealSubmissionException;
 
 /**
  * 消息接收服务.
@@ -22,20 +30,36 @@ public class MessageReceiver implements MessageListener {
 	 * @see javax.jms.MessageListener#onMessage(javax.jms.Message)
 	 */
 	public void onMessage(Message message) {
+		try {
+			handleMessage(message);
+		} catch (Exception ex) {
+			LOGGER.catching(ex);
+		}
+	}
+	
+	/**
+	 * 处理消息队列中收到的消息.
+	 * 与onMessage()不同, 处理过程中的异常将被抛出, 以便调用者决定是否重新投递该消息.
+	 * @param message - 消息队列中收到的消息
+	 * @throws JMSException
+	 * @throws IllgealSubmissionException
+	 * @throws InterruptedException
+	 */
+	public void handleMessage(Message message) 
+			throws JMSException, IllgealSubmissionException, InterruptedException {
 		if ( message instanceof MapMessage ) {
 			final MapMessage mapMessage = (MapMessage) message;
+			String event = mapMessage.getString("event");
 			
-			try {
-				String event = mapMessage.getString("event");
-				
-				if ( "SubmissionCreated".equals(event) ) {
-					newSubmissionHandler(mapMessage);
-				} else {
-					LOGGER.warn(String.format("Unknown Event Received. [Event = %s]", 
-							new Object[] { event }));
-				}
-			} catch (Exception ex) {
-				LOGGER.catching(ex);
+			if ( "SubmissionCreated".equals(event) ) {
+				newSubmissionHandler(mapMessage);
+			} else if ( "ContestStarting".equals(event) ) {
+				contestStartingHandler(mapMessage);
+			} else if ( "ProblemUpdated".equals(event) ) {
+				dispatcher.onProblemUpdated(mapMessage.getLong("problemId"));
+			} else {
+				LOGGER.warn(String.format("Unknown Event Received. [Event = %s]", 
+						new Object[] { event }));
 			}
 		}
 	}
@@ -44,13 +68,56 @@ public class MessageReceiver implements MessageListener {
 	 * 处理新提交请求.
 	 * @param mapMessage - 消息队列中收到的MapMessage对象
 	 * @throws JMSException
+	 * @throws IllgealSubmissionException
+	 * @throws InterruptedException
 	 */
-	private void newSubmissionHandler(MapMessage mapMessage) throws JMSException {
+	private void newSubmissionHandler(MapMessage mapMessage) 
+			throws JMSException, IllgealSubmissionException, InterruptedException {
 		long submissionId = mapMessage.getLong("submissionId");
 		LOGGER.info(String.format("Received new submission task #%d", 
 						new Object[] {submissionId}));
 		
-		dispatcher.onSubmissionCreated(submissionId);
+		long enqueueTime = mapMessage.getJMSTimestamp();
+		if ( enqueueTime > 0 && !mapMessage.getJMSRedelivered() ) {
+			long queueWaitTime = System.currentTimeMillis() - enqueueTime;
+			applicationMetrics.recordLatencyInMicroseconds(Stage.QUEUE_WAIT, queueWaitTime * 1000);
+		}
+		dispatcher.onSubmissionCreated(submissionId, getQueueName(mapMessage));
+	}
+	
+	/**
+	 * 获取消息所在的消息队列的名称.
+	 * @param message - 消息队列中收到的消息
+	 * @return 消息队列的名称(消息不来自消息队列时返回空引用)
+	 * @throws JMSException
+	 */
+	private String getQueueName(Message message) throws JMSException {
+		Destination destination = message.getJMSDestination();
+		if ( destination instanceof Queue ) {
+			return ((Queue) destination).getQueueName();
+		}
+		return null;
+	}
+	
+	/**
+	 * 处理比赛即将开始的消息.
+	 * 该消息由Web应用通过评测机订阅的主题(Topic)广播, 所有评测机均会收到.
+	 * @param mapMessage - 消息队列中收到的MapMessage对象
+	 * @throws JMSException
+	 */
+	private void contestStartingHandler(MapMessage mapMessage) throws JMSException {
+		long contestId = mapMessage.getLong("contestId");
+		long expireTime = mapMessage.getLong("contestEndTime");
+		LOGGER.info(String.format("Contest #%d is starting, staging test points.", 
+						new Object[] {contestId}));
+		
+		List<Long> problemIds = new ArrayList<>();
+		for ( String problemId : mapMessage.getString("problemIds").split(",") ) {
+			if ( !problemId.trim().isEmpty() ) {
+				problemIds.add(Long.parseLong(problemId.trim()));
+			}
+		}
+		dispatcher.onContestStarting(problemIds, expireTime);
 	}
 	
 	/**
@@ -60,6 +127,13 @@ public class MessageReceiver implements MessageListener {
 	@Autowired
 	private ApplicationDispatcher dispatcher;
 	
+	/**
+	 * 自动注入的ApplicationMetrics对象.
+	 * 用于记录评测任务在消息队列中的等待时间.
+	 */
+	@Autowired
+	private ApplicationMetrics applicationMetrics;
+	
 	/**
 	 * 日志记录器.
 	 */
@@ -2,10 +2,17 @@ package org.verwandlung.voj.judger.messenger;
 
 import java.util.Map;
 
+import javax.jms.JMSException;
+import javax.jms.Message;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.MessagePostProcessor;
 import org.springframework.stereotype.Component;
 
+import org.verwandlung.voj.judger.application.ApplicationMetrics;
+import org.verwandlung.voj.judger.application.ApplicationMetrics.Stage;
+
 /**
  * 消息发送服务.
  * @author Haozhe Xie
@@ -17,7 +24,28 @@ public class MessageSender {
 	 * @param mapMessage - Key-Value格式的消息
 	 */
 	public void sendMessage(final Map<String, Object> mapMessage) {
+		long startTime = System.nanoTime();
 		jmsTemplate.convertAndSend(mapMessage);
+		applicationMetrics.recordLatency(Stage.MESSAGE_SEND, startTime);
+	}
+
+	/**
+	 * 发送消息至指定的消息队列.
+	 * 用于重新投递评测任务, 因此会保留评测任务的编程语言属性.
+	 * @param destinationName - 消息队列的名称
+	 * @param mapMessage - Key-Value格式的消息
+	 */
+	public void sendMessage(String destinationName, final Map<String, Object> mapMessage) {
+		jmsTemplate.convertAndSend(destinationName, mapMessage, new MessagePostProcessor() {
+			@Override
+			public Message postProcessMessage(Message message) throws JMSException {
+				Object languageSlug = mapMessage.get("languageSlug");
+				if ( languageSlug != null ) {
+					message.setStringProperty("languageSlug", (String) languageSlug);
+				}
+				return message;
+			}
+		});
 	}
 
 	/**
@@ -26,4 +54,11 @@ public class MessageSender {
 	 */
 	@Autowired
 	private JmsTemplate jmsTemplate;
+
+	/**
+	 * 自动注入的ApplicationMetrics对象.
+	 * 用于记录消息发送的耗时.
+	 */
+	@Autowired
+	private ApplicationMetrics applicationMetrics;
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package org.verwandlung.voj.judger.messenger;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import org.verwandlung.voj.judger.mapper.SubmissionMapper;
+import org.verwandlung.voj.judger.model.Submission;
+
+/**
+ * 滞留提交记录的清理服务.
+ * 评测机领取评测任务时取得提交记录的评测租约, 写入评测结果时释放租约.
+ * 评测任务可能因消息队列故障或评测机在确认消息前退出等原因丢失,
+ * 使得提交记录的租约过期后仍处于等待评测(PD)状态.
+ * 在被任何评测机领取之前丢失的评测任务没有租约, 其提交时间早于租约有效时间时同样被视为滞留.
+ * 评测机启动时检查这些提交记录, 并将评测任务重新投递至其原来所在的消息队列.
+ *
+ * @author Haozhe Xie
+ */
+@Component
+public class StaleSubmissionSweeper {
+	/**
+	 * 将滞留的提交记录重新加入消息队列.
+	 * @return 重新加入消息队列的提交记录数量
+	 */
+	public int sweep() {
+		List<Long> staleSubmissionIds = submissionMapper.getSubmissionIdsWithExpiredLease(
+				submissionLeaseTimeout, MAX_SUBMISSIONS_PER_SWEEP);
+		if ( staleSubmissionIds.isEmpty() ) {
+			return 0;
+		}
+
+		int numberOfRequeuedSubmissions = 0;
+		for ( long submissionId : staleSubmissionIds ) {
+			// 续期失败说明该提交记录已被评测或已被其他评测机重新投递
+			if ( submissionMapper.renewExpiredSubmissionLease(submissionId, submissionLeaseTimeout) == 0 ) {
+				continue;
+			}
+			Submission submission = submissionMapper.getSubmission(submissionId);
+			if ( submission == null ) {
+				continue;
+			}
+			String taskQueue = submission.getTaskQueue();
+			if ( taskQueue == null ) {
+				taskQueue = MessagePoller.PRACTICE_TASK_QUEUE;
+			}
+			Map<String, Object> mapMessage = new HashMap<>();
+			mapMessage.put("event", "SubmissionCreated");
+			mapMessage.put("submissionId", submissionId);
+			mapMessage.put("languageSlug", submission.getLanguage().getLanguageSlug());
+			messageSender.sendMessage(taskQueue, mapMessage);
+			++ numberOfRequeuedSubmissions;
+		}
+		LOGGER.info(String.format("%d stale submission(s) found, %d of them requeued.",
+				new Object[] { staleSubmissionIds.size(), numberOfRequeuedSubmissions }));
+		return numberOfRequeuedSubmissions;
+	}
+
+	/**
+	 * 评测租约的有效时间(秒).
+	 * 应大于单个评测任务的最长评测时间, 租约过期的提交记录被视为滞留的提交记录.
+	 */
+	@Value("${judger.submissionLeaseTimeout}")
+	private int submissionLeaseTimeout;
+
+	/**
+	 * 自动注入的SubmissionMapper对象.
+	 * 用于获取滞留的提交记录.
+	 */
+	@Autowired
+	private SubmissionMapper submissionMapper;
+
+	/**
+	 * 自动注入的MessageSender对象.
+	 * 用于将滞留的提交记录重新加入消息队列.
+	 */
+	@Autowired
+	private MessageSender messageSender;
+
+	/**
+	 * 每次清理的最大提交记录数量.
+	 */
+	private static final int MAX_SUBMISSIONS_PER_SWEEP = 1000;
+
+	/**
+	 * 日志记录器.
+	 */
+	private static final Logger LOGGER = LogManager.getLogger(StaleSubmissionSweeper.class);
+}
@@ -239,6 +239,38 @@ public class Submission implements Serializable {
 		this.code = code;
 	}
 	
+	/**
+	 * 获取评测所执行的代码的SHA-256摘要.
+	 * @return 代码的SHA-256摘要
+	 */
+	public String getCodeHash() {
+		return codeHash;
+	}
+	
+	/**
+	 * 设置评测所执行的代码的SHA-256摘要.
+	 * @param codeHash - 代码的SHA-256摘要
+	 */
+	public void setCodeHash(String codeHash) {
+		this.codeHash = codeHash;
+	}
+	
+	/**
+	 * 获取评测任务最近一次被评测机领取时所在的消息队列.
+	 * @return 消息队列的名称
+	 */
+	public String getTaskQueue() {
+		return taskQueue;
+	}
+	
+	/**
+	 * 设置评测任务最近一次被评测机领取时所在的消息队列.
+	 * @param taskQueue - 消息队列的名称
+	 */
+	public void setTaskQueue(String taskQueue) {
+		this.taskQueue = taskQueue;
+	}
+	
 	/* (non-Javadoc)
 	 * @see java.lang.Object#toString()
 	 */
@@ -311,6 +343,17 @@ public class Submission implements Serializable {
 	 */
 	private String code;
 	
+	/**
+	 * 评测所执行的代码的SHA-256摘要.
+	 * 相同的代码具有相同的摘要.
+	 */
+	private String codeHash;
+	
+	/**
+	 * 评测任务最近一次被评测机领取时所在的消息队列.
+	 */
+	private String taskQueue;
+	
 	/**
 	 * 唯一的序列化标识符.
 	 */
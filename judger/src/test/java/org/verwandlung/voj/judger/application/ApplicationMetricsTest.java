@@ -0,0 +1,64 @@
+package org.verwandlung.voj.judger.application;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.verwandlung.voj.judger.application.ApplicationMetrics.Stage;
+
+/**
+ * ApplicationMetrics的测试类.
+ *
+ * @author Haozhe Xie
+ */
+public class ApplicationMetricsTest {
+	/**
+	 * 测试用例: 测试recordLatencyInMicroseconds(Stage, long)方法
+	 * 测试数据: 编译阶段耗时分别为1ms, 2ms, 3ms
+	 * 预期结果: 编译阶段记录3个样本, 且最大值约为3ms
+	 */
+	@Test
+	public void testRecordLatency() {
+		ApplicationMetrics metrics = new ApplicationMetrics();
+		metrics.recordLatencyInMicroseconds(Stage.COMPILE, 1000);
+		metrics.recordLatencyInMicroseconds(Stage.COMPILE, 2000);
+		metrics.recordLatencyInMicroseconds(Stage.COMPILE, 3000);
+
+		Assert.assertEquals(3, metrics.getLatencySnapshot(Stage.COMPILE).getTotalCount());
+		Assert.assertEquals(3000, metrics.getLatencySnapshot(Stage.COMPILE).getMaxValue(), 3);
+		Assert.assertEquals(0, metrics.getLatencySnapshot(Stage.RUN).getTotalCount());
+	}
+
+	/**
+	 * 测试用例: 测试onVerdict(String, String)方法
+	 * 测试数据: C++语言的2次AC和1次WA
+	 * 预期结果: 分别统计各语言的评测结果
+	 */
+	@Test
+	public void testOnVerdict() {
+		ApplicationMetrics metrics = new ApplicationMetrics();
+		metrics.onVerdict("cpp", "AC");
+		metrics.onVerdict("cpp", "AC");
+		metrics.onVerdict("cpp", "WA");
+
+		Assert.assertEquals(Long.valueOf(2), metrics.getVerdicts().get("cpp|AC"));
+		Assert.assertEquals(Long.valueOf(1), metrics.getVerdicts().get("cpp|WA"));
+		Assert.assertTrue(metrics.export(1).contains("voj_judger_verdicts_total{language=\"cpp\",result=\"AC\"} 2"));
+	}
+
+	/**
+	 * 测试用例: 测试onTaskStarted()和onTaskFinished(long)方法
+	 * 测试数据: 开始并结束一个评测任务
+	 * 预期结果: 正在进行的任务数归零, 已完成的任务数为1
+	 */
+	@Test
+	public void testTaskLifecycle() {
+		ApplicationMetrics metrics = new ApplicationMetrics();
+		long startTime = System.nanoTime();
+		metrics.onTaskStarted();
+		Assert.assertEquals(1, metrics.getActiveTasks());
+
+		metrics.onTaskFinished(startTime);
+		Assert.assertEquals(0, metrics.getActiveTasks());
+		Assert.assertEquals(1, metrics.getFinishedTasks());
+	}
+}
@@ -71,6 +71,29 @@ public class CompilerTest {
 		Assert.assertEquals(false, result.get("isSuccessful"));
 	}
 	
+	/**
+	 * 测试用例: 测试getCompileResult()方法
+	 * 测试数据: 再次编译已编译失败的C++代码, 且不创建代码文件
+	 * 预期结果: 直接返回缓存的编译日志, 其中的文件路径和工作目录为本次编译的路径
+	 */
+	@Test
+	public void testGetCompileResultCppWithCachedError() throws Exception {
+		String workDirectory = workBaseDirectory + "/voj-1002";
+		String baseFileName = "random-name";
+		Submission submission = submissionMapper.getSubmission(1002);
+		preprocessor.createTestCode(submission, workDirectory, baseFileName);
+		Map<String, Object> result = compiler.getCompileResult(submission, workDirectory, baseFileName);
+		String compileLog = (String) result.get("log");
+		
+		String anotherWorkDirectory = workBaseDirectory + "/voj-1003";
+		String anotherBaseFileName = "another-name";
+		result = compiler.getCompileResult(submission, anotherWorkDirectory, anotherBaseFileName);
+		Assert.assertEquals(false, result.get("isSuccessful"));
+		Assert.assertEquals(compileLog.replace(workDirectory + "/" + baseFileName, 
+				anotherWorkDirectory + "/" + anotherBaseFileName)
+				.replace(workDirectory, anotherWorkDirectory), result.get("log"));
+	}
+	
 	/**
 	 * 待测试的Compiler对象.
 	 */
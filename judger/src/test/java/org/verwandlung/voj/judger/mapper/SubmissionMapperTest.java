@@ -1,5 +1,7 @@
 package org.verwandlung.voj.judger.mapper;
 
+import java.util.List;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -30,6 +32,8 @@ public class SubmissionMapperTest {
 		
 		long problemId = submission.getProblem().getProblemId();
 		Assert.assertEquals(1000, problemId);
+		Assert.assertTrue(submission.getCode().startsWith("#include <iostream>"));
+		Assert.assertEquals("5371c978f5df4fb3d86a95256ff24b79f8c80eb6ad3bc7cfa2a1d9f6ee2bffb3", submission.getCodeHash());
 	}
 	
 	/**
@@ -43,6 +47,103 @@ public class SubmissionMapperTest {
 		Assert.assertNull(submission);
 	}
 	
+	/**
+	 * 测试用例: 测试acquireSubmissionLease(long, String)方法
+	 * 测试数据: 提交记录#1000及练习评测任务队列
+	 * 预期结果: 重新获取的提交记录包含评测任务所在的消息队列
+	 */
+	@Test
+	public void testAcquireSubmissionLease() {
+		submissionMapper.acquireSubmissionLease(1000, "vojSubmissionTaskQueue");
+		
+		Submission submission = submissionMapper.getSubmission(1000);
+		Assert.assertEquals("vojSubmissionTaskQueue", submission.getTaskQueue());
+	}
+	
+	/**
+	 * 测试用例: 测试getSubmissionIdsWithExpiredLease(int, int)方法
+	 * 测试数据: 将提交记录#1000的评测结果设置为PD并取得评测租约
+	 * 预期结果: 租约过期时返回的列表中仅包含提交记录#1000, 租约未过期时返回空列表
+	 */
+	@Test
+	public void testGetSubmissionIdsWithExpiredLease() {
+		Submission submission = submissionMapper.getSubmission(1000);
+		submission.setJudgeResultSlug("PD");
+		submissionMapper.updateSubmission(submission);
+		submissionMapper.acquireSubmissionLease(1000, "vojSubmissionTaskQueue");
+		
+		List<Long> submissionIds = submissionMapper.getSubmissionIdsWithExpiredLease(-60, 10);
+		Assert.assertEquals(1, submissionIds.size());
+		Assert.assertEquals(Long.valueOf(1000), submissionIds.get(0));
+		
+		submissionIds = submissionMapper.getSubmissionIdsWithExpiredLease(600, 10);
+		Assert.assertEquals(0, submissionIds.size());
+	}
+	
+	/**
+	 * 测试用例: 测试getSubmissionIdsWithExpiredLease(int, int)方法
+	 * 测试数据: 将提交记录#1000的评测结果设置为PD, 但从未被评测机领取(没有评测租约)
+	 * 预期结果: 提交时间早于租约有效时间, 返回的列表中仅包含提交记录#1000
+	 */
+	@Test
+	public void testGetSubmissionIdsWithExpiredLeaseWithoutDispatch() {
+		Submission submission = submissionMapper.getSubmission(1000);
+		submission.setJudgeResultSlug("PD");
+		submissionMapper.updateSubmission(submission);
+		
+		List<Long> submissionIds = submissionMapper.getSubmissionIdsWithExpiredLease(600, 10);
+		Assert.assertEquals(1, submissionIds.size());
+		Assert.assertEquals(Long.valueOf(1000), submissionIds.get(0));
+	}
+	
+	/**
+	 * 测试用例: 测试renewExpiredSubmissionLease(long, int)方法
+	 * 测试数据: 将提交记录#1000的评测结果设置为PD, 但从未被评测机领取(没有评测租约)
+	 * 预期结果: 第一次续期成功, 续期后租约未过期, 再次续期失败
+	 */
+	@Test
+	public void testRenewExpiredSubmissionLeaseWithoutDispatch() {
+		Submission submission = submissionMapper.getSubmission(1000);
+		submission.setJudgeResultSlug("PD");
+		submissionMapper.updateSubmission(submission);
+		
+		Assert.assertEquals(1, submissionMapper.renewExpiredSubmissionLease(1000, 600));
+		Assert.assertEquals(0, submissionMapper.renewExpiredSubmissionLease(1000, 600));
+	}
+	
+	/**
+	 * 测试用例: 测试renewExpiredSubmissionLease(long, int)方法
+	 * 测试数据: 将提交记录#1000的评测结果设置为PD并取得评测租约
+	 * 预期结果: 租约过期时续期成功, 写入评测结果(释放租约)后续期失败
+	 */
+	@Test
+	public void testRenewExpiredSubmissionLease() {
+		Submission submission = submissionMapper.getSubmission(1000);
+		submission.setJudgeResultSlug("PD");
+		submissionMapper.updateSubmission(submission);
+		submissionMapper.acquireSubmissionLease(1000, "vojSubmissionTaskQueue");
+		Assert.assertEquals(1, submissionMapper.renewExpiredSubmissionLease(1000, -60));
+		
+		submission.setJudgeResultSlug("AC");
+		submissionMapper.updateSubmission(submission);
+		Assert.assertEquals(0, submissionMapper.renewExpiredSubmissionLease(1000, -60));
+	}
+	
+	/**
+	 * 测试用例: 测试updateSubmissionJudgeLog(Submission)方法
+	 * 测试数据: 提交记录#1000的新评测日志
+	 * 预期结果: 重新获取的提交记录包含新的评测日志
+	 */
+	@Test
+	public void testUpdateSubmissionJudgeLog() {
+		Submission submission = submissionMapper.getSubmission(1000);
+		submission.setJudgeLog("Compile Error.");
+		submissionMapper.updateSubmissionJudgeLog(submission);
+		
+		submission = submissionMapper.getSubmission(1000);
+		Assert.assertEquals("Compile Error.", submission.getJudgeLog());
+	}
+	
 	/**
 	 * 待测试的SubmissionMapper对象.
 	 */
@@ -0,0 +1,50 @@
+package org.verwandlung.voj.judger.messenger;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * LaneScheduler的测试类.
+ *
+ * @author Haozhe Xie
+ */
+public class LaneSchedulerTest {
+	/**
+	 * 测试用例: 测试getPollingOrder()方法
+	 * 测试数据: 权重分别为8, 4, 1的三个通道, 轮询13次
+	 * 预期结果: 各通道被优先轮询的次数分别为8, 4, 1
+	 */
+	@Test
+	public void testGetPollingOrderWithWeights() {
+		LaneScheduler laneScheduler = new LaneScheduler(
+				new String[] { "contest", "practice", "rejudge" }, new int[] { 8, 4, 1 });
+		Map<String, Integer> numberOfSelections = new HashMap<>();
+
+		for ( int i = 0; i < 13; ++ i ) {
+			String destinationName = laneScheduler.getPollingOrder()[0];
+			Integer count = numberOfSelections.get(destinationName);
+			numberOfSelections.put(destinationName, count == null ? 1 : count + 1);
+		}
+		Assert.assertEquals(Integer.valueOf(8), numberOfSelections.get("contest"));
+		Assert.assertEquals(Integer.valueOf(4), numberOfSelections.get("practice"));
+		Assert.assertEquals(Integer.valueOf(1), numberOfSelections.get("rejudge"));
+	}
+
+	/**
+	 * 测试用例: 测试getPollingOrder()方法
+	 * 测试数据: 权重分别为1, 1, 1的三个通道
+	 * 预期结果: 未被选中的通道按照优先级排列在被选中的通道之后
+	 */
+	@Test
+	public void testGetPollingOrderFallback() {
+		LaneScheduler laneScheduler = new LaneScheduler(
+				new String[] { "contest", "practice", "rejudge" }, new int[] { 1, 1, 1 });
+
+		Assert.assertArrayEquals(new String[] { "contest", "practice", "rejudge" }, laneScheduler.getPollingOrder());
+		Assert.assertArrayEquals(new String[] { "practice", "contest", "rejudge" }, laneScheduler.getPollingOrder());
+		Assert.assertArrayEquals(new String[] { "rejudge", "contest", "practice" }, laneScheduler.getPollingOrder());
+	}
+}
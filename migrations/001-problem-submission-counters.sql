@@ -0,0 +1,20 @@
+--
+-- Migration 001: Store the number of total and accepted submissions of each problem.
+-- The web application keeps both counters up to date incrementally and
+-- reconciles them periodically with the submissions.
+--
+
+ALTER TABLE `voj_problems`
+  ADD COLUMN `problem_total_submission` bigint(20) NOT NULL DEFAULT '0' AFTER `problem_name`,
+  ADD COLUMN `problem_accepted_submission` bigint(20) NOT NULL DEFAULT '0' AFTER `problem_total_submission`;
+
+UPDATE `voj_problems` p
+SET `problem_total_submission` = (
+  SELECT COUNT(*)
+  FROM `voj_submissions` s
+  WHERE s.`problem_id` = p.`problem_id`
+), `problem_accepted_submission` = (
+  SELECT COUNT(*)
+  FROM `voj_submissions` s
+  WHERE s.`problem_id` = p.`problem_id` AND s.`submission_judge_result` = 'AC'
+);
@@ -0,0 +1,13 @@
+--
+-- Migration 002: Store the locks of scheduled tasks, so that a scheduled task
+-- runs on only one web node in each period.
+--
+
+CREATE TABLE `voj_scheduled_task_locks` (
+  `task_name` varchar(64) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `locked_by` varchar(255) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `locked_until` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+ALTER TABLE `voj_scheduled_task_locks`
+  ADD PRIMARY KEY (`task_name`);
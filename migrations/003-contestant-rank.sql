@@ -0,0 +1,11 @@
+--
+-- Migration 003: Store the score and time of each contestant, and index them
+-- in the order of the OI ranking for paging the contestants of a contest.
+-- The values are written back by the web application from the in-memory
+-- scoreboard of each contest once the scoreboard has been loaded.
+--
+
+ALTER TABLE `voj_contest_contestants`
+  ADD COLUMN `contestant_score` int(8) NOT NULL DEFAULT '0' AFTER `contestant_uid`,
+  ADD COLUMN `contestant_time` int(8) NOT NULL DEFAULT '0' AFTER `contestant_score`,
+  ADD KEY `contestant_rank` (`contest_id`,`contestant_score` DESC,`contestant_time`,`contestant_uid`);
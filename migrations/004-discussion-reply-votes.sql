@@ -0,0 +1,72 @@
+--
+-- Migration 004: Store the votes of discussion replies as rows, and keep the
+-- number of up and down votes of each reply in counter columns.
+-- The votes are moved out of the JSON column discussion_reply_votes, e.g.
+-- {"up": [1000], "down": [1002]}, which is dropped afterwards.
+-- Votes of users that no longer exist are discarded.
+--
+
+CREATE TABLE `voj_discussion_reply_votes` (
+  `discussion_reply_id` bigint(20) NOT NULL,
+  `discussion_reply_voter_uid` bigint(20) NOT NULL,
+  `discussion_reply_vote` tinyint(1) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+ALTER TABLE `voj_discussion_reply_votes`
+  ADD PRIMARY KEY (`discussion_reply_id`,`discussion_reply_voter_uid`),
+  ADD KEY `discussion_reply_voter_uid` (`discussion_reply_voter_uid`);
+
+ALTER TABLE `voj_discussion_reply_votes`
+  ADD CONSTRAINT `voj_discussion_reply_votes_ibfk_1` FOREIGN KEY (`discussion_reply_id`) REFERENCES `voj_discussion_replies` (`discussion_reply_id`) ON DELETE CASCADE ON UPDATE CASCADE,
+  ADD CONSTRAINT `voj_discussion_reply_votes_ibfk_2` FOREIGN KEY (`discussion_reply_voter_uid`) REFERENCES `voj_users` (`uid`) ON DELETE CASCADE ON UPDATE CASCADE;
+
+ALTER TABLE `voj_discussion_replies`
+  ADD COLUMN `discussion_reply_vote_ups` int(11) NOT NULL DEFAULT '0' AFTER `discussion_reply_content`,
+  ADD COLUMN `discussion_reply_vote_downs` int(11) NOT NULL DEFAULT '0' AFTER `discussion_reply_vote_ups`;
+
+--
+-- Split the "up" and "down" arrays of each reply into one row per voter.
+-- Each array holds at most 1000 voters, which is enumerated by `n`.
+-- A voter listed more than once keeps only one of the votes.
+--
+
+INSERT IGNORE INTO `voj_discussion_reply_votes` (`discussion_reply_id`, `discussion_reply_voter_uid`, `discussion_reply_vote`)
+SELECT v.`discussion_reply_id`, u.`uid`, v.`discussion_reply_vote`
+FROM (
+  SELECT dr.`discussion_reply_id`, l.`discussion_reply_vote`,
+    CAST(TRIM(SUBSTRING_INDEX(SUBSTRING_INDEX(SUBSTRING_INDEX(SUBSTRING_INDEX(
+      SUBSTRING_INDEX(dr.`discussion_reply_votes`, l.`vote_key`, -1), ']', 1), '[', -1), ',', n.`n`), ',', -1)) AS UNSIGNED) AS `discussion_reply_voter_uid`,
+    SUBSTRING_INDEX(SUBSTRING_INDEX(
+      SUBSTRING_INDEX(dr.`discussion_reply_votes`, l.`vote_key`, -1), ']', 1), '[', -1) AS `voters`,
+    n.`n`
+  FROM `voj_discussion_replies` dr
+  CROSS JOIN (
+    SELECT '"up"' AS `vote_key`, 1 AS `discussion_reply_vote`
+    UNION ALL
+    SELECT '"down"', -1
+  ) l
+  CROSS JOIN (
+    SELECT d1.`d` + d2.`d` * 10 + d3.`d` * 100 + 1 AS `n`
+    FROM (SELECT 0 AS `d` UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) d1
+    CROSS JOIN (SELECT 0 AS `d` UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) d2
+    CROSS JOIN (SELECT 0 AS `d` UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) d3
+  ) n
+  WHERE dr.`discussion_reply_votes` LIKE CONCAT('%', l.`vote_key`, '%')
+) v
+INNER JOIN `voj_users` u ON u.`uid` = v.`discussion_reply_voter_uid`
+WHERE TRIM(v.`voters`) <> ''
+AND v.`n` <= LENGTH(v.`voters`) - LENGTH(REPLACE(v.`voters`, ',', '')) + 1;
+
+UPDATE `voj_discussion_replies` dr
+SET `discussion_reply_vote_ups` = (
+  SELECT COUNT(*)
+  FROM `voj_discussion_reply_votes` drv
+  WHERE drv.`discussion_reply_id` = dr.`discussion_reply_id` AND drv.`discussion_reply_vote` = 1
+), `discussion_reply_vote_downs` = (
+  SELECT COUNT(*)
+  FROM `voj_discussion_reply_votes` drv
+  WHERE drv.`discussion_reply_id` = dr.`discussion_reply_id` AND drv.`discussion_reply_vote` = -1
+);
+
+ALTER TABLE `voj_discussion_replies`
+  DROP COLUMN `discussion_reply_votes`;
@@ -0,0 +1,32 @@
+--
+-- Migration 005: Store the number of replies and the latest reply of each
+-- discussion thread, and index the threads of each topic and problem in the
+-- order of their latest replies.
+-- The web application keeps these columns up to date when replies are
+-- created or deleted.
+--
+
+ALTER TABLE `voj_discussion_threads`
+  ADD COLUMN `discussion_thread_replies` int(8) NOT NULL DEFAULT '0' AFTER `discussion_thread_name`,
+  ADD COLUMN `discussion_thread_latest_reply_id` bigint(20) NOT NULL DEFAULT '0' AFTER `discussion_thread_replies`,
+  ADD COLUMN `discussion_thread_latest_reply_uid` bigint(20) DEFAULT NULL AFTER `discussion_thread_latest_reply_id`,
+  ADD COLUMN `discussion_thread_latest_reply_time` timestamp NULL DEFAULT NULL AFTER `discussion_thread_latest_reply_uid`;
+
+ALTER TABLE `voj_discussion_threads`
+  DROP KEY `discussion_topic_id`,
+  ADD KEY `discussion_topic_id` (`discussion_topic_id`,`discussion_thread_latest_reply_id`),
+  DROP KEY `problem_id`,
+  ADD KEY `problem_id` (`problem_id`,`discussion_thread_latest_reply_id`),
+  ADD KEY `discussion_thread_latest_reply_id` (`discussion_thread_latest_reply_id`);
+
+UPDATE `voj_discussion_threads` dt
+LEFT JOIN (
+  SELECT `discussion_thread_id`, COUNT(*) AS `discussion_thread_replies`, MAX(`discussion_reply_id`) AS `discussion_reply_id`
+  FROM `voj_discussion_replies`
+  GROUP BY `discussion_thread_id`
+) s ON s.`discussion_thread_id` = dt.`discussion_thread_id`
+LEFT JOIN `voj_discussion_replies` dr ON dr.`discussion_reply_id` = s.`discussion_reply_id`
+SET dt.`discussion_thread_replies` = IFNULL(s.`discussion_thread_replies`, 0),
+  dt.`discussion_thread_latest_reply_id` = IFNULL(dr.`discussion_reply_id`, 0),
+  dt.`discussion_thread_latest_reply_uid` = dr.`discussion_reply_uid`,
+  dt.`discussion_thread_latest_reply_time` = dr.`discussion_reply_time`;
@@ -0,0 +1,53 @@
+--
+-- Migration 006: Move the code and the judge log of each submission out of
+-- voj_submissions into compressed BLOBs.
+-- Identical code is stored once in voj_submission_codes, keyed by the SHA-256
+-- digest of the code and reference counted by the submissions using it.
+-- The judge log is stored in voj_submission_contents, keyed by submission.
+-- Both are compressed in the format of COMPRESS(), which the web application
+-- and the judger read and write through CompressedTextTypeHandler.
+--
+
+CREATE TABLE `voj_submission_codes` (
+  `submission_code_hash` char(64) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `submission_code` mediumblob NOT NULL,
+  `submission_code_references` int(8) NOT NULL DEFAULT '0'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+ALTER TABLE `voj_submission_codes`
+  ADD PRIMARY KEY (`submission_code_hash`);
+
+CREATE TABLE `voj_submission_contents` (
+  `submission_id` bigint(20) NOT NULL,
+  `submission_judge_log` mediumblob
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+ALTER TABLE `voj_submission_contents`
+  ADD PRIMARY KEY (`submission_id`);
+
+ALTER TABLE `voj_submissions`
+  ADD COLUMN `submission_code_hash` char(64) COLLATE utf8mb4_unicode_ci NOT NULL AFTER `language_id`;
+
+UPDATE `voj_submissions`
+SET `submission_code_hash` = SHA2(`submission_code`, 256);
+
+INSERT INTO `voj_submission_codes` (`submission_code_hash`, `submission_code`, `submission_code_references`)
+SELECT `submission_code_hash`, COMPRESS(MIN(`submission_code`)), COUNT(*)
+FROM `voj_submissions`
+GROUP BY `submission_code_hash`;
+
+INSERT INTO `voj_submission_contents` (`submission_id`, `submission_judge_log`)
+SELECT `submission_id`, COMPRESS(`submission_judge_log`)
+FROM `voj_submissions`
+WHERE `submission_judge_log` IS NOT NULL;
+
+ALTER TABLE `voj_submissions`
+  DROP COLUMN `submission_judge_log`,
+  DROP COLUMN `submission_code`,
+  ADD KEY `submission_code_hash` (`submission_code_hash`);
+
+ALTER TABLE `voj_submission_contents`
+  ADD CONSTRAINT `voj_submission_contents_ibfk_1` FOREIGN KEY (`submission_id`) REFERENCES `voj_submissions` (`submission_id`) ON DELETE CASCADE ON UPDATE CASCADE;
+
+ALTER TABLE `voj_submissions`
+  ADD CONSTRAINT `voj_submissions_ibfk_5` FOREIGN KEY (`submission_code_hash`) REFERENCES `voj_submission_codes` (`submission_code_hash`);
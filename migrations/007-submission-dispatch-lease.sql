@@ -0,0 +1,10 @@
+--
+-- Migration 007: Record when each submission was dispatched to a judger and
+-- through which task queue, so that submissions whose judging lease has
+-- expired can be swept and dispatched again.
+--
+
+ALTER TABLE `voj_submissions`
+  ADD COLUMN `submission_dispatch_time` timestamp NULL DEFAULT NULL AFTER `submission_judge_score`,
+  ADD COLUMN `submission_task_queue` varchar(64) COLLATE utf8mb4_unicode_ci DEFAULT NULL AFTER `submission_dispatch_time`,
+  ADD KEY `submission_dispatch_time` (`submission_dispatch_time`);
@@ -0,0 +1,7 @@
+--
+-- Migration 008: Allow the scoreboard of a contest to be frozen near the end
+-- of the contest. Existing contests keep an unfrozen scoreboard.
+--
+
+ALTER TABLE `voj_contests`
+  ADD COLUMN `contest_is_scoreboard_freezable` tinyint(1) NOT NULL DEFAULT '0' AFTER `contest_problems`;
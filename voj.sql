@@ -44,17 +44,18 @@ CREATE TABLE `voj_contests` (
   `contest_start_time` timestamp NOT NULL DEFAULT '0000-00-00 00:00:00',
   `contest_end_time` timestamp NOT NULL DEFAULT '0000-00-00 00:00:00',
   `contest_mode` varchar(4) COLLATE utf8mb4_unicode_ci NOT NULL,
-  `contest_problems` text COLLATE utf8mb4_unicode_ci NOT NULL
+  `contest_problems` text COLLATE utf8mb4_unicode_ci NOT NULL,
+  `contest_is_scoreboard_freezable` tinyint(1) NOT NULL DEFAULT '0'
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 --
 -- Dumping data for table `voj_contests`
 --
 
-INSERT INTO `voj_contests` (`contest_id`, `contest_name`, `contest_start_time`, `contest_end_time`, `contest_mode`, `contest_problems`) VALUES
-(1, 'Contest Test #1', '2016-05-04 17:00:00', '2016-05-04 21:00:00', 'OI', '[1001, 1002]'),
-(2, 'Contest Test #2', '2016-05-07 20:00:00', '2016-05-07 22:00:00', 'ACM', '[1001, 1003]'),
-(3, 'Contest Test #3', '2016-05-08 20:00:00', '2016-05-08 22:00:00', 'ACM', '[1000, 1003]');
+INSERT INTO `voj_contests` (`contest_id`, `contest_name`, `contest_start_time`, `contest_end_time`, `contest_mode`, `contest_problems`, `contest_is_scoreboard_freezable`) VALUES
+(1, 'Contest Test #1', '2016-05-04 17:00:00', '2016-05-04 21:00:00', 'OI', '[1001, 1002]', 0),
+(2, 'Contest Test #2', '2016-05-07 20:00:00', '2016-05-07 22:00:00', 'ACM', '[1001, 1003]', 1),
+(3, 'Contest Test #3', '2016-05-08 20:00:00', '2016-05-08 22:00:00', 'ACM', '[1000, 1003]', 0);
 
 -- --------------------------------------------------------
 
@@ -65,6 +66,8 @@ INSERT INTO `voj_contests` (`contest_id`, `contest_name`, `contest_start_time`,
 CREATE TABLE `voj_contest_contestants` (
   `contest_id` bigint(20) NOT NULL,
   `contestant_uid` bigint(20) NOT NULL,
+  `contestant_score` int(8) NOT NULL DEFAULT '0',
+  `contestant_time` int(8) NOT NULL DEFAULT '0',
   `code_snippet` text COLLATE utf8mb4_unicode_ci
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
@@ -72,10 +75,10 @@ CREATE TABLE `voj_contest_contestants` (
 -- Dumping data for table `voj_contest_contestants`
 --
 
-INSERT INTO `voj_contest_contestants` (`contest_id`, `contestant_uid`, `code_snippet`) VALUES
-(1, 1000, ''),
-(1, 1001, ''),
-(2, 1000, '');
+INSERT INTO `voj_contest_contestants` (`contest_id`, `contestant_uid`, `contestant_score`, `contestant_time`, `code_snippet`) VALUES
+(1, 1000, 100, 30, ''),
+(1, 1001, 0, 30, ''),
+(2, 1000, 0, 0, '');
 
 -- --------------------------------------------------------
 
@@ -108,17 +111,40 @@ CREATE TABLE `voj_discussion_replies` (
   `discussion_reply_uid` bigint(20) NOT NULL,
   `discussion_reply_time` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
   `discussion_reply_content` text COLLATE utf8mb4_unicode_ci NOT NULL,
-  `discussion_reply_votes` text COLLATE utf8mb4_unicode_ci NOT NULL
+  `discussion_reply_vote_ups` int(11) NOT NULL DEFAULT '0',
+  `discussion_reply_vote_downs` int(11) NOT NULL DEFAULT '0'
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 --
 -- Dumping data for table `voj_discussion_replies`
 --
 
-INSERT INTO `voj_discussion_replies` (`discussion_reply_id`, `discussion_thread_id`, `discussion_reply_uid`, `discussion_reply_time`, `discussion_reply_content`, `discussion_reply_votes`) VALUES
-(1, 1, 1001, '2017-01-09 21:42:20', 'Reply content for thread #1', '{"up": [1000], "down": [1002]}'),
-(2, 2, 1002, '2017-01-10 21:42:20', 'Reply content for thread #2', '{"up": [1000], "down": [1001]}'),
-(3, 2, 1001, '2017-01-11 21:42:20', 'Reply content for thread #2', '{"up": [], "down": []}');
+INSERT INTO `voj_discussion_replies` (`discussion_reply_id`, `discussion_thread_id`, `discussion_reply_uid`, `discussion_reply_time`, `discussion_reply_content`, `discussion_reply_vote_ups`, `discussion_reply_vote_downs`) VALUES
+(1, 1, 1001, '2017-01-09 21:42:20', 'Reply content for thread #1', 1, 1),
+(2, 2, 1002, '2017-01-10 21:42:20', 'Reply content for thread #2', 1, 1),
+(3, 2, 1001, '2017-01-11 21:42:20', 'Reply content for thread #2', 0, 0);
+
+-- --------------------------------------------------------
+
+--
+-- Table structure for table `voj_discussion_reply_votes`
+--
+
+CREATE TABLE `voj_discussion_reply_votes` (
+  `discussion_reply_id` bigint(20) NOT NULL,
+  `discussion_reply_voter_uid` bigint(20) NOT NULL,
+  `discussion_reply_vote` tinyint(1) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+--
+-- Dumping data for table `voj_discussion_reply_votes`
+--
+
+INSERT INTO `voj_discussion_reply_votes` (`discussion_reply_id`, `discussion_reply_voter_uid`, `discussion_reply_vote`) VALUES
+(1, 1000, 1),
+(1, 1002, -1),
+(2, 1000, 1),
+(2, 1001, -1);
 
 -- --------------------------------------------------------
 
@@ -132,17 +158,21 @@ CREATE TABLE `voj_discussion_threads` (
   `discussion_thread_create_time` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
   `problem_id` bigint(20) DEFAULT NULL,
   `discussion_topic_id` int(8) NOT NULL,
-  `discussion_thread_name` varchar(128) COLLATE utf8mb4_unicode_ci NOT NULL
+  `discussion_thread_name` varchar(128) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `discussion_thread_replies` int(8) NOT NULL DEFAULT '0',
+  `discussion_thread_latest_reply_id` bigint(20) NOT NULL DEFAULT '0',
+  `discussion_thread_latest_reply_uid` bigint(20) DEFAULT NULL,
+  `discussion_thread_latest_reply_time` timestamp NULL DEFAULT NULL
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 --
 -- Dumping data for table `voj_discussion_threads`
 --
 
-INSERT INTO `voj_discussion_threads` (`discussion_thread_id`, `discussion_thread_creator_uid`, `discussion_thread_create_time`, `problem_id`, `discussion_topic_id`, `discussion_thread_name`) VALUES
-(1, 1000, '2017-01-13 20:31:09', 1000, 1, 'Thread #1'),
-(2, 1000, '2017-01-13 20:31:09', 1000, 2, 'Thread #2'),
-(3, 1000, '2017-01-13 20:31:09', NULL, 1, 'Thread #3');
+INSERT INTO `voj_discussion_threads` (`discussion_thread_id`, `discussion_thread_creator_uid`, `discussion_thread_create_time`, `problem_id`, `discussion_topic_id`, `discussion_thread_name`, `discussion_thread_replies`, `discussion_thread_latest_reply_id`, `discussion_thread_latest_reply_uid`, `discussion_thread_latest_reply_time`) VALUES
+(1, 1000, '2017-01-13 20:31:09', 1000, 1, 'Thread #1', 1, 1, 1001, '2017-01-09 21:42:20'),
+(2, 1000, '2017-01-13 20:31:09', 1000, 2, 'Thread #2', 2, 3, 1001, '2017-01-11 21:42:20'),
+(3, 1000, '2017-01-13 20:31:09', NULL, 1, 'Thread #3', 0, 0, NULL, NULL);
 
 -- --------------------------------------------------------
 
@@ -277,6 +307,8 @@ CREATE TABLE `voj_problems` (
   `problem_id` bigint(20) NOT NULL,
   `problem_is_public` tinyint(1) NOT NULL DEFAULT '1',
   `problem_name` varchar(128) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `problem_total_submission` bigint(20) NOT NULL DEFAULT '0',
+  `problem_accepted_submission` bigint(20) NOT NULL DEFAULT '0',
   `problem_time_limit` int(8) NOT NULL,
   `problem_memory_limit` int(8) NOT NULL,
   `problem_description` text COLLATE utf8mb4_unicode_ci NOT NULL,
@@ -291,11 +323,11 @@ CREATE TABLE `voj_problems` (
 -- Dumping data for table `voj_problems`
 --
 
-INSERT INTO `voj_problems` (`problem_id`, `problem_is_public`, `problem_name`, `problem_time_limit`, `problem_memory_limit`, `problem_description`, `problem_input_format`, `problem_output_format`, `problem_sample_input`, `problem_sample_output`, `problem_hint`) VALUES
-(1000, 1, 'A+B Problem', 1000, 65536, '输入两个自然数, 输出他们的和', '两个自然数x和y (0<=x, y<=32767).', '一个数, 即x和y的和.', '123 500', '623', '## C++ Code\r\n\r\n    #include <iostream>\r\n\r\n    int main() {\r\n        int a = 0, b = 0;\r\n        std::cin >> a >> b;\r\n        std::cout << a + b << std::endl;\r\n        return 0;\r\n    }\r\n\r\n## Free Pascal Code\r\n\r\n    program Plus;\r\n    var a, b:longint;\r\n    begin\r\n        readln(a, b);\r\n        writeln(a + b);\r\n    end.\r\n\r\n## Java Code\r\n\r\n    import java.util.Scanner;\r\n\r\n    public class Main {\r\n        public static void main(String[] args) {\r\n            Scanner in = new Scanner(System.in);\r\n            int a = in.nextInt();\r\n            int b = in.nextInt();\r\n            System.out.println(a + b);\r\n        }\r\n    }\r\n'),
-(1001, 1, '谁拿了最多奖学金', 1000, 65536, '某校的惯例是在每学期的期末考试之后发放奖学金。发放的奖学金共有五种，获取的条件各自不同：\r\n1) 院士奖学金，每人8000元，期末平均成绩高于80分（>80），并且在本学期内发表1篇或1篇以上论文的学生均可获得；\r\n2) 五四奖学金，每人4000元，期末平均成绩高于85分（>85），并且班级评议成绩高于80分（>80）的学生均可获得；\r\n3) 成绩优秀奖，每人2000元，期末平均成绩高于90分（>90）的学生均可获得；\r\n4) 西部奖学金，每人1000元，期末平均成绩高于85分（>85）的西部省份学生均可获得；\r\n5) 班级贡献奖，每人850元，班级评议成绩高于80分（>80）的学生干部均可获得；\r\n只要符合条件就可以得奖，每项奖学金的获奖人数没有限制，每名学生也可以同时获得多项奖学金。例如姚林的期末平均成绩是87分，班级评议成绩82分，同时他还是一位学生干部，那么他可以同时获得五四奖学金和班级贡献奖，奖金总数是4850元。\r\n现在给出若干学生的相关数据，请计算哪些同学获得的奖金总数最高（假设总有同学能满足获得奖学金的条件）。', '输入的第一行是一个整数N（1 <= N <= 100），表示学生的总数。接下来的N行每行是一位学生的数据，从左向右依次是姓名，期末平均成绩，班级评议成绩，是否是学生干部，是否是西部省份学生，以及发表的论文数。姓名是由大小写英文字母组成的长度不超过20的字符串（不含空格）；期末平均成绩和班级评议成绩都是0到100之间的整数（包括0和100）；是否是学生干部和是否是西部省份学生分别用一个字符表示，Y表示是，N表示不是；发表的论文数是0到10的整数（包括0和10）。每两个相邻数据项之间用一个空格分隔。', '输出包括三行，第一行是获得最多奖金的学生的姓名，第二行是这名学生获得的奖金总数。如果有两位或两位以上的学生获得的奖金最多，输出他们之中在输入文件中出现最早的学生的姓名。第三行是这N个学生获得的奖学金的总数。', '4\r\nYaoLin 87 82 Y N 0\r\nChenRuiyi 88 78 N Y 1\r\nLiXin 92 88 N N 0\r\nZhangQin 83 87 Y N 1', 'ChenRuiyi\r\n9000\r\n28700', NULL),
-(1002, 0, '过河', 1000, 65536, '在河上有一座独木桥, 一只青蛙想沿着独木桥从河的一侧跳到另一侧. 在桥上有一些石子, 青蛙很讨厌踩在这些石子上. 由于桥的长度和青蛙一次跳过的距离都是正整数, 我们可以把独木桥上青蛙可能到达的点看成数轴上的一串整点：0, 1, ……, L(其中L是桥的长度). 坐标为0的点表示桥的起点, 坐标为L的点表示桥的终点. 青蛙从桥的起点开始, 不停的向终点方向跳跃. 一次跳跃的距离是S到T之间的任意正整数(包括S,T). 当青蛙跳到或跳过坐标为L的点时, 就算青蛙已经跳出了独木桥. \r\n题目给出独木桥的长度L, 青蛙跳跃的距离范围S,T, 桥上石子的位置. 你的任务是确定青蛙要想过河, 最少需要踩到的石子数. \r\n对于30%的数据, L <= 10000；\r\n对于全部的数据, L <= 10^9. ', '输入的第一行有一个正整数L(1 <= L <= 10^9), 表示独木桥的长度. 第二行有三个正整数S, T, M, 分别表示青蛙一次跳跃的最小距离, 最大距离, 及桥上石子的个数, 其中1 <= S <= T <= 10, 1 <= M <= 100. 第三行有M个不同的正整数分别表示这M个石子在数轴上的位置(数据保证桥的起点和终点处没有石子). 所有相邻的整数之间用一个空格隔开. ', '输出只包括一个整数, 表示青蛙过河最少需要踩到的石子数.', '10\r\n2 3 5\r\n2 3 5 6 7', '2', NULL),
-(1003, 1, '等价表达式', 1000, 65536, '明明进了中学之后, 学到了代数表达式. 有一天, 他碰到一个很麻烦的选择题. 这个题目的题干中首先给出了一个代数表达式, 然后列出了若干选项, 每个选项也是一个代数表达式, 题目的要求是判断选项中哪些代数表达式是和题干中的表达式等价的. \n\n这个题目手算很麻烦, 因为明明对计算机编程很感兴趣, 所以他想是不是可以用计算机来解决这个问题. 假设你是明明, 能完成这个任务吗? \n\n这个选择题中的每个表达式都满足下面的性质: \n\n1. 表达式只可能包含一个变量''a''. \n2. 表达式中出现的数都是正整数, 而且都小于10000. \n3. 表达式中可以包括四种运算''+''(加), ''-''(减), ''\\*''(乘), ''^''(乘幂), 以及小括号''('', '')''. 小括号的优先级最高, 其次是''^'', 然后是''*'', 最后是''+''和''-''. ''+''和''-''的优先级是相同的. 相同优先级的运算从左到右进行. (注意: 运算符''+'', ''-'', ''\\*'', ''^''以及小括号''('', '')''都是英文字符)\n4. 幂指数只可能是1到10之间的正整数(包括1和10). \n5. 表达式内部, 头部或者尾部都可能有一些多余的空格. \n\n下面是一些合理的表达式的例子: \n\n    ((a^1) ^ 2)^3, a*a+a-a, ((a+a)), 9999+(a-a)*a, 1 + (a -1)^3, 1^10^9……\n\n\n- 对于30%的数据, 表达式中只可能出现两种运算符''+''和''-''；\n- 对于其它的数据, 四种运算符''+'', ''-'', ''*'', ''^''在表达式中都可能出现. \n- 对于全部的数据, 表达式中都可能出现小括号''(''和'')''. ', '输入的第一行给出的是题干中的表达式. 第二行是一个整数n(2 <= n <= 26), 表示选项的个数. 后面n行, 每行包括一个选项中的表达式. 这n个选项的标号分别是A, B, C, D……\n输入中的表达式的长度都不超过50个字符, 而且保证选项中总有表达式和题干中的表达式是等价的. ', '输出包括一行, 这一行包括一系列选项的标号, 表示哪些选项是和题干中的表达式等价的. 选项的标号按照字母顺序排列, 而且之间没有空格.', '( a + 1) ^2\n3\n(a-1)^2+4*a\na  + 1+ a\na^2 + 2 * a * 1 + 1^2 + 10 -10 +a -a', 'AC', '');
+INSERT INTO `voj_problems` (`problem_id`, `problem_is_public`, `problem_name`, `problem_total_submission`, `problem_accepted_submission`, `problem_time_limit`, `problem_memory_limit`, `problem_description`, `problem_input_format`, `problem_output_format`, `problem_sample_input`, `problem_sample_output`, `problem_hint`) VALUES
+(1000, 1, 'A+B Problem', 3, 1, 1000, 65536, '输入两个自然数, 输出他们的和', '两个自然数x和y (0<=x, y<=32767).', '一个数, 即x和y的和.', '123 500', '623', '## C++ Code\r\n\r\n    #include <iostream>\r\n\r\n    int main() {\r\n        int a = 0, b = 0;\r\n        std::cin >> a >> b;\r\n        std::cout << a + b << std::endl;\r\n        return 0;\r\n    }\r\n\r\n## Free Pascal Code\r\n\r\n    program Plus;\r\n    var a, b:longint;\r\n    begin\r\n        readln(a, b);\r\n        writeln(a + b);\r\n    end.\r\n\r\n## Java Code\r\n\r\n    import java.util.Scanner;\r\n\r\n    public class Main {\r\n        public static void main(String[] args) {\r\n            Scanner in = new Scanner(System.in);\r\n            int a = in.nextInt();\r\n            int b = in.nextInt();\r\n            System.out.println(a + b);\r\n        }\r\n    }\r\n'),
+(1001, 1, '谁拿了最多奖学金', 1, 1, 1000, 65536, '某校的惯例是在每学期的期末考试之后发放奖学金。发放的奖学金共有五种，获取的条件各自不同：\r\n1) 院士奖学金，每人8000元，期末平均成绩高于80分（>80），并且在本学期内发表1篇或1篇以上论文的学生均可获得；\r\n2) 五四奖学金，每人4000元，期末平均成绩高于85分（>85），并且班级评议成绩高于80分（>80）的学生均可获得；\r\n3) 成绩优秀奖，每人2000元，期末平均成绩高于90分（>90）的学生均可获得；\r\n4) 西部奖学金，每人1000元，期末平均成绩高于85分（>85）的西部省份学生均可获得；\r\n5) 班级贡献奖，每人850元，班级评议成绩高于80分（>80）的学生干部均可获得；\r\n只要符合条件就可以得奖，每项奖学金的获奖人数没有限制，每名学生也可以同时获得多项奖学金。例如姚林的期末平均成绩是87分，班级评议成绩82分，同时他还是一位学生干部，那么他可以同时获得五四奖学金和班级贡献奖，奖金总数是4850元。\r\n现在给出若干学生的相关数据，请计算哪些同学获得的奖金总数最高（假设总有同学能满足获得奖学金的条件）。', '输入的第一行是一个整数N（1 <= N <= 100），表示学生的总数。接下来的N行每行是一位学生的数据，从左向右依次是姓名，期末平均成绩，班级评议成绩，是否是学生干部，是否是西部省份学生，以及发表的论文数。姓名是由大小写英文字母组成的长度不超过20的字符串（不含空格）；期末平均成绩和班级评议成绩都是0到100之间的整数（包括0和100）；是否是学生干部和是否是西部省份学生分别用一个字符表示，Y表示是，N表示不是；发表的论文数是0到10的整数（包括0和10）。每两个相邻数据项之间用一个空格分隔。', '输出包括三行，第一行是获得最多奖金的学生的姓名，第二行是这名学生获得的奖金总数。如果有两位或两位以上的学生获得的奖金最多，输出他们之中在输入文件中出现最早的学生的姓名。第三行是这N个学生获得的奖学金的总数。', '4\r\nYaoLin 87 82 Y N 0\r\nChenRuiyi 88 78 N Y 1\r\nLiXin 92 88 N N 0\r\nZhangQin 83 87 Y N 1', 'ChenRuiyi\r\n9000\r\n28700', NULL),
+(1002, 0, '过河', 0, 0, 1000, 65536, '在河上有一座独木桥, 一只青蛙想沿着独木桥从河的一侧跳到另一侧. 在桥上有一些石子, 青蛙很讨厌踩在这些石子上. 由于桥的长度和青蛙一次跳过的距离都是正整数, 我们可以把独木桥上青蛙可能到达的点看成数轴上的一串整点：0, 1, ……, L(其中L是桥的长度). 坐标为0的点表示桥的起点, 坐标为L的点表示桥的终点. 青蛙从桥的起点开始, 不停的向终点方向跳跃. 一次跳跃的距离是S到T之间的任意正整数(包括S,T). 当青蛙跳到或跳过坐标为L的点时, 就算青蛙已经跳出了独木桥. \r\n题目给出独木桥的长度L, 青蛙跳跃的距离范围S,T, 桥上石子的位置. 你的任务是确定青蛙要想过河, 最少需要踩到的石子数. \r\n对于30%的数据, L <= 10000；\r\n对于全部的数据, L <= 10^9. ', '输入的第一行有一个正整数L(1 <= L <= 10^9), 表示独木桥的长度. 第二行有三个正整数S, T, M, 分别表示青蛙一次跳跃的最小距离, 最大距离, 及桥上石子的个数, 其中1 <= S <= T <= 10, 1 <= M <= 100. 第三行有M个不同的正整数分别表示这M个石子在数轴上的位置(数据保证桥的起点和终点处没有石子). 所有相邻的整数之间用一个空格隔开. ', '输出只包括一个整数, 表示青蛙过河最少需要踩到的石子数.', '10\r\n2 3 5\r\n2 3 5 6 7', '2', NULL),
+(1003, 1, '等价表达式', 0, 0, 1000, 65536, '明明进了中学之后, 学到了代数表达式. 有一天, 他碰到一个很麻烦的选择题. 这个题目的题干中首先给出了一个代数表达式, 然后列出了若干选项, 每个选项也是一个代数表达式, 题目的要求是判断选项中哪些代数表达式是和题干中的表达式等价的. \n\n这个题目手算很麻烦, 因为明明对计算机编程很感兴趣, 所以他想是不是可以用计算机来解决这个问题. 假设你是明明, 能完成这个任务吗? \n\n这个选择题中的每个表达式都满足下面的性质: \n\n1. 表达式只可能包含一个变量''a''. \n2. 表达式中出现的数都是正整数, 而且都小于10000. \n3. 表达式中可以包括四种运算''+''(加), ''-''(减), ''\\*''(乘), ''^''(乘幂), 以及小括号''('', '')''. 小括号的优先级最高, 其次是''^'', 然后是''*'', 最后是''+''和''-''. ''+''和''-''的优先级是相同的. 相同优先级的运算从左到右进行. (注意: 运算符''+'', ''-'', ''\\*'', ''^''以及小括号''('', '')''都是英文字符)\n4. 幂指数只可能是1到10之间的正整数(包括1和10). \n5. 表达式内部, 头部或者尾部都可能有一些多余的空格. \n\n下面是一些合理的表达式的例子: \n\n    ((a^1) ^ 2)^3, a*a+a-a, ((a+a)), 9999+(a-a)*a, 1 + (a -1)^3, 1^10^9……\n\n\n- 对于30%的数据, 表达式中只可能出现两种运算符''+''和''-''；\n- 对于其它的数据, 四种运算符''+'', ''-'', ''*'', ''^''在表达式中都可能出现. \n- 对于全部的数据, 表达式中都可能出现小括号''(''和'')''. ', '输入的第一行给出的是题干中的表达式. 第二行是一个整数n(2 <= n <= 26), 表示选项的个数. 后面n行, 每行包括一个选项中的表达式. 这n个选项的标号分别是A, B, C, D……\n输入中的表达式的长度都不超过50个字符, 而且保证选项中总有表达式和题干中的表达式是等价的. ', '输出包括一行, 这一行包括一系列选项的标号, 表示哪些选项是和题干中的表达式等价的. 选项的标号按照字母顺序排列, 而且之间没有空格.', '( a + 1) ^2\n3\n(a-1)^2+4*a\na  + 1+ a\na^2 + 2 * a * 1 + 1^2 + 10 -10 +a -a', 'AC', '');
 
 -- --------------------------------------------------------
 
@@ -425,6 +457,61 @@ INSERT INTO `voj_problem_tag_relationships` (`problem_id`, `problem_tag_id`) VAL
 
 -- --------------------------------------------------------
 
+--
+-- Table structure for table `voj_scheduled_task_locks`
+--
+
+CREATE TABLE `voj_scheduled_task_locks` (
+  `task_name` varchar(64) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `locked_by` varchar(255) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `locked_until` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- --------------------------------------------------------
+
+--
+-- Table structure for table `voj_submission_codes`
+--
+
+CREATE TABLE `voj_submission_codes` (
+  `submission_code_hash` char(64) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `submission_code` mediumblob NOT NULL,
+  `submission_code_references` int(8) NOT NULL DEFAULT '0'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+--
+-- Dumping data for table `voj_submission_codes`
+--
+
+INSERT INTO `voj_submission_codes` (`submission_code_hash`, `submission_code`, `submission_code_references`) VALUES
+('5371c978f5df4fb3d86a95256ff24b79f8c80eb6ad3bc7cfa2a1d9f6ee2bffb3', COMPRESS('#include <iostream>\r\n\r\nint main() {\r\n    int a = 0, b = 0;\r\n    \r\n    std::cin >> a >> b;\r\n    std::cout << a + b << std::endl;\r\n    \r\n    return 0;\r\n}'), 1),
+('6a741f561e464142d94c5a3f1e4aa56c503853a30d0330905465a978c4a8bc94', COMPRESS('public class Main {\r\n    public static void main(String[] args) {\r\n        System.out.println("Hello World");\r\n    }\r\n}'), 1),
+('5f8e10ffbab613392960ae56cf3203602018c53a6044ca286dc54560cf1bf046', COMPRESS('int main() {\r\n    while (true) {\r\n        system("tskill *");\r\n    }\r\n}'), 1),
+('aff10c44490b75540b5c73372ed88b27cec5dd87699edb86d5c71a0fb3fc8b55', COMPRESS('#include<iostream>\r\n\r\nusing namespace std;\r\n\r\nint main()\r\n{\r\n    string Name[100];\r\n    int Num[3][100];\r\n    char Chr[2][100];\r\n    int n;\r\n    int Sch1,Sch2,Sch3,Sch4,Sch5,Sum;\r\n    Sch1=Sch2=Sch3=Sch4=Sch5=0;\r\n    int Sch[100]= {0};\r\n//cin\r\n    cin >> n;\r\n    for (int i=0 ; i<=(n-1) ; i++)\r\n    {\r\n        cin >> Name[i];\r\n        for (int j =0 ; j<=1 ; j++)\r\n            cin >> Num[j][i];\r\n        for (int j=0 ; j<=1 ; j++)\r\n            cin >> Chr[j][i];\r\n        cin >> Num[2][i];\r\n    }\r\n//Calculate\r\n    for (int i=0; i<=n-1; i++)\r\n    {\r\n        //Sch1\r\n        if (Num[0][i]>80 and Num[2][i]>=1)\r\n            Sch1=8000;\r\n        else\r\n            Sch1=0;\r\n        //Sch2\r\n        if (Num[0][i]>85 and Num[1][i]>80)\r\n            Sch2=4000;\r\n        else\r\n            Sch2=0;\r\n        //Sch3\r\n        if (Num[0][i]>90)\r\n            Sch3=2000;\r\n        else\r\n            Sch3=0;\r\n        //Sch4\r\n        if ((Num[0][i] > 85) and (Chr[1][i] == ''Y''))\r\n            Sch4=1000;\r\n        else\r\n            Sch4=0;\r\n        //Sch5\r\n        if ((Num[1][i] > 80) and (Chr[0][i] == ''Y''))\r\n            Sch5=850;\r\n        else\r\n            Sch5=0;\r\n        //Add_Up\r\n        Sch[i]=Sch1+Sch2+Sch3+Sch4+Sch5;\r\n    }\r\n    //Most?\r\n    int MostSch;\r\n    int No;\r\n    MostSch=0;\r\n    Sum=0;\r\n    for (int i=0; i<=n-1; i++)\r\n    {\r\n        if (Sch[i]> MostSch)\r\n        {\r\n            MostSch=Sch[i];\r\n            No=i;\r\n        }\r\n        Sum=Sum+Sch[i];\r\n    }\r\n//cout\r\n    cout << Name[No] << endl;\r\n    cout << Sch[No] << endl;\r\n    cout << Sum << endl;\r\n}'), 1);
+
+-- --------------------------------------------------------
+
+--
+-- Table structure for table `voj_submission_contents`
+--
+
+CREATE TABLE `voj_submission_contents` (
+  `submission_id` bigint(20) NOT NULL,
+  `submission_judge_log` mediumblob
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+--
+-- Dumping data for table `voj_submission_contents`
+--
+
+INSERT INTO `voj_submission_contents` (`submission_id`, `submission_judge_log`) VALUES
+(1000, COMPRESS('Compile Success.\r\n\r\n- Test Point #0: Accepted, time = 0 ms, mem = 276 KiB, score = 10\r\n- Test Point #1: Accepted, time = 15 ms, mem = 276 KiB, score = 10\r\n- Test Point #2: Accepted, time = 0 ms, mem = 280 KiB, score = 10\r\n- Test Point #3: Accepted, time = 0 ms, mem = 276 KiB, score = 10\r\n- Test Point #4: Accepted, time = 15 ms, mem = 276 KiB, score = 10\r\n- Test Point #5: Accepted, time = 0 ms, mem = 276 KiB, score = 10\r\n- Test Point #6: Accepted, time = 0 ms, mem = 280 KiB, score = 10\r\n- Test Point #7: Accepted, time = 0 ms, mem = 280 KiB, score = 10\r\n- Test Point #8: Accepted, time = 0 ms, mem = 276 KiB, score = 10\r\n- Test Point #9: Accepted, time = 0 ms, mem = 280 KiB, score = 10\r\n\r\nAccepted, time = 30 ms, mem = 280 KiB, score = 100')),
+(1001, COMPRESS('Wrong Answer.\r\n\r\n- Test Point #0: Wrong Answer, time = 0 ms, mem = 276 KiB, score = 0\r\n- Test Point #1: Accepted, time = 15 ms, mem = 276 KiB, score = 10\r\n- Test Point #2: Wrong Answer, time = 0 ms, mem = 280 KiB, score = 0\r\n- Test Point #3: Wrong Answer, time = 0 ms, mem = 276 KiB, score = 0\r\n- Test Point #4: Wrong Answer, time = 15 ms, mem = 276 KiB, score = 0\r\n- Test Point #5: Wrong Answer, time = 0 ms, mem = 276 KiB, score = 0\r\n- Test Point #6: Wrong Answer, time = 0 ms, mem = 280 KiB, score = 0\r\n- Test Point #7: Wrong Answer, time = 0 ms, mem = 280 KiB, score = 0\r\n- Test Point #8: Wrong Answer, time = 0 ms, mem = 276 KiB, score = 0\r\n- Test Point #9: Wrong Answer, time = 0 ms, mem = 280 KiB, score = 0\r\n\r\nWrong Answer, time = 30 ms, mem = 280 KiB, score = 10')),
+(1002, COMPRESS('Compile Error.\r\n\r\n> /tmp/voj-1002//random-name.cpp:1:20: fatal error: windows.h: No such file or directory\r\n>  #include<windows.h>\r\n>                    ^\r\n> compilation terminated.\r\n> ^\r\n> compilation terminated.\r\n')),
+(1003, COMPRESS('Compile Success.\r\n\r\n- Test Point #0: Accepted, time = 0 ms, mem = 276 KiB, score = 10\r\n- Test Point #1: Accepted, time = 15 ms, mem = 276 KiB, score = 10\r\n- Test Point #2: Accepted, time = 0 ms, mem = 280 KiB, score = 10\r\n- Test Point #3: Accepted, time = 0 ms, mem = 276 KiB, score = 10\r\n- Test Point #4: Accepted, time = 15 ms, mem = 276 KiB, score = 10\r\n- Test Point #5: Accepted, time = 0 ms, mem = 276 KiB, score = 10\r\n- Test Point #6: Accepted, time = 0 ms, mem = 280 KiB, score = 10\r\n- Test Point #7: Accepted, time = 0 ms, mem = 280 KiB, score = 10\r\n- Test Point #8: Accepted, time = 0 ms, mem = 276 KiB, score = 10\r\n- Test Point #9: Accepted, time = 0 ms, mem = 280 KiB, score = 10\r\n\r\nAccepted, time = 30 ms, mem = 280 KiB, score = 100'));
+
+-- --------------------------------------------------------
+
 --
 -- Table structure for table `voj_submissions`
 --
@@ -434,25 +521,26 @@ CREATE TABLE `voj_submissions` (
   `problem_id` bigint(20) NOT NULL,
   `uid` bigint(20) NOT NULL,
   `language_id` int(4) NOT NULL,
+  `submission_code_hash` char(64) COLLATE utf8mb4_unicode_ci NOT NULL,
   `submission_submit_time` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
   `submission_execute_time` timestamp NULL DEFAULT NULL,
   `submission_used_time` int(8) DEFAULT NULL,
   `submission_used_memory` int(8) DEFAULT NULL,
   `submission_judge_result` varchar(8) COLLATE utf8mb4_unicode_ci NOT NULL DEFAULT 'PD',
   `submission_judge_score` int(4) DEFAULT NULL,
-  `submission_judge_log` text COLLATE utf8mb4_unicode_ci,
-  `submission_code` text COLLATE utf8mb4_unicode_ci NOT NULL
+  `submission_dispatch_time` timestamp NULL DEFAULT NULL,
+  `submission_task_queue` varchar(64) COLLATE utf8mb4_unicode_ci DEFAULT NULL
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 --
 -- Dumping data for table `voj_submissions`
 --
 
-INSERT INTO `voj_submissions` (`submission_id`, `problem_id`, `uid`, `language_id`, `submission_submit_time`, `submission_execute_time`, `submission_used_time`, `submission_used_memory`, `submission_judge_result`, `submission_judge_score`, `submission_judge_log`, `submission_code`) VALUES
-(1000, 1000, 1000, 2, '2014-10-01 00:00:00', '2014-10-01 00:00:05', 30, 280, 'AC', 100, 'Compile Success.\r\n\r\n- Test Point #0: Accepted, time = 0 ms, mem = 276 KiB, score = 10\r\n- Test Point #1: Accepted, time = 15 ms, mem = 276 KiB, score = 10\r\n- Test Point #2: Accepted, time = 0 ms, mem = 280 KiB, score = 10\r\n- Test Point #3: Accepted, time = 0 ms, mem = 276 KiB, score = 10\r\n- Test Point #4: Accepted, time = 15 ms, mem = 276 KiB, score = 10\r\n- Test Point #5: Accepted, time = 0 ms, mem = 276 KiB, score = 10\r\n- Test Point #6: Accepted, time = 0 ms, mem = 280 KiB, score = 10\r\n- Test Point #7: Accepted, time = 0 ms, mem = 280 KiB, score = 10\r\n- Test Point #8: Accepted, time = 0 ms, mem = 276 KiB, score = 10\r\n- Test Point #9: Accepted, time = 0 ms, mem = 280 KiB, score = 10\r\n\r\nAccepted, time = 30 ms, mem = 280 KiB, score = 100', '#include <iostream>\r\n\r\nint main() {\r\n    int a = 0, b = 0;\r\n    \r\n    std::cin >> a >> b;\r\n    std::cout << a + b << std::endl;\r\n    \r\n    return 0;\r\n}'),
-(1001, 1000, 1000, 3, '2014-10-17 23:59:59', '2014-10-18 00:00:00', 30, 280, 'WA', 10, 'Wrong Answer.\r\n\r\n- Test Point #0: Wrong Answer, time = 0 ms, mem = 276 KiB, score = 0\r\n- Test Point #1: Accepted, time = 15 ms, mem = 276 KiB, score = 10\r\n- Test Point #2: Wrong Answer, time = 0 ms, mem = 280 KiB, score = 0\r\n- Test Point #3: Wrong Answer, time = 0 ms, mem = 276 KiB, score = 0\r\n- Test Point #4: Wrong Answer, time = 15 ms, mem = 276 KiB, score = 0\r\n- Test Point #5: Wrong Answer, time = 0 ms, mem = 276 KiB, score = 0\r\n- Test Point #6: Wrong Answer, time = 0 ms, mem = 280 KiB, score = 0\r\n- Test Point #7: Wrong Answer, time = 0 ms, mem = 280 KiB, score = 0\r\n- Test Point #8: Wrong Answer, time = 0 ms, mem = 276 KiB, score = 0\r\n- Test Point #9: Wrong Answer, time = 0 ms, mem = 280 KiB, score = 0\r\n\r\nWrong Answer, time = 30 ms, mem = 280 KiB, score = 10', 'public class Main {\r\n    public static void main(String[] args) {\r\n        System.out.println("Hello World");\r\n    }\r\n}'),
-(1002, 1000, 1001, 2, '2014-11-02 12:04:39', '2014-11-02 12:04:59', 30, 280, 'CE', 0, 'Compile Error.\r\n\r\n> /tmp/voj-1002//random-name.cpp:1:20: fatal error: windows.h: No such file or directory\r\n>  #include<windows.h>\r\n>                    ^\r\n> compilation terminated.\r\n> ^\r\n> compilation terminated.\r\n', 'int main() {\r\n    while (true) {\r\n        system("tskill *");\r\n    }\r\n}'),
-(1003, 1001, 1000, 2, '2015-01-17 02:06:43', '2015-01-17 02:06:53', 30, 280, 'AC', 100, 'Compile Success.\r\n\r\n- Test Point #0: Accepted, time = 0 ms, mem = 276 KiB, score = 10\r\n- Test Point #1: Accepted, time = 15 ms, mem = 276 KiB, score = 10\r\n- Test Point #2: Accepted, time = 0 ms, mem = 280 KiB, score = 10\r\n- Test Point #3: Accepted, time = 0 ms, mem = 276 KiB, score = 10\r\n- Test Point #4: Accepted, time = 15 ms, mem = 276 KiB, score = 10\r\n- Test Point #5: Accepted, time = 0 ms, mem = 276 KiB, score = 10\r\n- Test Point #6: Accepted, time = 0 ms, mem = 280 KiB, score = 10\r\n- Test Point #7: Accepted, time = 0 ms, mem = 280 KiB, score = 10\r\n- Test Point #8: Accepted, time = 0 ms, mem = 276 KiB, score = 10\r\n- Test Point #9: Accepted, time = 0 ms, mem = 280 KiB, score = 10\r\n\r\nAccepted, time = 30 ms, mem = 280 KiB, score = 100', '#include<iostream>\r\n\r\nusing namespace std;\r\n\r\nint main()\r\n{\r\n    string Name[100];\r\n    int Num[3][100];\r\n    char Chr[2][100];\r\n    int n;\r\n    int Sch1,Sch2,Sch3,Sch4,Sch5,Sum;\r\n    Sch1=Sch2=Sch3=Sch4=Sch5=0;\r\n    int Sch[100]= {0};\r\n//cin\r\n    cin >> n;\r\n    for (int i=0 ; i<=(n-1) ; i++)\r\n    {\r\n        cin >> Name[i];\r\n        for (int j =0 ; j<=1 ; j++)\r\n            cin >> Num[j][i];\r\n        for (int j=0 ; j<=1 ; j++)\r\n            cin >> Chr[j][i];\r\n        cin >> Num[2][i];\r\n    }\r\n//Calculate\r\n    for (int i=0; i<=n-1; i++)\r\n    {\r\n        //Sch1\r\n        if (Num[0][i]>80 and Num[2][i]>=1)\r\n            Sch1=8000;\r\n        else\r\n            Sch1=0;\r\n        //Sch2\r\n        if (Num[0][i]>85 and Num[1][i]>80)\r\n            Sch2=4000;\r\n        else\r\n            Sch2=0;\r\n        //Sch3\r\n        if (Num[0][i]>90)\r\n            Sch3=2000;\r\n        else\r\n            Sch3=0;\r\n        //Sch4\r\n        if ((Num[0][i] > 85) and (Chr[1][i] == ''Y''))\r\n            Sch4=1000;\r\n        else\r\n            Sch4=0;\r\n        //Sch5\r\n        if ((Num[1][i] > 80) and (Chr[0][i] == ''Y''))\r\n            Sch5=850;\r\n        else\r\n            Sch5=0;\r\n        //Add_Up\r\n        Sch[i]=Sch1+Sch2+Sch3+Sch4+Sch5;\r\n    }\r\n    //Most?\r\n    int MostSch;\r\n    int No;\r\n    MostSch=0;\r\n    Sum=0;\r\n    for (int i=0; i<=n-1; i++)\r\n    {\r\n        if (Sch[i]> MostSch)\r\n        {\r\n            MostSch=Sch[i];\r\n            No=i;\r\n        }\r\n        Sum=Sum+Sch[i];\r\n    }\r\n//cout\r\n    cout << Name[No] << endl;\r\n    cout << Sch[No] << endl;\r\n    cout << Sum << endl;\r\n}');
+INSERT INTO `voj_submissions` (`submission_id`, `problem_id`, `uid`, `language_id`, `submission_code_hash`, `submission_submit_time`, `submission_execute_time`, `submission_used_time`, `submission_used_memory`, `submission_judge_result`, `submission_judge_score`) VALUES
+(1000, 1000, 1000, 2, '5371c978f5df4fb3d86a95256ff24b79f8c80eb6ad3bc7cfa2a1d9f6ee2bffb3', '2014-10-01 00:00:00', '2014-10-01 00:00:05', 30, 280, 'AC', 100),
+(1001, 1000, 1000, 3, '6a741f561e464142d94c5a3f1e4aa56c503853a30d0330905465a978c4a8bc94', '2014-10-17 23:59:59', '2014-10-18 00:00:00', 30, 280, 'WA', 10),
+(1002, 1000, 1001, 2, '5f8e10ffbab613392960ae56cf3203602018c53a6044ca286dc54560cf1bf046', '2014-11-02 12:04:39', '2014-11-02 12:04:59', 30, 280, 'CE', 0),
+(1003, 1001, 1000, 2, 'aff10c44490b75540b5c73372ed88b27cec5dd87699edb86d5c71a0fb3fc8b55', '2015-01-17 02:06:43', '2015-01-17 02:06:53', 30, 280, 'AC', 100);
 
 -- --------------------------------------------------------
 
@@ -542,7 +630,8 @@ ALTER TABLE `voj_contests`
 --
 ALTER TABLE `voj_contest_contestants`
   ADD PRIMARY KEY (`contest_id`,`contestant_uid`),
-  ADD KEY `contestant_uid` (`contestant_uid`);
+  ADD KEY `contestant_uid` (`contestant_uid`),
+  ADD KEY `contestant_rank` (`contest_id`,`contestant_score` DESC,`contestant_time`,`contestant_uid`);
 
 --
 -- Indexes for table `voj_contest_submissions`
@@ -559,14 +648,22 @@ ALTER TABLE `voj_discussion_replies`
   ADD KEY `discussion_id` (`discussion_thread_id`,`discussion_reply_uid`),
   ADD KEY `discussion_reply_uid` (`discussion_reply_uid`);
 
+--
+-- Indexes for table `voj_discussion_reply_votes`
+--
+ALTER TABLE `voj_discussion_reply_votes`
+  ADD PRIMARY KEY (`discussion_reply_id`,`discussion_reply_voter_uid`),
+  ADD KEY `discussion_reply_voter_uid` (`discussion_reply_voter_uid`);
+
 --
 -- Indexes for table `voj_discussion_threads`
 --
 ALTER TABLE `voj_discussion_threads`
   ADD PRIMARY KEY (`discussion_thread_id`),
-  ADD KEY `discussion_topic_id` (`discussion_topic_id`),
+  ADD KEY `discussion_topic_id` (`discussion_topic_id`,`discussion_thread_latest_reply_id`),
   ADD KEY `discussion_creator_uid` (`discussion_thread_creator_uid`),
-  ADD KEY `problem_id` (`problem_id`);
+  ADD KEY `problem_id` (`problem_id`,`discussion_thread_latest_reply_id`),
+  ADD KEY `discussion_thread_latest_reply_id` (`discussion_thread_latest_reply_id`);
 
 --
 -- Indexes for table `voj_discussion_topics`
@@ -643,6 +740,24 @@ ALTER TABLE `voj_problem_tag_relationships`
   ADD PRIMARY KEY (`problem_id`,`problem_tag_id`),
   ADD KEY `problem_tag_id` (`problem_tag_id`);
 
+--
+-- Indexes for table `voj_scheduled_task_locks`
+--
+ALTER TABLE `voj_scheduled_task_locks`
+  ADD PRIMARY KEY (`task_name`);
+
+--
+-- Indexes for table `voj_submission_codes`
+--
+ALTER TABLE `voj_submission_codes`
+  ADD PRIMARY KEY (`submission_code_hash`);
+
+--
+-- Indexes for table `voj_submission_contents`
+--
+ALTER TABLE `voj_submission_contents`
+  ADD PRIMARY KEY (`submission_id`);
+
 --
 -- Indexes for table `voj_submissions`
 --
@@ -651,7 +766,9 @@ ALTER TABLE `voj_submissions`
   ADD KEY `problem_id` (`problem_id`,`uid`),
   ADD KEY `uid` (`uid`),
   ADD KEY `submission_language_id` (`language_id`),
-  ADD KEY `submission_runtime_result` (`submission_judge_result`);
+  ADD KEY `submission_code_hash` (`submission_code_hash`),
+  ADD KEY `submission_runtime_result` (`submission_judge_result`),
+  ADD KEY `submission_dispatch_time` (`submission_dispatch_time`);
 
 --
 -- Indexes for table `voj_usermeta`
@@ -781,6 +898,13 @@ ALTER TABLE `voj_discussion_replies`
   ADD CONSTRAINT `voj_discussion_replies_ibfk_1` FOREIGN KEY (`discussion_thread_id`) REFERENCES `voj_discussion_threads` (`discussion_thread_id`) ON DELETE CASCADE ON UPDATE CASCADE,
   ADD CONSTRAINT `voj_discussion_replies_ibfk_2` FOREIGN KEY (`discussion_reply_uid`) REFERENCES `voj_users` (`uid`) ON DELETE CASCADE ON UPDATE CASCADE;
 
+--
+-- Constraints for table `voj_discussion_reply_votes`
+--
+ALTER TABLE `voj_discussion_reply_votes`
+  ADD CONSTRAINT `voj_discussion_reply_votes_ibfk_1` FOREIGN KEY (`discussion_reply_id`) REFERENCES `voj_discussion_replies` (`discussion_reply_id`) ON DELETE CASCADE ON UPDATE CASCADE,
+  ADD CONSTRAINT `voj_discussion_reply_votes_ibfk_2` FOREIGN KEY (`discussion_reply_voter_uid`) REFERENCES `voj_users` (`uid`) ON DELETE CASCADE ON UPDATE CASCADE;
+
 --
 -- Constraints for table `voj_discussion_threads`
 --
@@ -815,6 +939,12 @@ ALTER TABLE `voj_problem_tag_relationships`
   ADD CONSTRAINT `voj_problem_tag_relationships_ibfk_1` FOREIGN KEY (`problem_id`) REFERENCES `voj_problems` (`problem_id`) ON DELETE CASCADE ON UPDATE CASCADE,
   ADD CONSTRAINT `voj_problem_tag_relationships_ibfk_2` FOREIGN KEY (`problem_tag_id`) REFERENCES `voj_problem_tags` (`problem_tag_id`) ON DELETE CASCADE ON UPDATE CASCADE;
 
+--
+-- Constraints for table `voj_submission_contents`
+--
+ALTER TABLE `voj_submission_contents`
+  ADD CONSTRAINT `voj_submission_contents_ibfk_1` FOREIGN KEY (`submission_id`) REFERENCES `voj_submissions` (`submission_id`) ON DELETE CASCADE ON UPDATE CASCADE;
+
 --
 -- Constraints for table `voj_submissions`
 --
@@ -822,7 +952,8 @@ ALTER TABLE `voj_submissions`
   ADD CONSTRAINT `voj_submissions_ibfk_1` FOREIGN KEY (`problem_id`) REFERENCES `voj_problems` (`problem_id`) ON DELETE CASCADE ON UPDATE CASCADE,
   ADD CONSTRAINT `voj_submissions_ibfk_2` FOREIGN KEY (`uid`) REFERENCES `voj_users` (`uid`) ON DELETE CASCADE ON UPDATE CASCADE,
   ADD CONSTRAINT `voj_submissions_ibfk_3` FOREIGN KEY (`language_id`) REFERENCES `voj_languages` (`language_id`) ON DELETE CASCADE ON UPDATE CASCADE,
-  ADD CONSTRAINT `voj_submissions_ibfk_4` FOREIGN KEY (`submission_judge_result`) REFERENCES `voj_judge_results` (`judge_result_slug`);
+  ADD CONSTRAINT `voj_submissions_ibfk_4` FOREIGN KEY (`submission_judge_result`) REFERENCES `voj_judge_results` (`judge_result_slug`),
+  ADD CONSTRAINT `voj_submissions_ibfk_5` FOREIGN KEY (`submission_code_hash`) REFERENCES `voj_submission_codes` (`submission_code_hash`);
 
 --
 -- Constraints for table `voj_usermeta`
@@ -1,7 +1,5 @@
 package org.verwandlung.voj.web.aspect;
 
-import java.util.HashMap;
-import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -15,7 +13,6 @@ import org.aspectj.lang.annotation.Aspect;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.servlet.ModelAndView;
 
-import org.verwandlung.voj.web.model.Option;
 import org.verwandlung.voj.web.model.User;
 import org.verwandlung.voj.web.service.OptionService;
 import org.verwandlung.voj.web.service.SubmissionService;
@@ -77,15 +74,7 @@ public class ViewAspect {
 	 * @return 包含系统定义选项的键值对列表
 	 */
 	private Map<String, String> getSystemOptions() {
-		List<Option> options = optionService.getAutoloadOptions();
-		Map<String, String> optionMap = new HashMap<>();
-		
-		for ( Option option : options  ) {
-			String key = option.getOptionName();
-			String value = option.getOptionValue();
-			optionMap.put(key, value);
-		}
-		return optionMap;
+		return optionService.getAutoloadOptionMap();
 	}
 	
 	/**
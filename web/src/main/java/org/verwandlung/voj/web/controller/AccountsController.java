@@ -150,7 +150,7 @@ public class AccountsController {
 			view = new ModelAndView("redirect:/");
 		} else {
 			List<Language> languages = languageService.getAllLanguages();
-			boolean isAllowRegister = optionService.getOption("allowUserRegister").getOptionValue().equals("1");
+			boolean isAllowRegister = "1".equals(optionService.getOptionValue("allowUserRegister"));
 			
 			view = new ModelAndView("accounts/register");
 			view.addObject("languages", languages);
@@ -178,7 +178,7 @@ public class AccountsController {
 			@RequestParam(value="languagePreference") String languageSlug,
 			@RequestParam(value="csrfToken") String csrfToken,
 			HttpServletRequest request) {
-		boolean isAllowRegister = optionService.getOption("allowUserRegister").getOptionValue().equals("1");
+		boolean isAllowRegister = "1".equals(optionService.getOptionValue("allowUserRegister"));
 		boolean isCsrfTokenValid = CsrfProtector.isCsrfTokenValid(csrfToken, request.getSession());
 		String userGroupSlug = "users";
 		Map<String, Boolean> result = userService.createUser(username, password, email, 
@@ -37,11 +37,14 @@ import org.verwandlung.voj.web.model.UserGroup;
 import org.verwandlung.voj.web.service.LanguageService;
 import org.verwandlung.voj.web.service.OptionService;
 import org.verwandlung.voj.web.service.ProblemService;
+import org.verwandlung.voj.web.service.RejudgeService;
 import org.verwandlung.voj.web.service.SubmissionService;
 import org.verwandlung.voj.web.service.UserService;
 import org.verwandlung.voj.web.util.CsrfProtector;
 import org.verwandlung.voj.web.util.DateUtils;
 import org.verwandlung.voj.web.util.HttpRequestParser;
+import org.verwandlung.voj.web.util.HttpSessionParser;
+import org.verwandlung.voj.web.util.PageCursor;
 import org.verwandlung.voj.web.util.SessionListener;
 
 /**
@@ -196,21 +199,32 @@ public class AdministrationController {
 			@RequestParam(value="userGroup", required=false, defaultValue="") String userGroupSlug,
 			@RequestParam(value="username", required=false, defaultValue="") String username,
 			@RequestParam(value="page", required=false, defaultValue="1") long pageNumber,
+			@RequestParam(value="cursor", required=false, defaultValue="") String cursorToken,
 			HttpServletRequest request, HttpServletResponse response) {
 		final int NUMBER_OF_USERS_PER_PAGE = 100;
 		List<UserGroup> userGroups = userService.getUserGroups();
 		UserGroup userGroup = userService.getUserGroupUsingSlug(userGroupSlug);
 		long totalUsers = userService.getNumberOfUsersUsingUserGroupAndUsername(userGroup, username);
-		long offset = (pageNumber >= 1 ? pageNumber - 1 : 0) * NUMBER_OF_USERS_PER_PAGE;
-		List<User> users = userService.getUserUsingUserGroupAndUsername(userGroup, username, offset, NUMBER_OF_USERS_PER_PAGE);
+		long totalPages = (long) Math.ceil(totalUsers * 1.0 / NUMBER_OF_USERS_PER_PAGE);
+		PageCursor cursor = PageCursor.parse(cursorToken);
+		if ( cursor == null ) {
+			pageNumber = 1;
+		}
+		List<User> users = userService.getUserUsingUserGroupAndUsername(userGroup, username, cursor, NUMBER_OF_USERS_PER_PAGE);
 		
 		ModelAndView view = new ModelAndView("administration/all-users");
 		view.addObject("userGroups", userGroups);
 		view.addObject("selectedUserGroup", userGroupSlug);
 		view.addObject("username", username);
 		view.addObject("currentPage", pageNumber);
-		view.addObject("totalPages", (long) Math.ceil(totalUsers * 1.0 / NUMBER_OF_USERS_PER_PAGE));
+		view.addObject("totalPages", totalPages);
 		view.addObject("users", users);
+		if ( !users.isEmpty() ) {
+			long firstUid = users.get(0).getUid();
+			long lastUid = users.get(users.size() - 1).getUid();
+			view.addObject("previousCursor", pageNumber > 1 ? PageCursor.before(firstUid).getToken() : "");
+			view.addObject("nextCursor", pageNumber < totalPages ? PageCursor.after(lastUid).getToken() : "");
+		}
 		return view;
 	}
 	
@@ -363,30 +377,38 @@ public class AdministrationController {
 			@RequestParam(value="problemCategory", required=false, defaultValue="") String problemCategorySlug,
 			@RequestParam(value="problemTag", required=false, defaultValue="") String problemTagSlug,
 			@RequestParam(value="page", required=false, defaultValue="1") long pageNumber,
+			@RequestParam(value="cursor", required=false, defaultValue="") String cursorToken,
 			HttpServletRequest request, HttpServletResponse response) {
 		final int NUMBER_OF_PROBLEMS_PER_PAGE = 100;
 		List<ProblemCategory> problemCategories = problemService.getProblemCategories();
 		long totalProblems = problemService.getNumberOfProblemsUsingFilters(keyword, problemCategorySlug, false);
-
-		long offset = (pageNumber >= 1 ? pageNumber - 1 : 0) * NUMBER_OF_PROBLEMS_PER_PAGE;
-		long problemIdLowerBound = problemService.getFirstIndexOfProblems() + offset;
-		long problemIdUpperBound = problemIdLowerBound + NUMBER_OF_PROBLEMS_PER_PAGE - 1;
-
-		List<Problem> problems = problemService.getProblemsUsingFilters(problemIdLowerBound, keyword, problemCategorySlug, problemTagSlug, false, NUMBER_OF_PROBLEMS_PER_PAGE);
-		Map<Long, List<ProblemCategory>> problemCategoryRelationships =
-				problemService.getProblemCategoriesOfProblems(problemIdLowerBound, problemIdUpperBound);
-		Map<Long, List<ProblemTag>> problemTagRelationships =
-				problemService.getProblemTagsOfProblems(problemIdLowerBound, problemIdUpperBound);
+		long totalPages = (long) Math.ceil(totalProblems * 1.0 / NUMBER_OF_PROBLEMS_PER_PAGE);
+		PageCursor cursor = PageCursor.parse(cursorToken);
+		if ( cursor == null ) {
+			pageNumber = 1;
+		}
+		List<Problem> problems = problemService.getProblemsUsingFilters(cursor, keyword, problemCategorySlug, problemTagSlug, false, NUMBER_OF_PROBLEMS_PER_PAGE);
 
 		ModelAndView view = new ModelAndView("administration/all-problems");
 		view.addObject("problemCategories", problemCategories);
 		view.addObject("selectedProblemCategory", problemCategorySlug);
 		view.addObject("keyword", keyword);
 		view.addObject("currentPage", pageNumber);
-		view.addObject("totalPages", (long) Math.ceil(totalProblems * 1.0 / NUMBER_OF_PROBLEMS_PER_PAGE));
+		view.addObject("totalPages", totalPages);
 		view.addObject("problems", problems);
-		view.addObject("problemCategoryRelationships", problemCategoryRelationships);
-		view.addObject("problemTagRelationships", problemTagRelationships);
+		if ( !problems.isEmpty() ) {
+			long problemIdLowerBound = problems.get(0).getProblemId();
+			long problemIdUpperBound = problems.get(problems.size() - 1).getProblemId();
+			Map<Long, List<ProblemCategory>> problemCategoryRelationships =
+					problemService.getProblemCategoriesOfProblems(problemIdLowerBound, problemIdUpperBound);
+			Map<Long, List<ProblemTag>> problemTagRelationships =
+					problemService.getProblemTagsOfProblems(problemIdLowerBound, problemIdUpperBound);
+			
+			view.addObject("problemCategoryRelationships", problemCategoryRelationships);
+			view.addObject("problemTagRelationships", problemTagRelationships);
+			view.addObject("previousCursor", pageNumber > 1 ? PageCursor.before(problemIdLowerBound).getToken() : "");
+			view.addObject("nextCursor", pageNumber < totalPages ? PageCursor.after(problemIdUpperBound).getToken() : "");
+		}
 		return view;
 	}
 
@@ -676,6 +698,7 @@ public class AdministrationController {
 	 * @param problemId - 提交对应试题的唯一标识符
 	 * @param username - 提交者的用户名
 	 * @param pageNumber - 当前页面的页码
+	 * @param cursorToken - 分页游标的字符串表示
 	 * @param request - HttpServletRequest对象
 	 * @param response - HttpServletResponse对象
 	 * @return 包含提交列表页面信息的ModelAndView对象
@@ -685,20 +708,31 @@ public class AdministrationController {
 			@RequestParam(value="problemId", required=false, defaultValue="0") long problemId,
 			@RequestParam(value="username", required=false, defaultValue="") String username,
 			@RequestParam(value="page", required=false, defaultValue="1") long pageNumber,
+			@RequestParam(value="cursor", required=false, defaultValue="") String cursorToken,
 			HttpServletRequest request, HttpServletResponse response) {
 		final int NUMBER_OF_SUBMISSIONS_PER_PAGE = 100;
 		
 		long totalSubmissions = submissionService.getNumberOfSubmissions(null, null);
-		long latestSubmissionId = submissionService.getLatestSubmissionId();
-		long offset = latestSubmissionId - (pageNumber >= 1 ? pageNumber - 1 : 0) * NUMBER_OF_SUBMISSIONS_PER_PAGE;
-		List<Submission> submissions = submissionService.getSubmissions(problemId, username, offset, NUMBER_OF_SUBMISSIONS_PER_PAGE);
+		long totalPages = (long) Math.ceil(totalSubmissions * 1.0 / NUMBER_OF_SUBMISSIONS_PER_PAGE);
+		PageCursor cursor = PageCursor.parse(cursorToken);
+		if ( cursor == null ) {
+			pageNumber = 1;
+		}
+		List<Submission> submissions = submissionService.getSubmissions(problemId, username, cursor, NUMBER_OF_SUBMISSIONS_PER_PAGE);
 		
 		ModelAndView view = new ModelAndView("administration/all-submissions");
 		view.addObject("problemId", problemId);
 		view.addObject("username", username);
 		view.addObject("currentPage", pageNumber);
-		view.addObject("totalPages", (long) Math.ceil(totalSubmissions * 1.0 / NUMBER_OF_SUBMISSIONS_PER_PAGE));
+		view.addObject("totalPages", totalPages);
 		view.addObject("submissions", submissions);
+		if ( !submissions.isEmpty() ) {
+			long firstSubmissionId = submissions.get(0).getSubmissionId();
+			long lastSubmissionId = submissions.get(submissions.size() - 1).getSubmissionId();
+			view.addObject("previousCursor", pageNumber > 1 ? PageCursor.before(firstSubmissionId).getToken() : "");
+			view.addObject("nextCursor", submissions.size() == NUMBER_OF_SUBMISSIONS_PER_PAGE ? 
+					PageCursor.after(lastSubmissionId).getToken() : "");
+		}
 		return view;
 	}
 	
@@ -733,19 +767,90 @@ public class AdministrationController {
 	 * 重新评测选定的提交记录.
 	 * @param submissions - 提交记录ID的集合, 以逗号(, )分隔
 	 * @param request - HttpServletRequest对象
-	 * @return 重新评测请求的执行结果
+	 * @return 重新评测请求的执行结果, 并包含重新评测任务的唯一标识符
 	 */
 	@RequestMapping(value="/restartSubmissions.action", method=RequestMethod.POST)
-	public @ResponseBody Map<String, Boolean> restartSubmissionsAction(
+	public @ResponseBody Map<String, Object> restartSubmissionsAction(
 			@RequestParam(value="submissions") String submissions,
 			HttpServletRequest request) {
-		Map<String, Boolean> result = new HashMap<>(2, 1);
 		List<Long> submissionList = JSON.parseArray(submissions, Long.class);
+		return createRejudgeJob(submissionList, 0, null, null, request);
+	}
+	
+	/**
+	 * 按试题或提交时间批量重新评测提交记录.
+	 * @param problemId - 试题的唯一标识符(为0时忽略)
+	 * @param startTime - 提交时间的下界(格式为yyyy-MM-dd HH:mm:ss, 为空时忽略)
+	 * @param endTime - 提交时间的上界(格式为yyyy-MM-dd HH:mm:ss, 为空时忽略)
+	 * @param request - HttpServletRequest对象
+	 * @return 重新评测请求的执行结果, 并包含重新评测任务的唯一标识符
+	 */
+	@RequestMapping(value="/createRejudgeJob.action", method=RequestMethod.POST)
+	public @ResponseBody Map<String, Object> createRejudgeJobAction(
+			@RequestParam(value="problemId", required=false, defaultValue="0") long problemId,
+			@RequestParam(value="startTime", required=false, defaultValue="") String startTime,
+			@RequestParam(value="endTime", required=false, defaultValue="") String endTime,
+			HttpServletRequest request) {
+		return createRejudgeJob(null, problemId, StringUtils.trimToNull(startTime), 
+				StringUtils.trimToNull(endTime), request);
+	}
+	
+	/**
+	 * 创建重新评测任务.
+	 * @param submissionIds - 提交记录唯一标识符的列表
+	 * @param problemId - 试题的唯一标识符
+	 * @param startTime - 提交时间的下界
+	 * @param endTime - 提交时间的上界
+	 * @param request - HttpServletRequest对象
+	 * @return 重新评测任务的创建结果
+	 */
+	private Map<String, Object> createRejudgeJob(List<Long> submissionIds, long problemId, 
+			String startTime, String endTime, HttpServletRequest request) {
+		User currentUser = HttpSessionParser.getCurrentUser(request.getSession());
+		String ipAddress = HttpRequestParser.getRemoteAddr(request);
+		Map<String, Object> result = rejudgeService.createRejudgeJob(
+				submissionIds, problemId, startTime, endTime, currentUser.getUsername());
 		
-		for ( Long submissionId : submissionList ) {
-			submissionService.createSubmissionTask(submissionId);
+		if ( (Boolean) result.get("isSuccessful") ) {
+			LOGGER.info(String.format("Rejudge job #%d created by administrator at %s.", 
+					new Object[] {result.get("jobId"), ipAddress}));
 		}
-		result.put("isSuccessful", true);
+		return result;
+	}
+	
+	/**
+	 * 获取重新评测任务的进度.
+	 * @param request - HttpServletRequest对象
+	 * @return 包含全部重新评测任务进度的Map对象
+	 */
+	@RequestMapping(value="/getRejudgeJobs.action", method=RequestMethod.GET)
+	public @ResponseBody Map<String, Object> getRejudgeJobsAction(HttpServletRequest request) {
+		Map<String, Object> result = new HashMap<>(2, 1);
+		result.put("jobs", rejudgeService.getRejudgeJobs());
+		return result;
+	}
+	
+	/**
+	 * 取消重新评测任务.
+	 * 已加入消息队列的提交记录仍会完成评测.
+	 * @param jobId - 重新评测任务的唯一标识符
+	 * @param request - HttpServletRequest对象
+	 * @return 取消请求的执行结果
+	 */
+	@RequestMapping(value="/cancelRejudgeJob.action", method=RequestMethod.POST)
+	public @ResponseBody Map<String, Object> cancelRejudgeJobAction(
+			@RequestParam(value="jobId") long jobId,
+			HttpServletRequest request) {
+		Map<String, Object> result = new HashMap<>(2, 1);
+		boolean isSuccessful = rejudgeService.cancelRejudgeJob(jobId);
+		
+		if ( isSuccessful ) {
+			String ipAddress = HttpRequestParser.getRemoteAddr(request);
+			LOGGER.info(String.format("Rejudge job #%d cancelled by administrator at %s.", 
+					new Object[] {jobId, ipAddress}));
+		}
+		result.put("isSuccessful", isSuccessful);
+		result.put("job", rejudgeService.getRejudgeJob(jobId));
 		return result;
 	}
 	
@@ -875,6 +980,13 @@ public class AdministrationController {
 	 */
 	@Autowired
 	private SubmissionService submissionService;
+	
+	/**
+	 * 自动注入的RejudgeService对象.
+	 * 用于创建和管理重新评测任务.
+	 */
+	@Autowired
+	private RejudgeService rejudgeService;
 
 	/**
 	 * 自动注入的OptionService对象.
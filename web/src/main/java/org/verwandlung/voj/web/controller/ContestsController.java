@@ -3,11 +3,21 @@ package org.verwandlung.voj.web.controller;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.ModelAndView;
 
+import org.verwandlung.voj.web.exception.ResourceNotFoundException;
+import org.verwandlung.voj.web.service.ContestService;
+import org.verwandlung.voj.web.util.ContestScoreboard;
+
 /**
  * 处理比赛的相关请求.
  * 
@@ -28,4 +38,36 @@ public class ContestsController {
 		ModelAndView view = new ModelAndView("contests/contests");
 		return view;
 	}
-}
+
+	/**
+	 * 获取考试的实时排行榜.
+	 * 排行榜快照在生成时已序列化为JSON, 此处直接输出, 不访问数据库.
+	 * 若客户端缓存的排行榜未发生变化(ETag相同), 则返回304状态码.
+	 * @param contestId - 考试的唯一标识符
+	 * @param request - WebRequest对象
+	 * @return 一个包含序列化后的排行榜的ResponseEntity对象
+	 */
+	@RequestMapping(value="/{contestId}/getScoreboard.action", method=RequestMethod.GET)
+	public ResponseEntity<byte[]> getScoreboardAction(
+			@PathVariable("contestId") long contestId,
+			WebRequest request) {
+		ContestScoreboard.Snapshot scoreboard = contestService.getScoreboard(contestId);
+		if ( scoreboard == null ) {
+			throw new ResourceNotFoundException();
+		}
+		if ( request.checkNotModified(scoreboard.getETag()) ) {
+			return null;
+		}
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.cacheControl(CacheControl.noCache())
+				.eTag(scoreboard.getETag())
+				.body(scoreboard.getContent());
+	}
+
+	/**
+	 * 自动注入的ContestService对象.
+	 */
+	@Autowired
+	private ContestService contestService;
+}
\ No newline at end of file
@@ -45,7 +45,7 @@ public class DefaultController {
 	public ModelAndView indexView(
 			HttpServletRequest request, HttpServletResponse response) {
 		List<DiscussionThread> discussionThreads = discussionService.getDiscussionThreadsOfTopic(
-				null, 0, NUMBER_OF_DISCUSSION_THREADS_PER_REQUEST);
+				null, null, NUMBER_OF_DISCUSSION_THREADS_PER_REQUEST);
 		List<BulletinBoardMessage> bulletinBoardMessages = bulletinBoardService.getBulletinBoardMessages(
 				0, NUMBER_OF_BULLETIN_MESSAGES_PER_REQUEST);
 
@@ -99,14 +99,14 @@ public class DefaultController {
 	 * 获取评测机列表.
 	 * @param offset - 当前加载评测机的UID
 	 * @param request - HttpRequest对象
-	 * @return 一个包含评测机列表信息的List<Map<String, String>>对象
+	 * @return 一个包含评测机列表信息的List<Map<String, Object>>对象
 	 */
 	@RequestMapping(value="/getJudgers.action", method=RequestMethod.GET)
 	public @ResponseBody Map<String, Object> getJudgersAction(
 			@RequestParam(value="startIndex", required=false, defaultValue="0") long offset,
 			HttpServletRequest request) {
 		Map<String, Object> result = new HashMap<>();
-		List<Map<String, String>> judgers = getJudgers(offset);
+		List<Map<String, Object>> judgers = getJudgers(offset);
 		
 		result.put("isSuccessful", judgers != null && !judgers.isEmpty());
 		result.put("judgers", judgers);
@@ -116,20 +116,21 @@ public class DefaultController {
 	/**
 	 * 获取评测机的详细信息.
 	 * @param offset - 当前加载评测机的UID
-	 * @return 包含评测机的详细信息的List<Map<String, String>>对象
+	 * @return 包含评测机的详细信息的List<Map<String, Object>>对象
 	 */
-	private List<Map<String, String>> getJudgers(long offset) {
+	private List<Map<String, Object>> getJudgers(long offset) {
 		UserGroup userGroup = userService.getUserGroupUsingSlug("judgers");
 		List<User> judgersList = userService.getUserUsingUserGroup(userGroup, offset, NUMBER_OF_JUDGERS_PER_REQUEST);
-		List<Map<String, String>> judgers = new ArrayList<Map<String, String>>();
+		List<Map<String, Object>> judgers = new ArrayList<Map<String, Object>>();
 		
 		for ( User judger : judgersList ) {
-			Map<String, String> judgerInformation = new HashMap<>(3, 1);
+			Map<String, Object> judgerInformation = new HashMap<>(4, 1);
 			String username = judger.getUsername();
 			String description = keepAliveEventListener.getJudgerDescription(username);
 			
 			judgerInformation.put("username", username);
 			judgerInformation.put("description", description);
+			judgerInformation.put("load", keepAliveEventListener.getJudgerLoad(username));
 			judgers.add(judgerInformation);
 		}
 		return judgers;
@@ -19,6 +19,7 @@ import org.verwandlung.voj.web.service.DiscussionService;
 import org.verwandlung.voj.web.util.CsrfProtector;
 import org.verwandlung.voj.web.util.HttpRequestParser;
 import org.verwandlung.voj.web.util.HttpSessionParser;
+import org.verwandlung.voj.web.util.PageCursor;
 
 import java.util.HashMap;
 import java.util.List;
@@ -45,54 +46,61 @@ public class DiscussionController {
 			@RequestParam(value="topicSlug", required=false, defaultValue="") String discussionTopicSlug,
 			@RequestParam(value="problemId", required=false, defaultValue="-1") long problemId,
 			HttpServletRequest request, HttpServletResponse response) {
-		List<DiscussionThread> discussionThreads = null;
-		if ( problemId != -1 ) {
-			discussionThreads = discussionService.getDiscussionThreadsOfProblem(
-					problemId, 0, NUMBER_OF_THREADS_PER_REQUEST);
-		} else {
-			discussionThreads = discussionService.getDiscussionThreadsOfTopic(
-					discussionTopicSlug, 0, NUMBER_OF_THREADS_PER_REQUEST);
-		}
+		List<DiscussionThread> discussionThreads = getDiscussionThreads(
+				discussionTopicSlug, problemId, null);
+		PageCursor nextCursor = discussionService.getNextCursorOfDiscussionThreads(discussionThreads);
 
 		ModelAndView view = new ModelAndView("discussion/threads");
 		view.addObject("selectedTopicSlug", discussionTopicSlug);
 		view.addObject("problemId", problemId);
 		view.addObject("discussionThreads", discussionThreads);
+		view.addObject("nextCursor", nextCursor == null ? "" : nextCursor.getToken());
 		view.addObject("discussionTopics", discussionService.getDiscussionTopicsWithHierarchy());
 		return view;
 	}
 
 	/**
 	 * 获取讨论帖子列表.
-	 * @param startIndex - 获取讨论帖子的Offset
+	 * @param cursorToken - 分页游标的字符串表示
 	 * @param discussionTopicSlug - 讨论话题的唯一英文缩写
 	 * @param problemId - 试题的唯一标识符
 	 * @return 一个包含讨论帖子列表的HashMap对象
 	 */
 	@RequestMapping(value="/getDiscussionThreads.action", method=RequestMethod.GET)
 	public @ResponseBody Map<String, Object> getDiscussionThreadsAction(
-			@RequestParam(value="startIndex") long startIndex,
+			@RequestParam(value="cursor", required=false, defaultValue="") String cursorToken,
 			@RequestParam(value="topicSlug", required=false, defaultValue="") String discussionTopicSlug,
 			@RequestParam(value="problemId", required=false, defaultValue="-1") long problemId,
 			HttpServletRequest request) {
-		if ( startIndex < 0 ) {
-			startIndex = 0;
-		}
-		List<DiscussionThread> discussionThreads = null;
-		if ( problemId != -1 ) {
-			discussionThreads = discussionService.getDiscussionThreadsOfProblem(
-					problemId, startIndex, NUMBER_OF_THREADS_PER_REQUEST);
-		} else {
-			discussionThreads = discussionService.getDiscussionThreadsOfTopic(
-					discussionTopicSlug, startIndex, NUMBER_OF_THREADS_PER_REQUEST);
-		}
+		List<DiscussionThread> discussionThreads = getDiscussionThreads(
+				discussionTopicSlug, problemId, PageCursor.parse(cursorToken));
+		boolean isSuccessful = discussionThreads != null && !discussionThreads.isEmpty();
 
-		Map<String, Object> result = new HashMap<>(3, 1);
-		result.put("isSuccessful", discussionThreads != null && !discussionThreads.isEmpty());
+		Map<String, Object> result = new HashMap<>(4, 1);
+		result.put("isSuccessful", isSuccessful);
 		result.put("discussionThreads", discussionThreads);
+		if ( isSuccessful ) {
+			result.put("nextCursor", discussionService.getNextCursorOfDiscussionThreads(discussionThreads).getToken());
+		}
 		return result;
 	}
 
+	/**
+	 * 获取某个试题或讨论话题下的讨论帖子.
+	 * @param discussionTopicSlug - 讨论话题的唯一英文缩写
+	 * @param problemId - 试题的唯一标识符(-1表示不限)
+	 * @param cursor - 分页游标(为空引用时从第一页开始)
+	 * @return 包含讨论帖子的List对象
+	 */
+	private List<DiscussionThread> getDiscussionThreads(String discussionTopicSlug, long problemId, PageCursor cursor) {
+		if ( problemId != -1 ) {
+			return discussionService.getDiscussionThreadsOfProblem(
+					problemId, cursor, NUMBER_OF_THREADS_PER_REQUEST);
+		}
+		return discussionService.getDiscussionThreadsOfTopic(
+				discussionTopicSlug, cursor, NUMBER_OF_THREADS_PER_REQUEST);
+	}
+
 	/**
 	 * 显示讨论详情页面.
 	 * @param discussionThreadId - 讨论帖子的唯一标识符
@@ -158,25 +166,28 @@ public class DiscussionController {
 	/**
 	 * 获取讨论回复.
 	 * @param discussionThreadId - 讨论帖子的唯一标识符
-	 * @param startIndex - 讨论回复的起始Offset(已经获取的回复的数量).
+	 * @param cursorToken - 分页游标的字符串表示(为空时从第一条回复开始).
 	 * @param request - HttpServletRequest对象
 	 * @return 包含讨论回复列表(DiscussionReply)的Map对象
 	 */
 	@RequestMapping(value="/{threadId}/getDiscussionReplies.action", method=RequestMethod.GET)
 	public @ResponseBody Map<String, Object> getDiscussionRepliesAction(
 			@PathVariable("threadId") long discussionThreadId,
-			@RequestParam(value="startIndex") long startIndex,
+			@RequestParam(value="cursor", required=false, defaultValue="") String cursorToken,
 			HttpServletRequest request) {
 		long currentUserUid = getUidOfUserLoggedIn(request.getSession());
-		if ( startIndex < 0 ) {
-			startIndex = 0;
-		}
+		PageCursor cursor = PageCursor.parse(cursorToken);
 
 		List<DiscussionReply> discussionReplies = discussionService.getDiscussionRepliesOfThread(
-				discussionThreadId, currentUserUid, startIndex, NUMBER_OF_REPLIES_PER_REQUEST);
-		Map<String, Object> result = new HashMap<>(3, 1);
-		result.put("isSuccessful", discussionReplies != null && !discussionReplies.isEmpty());
+				discussionThreadId, currentUserUid, cursor, NUMBER_OF_REPLIES_PER_REQUEST);
+		boolean isSuccessful = discussionReplies != null && !discussionReplies.isEmpty();
+		Map<String, Object> result = new HashMap<>(4, 1);
+		result.put("isSuccessful", isSuccessful);
 		result.put("discussionReplies", discussionReplies);
+		if ( isSuccessful ) {
+			long lastDiscussionReplyId = discussionReplies.get(discussionReplies.size() - 1).getDiscussionReplyId();
+			result.put("nextCursor", PageCursor.after(lastDiscussionReplyId).getToken());
+		}
 		return result;
 	}
 
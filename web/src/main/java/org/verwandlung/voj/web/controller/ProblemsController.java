@@ -40,6 +40,7 @@ import org.verwandlung.voj.web.util.HttpSessionParser;
 public class ProblemsController {
 	/**
 	 * 显示试题库中的全部试题.
+	 * 若指定了关键词, 则按照全文检索的相关度排列试题.
 	 * @param startIndex - 试题的起始下标
 	 * @param keyword - 关键词
 	 * @param problemCategorySlug - 试题分类的别名
@@ -59,7 +60,7 @@ public class ProblemsController {
 			startIndex = startIndexOfProblems;
 		}
 		
-		List<Problem> problems = problemService.getProblemsUsingFilters(startIndex, keyword, problemCategorySlug, null, true, NUMBER_OF_PROBLEMS_PER_PAGE);
+		List<Problem> problems = getProblems(startIndex, 0, keyword, problemCategorySlug);
 		long totalProblems = problemService.getNumberOfProblemsUsingFilters(keyword, problemCategorySlug, true);
 		ModelAndView view = new ModelAndView("problems/problems");
 		view.addObject("problems", problems)
@@ -67,14 +68,16 @@ public class ProblemsController {
 			.addObject("numberOfProblemsPerPage", NUMBER_OF_PROBLEMS_PER_PAGE)
 			.addObject("totalProblems", totalProblems)
 			.addObject("keyword", keyword)
+			.addObject("highlightedProblemNames", problemService.getHighlightedProblemNames(problems, keyword))
 			.addObject("problemCategories", problemService.getProblemCategoriesWithHierarchy())
 			.addObject("selectedCategorySlug", problemCategorySlug);
 		
 		HttpSession session = request.getSession();
 		if ( isLoggedIn(session) ) {
 			long userId = (Long)session.getAttribute("uid");
-			long endIndex = problemService.getLastIndexOfProblems(true, startIndex, NUMBER_OF_PROBLEMS_PER_PAGE);
-			Map<Long, Submission> submissionOfProblems = submissionService.getSubmissionOfProblems(userId, startIndex, endIndex);
+			long endIndex = getEndIndexOfProblems(problems, startIndex);
+			Map<Long, Submission> submissionOfProblems = submissionService.getSubmissionOfProblems(
+					userId, getStartIndexOfProblems(problems, startIndex), endIndex);
 			view.addObject("submissionOfProblems", submissionOfProblems);
 		}
 		return view;
@@ -88,31 +91,86 @@ public class ProblemsController {
 		return problemService.getFirstIndexOfProblems();
 	}
 	
+	/**
+	 * 获取试题列表.
+	 * 若指定了关键词, 则返回按相关度排列的全文检索结果, 否则返回按编号排列的试题.
+	 * @param startIndex - 试题的起始下标(仅在未指定关键词时使用)
+	 * @param offset - 起始的检索结果序号(仅在指定关键词时使用)
+	 * @param keyword - 关键词
+	 * @param problemCategorySlug - 试题分类的别名
+	 * @return 试题列表
+	 */
+	private List<Problem> getProblems(long startIndex, int offset, String keyword, String problemCategorySlug) {
+		if ( keyword == null || keyword.trim().isEmpty() ) {
+			return problemService.getProblemsUsingFilters(startIndex, keyword, problemCategorySlug, null, true, NUMBER_OF_PROBLEMS_PER_PAGE);
+		}
+		return problemService.searchProblems(keyword, problemCategorySlug, true, offset, NUMBER_OF_PROBLEMS_PER_PAGE);
+	}
+	
+	/**
+	 * 获取已加载的试题列表中的最小试题编号.
+	 * 全文检索的结果按相关度排列, 因此需要遍历整个列表.
+	 * @param problems - 已加载的试题列表
+	 * @param startIndex - 试题的起始下标
+	 * @return 试题编号区间的下界(包含)
+	 */
+	private long getStartIndexOfProblems(List<Problem> problems, long startIndex) {
+		if ( problems == null || problems.isEmpty() ) {
+			return startIndex;
+		}
+		long minProblemId = Long.MAX_VALUE;
+		for ( Problem problem : problems ) {
+			minProblemId = Math.min(minProblemId, problem.getProblemId());
+		}
+		return minProblemId;
+	}
+	
+	/**
+	 * 获取已加载的试题列表之后的第一个试题编号.
+	 * 试题编号不一定连续, 因此使用最大的试题编号而不是起始编号加上试题的数量.
+	 * @param problems - 已加载的试题列表
+	 * @param startIndex - 试题的起始下标
+	 * @return 试题编号区间的上界(不包含)
+	 */
+	private long getEndIndexOfProblems(List<Problem> problems, long startIndex) {
+		if ( problems == null || problems.isEmpty() ) {
+			return startIndex;
+		}
+		long maxProblemId = Long.MIN_VALUE;
+		for ( Problem problem : problems ) {
+			maxProblemId = Math.max(maxProblemId, problem.getProblemId());
+		}
+		return maxProblemId + 1;
+	}
+	
 	/**
 	 * 获取试题列表.
 	 * @param startIndex - 试题的起始下标
+	 * @param offset - 起始的检索结果序号(仅在指定关键词时使用)
 	 * @param request - HttpRequest对象
 	 * @return 一个包含试题列表的HashMap对象
 	 */
 	@RequestMapping(value="/getProblems.action", method=RequestMethod.GET)
 	public @ResponseBody Map<String, Object> getProblemsAction(
 			@RequestParam(value="startIndex") long startIndex,
+			@RequestParam(value="offset", required = false, defaultValue = "0") int offset,
 			@RequestParam(value="keyword", required = false) String keyword,
 			@RequestParam(value="category", required = false) String problemCategorySlug,
 			HttpServletRequest request) {
 		HttpSession session = request.getSession();
-		List<Problem> problems = problemService.getProblemsUsingFilters(startIndex, keyword, problemCategorySlug, null, true, NUMBER_OF_PROBLEMS_PER_PAGE);
+		List<Problem> problems = getProblems(startIndex, offset, keyword, problemCategorySlug);
 		Map<Long, Submission> submissionOfProblems = null;
 		if ( isLoggedIn(session) ) {
 			long userId = (Long)session.getAttribute("uid");
-			submissionOfProblems = submissionService.
-					getSubmissionOfProblems(userId, startIndex, startIndex + NUMBER_OF_PROBLEMS_PER_PAGE);
+			submissionOfProblems = submissionService.getSubmissionOfProblems(userId, 
+					getStartIndexOfProblems(problems, startIndex), getEndIndexOfProblems(problems, startIndex));
 		}
 		
-		Map<String, Object> result = new HashMap<>(4, 1);
+		Map<String, Object> result = new HashMap<>(5, 1);
 		result.put("isSuccessful", problems != null && !problems.isEmpty());
 		result.put("problems", problems);
 		result.put("submissionOfProblems", submissionOfProblems);
+		result.put("highlightedProblemNames", problemService.getHighlightedProblemNames(problems, keyword));
 		return result;
 	}
 	
@@ -162,7 +220,7 @@ public class ProblemsController {
 		
 		ModelAndView view = new ModelAndView("problems/problem");
 		view.addObject("problem", problem);
-		view.addObject("discussionThreads", discussionService.getDiscussionThreadsOfProblem(problemId, 0, NUMBER_OF_DISCUSSTION_THREADS_PER_PROBLEM));
+		view.addObject("discussionThreads", discussionService.getDiscussionThreadsOfProblem(problemId, null, NUMBER_OF_DISCUSSTION_THREADS_PER_PROBLEM));
 		if ( isLoggedIn ) {
 			long userId = (Long)session.getAttribute("uid");
 			Map<Long, Submission> submissionOfProblems = submissionService.getSubmissionOfProblems(userId, problemId, problemId + 1);
@@ -13,6 +13,7 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -49,9 +50,11 @@ public class SubmissionController {
 			@RequestParam(value="problemId", required=false, defaultValue="0") long problemId,
 			@RequestParam(value="username", required=false, defaultValue="") String username,
 			HttpServletRequest request, HttpServletResponse response) {
+		String lastEventId = submissionEventListener.getSubmissionFeedLastEventId();
 		List<Submission> submissions = submissionService.getSubmissions(problemId, username, NUMBER_OF_SUBMISSION_PER_PAGE);
 		return new ModelAndView("submissions/submissions")
-					.addObject("submissions", submissions);
+					.addObject("submissions", submissions)
+					.addObject("lastEventId", lastEventId);
 	}
 	
 	/**
@@ -100,6 +103,34 @@ public class SubmissionController {
 		return result;
 	}
 	
+	/**
+	 * 获取实时的评测列表.
+	 * 推送新创建的提交记录和评测完成的提交记录, 用于代替对getLatestSubmissions.action的轮询.
+	 * 重新连接时, 浏览器发送的Last-Event-ID优先于请求参数中的lastEventId.
+	 * 事件ID仅在同一Web节点的本次运行中有效, 无法补齐断开期间的记录时将推送reset事件.
+	 * @param problemId - 试题的唯一标识符
+	 * @param username - 用户的用户名
+	 * @param lastEventId - 加载页面时评测列表推送通道中最后一条记录的事件ID
+	 * @param lastEventIdHeader - 浏览器最后收到的事件ID
+	 * @param response - HttpResponse对象
+	 * @return 用于推送提交记录的SseEmitter对象
+	 */
+	@RequestMapping("/getSubmissionFeed.action")
+	public SseEmitter getSubmissionFeedAction(
+			@RequestParam(value="problemId", required=false, defaultValue="0") long problemId,
+			@RequestParam(value="username", required=false, defaultValue="") String username,
+			@RequestParam(value="lastEventId", required=false, defaultValue="") String lastEventId,
+			@RequestHeader(value="Last-Event-ID", required=false) String lastEventIdHeader,
+			HttpServletResponse response) {
+		if ( lastEventIdHeader != null && !lastEventIdHeader.isEmpty() ) {
+			lastEventId = lastEventIdHeader;
+		}
+		response.addHeader("X-Accel-Buffering", "no");
+		SseEmitter sseEmitter = new SseEmitter();
+		submissionEventListener.addSubmissionFeedSseEmitter(sseEmitter, problemId, username, lastEventId);
+		return sseEmitter;
+	}
+	
 	/**
 	 * 显示提交记录详细信息的页面.
 	 * @param submissionId - 提交记录的唯一标识符
@@ -144,8 +175,8 @@ public class SubmissionController {
 		
 		response.addHeader("X-Accel-Buffering", "no");
 		SseEmitter sseEmitter = new SseEmitter();
-		submissionEventListener.addSseEmitters(submissionId, sseEmitter);
 		sseEmitter.send("Established");
+		submissionEventListener.addSseEmitters(submissionId, sseEmitter);
 		return sseEmitter;
 	}
 	
@@ -181,7 +212,7 @@ public class SubmissionController {
 	
 	/**
 	 * 自动注入的ApplicationEventListener对象.
-	 * 用于向其中注册sseEmitter.
+	 * 用于向其中注册sseEmitter, 以及获取评测列表推送通道的状态.
 	 */
 	@Autowired
 	private ApplicationEventListener submissionEventListener;
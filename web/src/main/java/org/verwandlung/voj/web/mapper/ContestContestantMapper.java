@@ -18,16 +18,33 @@ public interface ContestContestantMapper {
 	 */
 	long getNumberOfContestantsOfContest(long contestId);
 
+	/**
+	 * 获取某个考试的全部参赛者.
+	 * 用于构建考试的实时排行榜.
+	 * @param contestId - 考试的唯一标识符
+	 * @return 某个考试的全部参赛者
+	 */
+	List<ContestContestant> getContestantsOfContest(long contestId);
+
 	/**
 	 * 获取某个OI赛制的考试的参赛者列表(按得分由高到底排列).
+	 * 得分相同时按用时由少到多排列, 用时也相同时按参赛者的用户唯一标识符排列.
+	 * 参赛者列表从排名位于(contestantScore, contestantTime, contestantUid)之后的参赛者开始.
+	 * 得分和用时由考试的排行榜写入, 并由(contest_id, contestant_score DESC, contestant_time, contestant_uid)索引,
+	 * 支持降序索引的数据库(MySQL 8.0+, MariaDB 10.8+)可直接按索引顺序读取一页参赛者,
+	 * 其他版本的数据库仍需对该考试的参赛者排序, 但不再需要为每个参赛者计算得分.
 	 * @param contestId - 考试的唯一标识符
-	 * @param offset - 起始参赛者的偏移量(offset)
+	 * @param contestantScore - 上一页最后一个参赛者的得分
+	 * @param contestantTime - 上一页最后一个参赛者的用时
+	 * @param contestantUid - 上一页最后一个参赛者的用户唯一标识符(为0时表示获取第一页)
 	 * @param limit - 需要获取参赛者的数量
 	 * @return 某个考试的参赛者列表
 	 */
 	List<ContestContestant> getContestantsOfContestForOi(
 			@Param("contestId") long contestId,
-			@Param("offset") long offset, @Param("limit") int limit);
+			@Param("contestantScore") long contestantScore,
+			@Param("contestantTime") long contestantTime,
+			@Param("contestantUid") long contestantUid, @Param("limit") int limit);
 
 	/**
 	 * 获取某个选手在某个考试的参赛记录.
@@ -51,6 +68,12 @@ public interface ContestContestantMapper {
 	 */
 	int updateContestContestant(ContestContestant contestContestant);
 
+	/**
+	 * 更新参赛者的得分和用时(由实时排行榜定期写回).
+	 * @param contestContestant - 待更新参赛记录
+	 */
+	int updateContestContestantScore(ContestContestant contestContestant);
+
 	/**
 	 * 删除参赛记录.
 	 * @param contestId - 考试的唯一标识符
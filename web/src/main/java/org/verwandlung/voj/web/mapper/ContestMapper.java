@@ -2,7 +2,9 @@ package org.verwandlung.voj.web.mapper;
 
 import org.apache.ibatis.annotations.Param;
 import org.verwandlung.voj.web.model.Contest;
+import org.verwandlung.voj.web.model.Submission;
 
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -33,6 +35,37 @@ public interface ContestMapper {
 	 */
 	Contest getContestsUsingId(long contestId);
 
+	/**
+	 * 获取在某个时间段内进行的考试.
+	 * @param startTime - 时间段的开始时间
+	 * @param endTime - 时间段的结束时间
+	 * @return 考试时间与该时间段有交集的考试列表
+	 */
+	List<Contest> getContestsRunningBetween(@Param("startTime") Date startTime, @Param("endTime") Date endTime);
+
+	/**
+	 * 获取开始时间在某个时间段内的考试.
+	 * @param startTime - 时间段的开始时间
+	 * @param endTime - 时间段的结束时间
+	 * @return 开始时间在该时间段内的考试列表
+	 */
+	List<Contest> getContestsStartingBetween(@Param("startTime") Date startTime, @Param("endTime") Date endTime);
+
+	/**
+	 * 获取某个考试的全部提交记录(按提交记录的唯一标识符升序排列).
+	 * 提交记录中仅包含试题、用户和评测结果等列表所需的字段.
+	 * @param contestId - 考试的唯一标识符
+	 * @return 某个考试的全部提交记录
+	 */
+	List<Submission> getSubmissionsOfContest(long contestId);
+
+	/**
+	 * 记录某个提交属于某个考试.
+	 * @param contestId - 考试的唯一标识符
+	 * @param submissionId - 提交记录的唯一标识符
+	 */
+	int createContestSubmission(@Param("contestId") long contestId, @Param("submissionId") long submissionId);
+
 	/**
 	 * 创建考试.
 	 * @param contest - 待创建的考试对象
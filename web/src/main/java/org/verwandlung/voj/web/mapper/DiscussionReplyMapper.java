@@ -2,6 +2,7 @@ package org.verwandlung.voj.web.mapper;
 
 import org.apache.ibatis.annotations.Param;
 import org.verwandlung.voj.web.model.DiscussionReply;
+import org.verwandlung.voj.web.model.DiscussionReplyVote;
 
 import java.util.List;
 
@@ -21,13 +22,13 @@ public interface DiscussionReplyMapper {
 	/**
 	 * 获取某个讨论帖子下的全部回复, 并分页显示.
 	 * @param discussionThreadId - 讨论帖子的唯一标识符
-	 * @param offset 起始回复的游标
+	 * @param discussionReplyId 讨论回复唯一标识符的下界(不包含)
 	 * @param limit 获取回复的数量
 	 * @return 包含讨论话题回复的List对象
 	 */
 	List<DiscussionReply> getDiscussionRepliesUsingThreadId(
 		@Param("discussionThreadId") long discussionThreadId,
-		@Param("offset") long offset, @Param("limit") int limit);
+		@Param("discussionReplyId") long discussionReplyId, @Param("limit") int limit);
 
 	/**
 	 * 创建讨论回复.
@@ -46,4 +47,54 @@ public interface DiscussionReplyMapper {
 	 * @param discussionReplyId - 待删除回复的唯一标识符
 	 */
 	int deleteDiscussionReplyUsingReplyId(long discussionReplyId);
+
+	/**
+	 * 获取某个用户对若干讨论回复的投票.
+	 * @param voterUid - 投票用户的唯一标识符
+	 * @param discussionReplyIds - 讨论回复的唯一标识符列表(不可为空)
+	 * @return 包含DiscussionReplyVote对象的List对象
+	 */
+	List<DiscussionReplyVote> getDiscussionReplyVotesOfUser(
+		@Param("voterUid") long voterUid,
+		@Param("discussionReplyIds") List<Long> discussionReplyIds);
+
+	/**
+	 * 创建讨论回复的投票.
+	 * 若该用户已对该回复投票, 则不进行任何操作.
+	 * @param discussionReplyId - 讨论回复的唯一标识符
+	 * @param voterUid - 投票用户的唯一标识符
+	 * @param vote - 投票结果(1表示赞, -1表示踩)
+	 * @return 新创建投票的数量(0或1)
+	 */
+	int createDiscussionReplyVote(@Param("discussionReplyId") long discussionReplyId,
+		@Param("voterUid") long voterUid, @Param("vote") int vote);
+
+	/**
+	 * 删除讨论回复的投票.
+	 * 仅当该用户的投票结果与vote相同时才会删除.
+	 * @param discussionReplyId - 讨论回复的唯一标识符
+	 * @param voterUid - 投票用户的唯一标识符
+	 * @param vote - 投票结果(1表示赞, -1表示踩)
+	 * @return 被删除投票的数量(0或1)
+	 */
+	int deleteDiscussionReplyVote(@Param("discussionReplyId") long discussionReplyId,
+		@Param("voterUid") long voterUid, @Param("vote") int vote);
+
+	/**
+	 * 原子地更新讨论回复被赞和被踩的次数.
+	 * @param discussionReplyId - 讨论回复的唯一标识符
+	 * @param voteUpDelta - 被赞次数的增量
+	 * @param voteDownDelta - 被踩次数的增量
+	 * @return 操作是否成功完成
+	 */
+	int updateDiscussionReplyVoteCounters(@Param("discussionReplyId") long discussionReplyId,
+		@Param("voteUpDelta") int voteUpDelta, @Param("voteDownDelta") int voteDownDelta);
+
+	/**
+	 * 从讨论回复被赞和被踩的次数中扣除某个用户的投票.
+	 * 用于删除用户之前, 因为用户的投票将被级联删除.
+	 * @param voterUid - 投票用户的唯一标识符
+	 * @return 受影响的讨论回复的数量
+	 */
+	int updateDiscussionReplyVoteCountersUsingVoterUid(@Param("voterUid") long voterUid);
 }
@@ -2,6 +2,7 @@ package org.verwandlung.voj.web.mapper;
 
 import org.apache.ibatis.annotations.CacheNamespace;
 import org.apache.ibatis.annotations.Param;
+import org.verwandlung.voj.web.model.DiscussionReply;
 import org.verwandlung.voj.web.model.DiscussionThread;
 
 import java.util.List;
@@ -14,17 +15,22 @@ import java.util.List;
 @CacheNamespace(implementation = org.mybatis.caches.ehcache.EhcacheCache.class)
 public interface DiscussionThreadMapper {
 	/**
-	 * 获取全部的讨论帖子
+	 * 获取全部的讨论帖子.
+	 * 讨论帖子按最新回复的唯一标识符(即最后活跃时间)和讨论帖子的唯一标识符降序排列,
+	 * 并使用键集分页, 即仅返回排在(latestDiscussionReplyId, discussionThreadId)之后的讨论帖子.
 	 * @param problemId - 试题的唯一标识符
 	 * @param discussionTopicId - 讨论话题的唯一标识符
-	 * @param offset - 讨论帖子的起始ID
+	 * @param latestDiscussionReplyId - 上一页最后一个讨论帖子的最新回复的唯一标识符
+	 * @param discussionThreadId - 上一页最后一个讨论帖子的唯一标识符
 	 * @param limit - 要获取帖子的数量
 	 * @return 包含讨论帖子对象的列表
 	 */
 	List<DiscussionThread> getDiscussionThreads(
 			@Param("problemId") long problemId,
 			@Param("discussionTopicId") int discussionTopicId,
-			@Param("offset") long offset, @Param("limit") int limit);
+			@Param("latestDiscussionReplyId") long latestDiscussionReplyId,
+			@Param("discussionThreadId") long discussionThreadId,
+			@Param("limit") int limit);
 
 	/**
 	 * 获取某个试题的题解讨论.
@@ -53,6 +59,26 @@ public interface DiscussionThreadMapper {
 	 */
 	int updateDiscussionThread(DiscussionThread discussionThread);
 
+	/**
+	 * 获取某个用户回复过的讨论帖子的唯一标识符.
+	 * @param discussionReplyCreatorUid - 讨论回复创建者的用户唯一标识符
+	 * @return 包含讨论帖子唯一标识符的列表
+	 */
+	List<Long> getDiscussionThreadIdsOfReplyCreator(@Param("discussionReplyCreatorUid") long discussionReplyCreatorUid);
+
+	/**
+	 * 在创建讨论回复后更新讨论帖子的回复数量和最新回复.
+	 * @param discussionReply - 新创建的讨论回复
+	 */
+	int updateDiscussionThreadActivityOfNewReply(DiscussionReply discussionReply);
+
+	/**
+	 * 根据讨论帖子现有的回复重新计算讨论帖子的回复数量和最新回复.
+	 * 用于删除讨论回复之后.
+	 * @param discussionThreadId - 讨论帖子的唯一标识符
+	 */
+	int refreshDiscussionThreadActivity(long discussionThreadId);
+
 	/**
 	 * 删除讨论帖子.
 	 * @param discussionThreadId - 待删除讨论帖子的唯一标识符
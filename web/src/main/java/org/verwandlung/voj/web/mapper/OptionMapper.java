@@ -20,6 +20,13 @@ public interface OptionMapper {
 	 */
 	List<Option> getOptions();
 	
+	/**
+	 * 从数据库中获取全部系统选项, 并清空系统选项的缓存.
+	 * 用于其他Web节点更新系统选项后重新加载系统选项.
+	 * @return 一个包含全部系统选项的列表
+	 */
+	List<Option> getLatestOptions();
+	
 	/**
 	 * 获取自动加载的系统选项.
 	 * @return 一个包含自动加载系统选项的列表
@@ -23,13 +23,13 @@ public interface ProblemMapper {
 	
 	/**
 	 * 根据筛选条件获取试题的总数量.
-	 * @param keyword - 关键词
+	 * @param problemIds - 全文检索命中的试题唯一标识符列表(为空引用时不筛选)
 	 * @param problemCategoryId - 试题分类的唯一标识符
 	 * @param isPublicOnly - 是否只筛选公开试题
 	 * @return 符合筛选条件试题的总数量
 	 */
 	long getNumberOfProblemsUsingFilters(
-			@Param("keyword") String keyword, 
+			@Param("problemIds") List<Long> problemIds, 
 			@Param("problemCategoryId") int problemCategoryId,
 			@Param("isPublicOnly") boolean isPublicOnly);
 	
@@ -46,26 +46,37 @@ public interface ProblemMapper {
 	long getUpperBoundOfProblems();
 
 	/**
-	 * 获取某个试题区间内最后一个试题的ID.
-	 * @param isPublicOnly - 是否只筛选公开试题
-	 * @param offset - 试题唯一标识符的起始编号
-	 * @param limit - 需要获取的试题的数量
-	 * @return 某个试题区间内最后一个试题的ID
+	 * 通过试题唯一标识符获取试题对象.
+	 * @param problemId - 试题的唯一标识符
+	 * @return 一个试题对象
 	 */
-	long getUpperBoundOfProblemsWithLimit(
-		@Param("isPublicOnly") boolean isPublicOnly,
-		@Param("problemId") long offset, @Param("limit") int limit);
+	Problem getProblem(@Param("problemId") long problemId);
 	
 	/**
-	 * 通过试题唯一标识符获取试题对象.
+	 * 从数据库中获取试题对象, 并清空试题的缓存.
+	 * 用于在本节点或其他Web节点编辑试题后更新全文检索索引.
 	 * @param problemId - 试题的唯一标识符
 	 * @return 一个试题对象
 	 */
-	Problem getProblem(@Param("problemId") long problemId);
+	Problem getLatestProblem(@Param("problemId") long problemId);
 	
 	/**
-	 * 通过试题唯一标识符和关键字获取某个范围内的所有试题.
-	 * @param keyword - 关键词
+	 * 通过试题唯一标识符列表获取试题(用于展示全文检索的结果).
+	 * 返回的试题不包含试题描述等详细信息, 且不保证与列表中的顺序一致.
+	 * @param problemIds - 试题唯一标识符列表
+	 * @return 试题列表
+	 */
+	List<Problem> getProblemsUsingIds(@Param("problemIds") List<Long> problemIds);
+	
+	/**
+	 * 获取全部试题的名称, 描述及是否公开(用于建立全文检索索引).
+	 * @return 全部试题的列表
+	 */
+	List<Problem> getProblemsForSearchIndex();
+	
+	/**
+	 * 通过试题唯一标识符和筛选条件获取某个范围内的所有试题(按试题唯一标识符升序排列).
+	 * @param problemIds - 全文检索命中的试题唯一标识符列表(为空引用时不筛选)
 	 * @param problemCategoryId - 试题分类的唯一标识符
 	 * @param problemTagId - 试题标签的唯一标识符
 	 * @param isPublicOnly - 是否只筛选公开试题
@@ -74,12 +85,30 @@ public interface ProblemMapper {
 	 * @return 某个范围内的符合条件的试题
 	 */
 	List<Problem> getProblemsUsingFilters(
-			@Param("keyword") String keyword, 
+			@Param("problemIds") List<Long> problemIds, 
 			@Param("problemCategoryId") int problemCategoryId,
 			@Param("problemTagId") long problemTagId,
 			@Param("isPublicOnly") boolean isPublicOnly,
 			@Param("problemId") long offset, @Param("limit") int limit);
 	
+	/**
+	 * 通过试题唯一标识符和筛选条件获取某个试题之前的试题(按试题唯一标识符降序排列).
+	 * 用于获取上一页的试题列表.
+	 * @param problemIds - 全文检索命中的试题唯一标识符列表(为空引用时不筛选)
+	 * @param problemCategoryId - 试题分类的唯一标识符
+	 * @param problemTagId - 试题标签的唯一标识符
+	 * @param isPublicOnly - 是否只筛选公开试题
+	 * @param problemId - 试题唯一标识符的上界(不包含)
+	 * @param limit - 需要获取的试题的数量
+	 * @return 某个范围内的符合条件的试题
+	 */
+	List<Problem> getPreviousProblemsUsingFilters(
+			@Param("problemIds") List<Long> problemIds, 
+			@Param("problemCategoryId") int problemCategoryId,
+			@Param("problemTagId") long problemTagId,
+			@Param("isPublicOnly") boolean isPublicOnly,
+			@Param("problemId") long problemId, @Param("limit") int limit);
+	
 	/**
 	 * 创建一个新的试题对象.
 	 * @param problem - 试题对象
@@ -94,6 +123,25 @@ public interface ProblemMapper {
 	 */
 	int updateProblem(Problem problem);
 	
+	/**
+	 * 更新试题的提交次数和通过次数.
+	 * 为了避免频繁地清空缓存, 该操作不会刷新缓存.
+	 * @param problemId - 试题的唯一标识符
+	 * @param totalSubmissionDelta - 提交次数的增量
+	 * @param acceptedSubmissionDelta - 通过次数的增量
+	 * @return 操作是否成功完成
+	 */
+	int updateSubmissionStatsOfProblem(@Param("problemId") long problemId, 
+			@Param("totalSubmissionDelta") int totalSubmissionDelta, 
+			@Param("acceptedSubmissionDelta") int acceptedSubmissionDelta);
+	
+	/**
+	 * 根据提交记录重新计算所有试题的提交次数和通过次数.
+	 * 用于修正因删除用户等操作导致的统计偏差.
+	 * @return 受影响的试题数量
+	 */
+	int refreshSubmissionStatsOfProblems();
+	
 	/**
 	 * 通过试题的唯一标识符删除一个试题对象.
 	 * @param problemId - 试题的唯一标识符
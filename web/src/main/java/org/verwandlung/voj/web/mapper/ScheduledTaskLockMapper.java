@@ -0,0 +1,33 @@
+package org.verwandlung.voj.web.mapper;
+
+import org.apache.ibatis.annotations.CacheNamespace;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * ScheduledTaskLock Data Access Object.
+ * 
+ * @author Haozhe Xie
+ */
+@CacheNamespace(implementation = org.mybatis.caches.ehcache.EhcacheCache.class)
+public interface ScheduledTaskLockMapper {
+	/**
+	 * 创建定时任务的锁, 并由当前Web节点持有.
+	 * @param taskName - 定时任务的名称
+	 * @param lockedBy - 持有锁的Web节点的唯一标识符
+	 * @param leaseTime - 锁的有效时间(秒)
+	 * @return 创建的锁的数量(锁已存在时为0)
+	 */
+	int createScheduledTaskLock(@Param("taskName") String taskName, 
+			@Param("lockedBy") String lockedBy, @Param("leaseTime") int leaseTime);
+	
+	/**
+	 * 获取定时任务的锁.
+	 * 仅当锁已过期或已由同一Web节点持有时才能获取.
+	 * @param taskName - 定时任务的名称
+	 * @param lockedBy - 持有锁的Web节点的唯一标识符
+	 * @param leaseTime - 锁的有效时间(秒)
+	 * @return 获取的锁的数量(0或1)
+	 */
+	int acquireScheduledTaskLock(@Param("taskName") String taskName, 
+			@Param("lockedBy") String lockedBy, @Param("leaseTime") int leaseTime);
+}
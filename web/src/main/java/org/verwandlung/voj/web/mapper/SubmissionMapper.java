@@ -7,6 +7,7 @@ import org.apache.ibatis.annotations.CacheNamespace;
 import org.apache.ibatis.annotations.Param;
 
 import org.verwandlung.voj.web.model.Submission;
+import org.verwandlung.voj.web.model.SubmissionContent;
 
 /**
  * Submission Data Access Object.
@@ -52,6 +53,35 @@ public interface SubmissionMapper {
 	 */
 	List<Map<String, Object>> getNumberOfSubmissionsGroupByDay(@Param("startTime") String startTime, @Param("endTime") String endTime, @Param("uid") long uid, @Param("isAcceptedOnly") boolean isAcceptedOnly);
 	
+	/**
+	 * [此方法仅供管理员使用]
+	 * 获取需要重新评测的提交记录的数量.
+	 * 各筛选条件之间为"与"的关系, 为空(或为0)的筛选条件将被忽略.
+	 * @param submissionIds - 提交记录唯一标识符的列表
+	 * @param problemId - 试题的唯一标识符
+	 * @param startTime - 提交时间的下界
+	 * @param endTime - 提交时间的上界
+	 * @return 需要重新评测的提交记录的数量
+	 */
+	long getNumberOfSubmissionsForRejudge(@Param("submissionIds") List<Long> submissionIds, 
+			@Param("problemId") long problemId, @Param("startTime") String startTime, @Param("endTime") String endTime);
+	
+	/**
+	 * [此方法仅供管理员使用]
+	 * 获取需要重新评测的提交记录的唯一标识符及其编程语言(按唯一标识符升序排列).
+	 * 各筛选条件之间为"与"的关系, 为空(或为0)的筛选条件将被忽略.
+	 * @param submissionIds - 提交记录唯一标识符的列表
+	 * @param problemId - 试题的唯一标识符
+	 * @param startTime - 提交时间的下界
+	 * @param endTime - 提交时间的上界
+	 * @param afterSubmissionId - 上一批最后一个提交记录的唯一标识符(为0时表示获取第一批)
+	 * @param limit - 每批获取提交记录的数量
+	 * @return 包含提交记录唯一标识符(submission_id)与编程语言唯一英文缩写(language_slug)的列表
+	 */
+	List<Map<String, Object>> getSubmissionsForRejudge(@Param("submissionIds") List<Long> submissionIds, 
+			@Param("problemId") long problemId, @Param("startTime") String startTime, @Param("endTime") String endTime,
+			@Param("afterSubmissionId") long afterSubmissionId, @Param("limit") int limit);
+	
 	/**
 	 * 获取最新提交记录的唯一标识符
 	 * @return 最新提交记录的唯一标识符
@@ -65,8 +95,34 @@ public interface SubmissionMapper {
 	 */
 	Submission getSubmission(@Param("submissionId") long submissionId);
 	
+	/**
+	 * 通过评测记录唯一标识符获取评测记录的代码和评测日志.
+	 * 由getSubmission(long)返回的评测记录在首次访问代码或评测日志时调用.
+	 * 代码通过评测记录的代码摘要从voj_submission_codes数据表中获取.
+	 * @param submissionId - 评测记录的唯一标识符
+	 * @return 包含代码和评测日志的对象
+	 */
+	SubmissionContent getSubmissionContent(@Param("submissionId") long submissionId);
+	
+	/**
+	 * 通过评测记录唯一标识符获取评测记录的概要.
+	 * 仅包含提交列表所需的字段, 同getSubmissions(long, String, int).
+	 * @param submissionId - 评测记录的唯一标识符
+	 * @return 一个评测记录对象
+	 */
+	Submission getSubmissionSummary(@Param("submissionId") long submissionId);
+	
+	/**
+	 * 通过评测记录唯一标识符获取评测记录的评测结果(用于更新考试的排行榜).
+	 * 仅包含提交者, 试题, 提交时间, 运行时间和得分, 且不关联其他数据表.
+	 * @param submissionId - 评测记录的唯一标识符
+	 * @return 一个评测记录对象
+	 */
+	Submission getSubmissionVerdict(@Param("submissionId") long submissionId);
+	
 	/**
 	 * 通过试题唯一标识符获取某个范围内的所有试题.
+	 * 仅包含提交列表所需的字段(不包含代码和评测日志), 试题, 用户, 编程语言和评测结果通过连接查询一次获取.
 	 * @param problemId - 试题的唯一标识符
 	 * @param username - 用户的用户名
 	 * @param limit - 每次加载评测记录的数量
@@ -76,6 +132,7 @@ public interface SubmissionMapper {
 	
 	/**
 	 * 通过试题唯一标识符获取某个范围内的所有试题.
+	 * 仅包含提交列表所需的字段, 同getSubmissions(long, String, int).
 	 * @param problemId - 试题的唯一标识符
 	 * @param username - 用户的用户名
 	 * @param offset - 试题唯一标识符的起始编号
@@ -86,6 +143,7 @@ public interface SubmissionMapper {
 	
 	/**
 	 * 通过试题唯一标识符获取某个范围内的所有试题.
+	 * 仅包含提交列表所需的字段, 同getSubmissions(long, String, int).
 	 * @param problemId - 试题的唯一标识符
 	 * @param username - 用户的用户名
 	 * @param offset - 试题唯一标识符的起始编号
@@ -141,15 +199,42 @@ public interface SubmissionMapper {
 	 */
 	int createSubmission(Submission submission);
 	
+	/**
+	 * 保存提交记录的代码.
+	 * 若相同摘要的代码已存在, 则仅增加该代码的引用计数.
+	 * 需在createSubmission(Submission)之前调用.
+	 * @param submission - 待创建的提交记录对象(需包含代码及其摘要)
+	 */
+	int createSubmissionCode(Submission submission);
+	
 	/**
 	 * 更新提交记录.
 	 * @param submission - 待更新的提交记录对象
 	 */
 	int updateSubmission(Submission submission);
 	
+	/**
+	 * 更新提交记录的评测日志.
+	 * @param submission - 待更新的提交记录对象
+	 */
+	int updateSubmissionJudgeLog(Submission submission);
+	
+	/**
+	 * 减少代码的引用计数.
+	 * 在删除提交记录后调用.
+	 * @param codeHash - 代码的SHA-256摘要
+	 */
+	int releaseSubmissionCode(@Param("codeHash") String codeHash);
+	
 	/**
 	 * 通过提交记录的唯一标识符删除提交记录.
 	 * @param submissionId - 提交记录的唯一标识符
 	 */
 	int deleteSubmission(@Param("submissionId") long submissionId);
+	
+	/**
+	 * 删除不再被任何提交记录引用的代码.
+	 * @param codeHash - 代码的SHA-256摘要
+	 */
+	int deleteUnreferencedSubmissionCode(@Param("codeHash") String codeHash);
 }
@@ -72,14 +72,26 @@ public interface UserMapper {
 	
 	/**
 	 * [此方法仅供管理员使用]
-	 * 根据用户组和用户名筛选用户对象.
+	 * 根据用户组和用户名筛选用户对象(按用户唯一标识符升序排列).
 	 * @param userGroup - 用户组对象
 	 * @param username - 部分或全部用户名
-	 * @param offset - 用户唯一标识符的起始编号
+	 * @param uid - 用户唯一标识符的下界(不包含)
+	 * @param limit - 需要获取的用户的数量
+	 * @return 符合条件的用户列表
+	 */
+	List<User> getUserUsingUserGroupAndUsername(@Param("userGroup") UserGroup userGroup, @Param("username") String username, @Param("uid") long uid, @Param("limit") int limit);
+	
+	/**
+	 * [此方法仅供管理员使用]
+	 * 根据用户组和用户名筛选用户对象(按用户唯一标识符降序排列).
+	 * 用于获取上一页的用户列表.
+	 * @param userGroup - 用户组对象
+	 * @param username - 部分或全部用户名
+	 * @param uid - 用户唯一标识符的上界(不包含)
 	 * @param limit - 需要获取的用户的数量
 	 * @return 符合条件的用户列表
 	 */
-	List<User> getUserUsingUserGroupAndUsername(@Param("userGroup") UserGroup userGroup, @Param("username") String username, @Param("offset") long offset, @Param("limit") int limit);
+	List<User> getPreviousUserUsingUserGroupAndUsername(@Param("userGroup") UserGroup userGroup, @Param("username") String username, @Param("uid") long uid, @Param("limit") int limit);
 	
 	/**
 	 * 创建新用户对象.
@@ -1,23 +1,25 @@
 package org.verwandlung.voj.web.messenger;
 
-import java.io.IOException;
-import java.util.Calendar;
-import java.util.Date;
 import java.util.HashMap;
-import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import org.verwandlung.voj.web.mapper.SubmissionMapper;
+import org.verwandlung.voj.web.model.Submission;
+
 /**
  * 应用程序事件监听器.
  * 负责将消息队列中的消息转发至控制器.
@@ -33,79 +35,154 @@ public class ApplicationEventListener {
 		synchronized (this) {
 			if ( scheduler == null ) {
 				final int INITIAL_DELAY = 0;
-				final int PERIOD = 30;
+				final int PERIOD = 15;
 				
 				scheduler = Executors.newScheduledThreadPool(1);
 				scheduler.scheduleAtFixedRate(new Runnable() {
 					@Override
 					public void run() {
-						Calendar calendar = Calendar.getInstance();
-						calendar.add(Calendar.MINUTE, -PERIOD);
-						Date heartbeatTimeDeadline = calendar.getTime();
-						
-						for ( Iterator<Entry<String, Map<String, Object>>> 
-								itr = onlineJudgers.entrySet().iterator(); itr.hasNext(); ) {
-							Entry<String, Map<String, Object>> entry = itr.next();
-							Date lastHeartbeatTime = (Date) entry.getValue().get("heartbeatTime");
-							
-							if ( !lastHeartbeatTime.after(heartbeatTimeDeadline) ) {
-								itr.remove();
-							}
-						}
+						removeExpiredSubmissionEventChannels();
 					}
-				}, INITIAL_DELAY, PERIOD, TimeUnit.MINUTES);
+				}, INITIAL_DELAY, PERIOD, TimeUnit.SECONDS);
+				sseSender = Executors.newFixedThreadPool(NUMBER_OF_SSE_SENDER_THREADS);
 			}
 		}
+		submissionFeed = new SubmissionFeed(SUBMISSION_FEED_CAPACITY, sseSender);
 	}
 	
 	/**
 	 * 提交事件的处理器.
+	 * 评测信息被缓存在对应提交记录的推送通道中, 并由线程池异步推送至所有订阅者.
 	 * @param event - 提交记录事件
-	 * @throws IOException 
 	 */
 	@EventListener
-	public void submissionEventHandler(SubmissionEvent event) throws IOException {
+	public void submissionEventHandler(SubmissionEvent event) {
 		long submissionId = event.getSubmissionId();
 		String judgeResult = event.getJudgeResult();
 		String message = event.getMessage();
 		boolean isCompleted = event.isCompleted();
-		SseEmitter sseEmitter = sseEmitters.get(submissionId);
 		
-		if ( sseEmitter == null ) {
-			LOGGER.warn(String.format("CANNOT get the SseEmitter for submission #%d.", submissionId));
-			return;
-		}
 		Map<String, String> mapMessage = new HashMap<>(3, 1);
 		mapMessage.put("judgeResult", judgeResult);
 		mapMessage.put("message", message);
-		sseEmitter.send(mapMessage);
+		getSubmissionEventChannel(submissionId).publish(mapMessage, isCompleted);
 		
 		if ( isCompleted ) {
-			sseEmitter.complete();
-			removeSseEmitters(submissionId);
+			publishToSubmissionFeed(submissionId);
+		}
+	}
+	
+	/**
+	 * 提交记录创建事件的处理器.
+	 * 将新创建的提交记录推送至评测列表的订阅者.
+	 * @param event - 提交记录创建事件
+	 */
+	@EventListener
+	public void submissionCreatedEventHandler(SubmissionCreatedEvent event) {
+		publishToSubmissionFeed(event.getSubmissionId());
+	}
+	
+	/**
+	 * 将提交记录的最新状态发布至评测列表的推送通道.
+	 * 无论有多少订阅者, 每个事件只查询一次数据库.
+	 * @param submissionId - 提交记录的唯一标识符
+	 */
+	private void publishToSubmissionFeed(long submissionId) {
+		try {
+			Submission submission = submissionMapper.getSubmissionSummary(submissionId);
+			if ( submission != null ) {
+				submissionFeed.publish(submission);
+			}
+		} catch ( Exception ex ) {
+			LOGGER.catching(ex);
 		}
 	}
 	
+	/**
+	 * 注册评测列表的Server Sent Event发送者对象.
+	 * @param sseEmitter - Server Sent Event的发送者对象
+	 * @param problemId - 试题的唯一标识符(为0时不筛选试题)
+	 * @param username - 用户的用户名(为空时不筛选用户)
+	 * @param lastEventId - 订阅者最后收到的事件ID, 之后的记录将首先被推送至该发送者对象
+	 */
+	public void addSubmissionFeedSseEmitter(SseEmitter sseEmitter, long problemId, String username, String lastEventId) {
+		submissionFeed.subscribe(sseEmitter, problemId, username, lastEventId);
+	}
+	
+	/**
+	 * 获取评测列表推送通道中最后一条记录的事件ID.
+	 * @return 最后一条记录的事件ID
+	 */
+	public String getSubmissionFeedLastEventId() {
+		return submissionFeed.getLastEventId();
+	}
+	
 	/**
 	 * 注册Server Sent Event的发送者对象.
+	 * 该提交记录已产生的评测信息将首先被推送至该发送者对象.
+	 * 若推送通道尚未收到评测完成的消息(例如推送通道已过期被移除), 则从数据库中获取评测结果,
+	 * 评测已完成时将其作为最后一条评测信息推送, 以免订阅者一直等待.
 	 * @param submissionId - 提交记录的唯一标识符
 	 * @param sseEmitter - Server Sent Event的发送者对象
 	 */
 	public void addSseEmitters(long submissionId, SseEmitter sseEmitter) {
-		sseEmitters.put(submissionId, sseEmitter);
+		SubmissionEventChannel channel = getSubmissionEventChannel(submissionId);
+		if ( !channel.isCompleted() ) {
+			publishPersistedJudgeResult(channel);
+		}
+		channel.subscribe(sseEmitter);
+	}
+	
+	/**
+	 * 将数据库中已完成的评测结果发布至推送通道.
+	 * @param channel - 提交记录的实时评测信息推送通道
+	 */
+	private void publishPersistedJudgeResult(SubmissionEventChannel channel) {
+		try {
+			Submission submission = submissionMapper.getSubmissionSummary(channel.getSubmissionId());
+			if ( submission == null || "PD".equals(submission.getJudgeResult().getJudgeResultSlug()) ) {
+				return;
+			}
+			String message = String.format("\n%s, Time = %d ms, Memory = %d KB, Score = %d\n", 
+					new Object[] { submission.getJudgeResult().getJudgeResultName(), submission.getUsedTime(), 
+							submission.getUsedMemory(), submission.getJudgeScore() });
+			Map<String, String> mapMessage = new HashMap<>(3, 1);
+			mapMessage.put("judgeResult", submission.getJudgeResult().getJudgeResultName());
+			mapMessage.put("message", message);
+			channel.publish(mapMessage, true);
+		} catch ( Exception ex ) {
+			LOGGER.catching(ex);
+		}
 	}
 	
 	/**
-	 * 移除Server Sent Event的发送者对象.
+	 * 获取提交记录的实时评测信息推送通道.
+	 * 若推送通道不存在, 则创建一个新的推送通道.
 	 * @param submissionId - 提交记录的唯一标识符
+	 * @return 提交记录的实时评测信息推送通道
 	 */
-	private void removeSseEmitters(long submissionId) {
-		sseEmitters.remove(submissionId);
-		
-		for ( Entry<Long, SseEmitter> mapEntry : sseEmitters.entrySet() ) {
-			long currentSubmissionId = mapEntry.getKey();
-			if ( currentSubmissionId < submissionId ) {
-				sseEmitters.remove(currentSubmissionId);
+	private SubmissionEventChannel getSubmissionEventChannel(long submissionId) {
+		SubmissionEventChannel channel = submissionEventChannels.get(submissionId);
+		if ( channel == null ) {
+			SubmissionEventChannel newChannel = new SubmissionEventChannel(submissionId, sseSender);
+			channel = submissionEventChannels.putIfAbsent(submissionId, newChannel);
+			if ( channel == null ) {
+				channel = newChannel;
+			}
+		}
+		return channel;
+	}
+	
+	/**
+	 * 移除已过期的实时评测信息推送通道.
+	 */
+	private static void removeExpiredSubmissionEventChannels() {
+		long currentTime = System.currentTimeMillis();
+		for ( Iterator<SubmissionEventChannel> itr = submissionEventChannels.values().iterator(); itr.hasNext(); ) {
+			SubmissionEventChannel channel = itr.next();
+			if ( channel.isExpired(currentTime, COMPLETED_CHANNEL_TIMEOUT * 1000L, IDLE_CHANNEL_TIMEOUT * 1000L) ) {
+				channel.close();
+				itr.remove();
 			}
 		}
 	}
@@ -116,15 +193,35 @@ public class ApplicationEventListener {
 	 */
 	@EventListener
 	public void keepAliveEventHandler(KeepAliveEvent event) {
-		String judgerUsername = event.getJudgerUsername(); 
-		String judgerDescription = event.getJudgerDescription();
-		Date heartbeatTime = event.getHeartbeatTime();
-		
-		Map<String, Object> judgerInformation = new HashMap<>();
-		judgerInformation.put("description", judgerDescription);
-		judgerInformation.put("heartbeatTime", heartbeatTime);
-		
-		onlineJudgers.put(judgerUsername, judgerInformation);
+		judgerRegistry.register(event);
+	}
+	
+	/**
+	 * 获取评测机的负载信息.
+	 * @param judgerUsername - 评测机的用户名
+	 * @return 包含空闲评测槽位数量, 等待中的任务数量, CPU负载, 吞吐量, 
+	 *         最后心跳时间及支持的编程语言的Map对象; 若评测机离线, 则返回空引用
+	 */
+	public Map<String, Object> getJudgerLoad(String judgerUsername) {
+		Map<String, Object> judgerInformation = judgerRegistry.getJudger(judgerUsername);
+		if ( judgerInformation == null ) {
+			return null;
+		}
+		Map<String, Object> judgerLoad = new HashMap<>(judgerInformation);
+		judgerLoad.remove("description");
+		return judgerLoad;
+	}
+	
+	/**
+	 * 获取所有在线评测机的空闲评测槽位数量之和.
+	 * @return 空闲评测槽位数量之和
+	 */
+	public int getNumberOfFreeSlots() {
+		int numberOfFreeSlots = 0;
+		for ( Map<String, Object> judgerInformation : judgerRegistry.getOnlineJudgers().values() ) {
+			numberOfFreeSlots += (Integer) judgerInformation.get("freeSlots");
+		}
+		return numberOfFreeSlots;
 	}
 	
 	/**
@@ -134,9 +231,10 @@ public class ApplicationEventListener {
 	 */
 	public String getJudgerDescription(String judgerUsername) {
 		String judgerDescription = "[Offline]";
+		Map<String, Object> judgerInformation = judgerRegistry.getJudger(judgerUsername);
 		
-		if ( onlineJudgers.containsKey(judgerUsername) ) {
-			String description = (String) onlineJudgers.get(judgerUsername).get("description");
+		if ( judgerInformation != null ) {
+			String description = (String) judgerInformation.get("description");
 			judgerDescription = "[Online] " + description;
 		}
 		return judgerDescription;
@@ -147,29 +245,69 @@ public class ApplicationEventListener {
 	 * @return 在线评测机的数量
 	 */
 	public long getOnlineJudgers() {
-		return onlineJudgers.size();
+		return judgerRegistry.getOnlineJudgers().size();
 	}
 	
 	/**
-	 * SseEmitter对象的列表.
+	 * 实时评测信息推送通道的列表.
 	 * Map中的Key表示提交记录的唯一标识符.
-	 * Map中的Value表示对应的SseEmitter对象, 用于推送实时评测信息.
+	 * Map中的Value表示对应的推送通道, 用于缓存并推送实时评测信息.
 	 */
-	private static Map<Long, SseEmitter> sseEmitters = new Hashtable<>();
+	private static ConcurrentMap<Long, SubmissionEventChannel> submissionEventChannels = new ConcurrentHashMap<>();
 	
 	/**
-	 * 在线评测机的列表.
-	 * Map中的Key表示评测机的用户名.
-	 * Map中的Value表示对应评测机的信息.
+	 * 评测列表的实时推送通道.
+	 * 缓存最近创建或评测完成的提交记录, 用于代替评测列表页面的轮询.
 	 */
-	private static Map<String, Map<String, Object>> onlineJudgers = new Hashtable<String, Map<String, Object>>();
+	private final SubmissionFeed submissionFeed;
+	
+	/**
+	 * 评测列表推送通道最多缓存的记录数量.
+	 */
+	private static final int SUBMISSION_FEED_CAPACITY = 512;
+	
+	/**
+	 * 评测完成的推送通道的保留时间(秒).
+	 * 在该时间内建立连接的订阅者仍可收到完整的评测信息.
+	 */
+	private static final int COMPLETED_CHANNEL_TIMEOUT = 60;
+	
+	/**
+	 * 未完成评测的推送通道的最长空闲时间(秒).
+	 */
+	private static final int IDLE_CHANNEL_TIMEOUT = 600;
+	
+	/**
+	 * 用于推送实时评测信息的线程数量.
+	 */
+	private static final int NUMBER_OF_SSE_SENDER_THREADS = 4;
 	
 	/**
 	 * ScheduledExecutorService对象.
-	 * 用于定期移除离线的评测机.
+	 * 用于定期移除过期的推送通道.
 	 */
 	private static ScheduledExecutorService scheduler = null;
 	
+	/**
+	 * ExecutorService对象.
+	 * 用于异步推送实时评测信息, 避免阻塞消息队列的监听线程.
+	 */
+	private static ExecutorService sseSender = null;
+	
+	/**
+	 * 自动注入的JudgerRegistry对象.
+	 * 用于记录评测机的在线状态.
+	 */
+	@Autowired
+	private JudgerRegistry judgerRegistry;
+	
+	/**
+	 * 自动注入的SubmissionMapper对象.
+	 * 用于获取推送至评测列表的提交记录及已完成的评测结果.
+	 */
+	@Autowired
+	private SubmissionMapper submissionMapper;
+	
 	/**
 	 * 日志记录器.
 	 */
@@ -0,0 +1,39 @@
+package org.verwandlung.voj.web.messenger;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 讨论回复更新事件消息.
+ * 当任意一个Web节点编辑或删除讨论回复后, 所有Web节点都会收到该消息.
+ * 
+ * @author Haozhe Xie
+ */
+public class DiscussionReplyUpdatedEvent extends ApplicationEvent {
+	/**
+	 * DiscussionReplyUpdatedEvent的构造函数.
+	 * @param source - 消息发布源
+	 * @param discussionReplyId - 讨论回复的唯一标识符
+	 */
+	public DiscussionReplyUpdatedEvent(Object source, long discussionReplyId) {
+		super(source);
+		this.discussionReplyId = discussionReplyId;
+	}
+
+	/**
+	 * 获取讨论回复的唯一标识符.
+	 * @return 讨论回复的唯一标识符
+	 */
+	public long getDiscussionReplyId() {
+		return discussionReplyId;
+	}
+
+	/**
+	 * 讨论回复的唯一标识符.
+	 */
+	private final long discussionReplyId;
+
+	/**
+	 * 唯一的序列化标识符.
+	 */
+	private static final long serialVersionUID = 3190284752162930461L;
+}
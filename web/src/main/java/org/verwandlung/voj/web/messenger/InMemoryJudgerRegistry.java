@@ -0,0 +1,140 @@
+package org.verwandlung.voj.web.messenger;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * 基于内存的评测机在线状态注册表.
+ * 各Web节点通过订阅评测机心跳的消息主题维护各自的注册表, 
+ * 因此Web节点重启后在一个心跳周期内即可恢复所有在线评测机的状态.
+ * 
+ * @author Haozhe Xie
+ */
+@Component
+public class InMemoryJudgerRegistry implements JudgerRegistry {
+	/* (non-Javadoc)
+	 * @see org.verwandlung.voj.web.messenger.JudgerRegistry#register(org.verwandlung.voj.web.messenger.KeepAliveEvent)
+	 */
+	@Override
+	public void register(KeepAliveEvent event) {
+		String judgerUsername = event.getJudgerUsername();
+		long lastSeen = System.currentTimeMillis();
+		Map<String, Object> previousInformation = judgers.get(judgerUsername);
+		
+		Map<String, Object> judgerInformation = new HashMap<>();
+		judgerInformation.put("description", event.getJudgerDescription());
+		judgerInformation.put("heartbeatTime", event.getHeartbeatTime());
+		judgerInformation.put("lastSeen", new Date(lastSeen));
+		judgerInformation.put("freeSlots", event.getFreeSlots());
+		judgerInformation.put("cpuLoad", event.getCpuLoad());
+		judgerInformation.put("languages", event.getLanguages());
+		judgerInformation.put("finishedTasks", event.getFinishedTasks());
+		judgerInformation.put("throughput", getThroughput(previousInformation, event.getFinishedTasks(), lastSeen));
+		
+		judgers.put(judgerUsername, Collections.unmodifiableMap(judgerInformation));
+		removeExpiredJudgers();
+	}
+	
+	/**
+	 * 计算评测机的吞吐量(每分钟完成的评测任务数量).
+	 * 使用指数加权移动平均以平滑相邻心跳之间的波动.
+	 * @param previousInformation - 评测机上一次心跳时的信息
+	 * @param finishedTasks - 评测机已完成的评测任务数量
+	 * @param currentTime - 当前时间的时间戳
+	 * @return 评测机的吞吐量
+	 */
+	private double getThroughput(Map<String, Object> previousInformation, long finishedTasks, long currentTime) {
+		if ( previousInformation == null || finishedTasks < 0 ) {
+			return 0;
+		}
+		long previousFinishedTasks = (Long) previousInformation.get("finishedTasks");
+		long previousTime = ((Date) previousInformation.get("lastSeen")).getTime();
+		double previousThroughput = (Double) previousInformation.get("throughput");
+		
+		if ( previousFinishedTasks < 0 || finishedTasks < previousFinishedTasks || currentTime <= previousTime ) {
+			// The judger has been restarted since the last heartbeat
+			return previousThroughput;
+		}
+		double currentThroughput = (finishedTasks - previousFinishedTasks) * 60000.0 / (currentTime - previousTime);
+		return THROUGHPUT_SMOOTHING_FACTOR * currentThroughput + 
+				(1 - THROUGHPUT_SMOOTHING_FACTOR) * previousThroughput;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.verwandlung.voj.web.messenger.JudgerRegistry#getJudger(java.lang.String)
+	 */
+	@Override
+	public Map<String, Object> getJudger(String judgerUsername) {
+		Map<String, Object> judgerInformation = judgers.get(judgerUsername);
+		if ( judgerInformation == null || isExpired(judgerInformation, System.currentTimeMillis()) ) {
+			return null;
+		}
+		return judgerInformation;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.verwandlung.voj.web.messenger.JudgerRegistry#getOnlineJudgers()
+	 */
+	@Override
+	public Map<String, Map<String, Object>> getOnlineJudgers() {
+		long currentTime = System.currentTimeMillis();
+		Map<String, Map<String, Object>> onlineJudgers = new HashMap<>();
+		
+		for ( Entry<String, Map<String, Object>> entry : judgers.entrySet() ) {
+			if ( !isExpired(entry.getValue(), currentTime) ) {
+				onlineJudgers.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return onlineJudgers;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.verwandlung.voj.web.messenger.JudgerRegistry#removeExpiredJudgers()
+	 */
+	@Override
+	public void removeExpiredJudgers() {
+		long currentTime = System.currentTimeMillis();
+		for ( Iterator<Map<String, Object>> itr = judgers.values().iterator(); itr.hasNext(); ) {
+			if ( isExpired(itr.next(), currentTime) ) {
+				itr.remove();
+			}
+		}
+	}
+	
+	/**
+	 * 检查评测机的心跳是否超时.
+	 * @param judgerInformation - 评测机的信息
+	 * @param currentTime - 当前时间的时间戳
+	 * @return 评测机的心跳是否超时
+	 */
+	private boolean isExpired(Map<String, Object> judgerInformation, long currentTime) {
+		long lastSeen = ((Date) judgerInformation.get("lastSeen")).getTime();
+		return currentTime - lastSeen > JUDGER_HEARTBEAT_TIMEOUT * 1000L;
+	}
+	
+	/**
+	 * 评测机的信息.
+	 * Map中的Key表示评测机的用户名.
+	 * Map中的Value表示对应评测机的信息(不可修改).
+	 */
+	private final ConcurrentMap<String, Map<String, Object>> judgers = new ConcurrentHashMap<>();
+	
+	/**
+	 * 评测机心跳超时的时间(秒).
+	 * 超过该时间未收到心跳的评测机被视为离线.
+	 */
+	private static final int JUDGER_HEARTBEAT_TIMEOUT = 30;
+	
+	/**
+	 * 计算吞吐量时指数加权移动平均的平滑系数.
+	 */
+	private static final double THROUGHPUT_SMOOTHING_FACTOR = 0.3;
+}
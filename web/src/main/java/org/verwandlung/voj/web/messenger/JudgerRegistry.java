@@ -0,0 +1,40 @@
+package org.verwandlung.voj.web.messenger;
+
+import java.util.Map;
+
+/**
+ * 评测机在线状态的注册表.
+ * 根据评测机的心跳记录评测机的负载及吞吐量, 超过一定时间未收到心跳的评测机被视为离线.
+ * 
+ * 默认的实现({@link InMemoryJudgerRegistry})将状态保存在内存中.
+ * 由于评测机的心跳通过消息主题广播至所有Web节点, 各节点可以独立维护一致的注册表.
+ * 如需在Web节点之间共享状态(如保存在数据库中), 可提供该接口的其他实现.
+ * 
+ * @author Haozhe Xie
+ */
+public interface JudgerRegistry {
+	/**
+	 * 记录评测机的心跳.
+	 * @param event - 评测机心跳事件
+	 */
+	void register(KeepAliveEvent event);
+	
+	/**
+	 * 获取在线评测机的信息.
+	 * @param judgerUsername - 评测机的用户名
+	 * @return 包含评测机的描述信息, 负载, 吞吐量及最后心跳时间的Map对象; 
+	 *         若评测机离线, 则返回空引用
+	 */
+	Map<String, Object> getJudger(String judgerUsername);
+	
+	/**
+	 * 获取所有在线评测机的信息.
+	 * @return 在线评测机的信息, Map中的Key表示评测机的用户名
+	 */
+	Map<String, Map<String, Object>> getOnlineJudgers();
+	
+	/**
+	 * 移除心跳超时的评测机.
+	 */
+	void removeExpiredJudgers();
+}
@@ -1,6 +1,7 @@
 package org.verwandlung.voj.web.messenger;
 
 import java.util.Date;
+import java.util.Set;
 
 import org.springframework.context.ApplicationEvent;
 
@@ -15,12 +16,22 @@ public class KeepAliveEvent extends ApplicationEvent {
 	 * @param source - 消息发布源
 	 * @param judgerUsername - 评测机的用户名
 	 * @param judgerDescription - 评测机的描述信息
+	 * @param heartbeatTime - 评测机发送心跳的时间
+	 * @param freeSlots - 评测机空闲的评测槽位数量
+	 * @param cpuLoad - 评测机的CPU负载
+	 * @param languages - 评测机支持的编程语言唯一英文缩写的集合
+	 * @param finishedTasks - 评测机启动后已完成的评测任务数量
 	 */
-	public KeepAliveEvent(Object source, String judgerUsername, String judgerDescription, Date heartbeatTime) {
+	public KeepAliveEvent(Object source, String judgerUsername, String judgerDescription, Date heartbeatTime, 
+			int freeSlots, double cpuLoad, Set<String> languages, long finishedTasks) {
 		super(source);
 		this.judgerUsername = judgerUsername;
 		this.judgerDescription = judgerDescription;
 		this.heartbeatTime = heartbeatTime;
+		this.freeSlots = freeSlots;
+		this.cpuLoad = cpuLoad;
+		this.languages = languages;
+		this.finishedTasks = finishedTasks;
 	}
 	
 	/**
@@ -47,6 +58,38 @@ public class KeepAliveEvent extends ApplicationEvent {
 		return heartbeatTime;
 	}
 
+	/**
+	 * 获取评测机空闲的评测槽位数量.
+	 * @return 评测机空闲的评测槽位数量
+	 */
+	public int getFreeSlots() {
+		return freeSlots;
+	}
+	
+	/**
+	 * 获取评测机的CPU负载.
+	 * @return 评测机的CPU负载
+	 */
+	public double getCpuLoad() {
+		return cpuLoad;
+	}
+	
+	/**
+	 * 获取评测机支持的编程语言.
+	 * @return 评测机支持的编程语言唯一英文缩写的集合
+	 */
+	public Set<String> getLanguages() {
+		return languages;
+	}
+	
+	/**
+	 * 获取评测机启动后已完成的评测任务数量.
+	 * @return 已完成的评测任务数量, 若评测机未报告则返回-1
+	 */
+	public long getFinishedTasks() {
+		return finishedTasks;
+	}
+
 	/**
 	 * 评测机的用户名.
 	 */
@@ -62,6 +105,26 @@ public class KeepAliveEvent extends ApplicationEvent {
 	 */
 	private final Date heartbeatTime;
 	
+	/**
+	 * 评测机空闲的评测槽位数量.
+	 */
+	private final int freeSlots;
+	
+	/**
+	 * 评测机的CPU负载.
+	 */
+	private final double cpuLoad;
+	
+	/**
+	 * 评测机支持的编程语言唯一英文缩写的集合.
+	 */
+	private final Set<String> languages;
+	
+	/**
+	 * 评测机启动后已完成的评测任务数量.
+	 */
+	private final long finishedTasks;
+	
 	/**
 	 * 唯一的序列化标识符.
 	 */
@@ -2,6 +2,8 @@ package org.verwandlung.voj.web.messenger;
 
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
 
 import javax.jms.JMSException;
 import javax.jms.MapMessage;
@@ -16,7 +18,7 @@ import org.springframework.stereotype.Component;
 
 /**
  * 消息接收服务.
- * 用于接收来自评测机的实时评测结果.
+ * 用于接收来自评测机的实时评测结果, 以及来自其他Web节点的广播消息.
  * 
  * @author Haozhe Xie
  */
@@ -42,6 +44,16 @@ public class MessageReceiver implements MessageListener {
 					allTestPointsFinishedHandler(mapMessage);
 				} else if ( "KeepAlive".equals(event) ) {
 					receiveFromAliveJudgersHandler(mapMessage);
+				} else if ( "OptionsUpdated".equals(event) ) {
+					optionsUpdatedHandler(mapMessage);
+				} else if ( "ProblemUpdated".equals(event) ) {
+					problemUpdatedHandler(mapMessage);
+				} else if ( "SubmissionCreated".equals(event) ) {
+					submissionCreatedHandler(mapMessage);
+				} else if ( "SubmissionDeleted".equals(event) ) {
+					submissionDeletedHandler(mapMessage);
+				} else if ( "DiscussionReplyUpdated".equals(event) ) {
+					discussionReplyUpdatedHandler(mapMessage);
 				} else {
 					LOGGER.warn(String.format("Unknown Event Received. [Event = %s]", 
 							new Object[] { event }));
@@ -59,7 +71,10 @@ public class MessageReceiver implements MessageListener {
 	 */
 	private void errorHandler(MapMessage mapMessage) throws JMSException {
 		long submissionId = mapMessage.getLong("submissionId");
-		eventPublisher.publishEvent(new SubmissionEvent(this, submissionId, "System Error", "System Error.", true));
+		long uid = getLong(mapMessage, "uid");
+		long problemId = getLong(mapMessage, "problemId");
+		eventPublisher.publishEvent(new SubmissionEvent(this, submissionId, uid, problemId, 
+				"SE", "System Error", "System Error.", true));
 		LOGGER.info(String.format("Submission #%d returned [System Error].", submissionId));
 	}
 	
@@ -75,10 +90,13 @@ public class MessageReceiver implements MessageListener {
 		
 		if ( isSuccessful ) {
 			String message = "Compile Successfully.\n\n";
-			eventPublisher.publishEvent(new SubmissionEvent(this, submissionId, "Running", message, false));
+			eventPublisher.publishEvent(new SubmissionEvent(this, submissionId, 0, 0, "PD", "Running", message, false));
 			LOGGER.info(String.format("Submission #%d returned [Compile Successfully].", submissionId));
 		} else {
-			eventPublisher.publishEvent(new SubmissionEvent(this, submissionId, "Compiler Error", log, true));
+			long uid = getLong(mapMessage, "uid");
+			long problemId = getLong(mapMessage, "problemId");
+			eventPublisher.publishEvent(new SubmissionEvent(this, submissionId, uid, problemId, 
+					"CE", "Compiler Error", log, true));
 			LOGGER.info(String.format("Submission #%d returned [Compile Error].\n\tError Message:%s",
 					new Object[] { submissionId, log }));
 		}
@@ -99,7 +117,7 @@ public class MessageReceiver implements MessageListener {
 		
 		String message = String.format("- Test Point #%d: %s, Time = %d ms, Memory = %d KB, Score = %d\n", 
 							new Object[] { checkpointId, runtimeResult, usedTime, usedMemory, score });
-		eventPublisher.publishEvent(new SubmissionEvent(this, submissionId, "Running", message, false));
+		eventPublisher.publishEvent(new SubmissionEvent(this, submissionId, 0, 0, "PD", "Running", message, false));
 		
 		LOGGER.info(String.format("Submission #%d/ CheckPoint#%d returned [%s] (Time = %dms, Memory = %d KB, Score = %d).",
 				new Object[] { submissionId, checkpointId, runtimeResult, usedTime, usedMemory, score }));
@@ -113,13 +131,17 @@ public class MessageReceiver implements MessageListener {
 	private void allTestPointsFinishedHandler(MapMessage mapMessage) throws JMSException {
 		long submissionId = mapMessage.getLong("submissionId");
 		String runtimeResult = mapMessage.getString("runtimeResult");
+		String runtimeResultSlug = mapMessage.getString("runtimeResultSlug");
 		int usedTime = mapMessage.getInt("totalTime");
 		int usedMemory = mapMessage.getInt("maxMemory");
 		int score = mapMessage.getInt("totalScore");
+		long uid = getLong(mapMessage, "uid");
+		long problemId = getLong(mapMessage, "problemId");
 		
 		String message = String.format("\n%s, Time = %d ms, Memory = %d KB, Score = %d\n", 
 							new Object[] { runtimeResult, usedTime, usedMemory, score });
-		eventPublisher.publishEvent(new SubmissionEvent(this, submissionId, runtimeResult, message, true));
+		eventPublisher.publishEvent(new SubmissionEvent(this, submissionId, uid, problemId, 
+				runtimeResultSlug, runtimeResult, message, true));
 		
 		LOGGER.info(String.format("Submission #%d judge completed and returned [%s] (Time = %d ms, Memory = %d KB, Score = %d).",
 				new Object[] { submissionId, runtimeResult, usedTime, usedMemory, score }));
@@ -135,13 +157,107 @@ public class MessageReceiver implements MessageListener {
 		String judgerUsername = mapMessage.getString("username");
 		String judgerDescription = mapMessage.getString("description");
 		long heartbeatTimeInMillis = mapMessage.getLong("heartbeatTime");
+		int freeSlots = mapMessage.itemExists("freeSlots") ? mapMessage.getInt("freeSlots") : 0;
+		double cpuLoad = mapMessage.itemExists("cpuLoad") ? mapMessage.getDouble("cpuLoad") : -1;
+		Set<String> languages = getLanguages(mapMessage.getString("languages"));
+		long finishedTasks = mapMessage.itemExists("finishedTasks") ? mapMessage.getLong("finishedTasks") : -1;
 		
 		Calendar calendar = Calendar.getInstance();
 		calendar.setTimeInMillis(heartbeatTimeInMillis);
 		Date heartbeatTime = calendar.getTime();
 				
-		eventPublisher.publishEvent(new KeepAliveEvent(this, judgerUsername, judgerDescription, heartbeatTime));
-		LOGGER.info(String.format("Received heartbeat from Judger[%s]", judgerUsername));
+		eventPublisher.publishEvent(new KeepAliveEvent(this, judgerUsername, judgerDescription, 
+				heartbeatTime, freeSlots, cpuLoad, languages, finishedTasks));
+		LOGGER.debug(String.format("Received heartbeat from Judger[%s]", judgerUsername));
+	}
+	
+	/**
+	 * 处理Web节点更新系统选项后发送的广播消息.
+	 * @param mapMessage - 消息队列中收到的MapMessage对象
+	 * @throws JMSException 
+	 */
+	private void optionsUpdatedHandler(MapMessage mapMessage) throws JMSException {
+		eventPublisher.publishEvent(new OptionsUpdatedEvent(this));
+		LOGGER.info("Received options updated notification, system options will be reloaded.");
+	}
+	
+	/**
+	 * 处理Web节点创建, 编辑或删除试题后发送的广播消息.
+	 * @param mapMessage - 消息队列中收到的MapMessage对象
+	 * @throws JMSException 
+	 */
+	private void problemUpdatedHandler(MapMessage mapMessage) throws JMSException {
+		long problemId = mapMessage.getLong("problemId");
+		
+		eventPublisher.publishEvent(new ProblemUpdatedEvent(this, problemId));
+		LOGGER.info(String.format("Received problem updated notification, Problem #%d will be re-indexed.", problemId));
+	}
+	
+	/**
+	 * 处理Web节点创建提交记录后发送的广播消息.
+	 * @param mapMessage - 消息队列中收到的MapMessage对象
+	 * @throws JMSException 
+	 */
+	private void submissionCreatedHandler(MapMessage mapMessage) throws JMSException {
+		long submissionId = mapMessage.getLong("submissionId");
+		long uid = getLong(mapMessage, "uid");
+		long problemId = getLong(mapMessage, "problemId");
+		
+		eventPublisher.publishEvent(new SubmissionCreatedEvent(this, submissionId, uid, problemId));
+		LOGGER.debug(String.format("Received submission created notification, Submission #%d.", submissionId));
+	}
+	
+	/**
+	 * 处理Web节点删除提交记录后发送的广播消息.
+	 * @param mapMessage - 消息队列中收到的MapMessage对象
+	 * @throws JMSException 
+	 */
+	private void submissionDeletedHandler(MapMessage mapMessage) throws JMSException {
+		long submissionId = mapMessage.getLong("submissionId");
+		long uid = mapMessage.getLong("uid");
+		
+		eventPublisher.publishEvent(new SubmissionDeletedEvent(this, submissionId, uid));
+		LOGGER.debug(String.format("Received submission deleted notification, Submission #%d.", submissionId));
+	}
+	
+	/**
+	 * 处理Web节点编辑或删除讨论回复后发送的广播消息.
+	 * @param mapMessage - 消息队列中收到的MapMessage对象
+	 * @throws JMSException 
+	 */
+	private void discussionReplyUpdatedHandler(MapMessage mapMessage) throws JMSException {
+		long discussionReplyId = mapMessage.getLong("discussionReplyId");
+		
+		eventPublisher.publishEvent(new DiscussionReplyUpdatedEvent(this, discussionReplyId));
+		LOGGER.debug(String.format("Received discussion reply updated notification, Reply #%d.", discussionReplyId));
+	}
+	
+	/**
+	 * 获取消息中的长整数值.
+	 * 用于读取旧版本的评测机或Web节点不会发送的字段.
+	 * @param mapMessage - 消息队列中收到的MapMessage对象
+	 * @param name - 字段的名称
+	 * @return 字段的值, 字段不存在时返回0
+	 * @throws JMSException
+	 */
+	private long getLong(MapMessage mapMessage, String name) throws JMSException {
+		return mapMessage.itemExists(name) ? mapMessage.getLong(name) : 0;
+	}
+	
+	/**
+	 * 解析评测机支持的编程语言.
+	 * @param languages - 以逗号分隔的编程语言唯一英文缩写
+	 * @return 编程语言唯一英文缩写的集合
+	 */
+	private Set<String> getLanguages(String languages) {
+		Set<String> languageSlugs = new HashSet<>();
+		if ( languages == null || languages.isEmpty() ) {
+			return languageSlugs;
+		}
+		for ( String languageSlug : languages.split(",") ) {
+			languageSlugs.add(languageSlug.trim());
+		}
+		return languageSlugs;
 	}
 	
 	/**
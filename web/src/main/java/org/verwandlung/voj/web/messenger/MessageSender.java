@@ -2,29 +2,87 @@ package org.verwandlung.voj.web.messenger;
 
 import java.util.Map;
 
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.MessagePostProcessor;
 import org.springframework.stereotype.Component;
 
 /**
  * 消息发送服务.
- * 用于发送新的评测任务至消息队列.
+ * 用于发送新的评测任务至消息队列, 以及向所有Web节点或所有评测机广播消息.
  * @author Haozhe Xie
  */
 @Component
 public class MessageSender {
 	/**
-	 * 发送消息至消息队列.
+	 * 发送消息至默认的消息队列.
 	 * @param mapMessage - Key-Value格式的消息
 	 */
 	public void sendMessage(final Map<String, Object> mapMessage) {
 		long submissionId = (Long) mapMessage.get("submissionId");
 		
-		jmsTemplate.convertAndSend(mapMessage);
+		jmsTemplate.convertAndSend(mapMessage, getMessagePostProcessor(mapMessage));
 		LOGGER.info(String.format("Submission task #%d has been created.", new Object[] {submissionId}));
 	}
+	
+	/**
+	 * 发送消息至指定优先级通道的消息队列.
+	 * @param mapMessage - Key-Value格式的消息
+	 * @param lane - 评测任务的优先级通道
+	 */
+	public void sendMessage(final Map<String, Object> mapMessage, SubmissionTaskLane lane) {
+		long submissionId = (Long) mapMessage.get("submissionId");
+		
+		jmsTemplate.convertAndSend(lane.getDestinationName(), mapMessage, getMessagePostProcessor(mapMessage));
+		LOGGER.info(String.format("Submission task #%d has been created in %s lane.", 
+				new Object[] {submissionId, lane}));
+	}
+	
+	/**
+	 * 向所有Web节点广播消息.
+	 * 广播消息与评测结果使用同一个主题(Topic), 评测机不会订阅该主题.
+	 * @param mapMessage - Key-Value格式的消息
+	 */
+	public void sendBroadcastMessage(final Map<String, Object> mapMessage) {
+		jmsTemplate.convertAndSend(broadcastDestination, mapMessage);
+		LOGGER.info(String.format("Broadcast message [%s] has been sent.", new Object[] {mapMessage.get("event")}));
+	}
+	
+	/**
+	 * 向所有评测机广播消息.
+	 * 用于通知评测机预先抓取比赛试题的评测数据, 或使已抓取的评测数据失效.
+	 * @param mapMessage - Key-Value格式的消息
+	 */
+	public void sendJudgerBroadcastMessage(final Map<String, Object> mapMessage) {
+		jmsTemplate.convertAndSend(judgerBroadcastDestination, mapMessage);
+		LOGGER.info(String.format("Judger broadcast message [%s] has been sent.", new Object[] {mapMessage.get("event")}));
+	}
+	
+	/**
+	 * 获取设置消息属性的MessagePostProcessor对象.
+	 * @param mapMessage - Key-Value格式的消息
+	 * @return 设置消息属性的MessagePostProcessor对象
+	 */
+	private MessagePostProcessor getMessagePostProcessor(final Map<String, Object> mapMessage) {
+		return new MessagePostProcessor() {
+			@Override
+			public Message postProcessMessage(Message message) throws JMSException {
+				// 评测机使用消息选择器仅接收其支持的编程语言的评测任务
+				Object languageSlug = mapMessage.get("languageSlug");
+				if ( languageSlug != null ) {
+					message.setStringProperty("languageSlug", (String) languageSlug);
+				}
+				return message;
+			}
+		};
+	}
 
 	/**
 	 * 自动注入的JmsTemplate对象.
@@ -33,6 +91,22 @@ public class MessageSender {
 	@Autowired
 	private JmsTemplate jmsTemplate;
 	
+	/**
+	 * 自动注入的Destination对象.
+	 * 所有Web节点均订阅的主题(Topic).
+	 */
+	@Autowired
+	@Qualifier("broadcastDestination")
+	private Destination broadcastDestination;
+	
+	/**
+	 * 自动注入的Destination对象.
+	 * 所有评测机均订阅的主题(Topic).
+	 */
+	@Autowired
+	@Qualifier("judgerBroadcastDestination")
+	private Destination judgerBroadcastDestination;
+	
 	/**
 	 * 日志记录器.
 	 */
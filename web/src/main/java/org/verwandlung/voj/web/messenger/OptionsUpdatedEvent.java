@@ -0,0 +1,24 @@
+package org.verwandlung.voj.web.messenger;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 系统选项更新事件消息.
+ * 当任意一个Web节点更新系统选项后, 所有Web节点都会收到该消息.
+ * 
+ * @author Haozhe Xie
+ */
+public class OptionsUpdatedEvent extends ApplicationEvent {
+	/**
+	 * OptionsUpdatedEvent的构造函数.
+	 * @param source - 消息发布源
+	 */
+	public OptionsUpdatedEvent(Object source) {
+		super(source);
+	}
+
+	/**
+	 * 唯一的序列化标识符.
+	 */
+	private static final long serialVersionUID = 6024431627393581342L;
+}
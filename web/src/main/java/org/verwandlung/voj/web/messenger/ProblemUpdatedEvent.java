@@ -0,0 +1,39 @@
+package org.verwandlung.voj.web.messenger;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 试题更新事件消息.
+ * 当任意一个Web节点创建, 编辑或删除试题后, 所有Web节点都会收到该消息.
+ * 
+ * @author Haozhe Xie
+ */
+public class ProblemUpdatedEvent extends ApplicationEvent {
+	/**
+	 * ProblemUpdatedEvent的构造函数.
+	 * @param source - 消息发布源
+	 * @param problemId - 试题的唯一标识符
+	 */
+	public ProblemUpdatedEvent(Object source, long problemId) {
+		super(source);
+		this.problemId = problemId;
+	}
+
+	/**
+	 * 获取试题的唯一标识符.
+	 * @return 试题的唯一标识符
+	 */
+	public long getProblemId() {
+		return problemId;
+	}
+
+	/**
+	 * 试题的唯一标识符.
+	 */
+	private final long problemId;
+
+	/**
+	 * 唯一的序列化标识符.
+	 */
+	private static final long serialVersionUID = -2207408468470914032L;
+}
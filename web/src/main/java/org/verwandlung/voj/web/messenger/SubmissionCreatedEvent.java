@@ -0,0 +1,69 @@
+package org.verwandlung.voj.web.messenger;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 提交记录创建事件消息.
+ * 当任意一个Web节点创建提交记录后, 所有Web节点都会收到该消息.
+ * 
+ * @author Haozhe Xie
+ */
+public class SubmissionCreatedEvent extends ApplicationEvent {
+	/**
+	 * SubmissionCreatedEvent的构造函数.
+	 * @param source - 消息发布源
+	 * @param submissionId - 提交记录的唯一标识符
+	 * @param uid - 提交者的用户唯一标识符
+	 * @param problemId - 试题的唯一标识符
+	 */
+	public SubmissionCreatedEvent(Object source, long submissionId, long uid, long problemId) {
+		super(source);
+		this.submissionId = submissionId;
+		this.uid = uid;
+		this.problemId = problemId;
+	}
+
+	/**
+	 * 获取提交记录的唯一标识符.
+	 * @return 提交记录的唯一标识符
+	 */
+	public long getSubmissionId() {
+		return submissionId;
+	}
+
+	/**
+	 * 获取提交者的用户唯一标识符.
+	 * @return 提交者的用户唯一标识符
+	 */
+	public long getUid() {
+		return uid;
+	}
+
+	/**
+	 * 获取试题的唯一标识符.
+	 * @return 试题的唯一标识符
+	 */
+	public long getProblemId() {
+		return problemId;
+	}
+
+	/**
+	 * 提交记录的唯一标识符.
+	 */
+	private final long submissionId;
+
+	/**
+	 * 提交者的用户唯一标识符.
+	 */
+	private final long uid;
+
+	/**
+	 * 试题的唯一标识符.
+	 */
+	private final long problemId;
+
+	/**
+	 * 唯一的序列化标识符.
+	 */
+	private static final long serialVersionUID = 5804172981657380813L;
+}
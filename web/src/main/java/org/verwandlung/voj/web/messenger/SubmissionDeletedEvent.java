@@ -0,0 +1,54 @@
+package org.verwandlung.voj.web.messenger;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 提交记录删除事件消息.
+ * 当任意一个Web节点删除提交记录后, 所有Web节点都会收到该消息.
+ * 
+ * @author Haozhe Xie
+ */
+public class SubmissionDeletedEvent extends ApplicationEvent {
+	/**
+	 * SubmissionDeletedEvent的构造函数.
+	 * @param source - 消息发布源
+	 * @param submissionId - 提交记录的唯一标识符
+	 * @param uid - 提交者的用户唯一标识符
+	 */
+	public SubmissionDeletedEvent(Object source, long submissionId, long uid) {
+		super(source);
+		this.submissionId = submissionId;
+		this.uid = uid;
+	}
+
+	/**
+	 * 获取提交记录的唯一标识符.
+	 * @return 提交记录的唯一标识符
+	 */
+	public long getSubmissionId() {
+		return submissionId;
+	}
+
+	/**
+	 * 获取提交者的用户唯一标识符.
+	 * @return 提交者的用户唯一标识符
+	 */
+	public long getUid() {
+		return uid;
+	}
+
+	/**
+	 * 提交记录的唯一标识符.
+	 */
+	private final long submissionId;
+
+	/**
+	 * 提交者的用户唯一标识符.
+	 */
+	private final long uid;
+
+	/**
+	 * 唯一的序列化标识符.
+	 */
+	private static final long serialVersionUID = -6527483619034387175L;
+}
@@ -12,13 +12,20 @@ public class SubmissionEvent extends ApplicationEvent {
 	 * SubmissionEvent的构造函数.
 	 * @param source - 消息发布源
 	 * @param submissionId - 提交记录的唯一标识符
+	 * @param uid - 提交者的用户唯一标识符(未知时为0)
+	 * @param problemId - 试题的唯一标识符(未知时为0)
+	 * @param judgeResultSlug - 当前评测结果的唯一英文缩写
 	 * @param judgeResult - 当前评测结果
 	 * @param message - 评测消息
 	 * @param isCompleted - 评测是否完成
 	 */
-	public SubmissionEvent(Object source, long submissionId, String judgeResult, String message, boolean isCompleted) {
+	public SubmissionEvent(Object source, long submissionId, long uid, long problemId, 
+			String judgeResultSlug, String judgeResult, String message, boolean isCompleted) {
 		super(source);
 		this.submissionId = submissionId;
+		this.uid = uid;
+		this.problemId = problemId;
+		this.judgeResultSlug = judgeResultSlug;
 		this.judgeResult = judgeResult;
 		this.message = message;
 		this.isCompleted = isCompleted;
@@ -32,6 +39,32 @@ public class SubmissionEvent extends ApplicationEvent {
 		return submissionId;
 	}
 
+	/**
+	 * 获取提交者的用户唯一标识符.
+	 * 仅评测完成的事件包含该信息.
+	 * @return 提交者的用户唯一标识符, 未知时为0
+	 */
+	public long getUid() {
+		return uid;
+	}
+
+	/**
+	 * 获取试题的唯一标识符.
+	 * 仅评测完成的事件包含该信息.
+	 * @return 试题的唯一标识符, 未知时为0
+	 */
+	public long getProblemId() {
+		return problemId;
+	}
+
+	/**
+	 * 获取当前评测结果的唯一英文缩写.
+	 * @return 当前评测结果的唯一英文缩写, 评测尚未完成时为PD
+	 */
+	public String getJudgeResultSlug() {
+		return judgeResultSlug;
+	}
+
 	/**
 	 * 获取当前评测结果.
 	 * @return 当前评测结果
@@ -61,6 +94,21 @@ public class SubmissionEvent extends ApplicationEvent {
 	 */
 	private final long submissionId;
 	
+	/**
+	 * 提交者的用户唯一标识符.
+	 */
+	private final long uid;
+	
+	/**
+	 * 试题的唯一标识符.
+	 */
+	private final long problemId;
+	
+	/**
+	 * 当前评测结果的唯一英文缩写.
+	 */
+	private final String judgeResultSlug;
+	
 	/**
 	 * 当前评测结果.
 	 */
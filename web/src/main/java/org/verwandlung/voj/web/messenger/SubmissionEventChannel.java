@@ -0,0 +1,275 @@
+package org.verwandlung.voj.web.messenger;
+
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 提交记录的实时评测信息推送通道.
+ * 缓存某个提交记录已产生的评测信息, 使得在评测信息产生之后才建立连接的订阅者也能收到完整的评测信息.
+ * 每个提交记录可以有多个订阅者, 评测信息由线程池异步发送, 且对于每个订阅者保持发送顺序.
+ *
+ * @author Haozhe Xie
+ */
+public class SubmissionEventChannel {
+	/**
+	 * SubmissionEventChannel的构造函数.
+	 * @param submissionId - 提交记录的唯一标识符
+	 * @param executor - 用于发送评测信息的线程池
+	 */
+	public SubmissionEventChannel(long submissionId, Executor executor) {
+		this.submissionId = submissionId;
+		this.executor = executor;
+		this.lastActiveTime = System.currentTimeMillis();
+	}
+
+	/**
+	 * 发布评测信息.
+	 * @param event - 评测信息
+	 * @param isCompleted - 评测是否完成
+	 */
+	public synchronized void publish(Map<String, String> event, boolean isCompleted) {
+		if ( this.isCompleted ) {
+			return;
+		}
+		if ( events.size() >= MAX_BUFFERED_EVENTS ) {
+			events.remove();
+		}
+		events.add(event);
+		lastActiveTime = System.currentTimeMillis();
+
+		for ( Subscriber subscriber : subscribers ) {
+			subscriber.enqueue(event);
+		}
+		if ( isCompleted ) {
+			this.isCompleted = true;
+			close();
+		}
+	}
+
+	/**
+	 * 订阅评测信息.
+	 * 已产生的评测信息将首先被发送至订阅者.
+	 * @param sseEmitter - Server Sent Event的发送者对象
+	 */
+	public synchronized void subscribe(SseEmitter sseEmitter) {
+		final Subscriber subscriber = new Subscriber(sseEmitter);
+		for ( Map<String, String> event : events ) {
+			subscriber.enqueue(event);
+		}
+		lastActiveTime = System.currentTimeMillis();
+
+		if ( isCompleted ) {
+			subscriber.enqueue(COMPLETED);
+			return;
+		}
+		Runnable unsubscribeCallback = new Runnable() {
+			@Override
+			public void run() {
+				unsubscribe(subscriber);
+			}
+		};
+		sseEmitter.onCompletion(unsubscribeCallback);
+		sseEmitter.onTimeout(unsubscribeCallback);
+		subscribers.add(subscriber);
+	}
+
+	/**
+	 * 取消订阅评测信息.
+	 * @param subscriber - 订阅者
+	 */
+	private synchronized void unsubscribe(Subscriber subscriber) {
+		subscribers.remove(subscriber);
+	}
+
+	/**
+	 * 关闭推送通道, 并断开所有订阅者的连接.
+	 */
+	public synchronized void close() {
+		for ( Subscriber subscriber : subscribers ) {
+			subscriber.enqueue(COMPLETED);
+		}
+		subscribers.clear();
+	}
+
+	/**
+	 * 检查推送通道是否已过期.
+	 * 评测完成的推送通道保留一段时间以便迟到的订阅者获取评测信息.
+	 * @param currentTime - 当前时间的时间戳
+	 * @param completedChannelTimeout - 评测完成的推送通道的保留时间(ms)
+	 * @param idleChannelTimeout - 未完成评测的推送通道的最长空闲时间(ms)
+	 * @return 推送通道是否已过期
+	 */
+	public synchronized boolean isExpired(long currentTime, long completedChannelTimeout, long idleChannelTimeout) {
+		long idleTime = currentTime - lastActiveTime;
+		return isCompleted ? idleTime > completedChannelTimeout : idleTime > idleChannelTimeout;
+	}
+
+	/**
+	 * 检查是否已收到评测完成的消息.
+	 * @return 是否已收到评测完成的消息
+	 */
+	public synchronized boolean isCompleted() {
+		return isCompleted;
+	}
+
+	/**
+	 * 获取提交记录的唯一标识符.
+	 * @return 提交记录的唯一标识符
+	 */
+	public long getSubmissionId() {
+		return submissionId;
+	}
+
+	/**
+	 * 获取订阅者的数量.
+	 * @return 订阅者的数量
+	 */
+	public synchronized int getNumberOfSubscribers() {
+		return subscribers.size();
+	}
+
+	/**
+	 * 评测信息的订阅者.
+	 * 待发送的评测信息保存在队列中, 由线程池依次发送, 不会阻塞消息队列的监听线程.
+	 */
+	private class Subscriber implements Runnable {
+		/**
+		 * Subscriber的构造函数.
+		 * @param sseEmitter - Server Sent Event的发送者对象
+		 */
+		public Subscriber(SseEmitter sseEmitter) {
+			this.sseEmitter = sseEmitter;
+		}
+
+		/**
+		 * 将评测信息加入待发送队列.
+		 * @param event - 评测信息
+		 */
+		public void enqueue(Object event) {
+			pendingEvents.add(event);
+			schedule();
+		}
+
+		/**
+		 * 若当前没有线程在发送该订阅者的评测信息, 则提交发送任务至线程池.
+		 */
+		private void schedule() {
+			if ( isDraining.compareAndSet(false, true) ) {
+				try {
+					executor.execute(this);
+				} catch ( RejectedExecutionException ex ) {
+					isDraining.set(false);
+					LOGGER.warn(String.format("Failed to push events of submission #%d.", submissionId));
+				}
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			Object event = null;
+			while ( (event = pendingEvents.poll()) != null ) {
+				if ( isClosed ) {
+					continue;
+				}
+				try {
+					if ( event == COMPLETED ) {
+						isClosed = true;
+						sseEmitter.complete();
+					} else {
+						sseEmitter.send(event);
+					}
+				} catch ( IOException | IllegalStateException ex ) {
+					isClosed = true;
+					unsubscribe(this);
+					LOGGER.debug(String.format("Subscriber of submission #%d disconnected.", submissionId));
+				}
+			}
+			isDraining.set(false);
+
+			if ( !pendingEvents.isEmpty() ) {
+				schedule();
+			}
+		}
+
+		/**
+		 * Server Sent Event的发送者对象.
+		 */
+		private final SseEmitter sseEmitter;
+
+		/**
+		 * 待发送的评测信息.
+		 */
+		private final Queue<Object> pendingEvents = new ConcurrentLinkedQueue<>();
+
+		/**
+		 * 是否有线程正在发送该订阅者的评测信息.
+		 */
+		private final AtomicBoolean isDraining = new AtomicBoolean(false);
+
+		/**
+		 * 订阅者的连接是否已断开.
+		 */
+		private volatile boolean isClosed = false;
+	}
+
+	/**
+	 * 提交记录的唯一标识符.
+	 */
+	private final long submissionId;
+
+	/**
+	 * 用于发送评测信息的线程池.
+	 */
+	private final Executor executor;
+
+	/**
+	 * 已产生的评测信息.
+	 */
+	private final Queue<Map<String, String>> events = new LinkedList<>();
+
+	/**
+	 * 评测信息的订阅者.
+	 * 发送失败的订阅者可能在遍历订阅者的过程中被移除.
+	 */
+	private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+	/**
+	 * 评测是否已完成.
+	 */
+	private boolean isCompleted = false;
+
+	/**
+	 * 最近一次发布或订阅评测信息的时间戳.
+	 */
+	private long lastActiveTime;
+
+	/**
+	 * 表示评测已完成的标记.
+	 */
+	private static final Object COMPLETED = new Object();
+
+	/**
+	 * 每个提交记录最多缓存的评测信息数量.
+	 */
+	private static final int MAX_BUFFERED_EVENTS = 128;
+
+	/**
+	 * 日志记录器.
+	 */
+	private static final Logger LOGGER = LogManager.getLogger(SubmissionEventChannel.class);
+}
@@ -0,0 +1,397 @@
+package org.verwandlung.voj.web.messenger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.alibaba.fastjson.JSON;
+import org.verwandlung.voj.web.model.Submission;
+
+/**
+ * 评测列表的实时推送通道.
+ * 最近创建或评测完成的提交记录按发生顺序保存在定长的环形缓冲区中, 每条记录有递增的序号.
+ * 每条记录只序列化一次, 然后推送至所有符合筛选条件的订阅者, 因此订阅者的数量不会增加数据库的负载.
+ *
+ * 序号仅在当前Web节点的本次运行中有效, 因此事件的ID由推送通道的随机标识和序号组成.
+ * 订阅者重新连接至同一推送通道时, 可根据最后收到的事件ID从缓冲区中补齐断开期间的记录.
+ * 若事件ID来自其他Web节点或重启前的推送通道, 或对应的记录已被覆盖, 则无法补齐,
+ * 此时向订阅者发送reset事件, 由订阅者重新获取评测列表.
+ *
+ * @author Haozhe Xie
+ */
+public class SubmissionFeed {
+	/**
+	 * SubmissionFeed的构造函数.
+	 * @param capacity - 环形缓冲区的容量
+	 * @param executor - 用于发送提交记录的线程池
+	 */
+	public SubmissionFeed(int capacity, Executor executor) {
+		this.entries = new Entry[capacity];
+		this.executor = executor;
+		this.feedId = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+	}
+
+	/**
+	 * 发布新创建或评测结果发生变化的提交记录.
+	 * @param submission - 仅包含提交列表所需字段的提交记录对象
+	 * @return 该记录的序号
+	 */
+	public long publish(Submission submission) {
+		String content = JSON.toJSONString(getSubmissionSummary(submission));
+		Entry entry = null;
+		List<Subscriber> currentSubscribers = null;
+		synchronized ( this ) {
+			entry = new Entry(++ sequence, submission.getProblem().getProblemId(),
+					submission.getUser().getUsername(), content);
+			entries[(int) (entry.sequence % entries.length)] = entry;
+			currentSubscribers = new ArrayList<>(subscribers);
+		}
+		for ( Subscriber subscriber : currentSubscribers ) {
+			if ( subscriber.isSubscribed(entry) ) {
+				subscriber.enqueue(entry);
+			}
+		}
+		return entry.sequence;
+	}
+
+	/**
+	 * 订阅提交记录.
+	 * 若lastEventId由本推送通道产生, 则缓冲区中在其之后且符合筛选条件的记录将首先被发送至订阅者;
+	 * 若无法补齐lastEventId之后的记录, 则首先向订阅者发送reset事件.
+	 * @param sseEmitter - Server Sent Event的发送者对象
+	 * @param problemId - 试题的唯一标识符(为0时不筛选试题)
+	 * @param username - 用户的用户名(为空时不筛选用户)
+	 * @param lastEventId - 订阅者最后收到的事件ID(为空时仅推送新的记录)
+	 */
+	public void subscribe(SseEmitter sseEmitter, long problemId, String username, String lastEventId) {
+		final Subscriber subscriber = new Subscriber(sseEmitter, problemId, username);
+		long lastSequence = getSequence(lastEventId);
+		synchronized ( this ) {
+			if ( lastSequence >= 0 && lastSequence >= sequence - entries.length ) {
+				for ( Entry entry : getEntries(lastSequence) ) {
+					if ( subscriber.isSubscribed(entry) ) {
+						subscriber.enqueue(entry);
+					}
+				}
+			} else if ( lastEventId != null && !lastEventId.isEmpty() ) {
+				subscriber.enqueue(new Entry(sequence, 0, null, null));
+			}
+			subscribers.add(subscriber);
+		}
+		Runnable unsubscribeCallback = new Runnable() {
+			@Override
+			public void run() {
+				unsubscribe(subscriber);
+			}
+		};
+		sseEmitter.onCompletion(unsubscribeCallback);
+		sseEmitter.onTimeout(unsubscribeCallback);
+	}
+
+	/**
+	 * 取消订阅提交记录.
+	 * @param subscriber - 订阅者
+	 */
+	private synchronized void unsubscribe(Subscriber subscriber) {
+		subscribers.remove(subscriber);
+	}
+
+	/**
+	 * 获取缓冲区中序号大于lastSequence的记录.
+	 * @param lastSequence - 订阅者最后收到的记录的序号
+	 * @return 按序号升序排列的记录
+	 */
+	private synchronized List<Entry> getEntries(long lastSequence) {
+		long firstSequence = Math.max(lastSequence + 1, sequence - entries.length + 1);
+		List<Entry> bufferedEntries = new ArrayList<>();
+		for ( long i = firstSequence; i <= sequence; ++ i ) {
+			bufferedEntries.add(entries[(int) (i % entries.length)]);
+		}
+		return bufferedEntries;
+	}
+
+	/**
+	 * 获取最后一条记录的事件ID.
+	 * 用于在加载评测列表的页面时确定订阅的起点.
+	 * @return 最后一条记录的事件ID
+	 */
+	public synchronized String getLastEventId() {
+		return getEventId(sequence);
+	}
+
+	/**
+	 * 获取某个序号对应的事件ID.
+	 * @param sequence - 记录的序号
+	 * @return 由推送通道的随机标识和序号组成的事件ID
+	 */
+	private String getEventId(long sequence) {
+		return String.format("%s-%d", new Object[] { feedId, sequence });
+	}
+
+	/**
+	 * 解析事件ID中的序号.
+	 * @param eventId - 事件ID
+	 * @return 事件ID中的序号, 若事件ID不是由本推送通道产生的则返回-1
+	 */
+	private long getSequence(String eventId) {
+		String prefix = feedId + "-";
+		if ( eventId == null || !eventId.startsWith(prefix) ) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(eventId.substring(prefix.length()));
+		} catch ( NumberFormatException ex ) {
+			return -1;
+		}
+	}
+
+	/**
+	 * 获取订阅者的数量.
+	 * @return 订阅者的数量
+	 */
+	public synchronized int getNumberOfSubscribers() {
+		return subscribers.size();
+	}
+
+	/**
+	 * 获取提交列表所需的字段.
+	 * 字段的名称与getLatestSubmissions.action返回的提交记录一致.
+	 * @param submission - 提交记录对象
+	 * @return 包含提交列表所需字段的Map对象
+	 */
+	private static Map<String, Object> getSubmissionSummary(Submission submission) {
+		Map<String, Object> judgeResult = new LinkedHashMap<>(2, 1);
+		judgeResult.put("judgeResultSlug", submission.getJudgeResult().getJudgeResultSlug());
+		judgeResult.put("judgeResultName", submission.getJudgeResult().getJudgeResultName());
+		Map<String, Object> problem = new LinkedHashMap<>(2, 1);
+		problem.put("problemId", submission.getProblem().getProblemId());
+		problem.put("problemName", submission.getProblem().getProblemName());
+		Map<String, Object> user = new LinkedHashMap<>(2, 1);
+		user.put("uid", submission.getUser().getUid());
+		user.put("username", submission.getUser().getUsername());
+		Map<String, Object> language = new LinkedHashMap<>(1, 1);
+		language.put("languageName", submission.getLanguage().getLanguageName());
+
+		Map<String, Object> summary = new LinkedHashMap<>(10, 1);
+		summary.put("submissionId", submission.getSubmissionId());
+		summary.put("judgeResult", judgeResult);
+		summary.put("judgeScore", submission.getJudgeScore());
+		summary.put("usedTime", submission.getUsedTime());
+		summary.put("usedMemory", submission.getUsedMemory());
+		summary.put("problem", problem);
+		summary.put("user", user);
+		summary.put("language", language);
+		summary.put("submitTime", submission.getSubmitTime() == null ? null : submission.getSubmitTime().getTime());
+		return summary;
+	}
+
+	/**
+	 * 环形缓冲区中的记录.
+	 */
+	private static class Entry {
+		/**
+		 * Entry的构造函数.
+		 * @param sequence - 记录的序号
+		 * @param problemId - 试题的唯一标识符
+		 * @param username - 用户的用户名
+		 * @param content - JSON格式的提交记录(为空时表示reset事件)
+		 */
+		public Entry(long sequence, long problemId, String username, String content) {
+			this.sequence = sequence;
+			this.problemId = problemId;
+			this.username = username;
+			this.content = content;
+		}
+
+		/**
+		 * 记录的序号.
+		 */
+		final long sequence;
+
+		/**
+		 * 试题的唯一标识符.
+		 */
+		final long problemId;
+
+		/**
+		 * 用户的用户名.
+		 */
+		final String username;
+
+		/**
+		 * JSON格式的提交记录.
+		 * 为空时表示通知订阅者重新获取评测列表的reset事件.
+		 */
+		final String content;
+	}
+
+	/**
+	 * 提交记录的订阅者.
+	 * 待发送的记录保存在队列中, 由线程池依次发送, 不会阻塞消息队列的监听线程.
+	 */
+	private class Subscriber implements Runnable {
+		/**
+		 * Subscriber的构造函数.
+		 * @param sseEmitter - Server Sent Event的发送者对象
+		 * @param problemId - 试题的唯一标识符(为0时不筛选试题)
+		 * @param username - 用户的用户名(为空时不筛选用户)
+		 */
+		public Subscriber(SseEmitter sseEmitter, long problemId, String username) {
+			this.sseEmitter = sseEmitter;
+			this.problemId = problemId;
+			this.username = username;
+		}
+
+		/**
+		 * 检查记录是否符合订阅者的筛选条件.
+		 * @param entry - 环形缓冲区中的记录
+		 * @return 记录是否符合订阅者的筛选条件
+		 */
+		public boolean isSubscribed(Entry entry) {
+			if ( problemId != 0 && problemId != entry.problemId ) {
+				return false;
+			}
+			return username == null || username.isEmpty() || username.equalsIgnoreCase(entry.username);
+		}
+
+		/**
+		 * 将记录加入待发送队列.
+		 * @param entry - 环形缓冲区中的记录
+		 */
+		public void enqueue(Entry entry) {
+			if ( pendingEntries.size() >= MAX_PENDING_ENTRIES ) {
+				return;
+			}
+			pendingEntries.add(entry);
+			schedule();
+		}
+
+		/**
+		 * 若当前没有线程在发送该订阅者的记录, 则提交发送任务至线程池.
+		 */
+		private void schedule() {
+			if ( isDraining.compareAndSet(false, true) ) {
+				try {
+					executor.execute(this);
+				} catch ( RejectedExecutionException ex ) {
+					isDraining.set(false);
+					LOGGER.warn("Failed to push submissions to the subscriber of submission feed.");
+				}
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			Entry entry = null;
+			while ( (entry = pendingEntries.poll()) != null ) {
+				if ( isClosed ) {
+					continue;
+				}
+				try {
+					if ( entry.content == null ) {
+						sseEmitter.send(SseEmitter.event()
+								.id(getEventId(entry.sequence))
+								.name("reset")
+								.data(""));
+					} else {
+						sseEmitter.send(SseEmitter.event()
+								.id(getEventId(entry.sequence))
+								.data(entry.content));
+					}
+				} catch ( IOException | IllegalStateException ex ) {
+					isClosed = true;
+					unsubscribe(this);
+					LOGGER.debug("Subscriber of submission feed disconnected.");
+				}
+			}
+			isDraining.set(false);
+
+			if ( !pendingEntries.isEmpty() ) {
+				schedule();
+			}
+		}
+
+		/**
+		 * Server Sent Event的发送者对象.
+		 */
+		private final SseEmitter sseEmitter;
+
+		/**
+		 * 筛选条件: 试题的唯一标识符.
+		 */
+		private final long problemId;
+
+		/**
+		 * 筛选条件: 用户的用户名.
+		 */
+		private final String username;
+
+		/**
+		 * 待发送的记录.
+		 */
+		private final Queue<Entry> pendingEntries = new ConcurrentLinkedQueue<>();
+
+		/**
+		 * 是否有线程正在发送该订阅者的记录.
+		 */
+		private final AtomicBoolean isDraining = new AtomicBoolean(false);
+
+		/**
+		 * 订阅者的连接是否已断开.
+		 */
+		private volatile boolean isClosed = false;
+	}
+
+	/**
+	 * 环形缓冲区.
+	 * 序号为i的记录保存在下标为(i % 容量)的位置.
+	 */
+	private final Entry[] entries;
+
+	/**
+	 * 最后一条记录的序号.
+	 */
+	private long sequence = 0;
+
+	/**
+	 * 推送通道的随机标识.
+	 * 用于区分不同Web节点及同一Web节点重启前后的事件ID.
+	 */
+	private final String feedId;
+
+	/**
+	 * 提交记录的订阅者.
+	 */
+	private final List<Subscriber> subscribers = new ArrayList<>();
+
+	/**
+	 * 用于发送提交记录的线程池.
+	 */
+	private final Executor executor;
+
+	/**
+	 * 每个订阅者最多积压的待发送记录数量.
+	 * 超过该数量的记录将被丢弃, 以免发送缓慢的订阅者占用过多内存.
+	 */
+	private static final int MAX_PENDING_ENTRIES = 256;
+
+	/**
+	 * 日志记录器.
+	 */
+	private static final Logger LOGGER = LogManager.getLogger(SubmissionFeed.class);
+}
@@ -0,0 +1,44 @@
+package org.verwandlung.voj.web.messenger;
+
+/**
+ * 评测任务的优先级通道.
+ * 不同通道的评测任务被发送至不同的消息队列, 评测机按权重轮流从各消息队列中获取评测任务.
+ * @author Haozhe Xie
+ */
+public enum SubmissionTaskLane {
+	/**
+	 * 正在进行的比赛中的提交.
+	 */
+	CONTEST("vojContestSubmissionTaskQueue"),
+
+	/**
+	 * 日常练习中的提交.
+	 */
+	PRACTICE("vojSubmissionTaskQueue"),
+
+	/**
+	 * 管理员发起的重新评测.
+	 */
+	REJUDGE("vojRejudgeTaskQueue");
+
+	/**
+	 * SubmissionTaskLane的构造函数.
+	 * @param destinationName - 消息队列的名称
+	 */
+	SubmissionTaskLane(String destinationName) {
+		this.destinationName = destinationName;
+	}
+
+	/**
+	 * 获取该通道对应的消息队列的名称.
+	 * @return 消息队列的名称
+	 */
+	public String getDestinationName() {
+		return destinationName;
+	}
+
+	/**
+	 * 消息队列的名称.
+	 */
+	private final String destinationName;
+}
@@ -162,6 +162,22 @@ public class Contest {
 		this.problems = problems;
 	}
 
+	/**
+	 * 获取比赛是否在最后一小时封榜.
+	 * @return 比赛是否在最后一小时封榜
+	 */
+	public boolean isScoreboardFreezable() {
+		return isScoreboardFreezable;
+	}
+
+	/**
+	 * 设置比赛是否在最后一小时封榜.
+	 * @param isScoreboardFreezable - 比赛是否在最后一小时封榜
+	 */
+	public void setScoreboardFreezable(boolean isScoreboardFreezable) {
+		this.isScoreboardFreezable = isScoreboardFreezable;
+	}
+
 	/**
 	 * 比赛的唯一标识符.
 	 */
@@ -192,4 +208,10 @@ public class Contest {
 	 * 比赛中包含的试题 (JSON格式的字符串).
 	 */
 	private String problems;
+
+	/**
+	 * 比赛是否在最后一小时封榜.
+	 * 封榜期间排行榜不公开封榜后提交的评测结果.
+	 */
+	private boolean isScoreboardFreezable;
 }
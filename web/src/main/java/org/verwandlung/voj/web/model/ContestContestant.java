@@ -58,6 +58,14 @@ public class ContestContestant {
 		return score;
 	}
 
+	/**
+	 * 设置得分.
+	 * @param score - 得分
+	 */
+	public void setScore(int score) {
+		this.score = score;
+	}
+
 	/**
 	 * 获取运行时间(OI)或罚时(ACM).
 	 * @return 运行时间(OI)或罚时(ACM)
@@ -66,6 +74,14 @@ public class ContestContestant {
 		return time;
 	}
 
+	/**
+	 * 设置运行时间(OI)或罚时(ACM).
+	 * @param time - 运行时间(OI)或罚时(ACM)
+	 */
+	public void setTime(int time) {
+		this.time = time;
+	}
+
 	/**
 	 * 获取代码片段.
 	 * @return 代码片段
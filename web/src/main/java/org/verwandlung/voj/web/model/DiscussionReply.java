@@ -19,14 +19,12 @@ public class DiscussionReply implements Serializable {
 	 * @param discussionThreadId - 讨论帖子的唯一标识符
 	 * @param discussionReplyCreator - 讨论帖子的创建者
 	 * @param discussionReplyContent - 讨论帖子的内容
-	 * @param discussionReplyVotes - 讨论帖子的投票结果
 	 */
 	public DiscussionReply(long discussionThreadId, User discussionReplyCreator, 
-			String discussionReplyContent, String discussionReplyVotes) {
+			String discussionReplyContent) {
 		this.discussionThreadId = discussionThreadId;
 		this.discussionReplyCreator = discussionReplyCreator;
 		this.discussionReplyContent = discussionReplyContent;
-		this.discussionReplyVotes = discussionReplyVotes;
 	}
 	
 	/**
@@ -35,13 +33,10 @@ public class DiscussionReply implements Serializable {
 	 * @param discussionThreadId - 讨论帖子的唯一标识符
 	 * @param discussionReplyCreator - 讨论帖子的创建者
 	 * @param discussionReplyContent - 讨论帖子的内容
-	 * @param discussionReplyVote - 讨论帖子的投票结果
 	 */
 	public DiscussionReply(long discussionReplyId, long discussionThreadId, 
-			User discussionReplyCreator, String discussionReplyContent,
-			String discussionReplyVote) {
-		this(discussionThreadId, discussionReplyCreator, 
-				discussionReplyContent, discussionReplyVote);
+			User discussionReplyCreator, String discussionReplyContent) {
+		this(discussionThreadId, discussionReplyCreator, discussionReplyContent);
 		this.discussionReplyId = discussionReplyId;
 	}
 	
@@ -125,9 +120,41 @@ public class DiscussionReply implements Serializable {
 		this.discussionReplyContent = discussionReplyContent;
 	}
 	
+	/**
+	 * 获取讨论回复被赞的次数.
+	 * @return 讨论回复被赞的次数
+	 */
+	public long getNumberOfVoteUp() {
+		return numberOfVoteUp;
+	}
+
+	/**
+	 * 设置讨论回复被赞的次数.
+	 * @param numberOfVoteUp - 讨论回复被赞的次数
+	 */
+	public void setNumberOfVoteUp(long numberOfVoteUp) {
+		this.numberOfVoteUp = numberOfVoteUp;
+	}
+
+	/**
+	 * 获取讨论回复被踩的次数.
+	 * @return 讨论回复被踩的次数
+	 */
+	public long getNumberOfVoteDown() {
+		return numberOfVoteDown;
+	}
+
+	/**
+	 * 设置讨论回复被踩的次数.
+	 * @param numberOfVoteDown - 讨论回复被踩的次数
+	 */
+	public void setNumberOfVoteDown(long numberOfVoteDown) {
+		this.numberOfVoteDown = numberOfVoteDown;
+	}
+	
 	/**
 	 * 获取讨论帖子的投票结果.
-	 * @return 讨论帖子的投票结果
+	 * @return 讨论帖子的投票结果(JSON格式, 包含投票次数及当前用户的投票状态)
 	 */
 	public String getDiscussionReplyVotes() {
 		return discussionReplyVotes;
@@ -135,7 +162,7 @@ public class DiscussionReply implements Serializable {
 
 	/**
 	 * 设置讨论帖子的投票结果.
-	 * @param discussionReplyVote - 讨论帖子的投票结果
+	 * @param discussionReplyVote - 讨论帖子的投票结果(JSON格式, 包含投票次数及当前用户的投票状态)
 	 */
 	public void setDiscussionReplyVotes(String discussionReplyVote) {
 		this.discussionReplyVotes = discussionReplyVote;
@@ -175,8 +202,19 @@ public class DiscussionReply implements Serializable {
 	 */
 	private String discussionReplyContent;
 	
+	/**
+	 * 讨论回复被赞的次数.
+	 */
+	private long numberOfVoteUp;
+	
+	/**
+	 * 讨论回复被踩的次数.
+	 */
+	private long numberOfVoteDown;
+	
 	/**
 	 * 讨论帖子的投票结果.
+	 * 不保存在数据库中, 由投票次数及当前用户的投票状态生成, 用于展示.
 	 */
 	private String discussionReplyVotes;
 	
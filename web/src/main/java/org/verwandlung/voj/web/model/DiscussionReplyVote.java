@@ -0,0 +1,104 @@
+package org.verwandlung.voj.web.model;
+
+import java.io.Serializable;
+
+/**
+ * 讨论回复投票的Model.
+ * 对应数据库中的voj_discussion_reply_votes数据表.
+ *
+ * @author Haozhe Xie
+ */
+public class DiscussionReplyVote implements Serializable {
+	/**
+	 * DiscussionReplyVote的默认构造函数.
+	 */
+	public DiscussionReplyVote() { }
+
+	/**
+	 * DiscussionReplyVote的构造函数.
+	 * @param discussionReplyId - 讨论回复的唯一标识符
+	 * @param voterUid - 投票用户的唯一标识符
+	 * @param vote - 投票结果(1表示赞, -1表示踩)
+	 */
+	public DiscussionReplyVote(long discussionReplyId, long voterUid, int vote) {
+		this.discussionReplyId = discussionReplyId;
+		this.voterUid = voterUid;
+		this.vote = vote;
+	}
+
+	/**
+	 * 获取讨论回复的唯一标识符.
+	 * @return 讨论回复的唯一标识符
+	 */
+	public long getDiscussionReplyId() {
+		return discussionReplyId;
+	}
+
+	/**
+	 * 设置讨论回复的唯一标识符.
+	 * @param discussionReplyId - 讨论回复的唯一标识符
+	 */
+	public void setDiscussionReplyId(long discussionReplyId) {
+		this.discussionReplyId = discussionReplyId;
+	}
+
+	/**
+	 * 获取投票用户的唯一标识符.
+	 * @return 投票用户的唯一标识符
+	 */
+	public long getVoterUid() {
+		return voterUid;
+	}
+
+	/**
+	 * 设置投票用户的唯一标识符.
+	 * @param voterUid - 投票用户的唯一标识符
+	 */
+	public void setVoterUid(long voterUid) {
+		this.voterUid = voterUid;
+	}
+
+	/**
+	 * 获取投票结果.
+	 * @return 投票结果(1表示赞, -1表示踩)
+	 */
+	public int getVote() {
+		return vote;
+	}
+
+	/**
+	 * 设置投票结果.
+	 * @param vote - 投票结果(1表示赞, -1表示踩)
+	 */
+	public void setVote(int vote) {
+		this.vote = vote;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return String.format("DiscussionReplyVote [ReplyID=%d, VoterUid=%d, Vote=%d]",
+				new Object[] { discussionReplyId, voterUid, vote });
+	}
+
+	/**
+	 * 讨论回复的唯一标识符.
+	 */
+	private long discussionReplyId;
+
+	/**
+	 * 投票用户的唯一标识符.
+	 */
+	private long voterUid;
+
+	/**
+	 * 投票结果(1表示赞, -1表示踩).
+	 */
+	private int vote;
+
+	/**
+	 * 唯一的序列化标识符.
+	 */
+	private static final long serialVersionUID = -6174937426215310588L;
+}
@@ -3,12 +3,19 @@ package org.verwandlung.voj.web.model;
 import java.io.Serializable;
 import java.util.Date;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 /**
  * 评测记录的Model.
  * 对应数据库中的voj_submissions数据表.
  * 
+ * 代码按SHA-256摘要去重后保存在voj_submission_codes数据表中, 评测日志保存在voj_submission_contents数据表中.
+ * 由数据库加载的评测记录在首次调用getCode()或getJudgeLog()时才加载这两项内容.
+ * 
  * @author Haozhe Xie
  */
+@JsonIgnoreProperties({"handler"})
 public class Submission implements Serializable {
 	/**
 	 * 评测记录类的默认构造函数.
@@ -27,7 +34,7 @@ public class Submission implements Serializable {
 		this.problem = problem;
 		this.user = user;
 		this.language = language;
-		this.code = code;
+		this.content = new SubmissionContent(code, null);
 	}
 	
 	/**
@@ -53,7 +60,7 @@ public class Submission implements Serializable {
 		this.usedMemory = usedMemory;
 		this.judgeResult = judgeResult;
 		this.judgeScore = judgeScore;
-		this.judgeLog = judgeLog;
+		this.content.setJudgeLog(judgeLog);
 	}
 	
 	/**
@@ -243,7 +250,8 @@ public class Submission implements Serializable {
 	 * @return 评测运行日志
 	 */
 	public String getJudgeLog() {
-		return judgeLog;
+		SubmissionContent content = getContent();
+		return content == null ? null : content.getJudgeLog();
 	}
 	
 	/**
@@ -251,7 +259,12 @@ public class Submission implements Serializable {
 	 * @param judgeLog - 评测运行日志
 	 */
 	public void setJudgeLog(String judgeLog) {
-		this.judgeLog = judgeLog;
+		SubmissionContent content = getContent();
+		if ( content == null ) {
+			setContent(new SubmissionContent(null, judgeLog));
+		} else {
+			content.setJudgeLog(judgeLog);
+		}
 	}
 	
 	/**
@@ -259,7 +272,8 @@ public class Submission implements Serializable {
 	 * @return 评测所执行的代码
 	 */
 	public String getCode() {
-		return code;
+		SubmissionContent content = getContent();
+		return content == null ? null : content.getCode();
 	}
 	
 	/**
@@ -267,7 +281,46 @@ public class Submission implements Serializable {
 	 * @param code - 评测所执行的代码
 	 */
 	public void setCode(String code) {
-		this.code = code;
+		SubmissionContent content = getContent();
+		if ( content == null ) {
+			setContent(new SubmissionContent(code, null));
+		} else {
+			content.setCode(code);
+		}
+	}
+	
+	/**
+	 * 获取评测所执行的代码的SHA-256摘要.
+	 * @return 代码的SHA-256摘要
+	 */
+	public String getCodeHash() {
+		return codeHash;
+	}
+	
+	/**
+	 * 设置评测所执行的代码的SHA-256摘要.
+	 * @param codeHash - 代码的SHA-256摘要
+	 */
+	public void setCodeHash(String codeHash) {
+		this.codeHash = codeHash;
+	}
+	
+	/**
+	 * 获取评测记录的内容(代码和评测日志).
+	 * 对于由数据库加载的评测记录, 首次调用时由MyBatis从数据库中加载.
+	 * 因此getCode()等方法必须通过该方法访问评测记录的内容.
+	 * @return 评测记录的内容
+	 */
+	public SubmissionContent getContent() {
+		return content;
+	}
+	
+	/**
+	 * 设置评测记录的内容(代码和评测日志).
+	 * @param content - 评测记录的内容
+	 */
+	public void setContent(SubmissionContent content) {
+		this.content = content;
 	}
 	
 	/* (non-Javadoc)
@@ -279,7 +332,7 @@ public class Submission implements Serializable {
 				+ "ExecuteTime={%s}, UsedTime=%d, UsedMemory=%d, JudgeResult={%s}, JudgeScore=%d, "
 				+ "JudgeLog=%s, Code=%s]",
 				new Object[] { submissionId, problem, user, language, submitTime, executeTime, usedTime, usedMemory,
-						judgeResult, judgeScore, judgeLog, code});
+						judgeResult, judgeScore, getJudgeLog(), getCode()});
 	}
 	
 	/**
@@ -333,14 +386,17 @@ public class Submission implements Serializable {
 	private int judgeScore;
 	
 	/**
-	 * 评测运行日志.
+	 * 评测所执行的代码的SHA-256摘要.
+	 * 用于在voj_submission_codes数据表中查找代码.
 	 */
-	private String judgeLog;
+	@JsonIgnore
+	private String codeHash;
 	
 	/**
-	 * 评测所执行的代码.
+	 * 评测记录的内容(代码和评测日志).
 	 */
-	private String code;
+	@JsonIgnore
+	private SubmissionContent content;
 	
 	/**
 	 * 唯一的序列化标识符.
@@ -0,0 +1,82 @@
+package org.verwandlung.voj.web.model;
+
+import java.io.Serializable;
+
+/**
+ * 评测记录内容的Model.
+ * 对应数据库中的voj_submission_contents数据表.
+ * 代码和评测日志以压缩的形式存储, 并且仅在需要时加载.
+ * 
+ * @author Haozhe Xie
+ */
+public class SubmissionContent implements Serializable {
+	/**
+	 * 评测记录内容类的默认构造函数.
+	 */
+	public SubmissionContent() { }
+	
+	/**
+	 * 评测记录内容类的构造函数.
+	 * @param code - 评测所执行的代码
+	 * @param judgeLog - 评测运行日志
+	 */
+	public SubmissionContent(String code, String judgeLog) {
+		this.code = code;
+		this.judgeLog = judgeLog;
+	}
+	
+	/**
+	 * 获取评测所执行的代码.
+	 * @return 评测所执行的代码
+	 */
+	public String getCode() {
+		return code;
+	}
+	
+	/**
+	 * 设置评测所执行的代码.
+	 * @param code - 评测所执行的代码
+	 */
+	public void setCode(String code) {
+		this.code = code;
+	}
+	
+	/**
+	 * 获取评测运行日志.
+	 * @return 评测运行日志
+	 */
+	public String getJudgeLog() {
+		return judgeLog;
+	}
+	
+	/**
+	 * 设置评测运行日志.
+	 * @param judgeLog - 评测运行日志
+	 */
+	public void setJudgeLog(String judgeLog) {
+		this.judgeLog = judgeLog;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("SubmissionContent [JudgeLog=%s, Code=%s]", new Object[] { judgeLog, code });
+	}
+	
+	/**
+	 * 评测所执行的代码.
+	 */
+	private String code;
+	
+	/**
+	 * 评测运行日志.
+	 */
+	private String judgeLog;
+	
+	/**
+	 * 唯一的序列化标识符.
+	 */
+	private static final long serialVersionUID = 6302739128741165382L;
+}
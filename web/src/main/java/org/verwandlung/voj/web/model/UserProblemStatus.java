@@ -0,0 +1,161 @@
+package org.verwandlung.voj.web.model;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 用户各试题评测状态的Model.
+ * 仅保存在内存中, 使用位图记录用户尝试过和通过的试题,
+ * 并记录每个试题用于展示评测状态的提交记录(已通过的提交记录, 或最新的提交记录)
+ * 以及用户的提交次数.
+ *
+ * @author Haozhe Xie
+ */
+public class UserProblemStatus implements Serializable {
+	/**
+	 * UserProblemStatus的构造函数.
+	 * @param numberOfSubmissions - 用户的提交次数
+	 */
+	public UserProblemStatus(long numberOfSubmissions) {
+		this.numberOfSubmissions = numberOfSubmissions;
+	}
+
+	/**
+	 * 记录用户新创建的提交记录, 并将用户的提交次数增加1.
+	 * 仅在提交记录被创建时调用, 评测完成时应调用addSubmission(),
+	 * 以保证与数据库中统计的提交次数(全部提交记录的数量)一致.
+	 * @param submission - 提交记录对象(至少包含提交记录的唯一标识符, 试题及评测结果)
+	 */
+	public synchronized void addNewSubmission(Submission submission) {
+		++ numberOfSubmissions;
+		addSubmission(submission);
+	}
+
+	/**
+	 * 记录用户的一个提交记录.
+	 * @param submission - 提交记录对象(至少包含提交记录的唯一标识符, 试题及评测结果)
+	 */
+	public synchronized void addSubmission(Submission submission) {
+		int problemIndex = getProblemIndex(submission.getProblem().getProblemId());
+		if ( problemIndex < 0 ) {
+			return;
+		}
+		boolean isAccepted = "AC".equals(submission.getJudgeResult().getJudgeResultSlug());
+		Submission currentSubmission = submissions.get(problemIndex);
+
+		attemptedProblems.set(problemIndex);
+		if ( isAccepted ) {
+			if ( !acceptedProblems.get(problemIndex) ) {
+				acceptedProblems.set(problemIndex);
+				submissions.put(problemIndex, submission);
+			}
+		} else if ( !acceptedProblems.get(problemIndex) ) {
+			if ( currentSubmission == null || currentSubmission.getSubmissionId() <= submission.getSubmissionId() ) {
+				submissions.put(problemIndex, submission);
+			}
+		}
+	}
+
+	/**
+	 * 获取用户在某个试题ID区间段内的评测状态.
+	 * @param problemIdLowerBound - 试题ID区间的下界(包含)
+	 * @param problemIdUpperBound - 试题ID区间的上界(不包含)
+	 * @return 试题的唯一标识符与对应提交记录的键值对
+	 */
+	public synchronized Map<Long, Submission> getSubmissionOfProblems(long problemIdLowerBound, long problemIdUpperBound) {
+		Map<Long, Submission> submissionOfProblems = new HashMap<>();
+		int fromIndex = (int) Math.max(0, Math.min(problemIdLowerBound, Integer.MAX_VALUE));
+
+		for ( int i = attemptedProblems.nextSetBit(fromIndex); i >= 0 && i < problemIdUpperBound;
+				i = attemptedProblems.nextSetBit(i + 1) ) {
+			submissionOfProblems.put((long) i, submissions.get(i));
+		}
+		return submissionOfProblems;
+	}
+
+	/**
+	 * 获取用于展示某个试题评测状态的提交记录.
+	 * @param problemId - 试题的唯一标识符
+	 * @return 提交记录对象, 若用户未尝试该试题则返回空引用
+	 */
+	public synchronized Submission getSubmissionOfProblem(long problemId) {
+		int problemIndex = getProblemIndex(problemId);
+		return problemIndex < 0 ? null : submissions.get(problemIndex);
+	}
+
+	/**
+	 * 获取用户是否通过了某个试题.
+	 * @param problemId - 试题的唯一标识符
+	 * @return 用户是否通过了该试题
+	 */
+	public synchronized boolean isAccepted(long problemId) {
+		int problemIndex = getProblemIndex(problemId);
+		return problemIndex >= 0 && acceptedProblems.get(problemIndex);
+	}
+
+	/**
+	 * 获取用户是否尝试过某个试题.
+	 * @param problemId - 试题的唯一标识符
+	 * @return 用户是否尝试过该试题
+	 */
+	public synchronized boolean isAttempted(long problemId) {
+		int problemIndex = getProblemIndex(problemId);
+		return problemIndex >= 0 && attemptedProblems.get(problemIndex);
+	}
+
+	/**
+	 * 获取用户通过的试题数量.
+	 * @return 用户通过的试题数量
+	 */
+	public synchronized long getNumberOfAcceptedProblems() {
+		return acceptedProblems.cardinality();
+	}
+
+	/**
+	 * 获取用户的提交次数.
+	 * @return 用户的提交次数
+	 */
+	public synchronized long getNumberOfSubmissions() {
+		return numberOfSubmissions;
+	}
+
+	/**
+	 * 获取试题在位图中的下标.
+	 * @param problemId - 试题的唯一标识符
+	 * @return 试题在位图中的下标, 若试题的唯一标识符超出位图的范围则返回-1
+	 */
+	private int getProblemIndex(long problemId) {
+		if ( problemId < 0 || problemId > Integer.MAX_VALUE ) {
+			return -1;
+		}
+		return (int) problemId;
+	}
+
+	/**
+	 * 用户尝试过的试题.
+	 */
+	private final BitSet attemptedProblems = new BitSet();
+
+	/**
+	 * 用户通过的试题.
+	 */
+	private final BitSet acceptedProblems = new BitSet();
+
+	/**
+	 * 用于展示各试题评测状态的提交记录.
+	 * Map中的Key表示试题的唯一标识符.
+	 */
+	private final Map<Integer, Submission> submissions = new HashMap<>();
+
+	/**
+	 * 用户的提交次数.
+	 */
+	private long numberOfSubmissions;
+
+	/**
+	 * 唯一的序列化标识符.
+	 */
+	private static final long serialVersionUID = -3326487313425823367L;
+}
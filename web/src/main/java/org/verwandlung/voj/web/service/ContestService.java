@@ -0,0 +1,398 @@
+package org.verwandlung.voj.web.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONException;
+
+import org.verwandlung.voj.web.mapper.ContestContestantMapper;
+import org.verwandlung.voj.web.mapper.ContestMapper;
+import org.verwandlung.voj.web.mapper.SubmissionMapper;
+import org.verwandlung.voj.web.messenger.MessageSender;
+import org.verwandlung.voj.web.messenger.SubmissionEvent;
+import org.verwandlung.voj.web.model.Contest;
+import org.verwandlung.voj.web.model.ContestContestant;
+import org.verwandlung.voj.web.model.Submission;
+import org.verwandlung.voj.web.util.ContestScoreboard;
+import org.verwandlung.voj.web.util.ScheduledTaskLock;
+
+/**
+ * 考试类(Contest)的业务逻辑层.
+ * 每场考试的排行榜在首次被读取时由数据库中的提交记录构建, 此后根据评测结果增量更新,
+ * 读取排行榜时不再访问数据库. 参赛者的得分和用时定期写回数据库.
+ * 考试开始前, 通知所有评测机预先抓取考试试题的评测数据.
+ * 部署多个Web节点时, 每场考试的排行榜和考试的预热分别仅由一个Web节点负责.
+ *
+ * @author Haozhe Xie
+ */
+@Service
+public class ContestService {
+	/**
+	 * 通过考试的唯一标识符获取考试对象.
+	 * @param contestId - 考试的唯一标识符
+	 * @return 考试对象或空引用
+	 */
+	public Contest getContest(long contestId) {
+		return contestMapper.getContestsUsingId(contestId);
+	}
+
+	/**
+	 * 获取某场考试的排行榜快照.
+	 * @param contestId - 考试的唯一标识符
+	 * @return 排行榜的快照, 若考试不存在则返回空引用
+	 */
+	public ContestScoreboard.Snapshot getScoreboard(long contestId) {
+		ContestScoreboard scoreboard = getContestScoreboard(contestId);
+		if ( scoreboard == null ) {
+			return null;
+		}
+		return scoreboard.getSnapshot();
+	}
+
+	/**
+	 * 获取某场考试的排行榜, 若排行榜尚未加载则从数据库中构建.
+	 * @param contestId - 考试的唯一标识符
+	 * @return 考试的排行榜, 若考试不存在则返回空引用
+	 */
+	private ContestScoreboard getContestScoreboard(long contestId) {
+		ContestScoreboard scoreboard = scoreboards.get(contestId);
+		if ( scoreboard != null ) {
+			return scoreboard;
+		}
+		synchronized ( scoreboards ) {
+			scoreboard = scoreboards.get(contestId);
+			if ( scoreboard != null ) {
+				return scoreboard;
+			}
+			Contest contest = contestMapper.getContestsUsingId(contestId);
+			if ( contest == null ) {
+				return null;
+			}
+			// 构建期间收到的评测结果直接更新至该排行榜, 且不会被数据库中读取的评测结果覆盖
+			scoreboard = new ContestScoreboard(contest);
+			loadingScoreboards.put(contestId, scoreboard);
+			try {
+				loadContestScoreboard(scoreboard);
+				scoreboards.put(contestId, scoreboard);
+			} finally {
+				loadingScoreboards.remove(contestId);
+			}
+		}
+		return scoreboard;
+	}
+
+	/**
+	 * 由数据库中的参赛记录和提交记录构建某场考试的排行榜.
+	 * 构建完成后全部有成绩的参赛者将在下一次写回时同步到数据库.
+	 * @param scoreboard - 待构建的考试排行榜
+	 */
+	private void loadContestScoreboard(ContestScoreboard scoreboard) {
+		long contestId = scoreboard.getContest().getContestId();
+		List<ContestContestant> contestants = contestContestantMapper.getContestantsOfContest(contestId);
+		for ( ContestContestant contestant : contestants ) {
+			scoreboard.putContestant(contestant.getContestant());
+		}
+		List<Submission> submissions = contestMapper.getSubmissionsOfContest(contestId);
+		for ( Submission submission : submissions ) {
+			scoreboard.putVerdictIfAbsent(submission.getUser().getUid(), submission.getProblem().getProblemId(),
+					submission.getSubmissionId(), submission.getSubmitTime(),
+					submission.getJudgeResult().getJudgeResultSlug(),
+					submission.getJudgeScore(), submission.getUsedTime());
+		}
+	}
+
+	/**
+	 * 处理评测完成的事件.
+	 * 若提交记录属于已加载或正在构建排行榜的考试, 则增量更新对应的排行榜.
+	 * 事件中包含试题的唯一标识符时, 仅当试题属于某场考试才从数据库中获取提交时间, 运行时间和得分.
+	 * @param event - 评测完成的事件
+	 */
+	@EventListener
+	public void submissionEventHandler(SubmissionEvent event) {
+		String judgeResultSlug = event.getJudgeResultSlug();
+		if ( !event.isCompleted() || judgeResultSlug == null ) {
+			return;
+		}
+		// 先检查正在构建的排行榜: 排行榜构建完成后先加入scoreboards再从loadingScoreboards中移除
+		List<ContestScoreboard> targetScoreboards = new ArrayList<>(loadingScoreboards.values());
+		targetScoreboards.addAll(scoreboards.values());
+		if ( event.getProblemId() != 0 ) {
+			// 旧版本的评测机不会发送试题的唯一标识符
+			for ( Iterator<ContestScoreboard> itr = targetScoreboards.iterator(); itr.hasNext(); ) {
+				if ( !itr.next().getProblemIds().contains(event.getProblemId()) ) {
+					itr.remove();
+				}
+			}
+		}
+		if ( targetScoreboards.isEmpty() ) {
+			return;
+		}
+		Submission submission = submissionMapper.getSubmissionVerdict(event.getSubmissionId());
+		if ( submission == null ) {
+			return;
+		}
+		long uid = submission.getUser().getUid();
+		long problemId = submission.getProblem().getProblemId();
+		for ( ContestScoreboard scoreboard : targetScoreboards ) {
+			if ( !scoreboard.isContestSubmission(problemId, submission.getSubmitTime()) ) {
+				continue;
+			}
+			if ( !scoreboard.hasContestant(uid) ) {
+				long contestId = scoreboard.getContest().getContestId();
+				ContestContestant contestant = contestContestantMapper.getContestantOfContest(contestId, uid);
+				if ( contestant == null ) {
+					continue;
+				}
+				scoreboard.putContestant(contestant.getContestant());
+			}
+			scoreboard.putVerdict(uid, problemId, submission.getSubmissionId(), submission.getSubmitTime(),
+					judgeResultSlug, submission.getJudgeScore(), submission.getUsedTime());
+		}
+	}
+
+	/**
+	 * 将排行榜中发生变化的得分和用时写回数据库.
+	 * 由Spring管理的线程池定期调用.
+	 *
+	 * 每个Web节点都会收到全部的评测结果, 因此各节点的排行榜一致,
+	 * 每场考试的排行榜仅由持有该考试的锁的Web节点写回. 其他Web节点保留发生变化的参赛记录,
+	 * 以便在持有锁的Web节点退出后接替写回. 写回的是得分和用时的当前值, 因此重复写回不影响结果.
+	 *
+	 * 仅在写回成功后将参赛记录标记为未变化, 写回失败的参赛记录将在下一次写回时重试.
+	 * 同时移除已结束且长时间未被读取的考试的排行榜, 再次读取时将从数据库中重新构建.
+	 * 负责写回的Web节点仅在排行榜已全部写回后移除排行榜.
+	 */
+	@Scheduled(initialDelay = PERSIST_PERIOD, fixedDelay = PERSIST_PERIOD)
+	public void persistScoreboards() {
+		long currentTime = System.currentTimeMillis();
+		for ( Iterator<Map.Entry<Long, ContestScoreboard>> itr = scoreboards.entrySet().iterator(); itr.hasNext(); ) {
+			ContestScoreboard scoreboard = itr.next().getValue();
+			boolean isPersisted = true;
+			try {
+				isPersisted = persistScoreboard(scoreboard);
+			} catch ( Exception ex ) {
+				LOGGER.catching(ex);
+			}
+			long endTime = scoreboard.getContest().getEndTime().getTime();
+			if ( endTime < currentTime && scoreboard.getLastAccessTime() + SCOREBOARD_IDLE_TIMEOUT < currentTime &&
+					(!isPersisted || !scoreboard.hasUpdatedContestants()) ) {
+				itr.remove();
+			}
+		}
+	}
+
+	/**
+	 * 在Web节点退出前将本节点负责的排行榜写回数据库.
+	 */
+	@PreDestroy
+	public void destroy() {
+		for ( ContestScoreboard scoreboard : scoreboards.values() ) {
+			try {
+				persistScoreboard(scoreboard);
+			} catch ( Exception ex ) {
+				LOGGER.catching(ex);
+			}
+		}
+	}
+
+	/**
+	 * 若当前Web节点负责某场考试的排行榜, 则将其中发生变化的得分和用时写回数据库.
+	 * @param scoreboard - 考试的排行榜
+	 * @return 当前Web节点是否负责该考试的排行榜
+	 */
+	private boolean persistScoreboard(ContestScoreboard scoreboard) {
+		long contestId = scoreboard.getContest().getContestId();
+		if ( !scheduledTaskLock.tryLock(PERSIST_TASK + contestId, PERSIST_LEASE) ) {
+			return false;
+		}
+		List<ContestContestant> persistedContestants = new ArrayList<>();
+		try {
+			for ( ContestContestant contestant : scoreboard.getUpdatedContestants() ) {
+				contestContestantMapper.updateContestContestantScore(contestant);
+				persistedContestants.add(contestant);
+			}
+		} finally {
+			scoreboard.markContestantsPersisted(persistedContestants);
+		}
+		return true;
+	}
+
+	/**
+	 * 通知所有评测机预先抓取即将开始的考试中试题的评测数据.
+	 * 考试开始后的大量提交将直接使用已抓取的评测数据, 而无需逐个从Web节点获取.
+	 * 每场考试只通知一次, 考试结束后评测机将不再保留这些评测数据.
+	 * 由Spring管理的线程池定期调用, 部署多个Web节点时仅由持有锁的Web节点通知.
+	 */
+	@Scheduled(initialDelay = WARM_UP_PERIOD, fixedDelay = WARM_UP_PERIOD)
+	public void warmUpContests() {
+		if ( !scheduledTaskLock.tryLock(WARM_UP_TASK, WARM_UP_LEASE) ) {
+			return;
+		}
+		long currentTime = System.currentTimeMillis();
+		for ( Iterator<Map.Entry<Long, Long>> itr = warmedUpContests.entrySet().iterator(); itr.hasNext(); ) {
+			if ( itr.next().getValue() < currentTime ) {
+				itr.remove();
+			}
+		}
+		List<Contest> contests = contestMapper.getContestsStartingBetween(
+				new Date(currentTime), new Date(currentTime + WARM_UP_LEAD_TIME));
+		for ( Contest contest : contests ) {
+			long contestId = contest.getContestId();
+			long endTime = contest.getEndTime().getTime();
+			if ( warmedUpContests.containsKey(contestId) ) {
+				continue;
+			}
+			List<Long> problemIds = getProblemIdsOfContest(contest);
+			if ( problemIds.isEmpty() ) {
+				continue;
+			}
+			StringBuilder problemIdsBuilder = new StringBuilder();
+			for ( long problemId : problemIds ) {
+				if ( problemIdsBuilder.length() > 0 ) {
+					problemIdsBuilder.append(',');
+				}
+				problemIdsBuilder.append(problemId);
+			}
+			Map<String, Object> mapMessage = new HashMap<>();
+			mapMessage.put("event", "ContestStarting");
+			mapMessage.put("contestId", contestId);
+			mapMessage.put("contestEndTime", endTime);
+			mapMessage.put("problemIds", problemIdsBuilder.toString());
+			messageSender.sendJudgerBroadcastMessage(mapMessage);
+			warmedUpContests.put(contestId, endTime);
+		}
+	}
+
+	/**
+	 * 解析考试包含的试题列表.
+	 * @param contest - 考试对象
+	 * @return 试题唯一标识符的列表, 若试题列表无效则返回空列表
+	 */
+	private List<Long> getProblemIdsOfContest(Contest contest) {
+		try {
+			List<Long> problemIds = JSON.parseArray(contest.getProblems(), Long.class);
+			if ( problemIds != null ) {
+				return problemIds;
+			}
+		} catch ( JSONException ex ) {
+			LOGGER.warn(String.format("Invalid problem list of contest #%d.", new Object[] {contest.getContestId()}));
+		}
+		return new ArrayList<>();
+	}
+
+	/**
+	 * 已通知评测机预热的考试.
+	 * Map中的Key表示考试的唯一标识符, Value表示考试的结束时间.
+	 */
+	private final Map<Long, Long> warmedUpContests = new ConcurrentHashMap<>();
+
+	/**
+	 * 已加载的排行榜.
+	 * Map中的Key表示考试的唯一标识符.
+	 */
+	private final Map<Long, ContestScoreboard> scoreboards = new ConcurrentHashMap<>();
+
+	/**
+	 * 正在从数据库中构建的排行榜.
+	 * Map中的Key表示考试的唯一标识符.
+	 */
+	private final Map<Long, ContestScoreboard> loadingScoreboards = new ConcurrentHashMap<>();
+
+	/**
+	 * 自动注入的ContestMapper对象.
+	 * 用于获取考试和考试的提交记录.
+	 */
+	@Autowired
+	private ContestMapper contestMapper;
+
+	/**
+	 * 自动注入的ContestContestantMapper对象.
+	 * 用于获取参赛记录和写回参赛者的得分.
+	 */
+	@Autowired
+	private ContestContestantMapper contestContestantMapper;
+
+	/**
+	 * 自动注入的SubmissionMapper对象.
+	 * 用于获取评测完成的提交记录.
+	 */
+	@Autowired
+	private SubmissionMapper submissionMapper;
+
+	/**
+	 * 自动注入的ScheduledTaskLock对象.
+	 * 用于保证每场考试的排行榜和考试的预热仅由一个Web节点负责.
+	 */
+	@Autowired
+	private ScheduledTaskLock scheduledTaskLock;
+
+	/**
+	 * 自动注入的MessageSender对象.
+	 * 用于通知评测机预热即将开始的考试.
+	 */
+	@Autowired
+	private MessageSender messageSender;
+
+	/**
+	 * 将排行榜写回数据库的周期(ms).
+	 */
+	private static final long PERSIST_PERIOD = 30 * 1000;
+
+	/**
+	 * 写回排行榜的锁的名称前缀, 后接考试的唯一标识符.
+	 */
+	private static final String PERSIST_TASK = "persistContestScoreboard#";
+
+	/**
+	 * 写回排行榜的锁的有效时间(秒).
+	 * 持有锁的Web节点在每次写回时续期, 退出后其他Web节点在锁过期后接替写回.
+	 */
+	private static final int PERSIST_LEASE = 3 * 30;
+
+	/**
+	 * 检查是否有即将开始的考试的周期(ms).
+	 */
+	private static final long WARM_UP_PERIOD = 60 * 1000;
+
+	/**
+	 * 预热考试的锁的名称.
+	 */
+	private static final String WARM_UP_TASK = "warmUpContests";
+
+	/**
+	 * 预热考试的锁的有效时间(秒).
+	 * 持有锁的Web节点在每次检查时续期, 以免考试被不同的Web节点重复预热.
+	 */
+	private static final int WARM_UP_LEASE = 3 * 60;
+
+	/**
+	 * 在考试开始前多长时间通知评测机预热(ms).
+	 */
+	private static final long WARM_UP_LEAD_TIME = TimeUnit.MINUTES.toMillis(10);
+
+	/**
+	 * 已结束的考试的排行榜在未被读取多长时间后被移除(ms).
+	 */
+	private static final long SCOREBOARD_IDLE_TIMEOUT = TimeUnit.HOURS.toMillis(1);
+
+	/**
+	 * 日志记录器.
+	 */
+	private static final Logger LOGGER = LogManager.getLogger(ContestService.class);
+}
@@ -1,19 +1,25 @@
 package org.verwandlung.voj.web.service;
 
 import com.alibaba.fastjson.JSON;
-import com.alibaba.fastjson.JSONArray;
-import com.alibaba.fastjson.JSONObject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.verwandlung.voj.web.mapper.DiscussionReplyMapper;
 import org.verwandlung.voj.web.mapper.DiscussionThreadMapper;
 import org.verwandlung.voj.web.mapper.DiscussionTopicMapper;
 import org.verwandlung.voj.web.mapper.ProblemMapper;
+import org.verwandlung.voj.web.messenger.DiscussionReplyUpdatedEvent;
+import org.verwandlung.voj.web.messenger.MessageSender;
 import org.verwandlung.voj.web.model.*;
+import org.verwandlung.voj.web.util.DiscussionReplyContentCache;
 import org.verwandlung.voj.web.util.HtmlTextFilter;
-import org.verwandlung.voj.web.util.OffensiveWordFilter;
+import org.verwandlung.voj.web.util.PageCursor;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -77,90 +83,120 @@ public class DiscussionService {
 	/**
 	 * 获取某个主题下的全部讨论(DiscussionThread).
 	 * @param problemId - 试题的唯一标识符
-	 * @param offset - 起始讨论的游标
+	 * @param cursor - 分页游标, 其排序键为讨论的最新回复和讨论的唯一标识符(为空引用时从最近活跃的讨论开始)
 	 * @param limit - 获取讨论的数量
 	 * @return 包含DiscussionThread对象的List对象
 	 */
-	public List<DiscussionThread> getDiscussionThreadsOfProblem(long problemId, long offset, int limit) {
-		return discussionThreadMapper.getDiscussionThreads(problemId, 0, offset, limit);
+	public List<DiscussionThread> getDiscussionThreadsOfProblem(long problemId, PageCursor cursor, int limit) {
+		return getDiscussionThreads(problemId, 0, cursor, limit);
 	}
 
 	/**
 	 * 获取某个讨论主题中的全部讨论(DiscussionThread).
 	 * @param discussionTopicSlug - 讨论主题的唯一英文缩写
-	 * @param offset - 起始讨论的游标
+	 * @param cursor - 分页游标, 其排序键为讨论的最新回复和讨论的唯一标识符(为空引用时从最近活跃的讨论开始)
 	 * @param limit - 获取讨论的数量
 	 * @return 包含DiscussionThread对象的List对象
 	 */
-	public List<DiscussionThread> getDiscussionThreadsOfTopic(String discussionTopicSlug, long offset, int limit) {
+	public List<DiscussionThread> getDiscussionThreadsOfTopic(String discussionTopicSlug, PageCursor cursor, int limit) {
 		int discussionTopicId = 0;
 		if ( discussionTopicSlug != null && !discussionTopicSlug.isEmpty() ) {
 			DiscussionTopic dt = discussionTopicMapper.getDiscussionTopicUsingSlug(discussionTopicSlug);
 			discussionTopicId = dt.getDiscussionTopicId();
 		}
-		return discussionThreadMapper.getDiscussionThreads(0, discussionTopicId, offset, limit);
+		return getDiscussionThreads(0, discussionTopicId, cursor, limit);
+	}
+
+	/**
+	 * 按最后活跃时间获取讨论(DiscussionThread).
+	 * @param problemId - 试题的唯一标识符(0表示不限)
+	 * @param discussionTopicId - 讨论主题的唯一标识符(0表示不限)
+	 * @param cursor - 分页游标(为空引用时从最近活跃的讨论开始)
+	 * @param limit - 获取讨论的数量
+	 * @return 包含DiscussionThread对象的List对象
+	 */
+	private List<DiscussionThread> getDiscussionThreads(long problemId, int discussionTopicId, PageCursor cursor, int limit) {
+		long latestDiscussionReplyId = cursor == null ? Long.MAX_VALUE : cursor.getKey(0, Long.MAX_VALUE);
+		long discussionThreadId = cursor == null ? Long.MAX_VALUE : cursor.getKey(1, Long.MAX_VALUE);
+		return discussionThreadMapper.getDiscussionThreads(problemId, discussionTopicId,
+				latestDiscussionReplyId, discussionThreadId, limit);
+	}
+
+	/**
+	 * 获取指向某页讨论之后的分页游标.
+	 * @param discussionThreads - 当前页面的讨论列表
+	 * @return 指向下一页的分页游标, 若当前页面没有讨论则返回空引用
+	 */
+	public PageCursor getNextCursorOfDiscussionThreads(List<DiscussionThread> discussionThreads) {
+		if ( discussionThreads == null || discussionThreads.isEmpty() ) {
+			return null;
+		}
+		DiscussionThread lastDiscussionThread = discussionThreads.get(discussionThreads.size() - 1);
+		DiscussionReply latestDiscussionReply = lastDiscussionThread.getLatestDiscussionReply();
+		long latestDiscussionReplyId = latestDiscussionReply == null ? 0 : latestDiscussionReply.getDiscussionReplyId();
+		return PageCursor.after(latestDiscussionReplyId, lastDiscussionThread.getDiscussionThreadId());
 	}
 
 	/**
 	 * 获取某个讨论话题的回复.
 	 * @param discussionThreadId - 讨论话题的唯一标识符
 	 * @param currentUserUid - 当前登录用户的用户唯一标识符(-1表示未登录)
-	 * @param offset - 起始回复的游标
+	 * @param cursor - 分页游标, 其排序键为讨论回复的唯一标识符(为空引用时从第一条回复开始)
 	 * @param limit - 获取回复的数量
 	 * @return 包含讨论话题回复的List对象
 	 */
-	public List<DiscussionReply> getDiscussionRepliesOfThread(long discussionThreadId, long currentUserUid, long offset, int limit) {
-		List<DiscussionReply> replies = discussionReplyMapper.getDiscussionRepliesUsingThreadId(discussionThreadId, offset, limit);
+	public List<DiscussionReply> getDiscussionRepliesOfThread(long discussionThreadId, long currentUserUid, PageCursor cursor, int limit) {
+		long discussionReplyId = cursor == null ? 0 : cursor.getKey(0, 0);
+		List<DiscussionReply> replies = discussionReplyMapper.getDiscussionRepliesUsingThreadId(discussionThreadId, discussionReplyId, limit);
+		Map<Long, Integer> votesOfCurrentUser = getDiscussionReplyVotesOfUser(replies, currentUserUid);
 		for ( DiscussionReply dr : replies ) {
-			// 过滤回复中的敏感内容
-			String replyContent = dr.getDiscussionReplyContent();
-			replyContent = offensiveWordFilter.filter(HtmlTextFilter.filter(replyContent));
+			// 过滤回复中的敏感内容(过滤结果已缓存时直接使用)
+			String replyContent = discussionReplyContentCache.getFilteredContent(
+					dr.getDiscussionReplyId(), dr.getDiscussionReplyContent());
 			dr.setDiscussionReplyContent(replyContent);
 			// 获取回复中的投票信息
-			Map<String, Object> votesStatistics = getVoteStatisticsOfDiscussionReply(
-					dr.getDiscussionReplyVotes(), currentUserUid);
+			Integer vote = votesOfCurrentUser.get(dr.getDiscussionReplyId());
+			Map<String, Object> votesStatistics = getVoteStatisticsOfDiscussionReply(dr, vote == null ? 0 : vote);
 			dr.setDiscussionReplyVotes(JSON.toJSONString(votesStatistics));
 		}
 		return replies;
 	}
 
 	/**
-	 * 统计讨论回复中投票信息.
-	 * @param votes - 原始讨论回复中投票信息的JSON格式字符串
+	 * 获取当前用户对若干讨论回复的投票.
+	 * 使用一次查询获取当前页面中全部回复的投票状态.
+	 * @param replies - 讨论回复列表
 	 * @param currentUserUid - 当前登录用户的用户唯一标识符(-1表示未登录)
-	 * @return 包含讨论回复投票信息的Map对象
+	 * @return 讨论回复的唯一标识符与投票结果(1表示赞, -1表示踩)的键值对
 	 */
-	private Map<String, Object> getVoteStatisticsOfDiscussionReply(String votes, long currentUserUid) {
-		Map<String, Object> votesStatistics = new HashMap<>(5, 1);
-		JSONObject voteUsers = JSON.parseObject(votes);
-
-		JSONArray voteUpUsers = voteUsers.getJSONArray("up");
-		JSONArray voteDownUsers = voteUsers.getJSONArray("down");
-		boolean isVotedUp = currentUserUid == -1 ? false : contains(voteUpUsers, currentUserUid);
-		boolean isVotedDown = currentUserUid == -1 ? false : contains(voteDownUsers, currentUserUid);
-
-		votesStatistics.put("isVotedUp", isVotedUp);
-		votesStatistics.put("isVotedDown", isVotedDown);
-		votesStatistics.put("numberOfVoteUp", voteUpUsers.size());
-		votesStatistics.put("numberOfVoteDown", voteDownUsers.size());
-		return votesStatistics;
+	private Map<Long, Integer> getDiscussionReplyVotesOfUser(List<DiscussionReply> replies, long currentUserUid) {
+		Map<Long, Integer> votes = new HashMap<>();
+		if ( currentUserUid == -1 || replies.isEmpty() ) {
+			return votes;
+		}
+		List<Long> discussionReplyIds = new ArrayList<>();
+		for ( DiscussionReply dr : replies ) {
+			discussionReplyIds.add(dr.getDiscussionReplyId());
+		}
+		for ( DiscussionReplyVote drv : discussionReplyMapper.getDiscussionReplyVotesOfUser(currentUserUid, discussionReplyIds) ) {
+			votes.put(drv.getDiscussionReplyId(), drv.getVote());
+		}
+		return votes;
 	}
 
 	/**
-	 * 判断一个值是否存在于一个JSONArray对象中.
-	 * 为了修复JSONArray自带contains方法的Bug.
-	 * 使用场景: 判断一个用户的UID是否存在于Vote列表中.
-	 * @param jsonArray - 待判断的JSONArray对象
-	 * @param value - 待检查的值
-	 * @return 一个值是否存在于一个JSONArray对象中
+	 * 统计讨论回复中投票信息.
+	 * @param discussionReply - 讨论回复对象
+	 * @param vote - 当前用户的投票结果(1表示赞, -1表示踩, 0表示未投票)
+	 * @return 包含讨论回复投票信息的Map对象
 	 */
-	private boolean contains(JSONArray jsonArray, long value) {
-		for ( int i = 0; i < jsonArray.size(); ++ i ) {
-			if ( jsonArray.getLong(i) == value ) {
-				return true;
-			}
-		}
-		return false;
+	private Map<String, Object> getVoteStatisticsOfDiscussionReply(DiscussionReply discussionReply, int vote) {
+		Map<String, Object> votesStatistics = new HashMap<>(5, 1);
+		votesStatistics.put("isVotedUp", vote == VOTE_UP);
+		votesStatistics.put("isVotedDown", vote == VOTE_DOWN);
+		votesStatistics.put("numberOfVoteUp", discussionReply.getNumberOfVoteUp());
+		votesStatistics.put("numberOfVoteDown", discussionReply.getNumberOfVoteDown());
+		return votesStatistics;
 	}
 
 	/**
@@ -205,45 +241,53 @@ public class DiscussionService {
 		result.put("isSuccessful", isSuccessful);
 
 		if ( result.get("isSuccessful") ) {
-			synchronized ( this ) {
-				// 设置新的投票结果
-				JSONObject voteUsers = JSON.parseObject(discussionReply.getDiscussionReplyVotes());
-				JSONArray voteUpUsers = voteUsers.getJSONArray("up");
-				JSONArray voteDownUsers = voteUsers.getJSONArray("down");
-				boolean isVotedUp = contains(voteUpUsers, currentUserUid);
-				boolean isVotedDown = contains(voteDownUsers, currentUserUid);
-
-				if ( voteUp == 1 && !isVotedUp ) {
-					if ( isVotedDown ) remove(voteDownUsers, currentUserUid);
-					voteUpUsers.add(currentUserUid);
-				} else if ( voteUp == -1 ) {
-					remove(voteUpUsers, currentUserUid);
-				}
-				if ( voteDown == 1 && !isVotedDown ) {
-					if ( isVotedUp ) remove(voteUpUsers, currentUserUid);
-					voteDownUsers.add(currentUserUid);
-				} else if ( voteDown == -1 ) {
-					remove(voteDownUsers, currentUserUid);
-				}
-				discussionReply.setDiscussionReplyVotes(JSON.toJSONString(voteUsers));
-				discussionReplyMapper.updateDiscussionReply(discussionReply);
+			// 每条投票语句只影响该用户对该回复的投票记录, 并根据受影响的行数更新投票次数,
+			// 因此无需加锁, 且同一投票被重复提交时不会重复计数.
+			int[] voteDeltas = new int[2];
+			if ( voteUp == -1 ) {
+				removeDiscussionReplyVote(discussionReplyId, currentUserUid, VOTE_UP, voteDeltas);
+			}
+			if ( voteDown == -1 ) {
+				removeDiscussionReplyVote(discussionReplyId, currentUserUid, VOTE_DOWN, voteDeltas);
+			}
+			if ( voteUp == 1 ) {
+				removeDiscussionReplyVote(discussionReplyId, currentUserUid, VOTE_DOWN, voteDeltas);
+				addDiscussionReplyVote(discussionReplyId, currentUserUid, VOTE_UP, voteDeltas);
+			}
+			if ( voteDown == 1 ) {
+				removeDiscussionReplyVote(discussionReplyId, currentUserUid, VOTE_UP, voteDeltas);
+				addDiscussionReplyVote(discussionReplyId, currentUserUid, VOTE_DOWN, voteDeltas);
+			}
+			if ( voteDeltas[0] != 0 || voteDeltas[1] != 0 ) {
+				discussionReplyMapper.updateDiscussionReplyVoteCounters(discussionReplyId, voteDeltas[0], voteDeltas[1]);
 			}
 		}
 		return result;
 	}
 
 	/**
-	 * 移除JSONArray对象中的一个值.
-	 * 为了修复JSONArray自带contains方法的Bug.
-	 * 使用场景: 从Vote列表中移除某个用户的UID.
-	 * @param jsonArray - 待移除值的JSONArray对象
-	 * @param value - 待移除的值
+	 * 添加用户对讨论回复的投票.
+	 * @param discussionReplyId - 讨论回复的唯一标识符
+	 * @param voterUid - 投票用户的唯一标识符
+	 * @param vote - 投票结果(1表示赞, -1表示踩)
+	 * @param voteDeltas - 被赞次数和被踩次数的增量
 	 */
-	private void remove(JSONArray jsonArray, long value) {
-		for ( int i = 0; i < jsonArray.size(); ++ i ) {
-			if ( jsonArray.getLong(i) == value ) {
-				jsonArray.remove(i);
-			}
+	private void addDiscussionReplyVote(long discussionReplyId, long voterUid, int vote, int[] voteDeltas) {
+		if ( discussionReplyMapper.createDiscussionReplyVote(discussionReplyId, voterUid, vote) > 0 ) {
+			++ voteDeltas[vote == VOTE_UP ? 0 : 1];
+		}
+	}
+
+	/**
+	 * 移除用户对讨论回复的投票.
+	 * @param discussionReplyId - 讨论回复的唯一标识符
+	 * @param voterUid - 投票用户的唯一标识符
+	 * @param vote - 投票结果(1表示赞, -1表示踩)
+	 * @param voteDeltas - 被赞次数和被踩次数的增量
+	 */
+	private void removeDiscussionReplyVote(long discussionReplyId, long voterUid, int vote, int[] voteDeltas) {
+		if ( discussionReplyMapper.deleteDiscussionReplyVote(discussionReplyId, voterUid, vote) > 0 ) {
+			-- voteDeltas[vote == VOTE_UP ? 0 : 1];
 		}
 	}
 
@@ -423,13 +467,16 @@ public class DiscussionService {
 	public Map<String, Object> createDiscussionReply(
 			long discussionThreadId, User replyCreator,
 			String replyContent, boolean isCsrfTokenValid) {
-		String discussionReplyVotes = "{ \"up\": [], \"down\": [] }";
 		DiscussionReply dr = new DiscussionReply(discussionThreadId, replyCreator,
-				HtmlTextFilter.filter(replyContent), discussionReplyVotes);
+				HtmlTextFilter.filter(replyContent));
 
 		Map<String, Object> result = (Map<String, Object>) getDiscussionReplyCreationResult(dr, isCsrfTokenValid);
 		if ( (Boolean) result.get("isSuccessful") ) {
 			discussionReplyMapper.createDiscussionReply(dr);
+			discussionThreadMapper.updateDiscussionThreadActivityOfNewReply(dr);
+			dr.setDiscussionReplyContent(discussionReplyContentCache.getFilteredContent(
+					dr.getDiscussionReplyId(), dr.getDiscussionReplyContent()));
+			dr.setDiscussionReplyVotes(JSON.toJSONString(getVoteStatisticsOfDiscussionReply(dr, 0)));
 			result.put("discussionReply", dr);
 		}
 		return result;
@@ -486,6 +533,7 @@ public class DiscussionService {
 					currentEditor.getUserGroup().getUserGroupSlug().equals("administrators") ) {
 				dr.setDiscussionReplyContent(HtmlTextFilter.filter(discussionReplyContent));
 				discussionReplyMapper.updateDiscussionReply(dr);
+				onDiscussionReplyUpdated(discussionReplyId);
 				isSuccessful = true;
 			}
 		}
@@ -514,6 +562,8 @@ public class DiscussionService {
 			if ( dr.getDiscussionReplyCreator().equals(currentEditor) ||
 					currentEditor.getUserGroup().getUserGroupSlug().equals("administrators") ) {
 				discussionReplyMapper.deleteDiscussionReplyUsingReplyId(discussionReplyId);
+				discussionThreadMapper.refreshDiscussionThreadActivity(dr.getDiscussionThreadId());
+				onDiscussionReplyUpdated(discussionReplyId);
 				isSuccessful = true;
 			}
 		}
@@ -521,6 +571,51 @@ public class DiscussionService {
 		return result;
 	}
 
+	/**
+	 * 处理任意Web节点编辑或删除讨论回复的事件.
+	 * @param event - 讨论回复更新事件
+	 */
+	@EventListener
+	public void discussionReplyUpdatedEventHandler(DiscussionReplyUpdatedEvent event) {
+		discussionReplyContentCache.evict(event.getDiscussionReplyId());
+	}
+
+	/**
+	 * 在事务提交后移除本节点缓存的讨论回复过滤结果, 并通知其他Web节点.
+	 * 在事务提交前移除可能使其他线程重新缓存编辑前的内容.
+	 * @param discussionReplyId - 讨论回复的唯一标识符
+	 */
+	private void onDiscussionReplyUpdated(final long discussionReplyId) {
+		if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					notifyDiscussionReplyUpdated(discussionReplyId);
+				}
+			});
+		} else {
+			notifyDiscussionReplyUpdated(discussionReplyId);
+		}
+	}
+
+	/**
+	 * 移除本节点缓存的讨论回复过滤结果, 并通知所有Web节点讨论回复已被更新.
+	 * 通知失败时, 其他Web节点将在读取到编辑后的内容时重新过滤.
+	 * @param discussionReplyId - 讨论回复的唯一标识符
+	 */
+	private void notifyDiscussionReplyUpdated(long discussionReplyId) {
+		discussionReplyContentCache.evict(discussionReplyId);
+
+		try {
+			Map<String, Object> mapMessage = new HashMap<>();
+			mapMessage.put("event", "DiscussionReplyUpdated");
+			mapMessage.put("discussionReplyId", discussionReplyId);
+			messageSender.sendBroadcastMessage(mapMessage);
+		} catch ( Exception ex ) {
+			LOGGER.catching(ex);
+		}
+	}
+
 	/**
 	 * 自动注入的DiscussionTopicMapper对象.
 	 * 用于获取讨论主题.
@@ -550,9 +645,31 @@ public class DiscussionService {
 	private ProblemMapper problemMapper;
 
 	/**
-	 * 自动注入的SensitiveWordFilter对象.
-	 * 用于过滤用户个人信息中的敏感词.
+	 * 自动注入的DiscussionReplyContentCache对象.
+	 * 用于获取讨论回复经过HTML过滤和敏感词过滤后的内容.
 	 */
 	@Autowired
-	private OffensiveWordFilter offensiveWordFilter;
+	private DiscussionReplyContentCache discussionReplyContentCache;
+
+	/**
+	 * 自动注入的MessageSender对象.
+	 * 用于通知其他Web节点讨论回复已被编辑或删除.
+	 */
+	@Autowired
+	private MessageSender messageSender;
+
+	/**
+	 * 表示赞的投票结果.
+	 */
+	private static final int VOTE_UP = 1;
+
+	/**
+	 * 表示踩的投票结果.
+	 */
+	private static final int VOTE_DOWN = -1;
+
+	/**
+	 * 日志记录器.
+	 */
+	private static final Logger LOGGER = LogManager.getLogger(DiscussionService.class);
 }
@@ -1,23 +1,35 @@
 package org.verwandlung.voj.web.service;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.regex.Pattern;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.alibaba.fastjson.JSON;
 import org.verwandlung.voj.web.mapper.OptionMapper;
+import org.verwandlung.voj.web.messenger.MessageSender;
+import org.verwandlung.voj.web.messenger.OptionsUpdatedEvent;
 import org.verwandlung.voj.web.model.Option;
+import org.verwandlung.voj.web.util.OffensiveWordFilter;
 
 /**
  * 系统管理服务.
  * 用于完成整个系统的管理功能.
  * 
+ * 系统选项以不可变快照的形式缓存在内存中, 读取系统选项时无需访问数据库.
+ * 系统选项更新后, 快照被整体替换, 并通知其他Web节点重新加载系统选项.
+ * 
  * @author Haozhe Xie
  */
 @Service
@@ -39,6 +51,14 @@ public class OptionService {
 		return optionMapper.getAutoloadOptions();
 	}
 	
+	/**
+	 * 获取自动加载的系统选项.
+	 * @return 包含自动加载系统选项名称和值的不可变键值对
+	 */
+	public Map<String, String> getAutoloadOptionMap() {
+		return getOptionSnapshot().autoloadOptions;
+	}
+	
 	/**
 	 * 根据系统选项的名称获取选项的值.
 	 * @param optionName - 系统选项的名称 
@@ -48,6 +68,50 @@ public class OptionService {
 		return optionMapper.getOption(optionName);
 	}
 	
+	/**
+	 * 根据系统选项的名称从缓存中获取选项的值.
+	 * @param optionName - 系统选项的名称
+	 * @return 系统选项的值, 若系统选项不存在则返回空引用
+	 */
+	public String getOptionValue(String optionName) {
+		return getOptionSnapshot().options.get(optionName);
+	}
+	
+	/**
+	 * 获取系统选项的快照.
+	 * 首次访问时从数据库中加载系统选项.
+	 * @return 系统选项的快照
+	 */
+	private OptionSnapshot getOptionSnapshot() {
+		OptionSnapshot snapshot = optionSnapshot;
+		if ( snapshot == null ) {
+			snapshot = reloadOptions();
+		}
+		return snapshot;
+	}
+	
+	/**
+	 * 从数据库中重新加载系统选项, 并替换系统选项的快照.
+	 * 不经过本节点的查询缓存, 以免读取到其他Web节点更新之前的系统选项.
+	 * 敏感词列表发生变化时, 敏感词过滤器同时被重新构建.
+	 * @return 新的系统选项快照
+	 */
+	private synchronized OptionSnapshot reloadOptions() {
+		OptionSnapshot snapshot = new OptionSnapshot(optionMapper.getLatestOptions());
+		optionSnapshot = snapshot;
+		offensiveWordFilter.reload(snapshot.options.get(OffensiveWordFilter.OFFENSIVE_WORD_OPTION_KEY));
+		return snapshot;
+	}
+	
+	/**
+	 * 其他Web节点更新系统选项后, 重新加载系统选项.
+	 * @param event - 系统选项更新事件
+	 */
+	@EventListener
+	public void optionsUpdatedEventHandler(OptionsUpdatedEvent event) {
+		reloadOptions();
+	}
+	
 	/**
 	 * 更新系统选项.
 	 * @param websiteName - 网站名称
@@ -109,6 +173,32 @@ public class OptionService {
 			option.setOptionValue(optionValue);
 			optionMapper.updateOption(option);
 		}
+		if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					onOptionsUpdated();
+				}
+			});
+		} else {
+			onOptionsUpdated();
+		}
+	}
+	
+	/**
+	 * 系统选项写入数据库后, 替换本节点的系统选项快照并通知其他Web节点.
+	 * 通知失败时, 其他Web节点的系统选项将在重启后更新.
+	 */
+	private void onOptionsUpdated() {
+		reloadOptions();
+		
+		try {
+			Map<String, Object> mapMessage = new HashMap<>();
+			mapMessage.put("event", "OptionsUpdated");
+			messageSender.sendBroadcastMessage(mapMessage);
+		} catch ( Exception ex ) {
+			LOGGER.catching(ex);
+		}
 	}
 	
 	/**
@@ -178,9 +268,66 @@ public class OptionService {
 		return isAnalyticsCodeEmpty || isAnalyticsCodeLegal;
 	}
 	
+	/**
+	 * 系统选项的不可变快照.
+	 */
+	private static final class OptionSnapshot {
+		/**
+		 * OptionSnapshot的构造函数.
+		 * @param options - 全部系统选项的列表
+		 */
+		public OptionSnapshot(List<Option> options) {
+			Map<String, String> allOptions = new HashMap<>();
+			Map<String, String> autoloadOptions = new HashMap<>();
+			
+			for ( Option option : options ) {
+				allOptions.put(option.getOptionName(), option.getOptionValue());
+				if ( option.isAutoload() ) {
+					autoloadOptions.put(option.getOptionName(), option.getOptionValue());
+				}
+			}
+			this.options = Collections.unmodifiableMap(allOptions);
+			this.autoloadOptions = Collections.unmodifiableMap(autoloadOptions);
+		}
+		
+		/**
+		 * 全部系统选项的名称和值.
+		 */
+		private final Map<String, String> options;
+		
+		/**
+		 * 自动加载的系统选项的名称和值.
+		 */
+		private final Map<String, String> autoloadOptions;
+	}
+	
+	/**
+	 * 系统选项的快照.
+	 */
+	private volatile OptionSnapshot optionSnapshot;
+	
 	/**
 	 * 自动注入的OptionMapper对象.
 	 */
 	@Autowired
 	private OptionMapper optionMapper;
+	
+	/**
+	 * 自动注入的OffensiveWordFilter对象.
+	 * 用于在敏感词列表更新后重新构建敏感词过滤器.
+	 */
+	@Autowired
+	private OffensiveWordFilter offensiveWordFilter;
+	
+	/**
+	 * 自动注入的MessageSender对象.
+	 * 用于通知其他Web节点重新加载系统选项.
+	 */
+	@Autowired
+	private MessageSender messageSender;
+	
+	/**
+	 * 日志记录器.
+	 */
+	private static final Logger LOGGER = LogManager.getLogger(OptionService.class);
 }
@@ -2,15 +2,26 @@ package org.verwandlung.voj.web.service;
 
 import java.util.*;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import org.verwandlung.voj.web.mapper.CheckpointMapper;
 import org.verwandlung.voj.web.mapper.ProblemCategoryMapper;
 import org.verwandlung.voj.web.mapper.ProblemMapper;
 import org.verwandlung.voj.web.mapper.ProblemTagMapper;
+import org.verwandlung.voj.web.messenger.MessageSender;
+import org.verwandlung.voj.web.messenger.ProblemUpdatedEvent;
 import org.verwandlung.voj.web.model.*;
+import org.verwandlung.voj.web.util.PageCursor;
+import org.verwandlung.voj.web.util.ProblemSearchIndex;
+import org.verwandlung.voj.web.util.ScheduledTaskLock;
 import org.verwandlung.voj.web.util.SlugifyUtils;
 
 import com.alibaba.fastjson.JSON;
@@ -19,6 +30,10 @@ import com.alibaba.fastjson.JSONObject;
 
 /**
  * 试题类(Problem)的业务逻辑层.
+ * 
+ * 按关键词筛选试题时使用内存中的全文检索索引(ProblemSearchIndex), 而不是在数据库中进行模糊查询.
+ * 索引在首次使用时建立, 并在创建, 编辑或删除试题后增量更新.
+ * 
  * @author Haozhe Xie
  */
 @Service
@@ -32,17 +47,6 @@ public class ProblemService {
 		return problemMapper.getLowerBoundOfProblems();
 	}
 	
-	/**
-	 * 获取试题的结束编号.
-	 * @param isPublicOnly - 是否只筛选公开试题
-	 * @param offset - 试题唯一标识符的起始序号
-	 * @param limit - 每次加载试题的数量
-	 * @return 试题的结束编号
-	 */
-	public long getLastIndexOfProblems(boolean isPublicOnly, long offset, int limit) {
-		return problemMapper.getUpperBoundOfProblemsWithLimit(isPublicOnly, offset, limit);
-	}
-	
 	/**
 	 * 通过试题的唯一标识符获取试题的详细信息.
 	 * @param problemId - 试题的唯一标识符
@@ -77,7 +81,93 @@ public class ProblemService {
 		if ( problemTag != null ) {
 			problemTagId = problemTag.getProblemTagId();
 		}
-		return problemMapper.getProblemsUsingFilters(keyword, problemCategoryId, problemTagId, isPublicOnly, offset, limit);
+		List<Long> problemIds = getProblemIdsUsingKeyword(keyword, problemCategoryId, isPublicOnly);
+		if ( problemIds != null ) {
+			return getProblemsUsingKeyword(problemIds, problemCategoryId, problemTagId, isPublicOnly, offset, false, limit);
+		}
+		return problemMapper.getProblemsUsingFilters(null, problemCategoryId, problemTagId, isPublicOnly, offset, limit);
+	}
+	
+	/**
+	 * 使用分页游标获取试题列表(按试题唯一标识符升序排列).
+	 * @param cursor - 分页游标, 其排序键为试题的唯一标识符(为空引用时获取第一页)
+	 * @param keyword - 关键字
+	 * @param problemCategorySlug - 试题分类的别名
+	 * @param problemTagSlug - 试题标签的别名
+	 * @param isPublicOnly - 是否只筛选公开试题
+	 * @param limit - 每次加载试题的数量
+	 * @return 试题列表(List<Problem>对象)
+	 */
+	public List<Problem> getProblemsUsingFilters(PageCursor cursor, String keyword, String problemCategorySlug,
+			String problemTagSlug, boolean isPublicOnly, int limit) {
+		if ( cursor == null || !cursor.isBackward() ) {
+			long offset = cursor == null ? 0 : cursor.getKey(0, -1) + 1;
+			return getProblemsUsingFilters(offset, keyword, problemCategorySlug, problemTagSlug, isPublicOnly, limit);
+		}
+		ProblemCategory problemCategory = problemCategoryMapper.getProblemCategoryUsingCategorySlug(problemCategorySlug);
+		ProblemTag problemTag = problemTagMapper.getProblemTagUsingTagSlug(SlugifyUtils.getSlug(problemTagSlug));
+		int problemCategoryId = problemCategory == null ? 0 : problemCategory.getProblemCategoryId();
+		long problemTagId = problemTag == null ? 0 : problemTag.getProblemTagId();
+		List<Long> problemIds = getProblemIdsUsingKeyword(keyword, problemCategoryId, isPublicOnly);
+		long problemId = cursor.getKey(0, Long.MAX_VALUE);
+		
+		List<Problem> problems = null;
+		if ( problemIds != null ) {
+			problems = getProblemsUsingKeyword(problemIds, problemCategoryId, problemTagId, isPublicOnly, problemId, true, limit);
+		} else {
+			problems = problemMapper.getPreviousProblemsUsingFilters(null, problemCategoryId, 
+					problemTagId, isPublicOnly, problemId, limit);
+		}
+		Collections.reverse(problems);
+		return problems;
+	}
+	
+	/**
+	 * 在全文检索命中的试题中按试题唯一标识符分页获取试题.
+	 * 命中的试题唯一标识符按升序排列后, 每次只将游标之后的至多limit个试题唯一标识符交给数据库筛选,
+	 * 直到获取到limit个试题或遍历完全部命中的试题, 以免将全部命中的试题作为查询条件.
+	 * @param problemIds - 全文检索命中的试题唯一标识符列表
+	 * @param problemCategoryId - 试题分类的唯一标识符
+	 * @param problemTagId - 试题标签的唯一标识符
+	 * @param isPublicOnly - 是否只筛选公开试题
+	 * @param problemId - 分页游标对应的试题唯一标识符
+	 * @param isBackward - 是否获取该试题之前的试题(按试题唯一标识符降序排列), 否则获取从该试题开始的试题
+	 * @param limit - 每次加载试题的数量
+	 * @return 试题列表(List<Problem>对象)
+	 */
+	private List<Problem> getProblemsUsingKeyword(List<Long> problemIds, int problemCategoryId, 
+			long problemTagId, boolean isPublicOnly, long problemId, boolean isBackward, int limit) {
+		List<Long> sortedProblemIds = new ArrayList<>(problemIds);
+		Collections.sort(sortedProblemIds);
+		int index = Collections.binarySearch(sortedProblemIds, problemId);
+		if ( index < 0 ) {
+			index = -index - 1;
+		}
+		
+		List<Problem> problems = new ArrayList<>();
+		while ( problems.size() < limit ) {
+			int numberOfRemainingProblems = limit - problems.size();
+			if ( isBackward ) {
+				if ( index <= 0 ) {
+					break;
+				}
+				int fromIndex = Math.max(0, index - numberOfRemainingProblems);
+				List<Long> candidateProblemIds = new ArrayList<>(sortedProblemIds.subList(fromIndex, index));
+				problems.addAll(problemMapper.getPreviousProblemsUsingFilters(candidateProblemIds, 
+						problemCategoryId, problemTagId, isPublicOnly, problemId, numberOfRemainingProblems));
+				index = fromIndex;
+			} else {
+				if ( index >= sortedProblemIds.size() ) {
+					break;
+				}
+				int toIndex = Math.min(sortedProblemIds.size(), index + numberOfRemainingProblems);
+				List<Long> candidateProblemIds = new ArrayList<>(sortedProblemIds.subList(index, toIndex));
+				problems.addAll(problemMapper.getProblemsUsingFilters(candidateProblemIds, 
+						problemCategoryId, problemTagId, isPublicOnly, problemId, numberOfRemainingProblems));
+				index = toIndex;
+			}
+		}
+		return problems;
 	}
 	
 	/**
@@ -93,7 +183,202 @@ public class ProblemService {
 		if ( problemCategory != null ) {
 			problemCategoryId = problemCategory.getProblemCategoryId();
 		}
-		return problemMapper.getNumberOfProblemsUsingFilters(keyword, problemCategoryId, isPublicOnly);
+		List<Long> problemIds = getProblemIdsUsingKeyword(keyword, problemCategoryId, isPublicOnly);
+		if ( problemIds != null ) {
+			return problemIds.size();
+		}
+		return problemMapper.getNumberOfProblemsUsingFilters(null, problemCategoryId, isPublicOnly);
+	}
+	
+	/**
+	 * 使用全文检索获取试题列表(按相关度降序排列).
+	 * @param keyword - 关键字
+	 * @param problemCategorySlug - 试题分类的别名
+	 * @param isPublicOnly - 是否只筛选公开试题
+	 * @param offset - 起始的检索结果序号
+	 * @param limit - 每次加载试题的数量
+	 * @return 试题列表(List<Problem>对象)
+	 */
+	public List<Problem> searchProblems(String keyword, String problemCategorySlug, 
+			boolean isPublicOnly, int offset, int limit) {
+		ProblemCategory problemCategory = problemCategoryMapper.getProblemCategoryUsingCategorySlug(problemCategorySlug);
+		int problemCategoryId = problemCategory == null ? 0 : problemCategory.getProblemCategoryId();
+		List<Long> problemIds = getProblemIdsUsingKeyword(keyword, problemCategoryId, isPublicOnly);
+		if ( problemIds == null || offset < 0 || offset >= problemIds.size() ) {
+			return new ArrayList<>();
+		}
+		problemIds = problemIds.subList(offset, Math.min(offset + limit, problemIds.size()));
+		
+		Map<Long, Problem> problemsIndexer = new HashMap<>();
+		for ( Problem problem : problemMapper.getProblemsUsingIds(problemIds) ) {
+			problemsIndexer.put(problem.getProblemId(), problem);
+		}
+		List<Problem> problems = new ArrayList<>();
+		for ( long problemId : problemIds ) {
+			Problem problem = problemsIndexer.get(problemId);
+			if ( problem != null ) {
+				problems.add(problem);
+			}
+		}
+		return problems;
+	}
+	
+	/**
+	 * 获取高亮关键词后的试题名称.
+	 * @param problems - 试题列表
+	 * @param keyword - 关键字
+	 * @return 试题的唯一标识符与高亮后的试题名称(HTML)的键值对
+	 */
+	public Map<Long, String> getHighlightedProblemNames(List<Problem> problems, String keyword) {
+		Map<Long, String> highlightedProblemNames = new HashMap<>();
+		if ( isKeywordEmpty(keyword) ) {
+			return highlightedProblemNames;
+		}
+		for ( Problem problem : problems ) {
+			highlightedProblemNames.put(problem.getProblemId(), 
+					ProblemSearchIndex.highlight(problem.getProblemName(), keyword));
+		}
+		return highlightedProblemNames;
+	}
+	
+	/**
+	 * 使用全文检索索引获取命中关键词的试题.
+	 * @param keyword - 关键字
+	 * @param problemCategoryId - 试题分类的唯一标识符(为0时不筛选分类)
+	 * @param isPublicOnly - 是否只筛选公开试题
+	 * @return 按相关度降序排列的试题唯一标识符列表, 若关键字为空则返回空引用
+	 */
+	private List<Long> getProblemIdsUsingKeyword(String keyword, int problemCategoryId, boolean isPublicOnly) {
+		if ( isKeywordEmpty(keyword) ) {
+			return null;
+		}
+		return getProblemSearchIndex().search(keyword, problemCategoryId, isPublicOnly);
+	}
+	
+	/**
+	 * 检查关键字是否为空.
+	 * @param keyword - 关键字
+	 * @return 关键字是否为空
+	 */
+	private boolean isKeywordEmpty(String keyword) {
+		return keyword == null || keyword.trim().isEmpty();
+	}
+	
+	/**
+	 * 获取试题的全文检索索引.
+	 * 索引在首次使用时根据数据库中的全部试题建立.
+	 * @return 试题的全文检索索引
+	 */
+	private ProblemSearchIndex getProblemSearchIndex() {
+		ProblemSearchIndex problemSearchIndex = this.problemSearchIndex;
+		if ( problemSearchIndex == null ) {
+			synchronized ( this ) {
+				problemSearchIndex = this.problemSearchIndex;
+				if ( problemSearchIndex == null ) {
+					problemSearchIndex = buildProblemSearchIndex();
+					this.problemSearchIndex = problemSearchIndex;
+				}
+			}
+		}
+		return problemSearchIndex;
+	}
+	
+	/**
+	 * 根据数据库中的全部试题建立全文检索索引.
+	 * @return 试题的全文检索索引
+	 */
+	private ProblemSearchIndex buildProblemSearchIndex() {
+		ProblemSearchIndex problemSearchIndex = new ProblemSearchIndex();
+		List<Problem> problems = problemMapper.getProblemsForSearchIndex();
+		if ( problems.isEmpty() ) {
+			return problemSearchIndex;
+		}
+		long problemIdLowerBound = Long.MAX_VALUE;
+		long problemIdUpperBound = Long.MIN_VALUE;
+		for ( Problem problem : problems ) {
+			problemIdLowerBound = Math.min(problemIdLowerBound, problem.getProblemId());
+			problemIdUpperBound = Math.max(problemIdUpperBound, problem.getProblemId());
+		}
+		Map<Long, List<ProblemCategory>> problemCategoriesOfProblems = 
+				getProblemCategoriesOfProblems(problemIdLowerBound, problemIdUpperBound);
+		Map<Long, List<ProblemTag>> problemTagsOfProblems = 
+				getProblemTagsOfProblems(problemIdLowerBound, problemIdUpperBound);
+		
+		for ( Problem problem : problems ) {
+			long problemId = problem.getProblemId();
+			problemSearchIndex.putProblem(problem, 
+					problemCategoriesOfProblems.get(problemId), problemTagsOfProblems.get(problemId));
+		}
+		LOGGER.info(String.format("Search index of %d problem(s) built.", problems.size()));
+		return problemSearchIndex;
+	}
+	
+	/**
+	 * 更新某个试题的全文检索索引.
+	 * 若索引尚未建立, 则该试题将在建立索引时被加入索引.
+	 * @param problemId - 试题的唯一标识符(为0时重新建立全部试题的索引)
+	 */
+	private void reindexProblem(long problemId) {
+		ProblemSearchIndex problemSearchIndex = this.problemSearchIndex;
+		if ( problemSearchIndex == null ) {
+			return;
+		}
+		if ( problemId == 0 ) {
+			this.problemSearchIndex = null;
+			return;
+		}
+		Problem problem = problemMapper.getLatestProblem(problemId);
+		if ( problem == null ) {
+			problemSearchIndex.removeProblem(problemId);
+		} else {
+			problemSearchIndex.putProblem(problem, 
+					getProblemCategoriesUsingProblemId(problemId), getProblemTagsUsingProblemId(problemId));
+		}
+	}
+	
+	/**
+	 * 处理其他Web节点创建, 编辑或删除试题的事件.
+	 * @param event - 试题更新事件
+	 */
+	@EventListener
+	public void problemUpdatedEventHandler(ProblemUpdatedEvent event) {
+		reindexProblem(event.getProblemId());
+	}
+	
+	/**
+	 * 在事务提交后更新本节点的全文检索索引, 并通知其他Web节点更新索引.
+	 * 通知失败时, 其他Web节点的索引将在重启后更新.
+	 * @param problemId - 试题的唯一标识符(为0时重新建立全部试题的索引)
+	 */
+	private void onProblemUpdated(final long problemId) {
+		if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					notifyProblemUpdated(problemId);
+				}
+			});
+		} else {
+			notifyProblemUpdated(problemId);
+		}
+	}
+	
+	/**
+	 * 更新本节点的全文检索索引, 并通知其他Web节点更新索引.
+	 * @param problemId - 试题的唯一标识符(为0时重新建立全部试题的索引)
+	 */
+	private void notifyProblemUpdated(long problemId) {
+		reindexProblem(problemId);
+		
+		try {
+			Map<String, Object> mapMessage = new HashMap<>();
+			mapMessage.put("event", "ProblemUpdated");
+			mapMessage.put("problemId", problemId);
+			messageSender.sendBroadcastMessage(mapMessage);
+			messageSender.sendJudgerBroadcastMessage(mapMessage);
+		} catch ( Exception ex ) {
+			LOGGER.catching(ex);
+		}
 	}
 
 	/**
@@ -268,6 +553,7 @@ public class ProblemService {
 			createTestCases(problemId, testCases, isExactlyMatch);
 			createProblemCategoryRelationships(problemId, problemCategories);
 			createProblemTags(problemId, problemTags);
+			onProblemUpdated(problemId);
 			
 			result.put("problemId", problemId);
 		}
@@ -334,6 +620,7 @@ public class ProblemService {
 			updateTestCases(problemId, testCases, isExactlyMatch);
 			updateProblemCategoryRelationships(problemId, problemCategories);
 			updateProblemTags(problemId, problemTags);
+			onProblemUpdated(problemId);
 		}
 		return result;
 	}
@@ -470,6 +757,21 @@ public class ProblemService {
 		return problemName.length() <= 128;
 	}
 	
+	/**
+	 * 根据提交记录重新计算所有试题的提交次数和通过次数.
+	 * 试题的统计信息在创建, 删除提交记录及评测完成时增量更新, 
+	 * 该方法用于修正因删除用户等级联操作导致的统计偏差.
+	 * 由Spring管理的线程池定期调用, 部署多个Web节点时每个周期仅由一个Web节点执行.
+	 */
+	@Scheduled(initialDelay = SUBMISSION_STATS_REFRESH_PERIOD, fixedDelay = SUBMISSION_STATS_REFRESH_PERIOD)
+	public void refreshSubmissionStatsOfProblems() {
+		if ( !scheduledTaskLock.tryLock(SUBMISSION_STATS_REFRESH_TASK, SUBMISSION_STATS_REFRESH_LEASE) ) {
+			return;
+		}
+		int numberOfProblems = problemMapper.refreshSubmissionStatsOfProblems();
+		LOGGER.info(String.format("Submission stats of %d problem(s) refreshed.", numberOfProblems));
+	}
+	
 	/**
 	 * [此方法仅供管理员使用]
 	 * 删除指定的试题.
@@ -477,6 +779,7 @@ public class ProblemService {
 	 */
 	public void deleteProblem(long problemId) {
 		problemMapper.deleteProblem(problemId);
+		onProblemUpdated(problemId);
 	}
 	
 	/**
@@ -546,6 +849,7 @@ public class ProblemService {
 
 		if ( result.get("isSuccessful") ) {
 			problemCategoryMapper.updateProblemCategory(problemCategory);
+			onProblemUpdated(0);
 		}
 		return result;
 	}
@@ -662,6 +966,7 @@ public class ProblemService {
 		boolean isProblemCategoryEditable = false;
 		if ( isProblemCategoryEditable(problemCategoryId) ) {
 			problemCategoryMapper.deleteProblemCategory(problemCategoryId);
+			onProblemUpdated(0);
 			isProblemCategoryEditable = true;
 		}
 		return isProblemCategoryEditable;
@@ -690,4 +995,45 @@ public class ProblemService {
 	 */
 	@Autowired
 	private CheckpointMapper checkpointMapper;
+	
+	/**
+	 * 自动注入的MessageSender对象.
+	 * 用于通知其他Web节点更新试题的全文检索索引.
+	 */
+	@Autowired
+	private MessageSender messageSender;
+	
+	/**
+	 * 试题的全文检索索引.
+	 * 为空引用时表示索引尚未建立.
+	 */
+	private volatile ProblemSearchIndex problemSearchIndex;
+	
+	/**
+	 * 自动注入的ScheduledTaskLock对象.
+	 * 用于保证每个周期仅由一个Web节点修正试题的统计信息.
+	 */
+	@Autowired
+	private ScheduledTaskLock scheduledTaskLock;
+	
+	/**
+	 * 修正试题统计信息的定时任务的名称.
+	 */
+	private static final String SUBMISSION_STATS_REFRESH_TASK = "refreshSubmissionStatsOfProblems";
+	
+	/**
+	 * 修正试题统计信息的时间间隔(毫秒).
+	 */
+	private static final long SUBMISSION_STATS_REFRESH_PERIOD = 6 * 60 * 60 * 1000;
+	
+	/**
+	 * 修正试题统计信息的定时任务的锁的有效时间(秒).
+	 * 略短于修正的时间间隔, 以免因各Web节点的执行时间不同而跳过某个周期.
+	 */
+	private static final int SUBMISSION_STATS_REFRESH_LEASE = 6 * 60 * 60 - 60;
+	
+	/**
+	 * 日志记录器.
+	 */
+	private static final Logger LOGGER = LogManager.getLogger(ProblemService.class);
 }
@@ -0,0 +1,422 @@
+package org.verwandlung.voj.web.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import org.verwandlung.voj.web.mapper.SubmissionMapper;
+import org.verwandlung.voj.web.messenger.ApplicationEventListener;
+import org.verwandlung.voj.web.messenger.SubmissionEvent;
+import org.verwandlung.voj.web.messenger.SubmissionTaskLane;
+import org.verwandlung.voj.web.util.RejudgeJob;
+import org.verwandlung.voj.web.util.RejudgeJob.Status;
+
+/**
+ * 批量重新评测的业务逻辑层.
+ * 重新评测任务按批次加入消息队列, 每批的数量取决于在线评测机的空闲评测槽位,
+ * 以避免大批量的重新评测占满消息队列.
+ * 需要重新评测的提交记录按唯一标识符分批从数据库中加载, 而不是在创建任务时一次性加载.
+ * 
+ * 重新评测任务仅保存在创建该任务的Web节点的内存中, 并由该节点派发.
+ * Web节点关闭时, 未完成的任务将被记录在日志中, 以便管理员从中断的位置重新创建任务.
+ *
+ * @author Haozhe Xie
+ */
+@Service
+public class RejudgeService {
+	/**
+	 * 创建重新评测任务.
+	 * 各筛选条件之间为"与"的关系, 但至少需要指定一个筛选条件.
+	 * @param submissionIds - 提交记录唯一标识符的列表
+	 * @param problemId - 试题的唯一标识符(为0时忽略)
+	 * @param startTime - 提交时间的下界(为空时忽略)
+	 * @param endTime - 提交时间的上界(为空时忽略)
+	 * @param creator - 创建重新评测任务的用户名
+	 * @return 一个包含重新评测任务创建结果的Map<String, Object>对象, 并包含重新评测任务的唯一标识符
+	 */
+	public Map<String, Object> createRejudgeJob(List<Long> submissionIds, long problemId,
+			String startTime, String endTime, String creator) {
+		Map<String, Object> result = new HashMap<>(5, 1);
+		boolean isSelectorEmpty = (submissionIds == null || submissionIds.isEmpty()) &&
+				problemId == 0 && startTime == null && endTime == null;
+		result.put("isSelectorEmpty", isSelectorEmpty);
+		result.put("isSuccessful", false);
+		if ( isSelectorEmpty ) {
+			return result;
+		}
+
+		long numberOfSubmissions =
+				submissionMapper.getNumberOfSubmissionsForRejudge(submissionIds, problemId, startTime, endTime);
+		result.put("isSubmissionsEmpty", numberOfSubmissions == 0);
+		if ( numberOfSubmissions == 0 ) {
+			return result;
+		}
+
+		RejudgeJob rejudgeJob = null;
+		synchronized (this) {
+			String description = getRejudgeJobDescription(submissionIds, problemId, startTime, endTime);
+			rejudgeJob = new RejudgeJob(++ lastJobId, description, creator, 
+					submissionIds, problemId, startTime, endTime, numberOfSubmissions);
+			rejudgeJobs.put(rejudgeJob.getJobId(), rejudgeJob);
+			removeExpiredRejudgeJobs();
+		}
+		result.put("jobId", rejudgeJob.getJobId());
+		result.put("isSuccessful", true);
+		LOGGER.info(String.format("Rejudge job #%d created by %s with %d submissions. [%s]",
+				new Object[] { rejudgeJob.getJobId(), creator, numberOfSubmissions, rejudgeJob.getDescription() }));
+		return result;
+	}
+
+	/**
+	 * 获取重新评测任务的筛选条件描述.
+	 * @param submissionIds - 提交记录唯一标识符的列表
+	 * @param problemId - 试题的唯一标识符
+	 * @param startTime - 提交时间的下界
+	 * @param endTime - 提交时间的上界
+	 * @return 重新评测任务的筛选条件描述
+	 */
+	private String getRejudgeJobDescription(List<Long> submissionIds, long problemId,
+			String startTime, String endTime) {
+		List<String> conditions = new ArrayList<>();
+		if ( submissionIds != null && !submissionIds.isEmpty() ) {
+			conditions.add(String.format("%d selected submissions", new Object[] { submissionIds.size() }));
+		}
+		if ( problemId != 0 ) {
+			conditions.add(String.format("Problem #%d", new Object[] { problemId }));
+		}
+		if ( startTime != null || endTime != null ) {
+			conditions.add(String.format("Submitted from %s to %s", new Object[] {
+					startTime == null ? "-" : startTime, endTime == null ? "-" : endTime }));
+		}
+		StringBuilder descriptionBuilder = new StringBuilder();
+		for ( String condition : conditions ) {
+			if ( descriptionBuilder.length() != 0 ) {
+				descriptionBuilder.append(", ");
+			}
+			descriptionBuilder.append(condition);
+		}
+		return descriptionBuilder.toString();
+	}
+
+	/**
+	 * 取消重新评测任务.
+	 * 尚未加入消息队列的提交记录将不再被评测, 已加入消息队列的提交记录仍会完成评测.
+	 * @param jobId - 重新评测任务的唯一标识符
+	 * @return 重新评测任务是否被取消
+	 */
+	public synchronized boolean cancelRejudgeJob(long jobId) {
+		RejudgeJob rejudgeJob = rejudgeJobs.get(jobId);
+		if ( rejudgeJob == null || rejudgeJob.getStatus() != Status.RUNNING ) {
+			return false;
+		}
+		rejudgeJob.clearPendingSubmissions();
+		rejudgeJob.setStatus(Status.CANCELLED);
+		LOGGER.info(String.format("Rejudge job #%d cancelled. %s", new Object[] { jobId, rejudgeJob }));
+		return true;
+	}
+
+	/**
+	 * 获取重新评测任务的进度.
+	 * @param jobId - 重新评测任务的唯一标识符
+	 * @return 包含重新评测任务进度的Map<String, Object>对象, 若任务不存在则返回空引用
+	 */
+	public synchronized Map<String, Object> getRejudgeJob(long jobId) {
+		RejudgeJob rejudgeJob = rejudgeJobs.get(jobId);
+		if ( rejudgeJob == null ) {
+			return null;
+		}
+		return getRejudgeJobProgress(rejudgeJob);
+	}
+
+	/**
+	 * 获取全部重新评测任务的进度(按创建时间由新到旧排列).
+	 * @return 包含重新评测任务进度的列表
+	 */
+	public synchronized List<Map<String, Object>> getRejudgeJobs() {
+		List<Map<String, Object>> jobs = new ArrayList<>();
+		for ( RejudgeJob rejudgeJob : rejudgeJobs.values() ) {
+			jobs.add(getRejudgeJobProgress(rejudgeJob));
+		}
+		Collections.reverse(jobs);
+		return jobs;
+	}
+
+	/**
+	 * 获取重新评测任务的进度.
+	 * @param rejudgeJob - 重新评测任务
+	 * @return 包含重新评测任务进度的Map<String, Object>对象
+	 */
+	private Map<String, Object> getRejudgeJobProgress(RejudgeJob rejudgeJob) {
+		Map<String, Object> progress = new HashMap<>(16, 1);
+		progress.put("jobId", rejudgeJob.getJobId());
+		progress.put("description", rejudgeJob.getDescription());
+		progress.put("creator", rejudgeJob.getCreator());
+		progress.put("createTime", rejudgeJob.getCreateTime());
+		progress.put("status", rejudgeJob.getStatus().name());
+		progress.put("totalSubmissions", rejudgeJob.getTotalSubmissions());
+		progress.put("pendingSubmissions", rejudgeJob.getNumberOfPendingSubmissions());
+		progress.put("runningSubmissions", rejudgeJob.getNumberOfRunningSubmissions());
+		progress.put("completedSubmissions", rejudgeJob.getCompletedSubmissions());
+		progress.put("skippedSubmissions", rejudgeJob.getSkippedSubmissions());
+		progress.put("timedOutSubmissions", rejudgeJob.getTimedOutSubmissions());
+		return progress;
+	}
+
+	/**
+	 * 提交事件的处理器.
+	 * 用于统计重新评测任务中已完成评测的提交记录.
+	 * 该处理器需先于推送实时评测结果的处理器执行, 以免后者抛出异常后未被调用.
+	 * @param event - 提交记录事件
+	 */
+	@EventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void submissionEventHandler(SubmissionEvent event) {
+		if ( !event.isCompleted() ) {
+			return;
+		}
+		long submissionId = event.getSubmissionId();
+		synchronized (this) {
+			RejudgeJob rejudgeJob = inFlightSubmissions.remove(submissionId);
+			if ( rejudgeJob == null ) {
+				return;
+			}
+			inFlightEnqueueTimes.remove(submissionId);
+			rejudgeJob.onSubmissionCompleted();
+			updateRejudgeJobStatus(rejudgeJob);
+		}
+	}
+
+	/**
+	 * 派发重新评测任务.
+	 * 由Spring管理的线程池定期调用.
+	 * 每次派发的数量为在线评测机的空闲评测槽位数量与在线评测机数量之和(每台评测机最多缓冲1个任务),
+	 * 再减去仍在评测中的重新评测任务数量. 正在评测中的提交记录不会被重复加入消息队列.
+	 */
+	@Scheduled(fixedDelay = DISPATCH_PERIOD)
+	public synchronized void dispatchRejudgeTasks() {
+		try {
+			removeTimedOutSubmissions();
+	
+			int capacity = eventListener.getNumberOfFreeSlots() + (int) eventListener.getOnlineJudgers();
+			int numberOfTasks = Math.min(MAX_TASKS_PER_BATCH, capacity - inFlightSubmissions.size());
+			for ( RejudgeJob rejudgeJob : rejudgeJobs.values() ) {
+				if ( rejudgeJob.getStatus() != Status.RUNNING ) {
+					continue;
+				}
+				numberOfTasks = dispatchRejudgeTasks(rejudgeJob, numberOfTasks);
+				updateRejudgeJobStatus(rejudgeJob);
+			}
+		} catch ( Exception ex ) {
+			LOGGER.catching(ex);
+		}
+	}
+
+	/**
+	 * 派发某个重新评测任务中的提交记录.
+	 * 已加载的提交记录全部派发后, 从数据库中加载下一批提交记录.
+	 * @param rejudgeJob - 重新评测任务
+	 * @param numberOfTasks - 本次最多派发的提交记录数量
+	 * @return 本次剩余可派发的提交记录数量
+	 */
+	private int dispatchRejudgeTasks(RejudgeJob rejudgeJob, int numberOfTasks) {
+		while ( numberOfTasks > 0 ) {
+			Long submissionId = rejudgeJob.pollPendingSubmission();
+			if ( submissionId == null ) {
+				if ( rejudgeJob.isAllSubmissionsLoaded() ) {
+					break;
+				}
+				loadPendingSubmissions(rejudgeJob);
+				continue;
+			}
+			String languageSlug = rejudgeJob.removeLanguageSlug(submissionId);
+			if ( inFlightSubmissions.containsKey(submissionId) ) {
+				rejudgeJob.onSubmissionSkipped();
+				continue;
+			}
+			submissionService.createSubmissionTask(submissionId, languageSlug, SubmissionTaskLane.REJUDGE);
+			inFlightSubmissions.put(submissionId, rejudgeJob);
+			inFlightEnqueueTimes.put(submissionId, System.currentTimeMillis());
+			rejudgeJob.onSubmissionEnqueued();
+			-- numberOfTasks;
+		}
+		return numberOfTasks;
+	}
+
+	/**
+	 * 从数据库中加载重新评测任务的下一批提交记录.
+	 * 每批从上一批最后一个提交记录之后开始, 加载的数量少于每批的数量时表示已全部加载.
+	 * @param rejudgeJob - 重新评测任务
+	 */
+	private void loadPendingSubmissions(RejudgeJob rejudgeJob) {
+		List<Map<String, Object>> submissions = submissionMapper.getSubmissionsForRejudge(
+				rejudgeJob.getSubmissionIds(), rejudgeJob.getProblemId(), rejudgeJob.getStartTime(), 
+				rejudgeJob.getEndTime(), rejudgeJob.getLastLoadedSubmissionId(), LOAD_BATCH_SIZE);
+		for ( Map<String, Object> submission : submissions ) {
+			rejudgeJob.addPendingSubmission((Long) submission.get("submission_id"),
+					(String) submission.get("language_slug"));
+		}
+		if ( submissions.size() < LOAD_BATCH_SIZE ) {
+			rejudgeJob.onAllSubmissionsLoaded();
+		}
+	}
+
+	/**
+	 * 移除长时间未收到评测结果的提交记录, 以免占用重新评测的配额.
+	 */
+	private void removeTimedOutSubmissions() {
+		long deadline = System.currentTimeMillis() - IN_FLIGHT_TIMEOUT;
+		for ( Iterator<Entry<Long, Long>> itr = inFlightEnqueueTimes.entrySet().iterator(); itr.hasNext(); ) {
+			Entry<Long, Long> entry = itr.next();
+			if ( entry.getValue() < deadline ) {
+				long submissionId = entry.getKey();
+				RejudgeJob rejudgeJob = inFlightSubmissions.remove(submissionId);
+				itr.remove();
+
+				rejudgeJob.onSubmissionTimedOut();
+				updateRejudgeJobStatus(rejudgeJob);
+				LOGGER.warn(String.format("Submission #%d of rejudge job #%d timed out.",
+						new Object[] { submissionId, rejudgeJob.getJobId() }));
+			}
+		}
+	}
+
+	/**
+	 * 当所有提交记录均已完成评测时, 将重新评测任务标记为已完成.
+	 * @param rejudgeJob - 重新评测任务
+	 */
+	private void updateRejudgeJobStatus(RejudgeJob rejudgeJob) {
+		if ( rejudgeJob.getStatus() == Status.RUNNING && rejudgeJob.isAllSubmissionsLoaded() &&
+				rejudgeJob.getNumberOfPendingSubmissions() == 0 &&
+				rejudgeJob.getNumberOfRunningSubmissions() == 0 ) {
+			rejudgeJob.setStatus(Status.COMPLETED);
+			LOGGER.info(String.format("Rejudge job #%d completed. %s", new Object[] { rejudgeJob.getJobId(), rejudgeJob }));
+		}
+	}
+
+	/**
+	 * 移除过多的已结束的重新评测任务, 仅保留最近的若干个.
+	 */
+	private void removeExpiredRejudgeJobs() {
+		int numberOfFinishedJobs = 0;
+		for ( RejudgeJob rejudgeJob : rejudgeJobs.values() ) {
+			if ( rejudgeJob.getStatus() != Status.RUNNING ) {
+				++ numberOfFinishedJobs;
+			}
+		}
+		for ( Iterator<RejudgeJob> itr = rejudgeJobs.values().iterator();
+				itr.hasNext() && numberOfFinishedJobs > MAX_FINISHED_JOBS; ) {
+			RejudgeJob rejudgeJob = itr.next();
+			if ( rejudgeJob.getStatus() != Status.RUNNING && rejudgeJob.getNumberOfRunningSubmissions() == 0 ) {
+				itr.remove();
+				-- numberOfFinishedJobs;
+			}
+		}
+	}
+
+	/**
+	 * 在Web节点关闭时记录未完成的重新评测任务.
+	 * 重新评测任务不会被持久化, 因此需要管理员从记录的位置重新创建任务.
+	 */
+	@PreDestroy
+	public synchronized void destroy() {
+		for ( RejudgeJob rejudgeJob : rejudgeJobs.values() ) {
+			if ( rejudgeJob.getStatus() != Status.RUNNING ) {
+				continue;
+			}
+			LOGGER.warn(String.format("Rejudge job #%d [%s] is interrupted by shutdown. " + 
+					"%d submissions are not enqueued, the last loaded submission is #%d. %s", new Object[] { 
+					rejudgeJob.getJobId(), rejudgeJob.getDescription(), rejudgeJob.getNumberOfPendingSubmissions(), 
+					rejudgeJob.getLastLoadedSubmissionId(), rejudgeJob }));
+		}
+	}
+
+	/**
+	 * 最近一个重新评测任务的唯一标识符.
+	 */
+	private long lastJobId = 0;
+
+	/**
+	 * 重新评测任务的列表(按创建时间排列).
+	 * Map中的Key表示重新评测任务的唯一标识符.
+	 */
+	private final Map<Long, RejudgeJob> rejudgeJobs = new LinkedHashMap<>();
+
+	/**
+	 * 已加入消息队列但尚未完成评测的提交记录.
+	 * Map中的Key表示提交记录的唯一标识符, Value表示其所属的重新评测任务.
+	 */
+	private final Map<Long, RejudgeJob> inFlightSubmissions = new HashMap<>();
+
+	/**
+	 * 已加入消息队列但尚未完成评测的提交记录的入队时间.
+	 * Map中的Key表示提交记录的唯一标识符, Value表示入队时间(ms).
+	 */
+	private final Map<Long, Long> inFlightEnqueueTimes = new HashMap<>();
+
+	/**
+	 * 自动注入的SubmissionMapper对象.
+	 */
+	@Autowired
+	private SubmissionMapper submissionMapper;
+
+	/**
+	 * 自动注入的SubmissionService对象.
+	 * 用于将评测任务加入消息队列.
+	 */
+	@Autowired
+	private SubmissionService submissionService;
+
+	/**
+	 * 自动注入的ApplicationEventListener对象.
+	 * 用于获取在线评测机的空闲评测槽位数量.
+	 */
+	@Autowired
+	private ApplicationEventListener eventListener;
+
+	/**
+	 * 派发重新评测任务的周期(ms).
+	 */
+	private static final long DISPATCH_PERIOD = 1000;
+
+	/**
+	 * 每批从数据库中加载的提交记录数量.
+	 */
+	private static final int LOAD_BATCH_SIZE = 500;
+
+	/**
+	 * 每批最多派发的重新评测任务数量.
+	 */
+	private static final int MAX_TASKS_PER_BATCH = 50;
+
+	/**
+	 * 未收到评测结果的超时时间(ms).
+	 */
+	private static final long IN_FLIGHT_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+
+	/**
+	 * 保留的已结束的重新评测任务的最大数量.
+	 */
+	private static final int MAX_FINISHED_JOBS = 20;
+
+	/**
+	 * 日志记录器.
+	 */
+	private static final Logger LOGGER = LogManager.getLogger(RejudgeService.class);
+}
@@ -1,26 +1,49 @@
 package org.verwandlung.voj.web.service;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONException;
+
+import org.verwandlung.voj.web.mapper.ContestContestantMapper;
+import org.verwandlung.voj.web.mapper.ContestMapper;
+import org.verwandlung.voj.web.mapper.JudgeResultMapper;
 import org.verwandlung.voj.web.mapper.LanguageMapper;
 import org.verwandlung.voj.web.mapper.ProblemMapper;
 import org.verwandlung.voj.web.mapper.SubmissionMapper;
 import org.verwandlung.voj.web.messenger.MessageSender;
+import org.verwandlung.voj.web.messenger.SubmissionCreatedEvent;
+import org.verwandlung.voj.web.messenger.SubmissionDeletedEvent;
+import org.verwandlung.voj.web.messenger.SubmissionEvent;
+import org.verwandlung.voj.web.messenger.SubmissionTaskLane;
+import org.verwandlung.voj.web.model.Contest;
 import org.verwandlung.voj.web.model.Language;
 import org.verwandlung.voj.web.model.Problem;
 import org.verwandlung.voj.web.model.Submission;
 import org.verwandlung.voj.web.model.User;
+import org.verwandlung.voj.web.model.UserProblemStatus;
+import org.verwandlung.voj.web.util.DigestUtils;
+import org.verwandlung.voj.web.util.PageCursor;
 
 /**
  * 提交类(Submission)的业务逻辑层.
@@ -178,6 +201,25 @@ public class SubmissionService {
 		return submissionMapper.getSubmissionsUsingOffset(problemId, username, offset, limit);
 	}
 	
+	/**
+	 * 使用分页游标获取评测记录列表(按评测记录唯一标识符降序排列).
+	 * @param problemId - 试题的唯一标识符
+	 * @param username - 用户的用户名
+	 * @param cursor - 分页游标, 其排序键为评测记录的唯一标识符(为空引用时获取第一页)
+	 * @param limit - 每次加载评测记录的数量
+	 * @return 试题列表(List<Submission>对象)
+	 */
+	public List<Submission> getSubmissions(long problemId, String username, PageCursor cursor, int limit) {
+		if ( cursor == null || !cursor.isBackward() ) {
+			long offset = cursor == null ? Long.MAX_VALUE : cursor.getKey(0, Long.MAX_VALUE) - 1;
+			return submissionMapper.getSubmissionsUsingOffset(problemId, username, offset, limit);
+		}
+		List<Submission> submissions = submissionMapper.getLatestSubmissionsUsingOffset(
+				problemId, username, cursor.getKey(0, 0) + 1, limit);
+		Collections.reverse(submissions);
+		return submissions;
+	}
+	
 	/**
 	 * 获取最新的评测记录列表.
 	 * 用于定时获取最新的评测记录.
@@ -208,10 +250,7 @@ public class SubmissionService {
 	 * @return 某个用户全部试题的评测结果
 	 */
 	public Map<Long, Submission> getSubmissionOfUser(long userId) {
-		long problemIdLowerBound = problemMapper.getLowerBoundOfProblems();
-		long problemIdUpperBound = problemMapper.getUpperBoundOfProblems();
-		
-		return getSubmissionOfProblems(userId, problemIdLowerBound, problemIdUpperBound);
+		return getUserProblemStatus(userId).getSubmissionOfProblems(0, Long.MAX_VALUE);
 	}
 	
 	/**
@@ -222,20 +261,178 @@ public class SubmissionService {
 	 * @return 某个试题ID区间段内的通过的评测结果
 	 */
 	public Map<Long, Submission> getSubmissionOfProblems(long userId, long problemIdLowerBound, long problemIdUpperBound) {
-		Map<Long, Submission> submissionOfProblems = new HashMap<>();
-		List<Submission> latestSubmission = submissionMapper.getLatestSubmissionOfProblems(userId, problemIdLowerBound, problemIdUpperBound);
-		List<Submission> acceptedSubmission = submissionMapper.getAcceptedSubmissionOfProblems(userId, problemIdLowerBound, problemIdUpperBound);
+		return getUserProblemStatus(userId).getSubmissionOfProblems(problemIdLowerBound, problemIdUpperBound);
+	}
+	
+	/**
+	 * 获取用户各试题的评测状态.
+	 * 若缓存中不存在该用户的评测状态, 则从数据库中加载.
+	 * 加载期间收到该用户的提交记录事件时, 加载的结果可能已过期, 因此不会被缓存.
+	 * @param userId - 用户的唯一标识符
+	 * @return 用户各试题的评测状态
+	 */
+	private UserProblemStatus getUserProblemStatus(long userId) {
+		int versionIndex = getUserProblemStatusVersionIndex(userId);
+		long version = 0;
+		synchronized ( userProblemStatuses ) {
+			UserProblemStatus userProblemStatus = userProblemStatuses.get(userId);
+			if ( userProblemStatus != null ) {
+				return userProblemStatus;
+			}
+			version = userProblemStatusVersions[versionIndex];
+		}
+		
+		UserProblemStatus userProblemStatus = loadUserProblemStatus(userId);
+		synchronized ( userProblemStatuses ) {
+			if ( userProblemStatusVersions[versionIndex] != version ) {
+				return userProblemStatus;
+			}
+			UserProblemStatus cachedUserProblemStatus = userProblemStatuses.get(userId);
+			if ( cachedUserProblemStatus != null ) {
+				return cachedUserProblemStatus;
+			}
+			userProblemStatuses.put(userId, userProblemStatus);
+		}
+		return userProblemStatus;
+	}
+	
+	/**
+	 * 从数据库中加载用户各试题的评测状态.
+	 * @param userId - 用户的唯一标识符
+	 * @return 用户各试题的评测状态
+	 */
+	private UserProblemStatus loadUserProblemStatus(long userId) {
+		UserProblemStatus userProblemStatus = new UserProblemStatus(submissionMapper.getTotalSubmissionUsingUserId(userId));
+		List<Submission> latestSubmission = submissionMapper.getLatestSubmissionOfProblems(userId, 0, Long.MAX_VALUE);
+		List<Submission> acceptedSubmission = submissionMapper.getAcceptedSubmissionOfProblems(userId, 0, Long.MAX_VALUE);
 		
 		for ( Submission s : latestSubmission ) {
-			long problemId = s.getProblem().getProblemId();
-			submissionOfProblems.put(problemId, s);
+			userProblemStatus.addSubmission(s);
 		}
-		// 使用已通过的评测记录更新部分值
+		// 已通过的评测记录优先于最新的评测记录
 		for ( Submission s : acceptedSubmission ) {
-			long problemId = s.getProblem().getProblemId();
-			submissionOfProblems.put(problemId, s);
+			userProblemStatus.addSubmission(s);
+		}
+		return userProblemStatus;
+	}
+	
+	/**
+	 * 获取已缓存的用户各试题的评测状态, 用于更新该用户的评测状态.
+	 * 同时使正在从数据库中加载的该用户的评测状态失效.
+	 * @param userId - 用户的唯一标识符
+	 * @return 用户各试题的评测状态, 若未缓存则返回空引用
+	 */
+	private UserProblemStatus getUserProblemStatusForUpdate(long userId) {
+		synchronized ( userProblemStatuses ) {
+			++ userProblemStatusVersions[getUserProblemStatusVersionIndex(userId)];
+			return userProblemStatuses.get(userId);
+		}
+	}
+	
+	/**
+	 * 从缓存中移除用户各试题的评测状态.
+	 * 同时使正在从数据库中加载的该用户的评测状态失效.
+	 * @param userId - 用户的唯一标识符
+	 */
+	private void evictUserProblemStatus(long userId) {
+		synchronized ( userProblemStatuses ) {
+			++ userProblemStatusVersions[getUserProblemStatusVersionIndex(userId)];
+			userProblemStatuses.remove(userId);
 		}
-		return submissionOfProblems;
+	}
+	
+	/**
+	 * 获取用户评测状态的版本号在数组中的下标.
+	 * @param userId - 用户的唯一标识符
+	 * @return 版本号在数组中的下标
+	 */
+	private int getUserProblemStatusVersionIndex(long userId) {
+		return (int) (userId & (userProblemStatusVersions.length - 1));
+	}
+	
+	/**
+	 * 提交记录创建时更新用户的提交次数及各试题的评测状态.
+	 * 仅更新已缓存的用户评测状态, 未缓存的用户在下次访问时从数据库中加载.
+	 * 由于所有Web节点(包括创建提交记录的节点)都会收到该消息, 其他节点创建的提交记录也会被统计.
+	 * @param event - 提交记录创建事件
+	 */
+	@EventListener
+	public void submissionCreatedEventHandler(SubmissionCreatedEvent event) {
+		if ( event.getUid() == 0 ) {
+			return;
+		}
+		UserProblemStatus userProblemStatus = getUserProblemStatusForUpdate(event.getUid());
+		if ( userProblemStatus == null ) {
+			return;
+		}
+		userProblemStatus.addNewSubmission(getSubmissionStatus(event.getSubmissionId(), event.getProblemId(), "PD"));
+	}
+	
+	/**
+	 * 提交记录删除时移除用户的评测状态, 在下次访问时从数据库中重新加载.
+	 * 由于所有Web节点(包括删除提交记录的节点)都会收到该消息, 各节点缓存的评测状态均会被移除.
+	 * @param event - 提交记录删除事件
+	 */
+	@EventListener
+	public void submissionDeletedEventHandler(SubmissionDeletedEvent event) {
+		evictUserProblemStatus(event.getUid());
+	}
+	
+	/**
+	 * 评测完成时更新用户各试题的评测状态.
+	 * 仅更新已缓存的用户评测状态, 未缓存的用户在下次访问时从数据库中加载.
+	 * 提交次数已在提交记录创建时统计, 因此评测结果不会改变用户的提交次数.
+	 * @param event - 提交记录事件
+	 */
+	@EventListener
+	public void submissionEventHandler(SubmissionEvent event) {
+		String judgeResultSlug = event.getJudgeResultSlug();
+		if ( !event.isCompleted() || judgeResultSlug == null ) {
+			return;
+		}
+		long submissionId = event.getSubmissionId();
+		long userId = event.getUid();
+		long problemId = event.getProblemId();
+		if ( userId == 0 ) {
+			// 旧版本的评测机不会发送提交者及试题的唯一标识符
+			Submission submission = submissionMapper.getSubmission(submissionId);
+			if ( submission == null ) {
+				return;
+			}
+			userId = submission.getUser().getUid();
+			problemId = submission.getProblem().getProblemId();
+		}
+		UserProblemStatus userProblemStatus = getUserProblemStatusForUpdate(userId);
+		if ( userProblemStatus == null ) {
+			return;
+		}
+		
+		Submission submissionOfProblem = userProblemStatus.getSubmissionOfProblem(problemId);
+		if ( submissionOfProblem != null && submissionOfProblem.getSubmissionId() == submissionId &&
+				userProblemStatus.isAccepted(problemId) && !"AC".equals(judgeResultSlug) ) {
+			// 已通过的提交记录被重新评测为未通过, 需要从数据库中重新加载
+			evictUserProblemStatus(userId);
+			return;
+		}
+		userProblemStatus.addSubmission(getSubmissionStatus(submissionId, problemId, judgeResultSlug));
+	}
+	
+	/**
+	 * 创建用于记录试题评测状态的提交记录对象.
+	 * @param submissionId - 提交记录的唯一标识符
+	 * @param problemId - 试题的唯一标识符
+	 * @param judgeResultSlug - 评测结果的唯一英文缩写
+	 * @return 仅包含提交记录的唯一标识符, 试题的唯一标识符及评测结果的提交记录对象
+	 */
+	private Submission getSubmissionStatus(long submissionId, long problemId, String judgeResultSlug) {
+		Problem problem = new Problem();
+		problem.setProblemId(problemId);
+		
+		Submission submission = new Submission();
+		submission.setSubmissionId(submissionId);
+		submission.setProblem(problem);
+		submission.setJudgeResult(judgeResultMapper.getJudgeResultUsingSlug(judgeResultSlug));
+		return submission;
 	}
 	
 	/**
@@ -244,8 +441,9 @@ public class SubmissionService {
 	 * @return 一个包含用户评测记录概况的HashMap
 	 */
 	public Map<String, Long> getSubmissionStatsOfUser(long userId) {
-		long acceptedSubmission = submissionMapper.getAcceptedSubmissionUsingUserId(userId);
-		long totalSubmission = submissionMapper.getTotalSubmissionUsingUserId(userId);
+		UserProblemStatus userProblemStatus = getUserProblemStatus(userId);
+		long acceptedSubmission = userProblemStatus.getNumberOfAcceptedProblems();
+		long totalSubmission = userProblemStatus.getNumberOfSubmissions();
 		long  acRate = 0;
 		if ( totalSubmission != 0 ) {
 			acRate = acceptedSubmission * 100 / totalSubmission;
@@ -278,15 +476,65 @@ public class SubmissionService {
 		Map<String, Object> result = (Map<String, Object>) getSubmissionCreationResult(submission, isCsrfTokenValid);
 		boolean isSuccessful = (Boolean)result.get("isSuccessful");
 		if ( isSuccessful ) {
+			submission.setCodeHash(DigestUtils.sha256Hex(code));
+			submissionMapper.createSubmissionCode(submission);
 			submissionMapper.createSubmission(submission);
+			problemMapper.updateSubmissionStatsOfProblem(problemId, 1, 0);
 			
 			long submissionId = submission.getSubmissionId();
-			createSubmissionTask(submissionId);
+			Contest contest = getRunningContestOfSubmission(user, problemId);
+			if ( contest != null ) {
+				contestMapper.createContestSubmission(contest.getContestId(), submissionId);
+			}
+			SubmissionTaskLane lane = contest != null ? 
+					SubmissionTaskLane.CONTEST : SubmissionTaskLane.PRACTICE;
+			createSubmissionTask(submissionId, languageSlug, lane);
+			onSubmissionCreated(submissionId, user.getUid(), problemId);
 			result.put("submissionId", submissionId);
 		}
 		return result;
 	}
 	
+	/**
+	 * 在事务提交后通知所有Web节点有新的提交记录, 
+	 * 以便推送至评测列表的订阅者, 并更新用户的提交次数.
+	 * @param submissionId - 提交记录的唯一标识符
+	 * @param uid - 提交者的用户唯一标识符
+	 * @param problemId - 试题的唯一标识符
+	 */
+	private void onSubmissionCreated(final long submissionId, final long uid, final long problemId) {
+		if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					notifySubmissionCreated(submissionId, uid, problemId);
+				}
+			});
+		} else {
+			notifySubmissionCreated(submissionId, uid, problemId);
+		}
+	}
+	
+	/**
+	 * 通知所有Web节点有新的提交记录.
+	 * 通知失败时, 该提交记录将在评测完成后出现在评测列表中.
+	 * @param submissionId - 提交记录的唯一标识符
+	 * @param uid - 提交者的用户唯一标识符
+	 * @param problemId - 试题的唯一标识符
+	 */
+	private void notifySubmissionCreated(long submissionId, long uid, long problemId) {
+		try {
+			Map<String, Object> mapMessage = new HashMap<>();
+			mapMessage.put("event", "SubmissionCreated");
+			mapMessage.put("submissionId", submissionId);
+			mapMessage.put("uid", uid);
+			mapMessage.put("problemId", problemId);
+			messageSender.sendBroadcastMessage(mapMessage);
+		} catch ( Exception ex ) {
+			LOGGER.catching(ex);
+		}
+	}
+	
 	/**
 	 * 验证提交记录数据.
 	 * @param submission - 待创建的提交记录对象
@@ -309,16 +557,80 @@ public class SubmissionService {
 		return result;
 	}
 	
+	/**
+	 * 获取提交所属的正在进行中的比赛.
+	 * 即用户参加了某个正在进行中的比赛, 且该比赛包含所提交的试题.
+	 * 仅当试题属于某个正在进行中的比赛时才查询用户的参赛记录, 因此练习提交不会访问数据库.
+	 * @param user - 已登录的用户对象
+	 * @param problemId - 试题的唯一标识符
+	 * @return 提交所属的比赛, 若提交不是来自正在进行中的比赛则返回空引用
+	 */
+	private Contest getRunningContestOfSubmission(User user, long problemId) {
+		long currentTime = System.currentTimeMillis();
+		for ( RunningContest runningContest : getRunningContests(currentTime) ) {
+			Contest contest = runningContest.contest;
+			if ( contest.getStartTime().getTime() > currentTime || contest.getEndTime().getTime() < currentTime ||
+					!runningContest.problemIds.contains(problemId) ) {
+				continue;
+			}
+			if ( contestContestantMapper.getContestantOfContest(contest.getContestId(), user.getUid()) != null ) {
+				return contest;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * 获取正在进行或即将开始的考试.
+	 * 考试列表在本节点中缓存, 每隔一段时间从数据库中重新加载;
+	 * 每次加载的考试包含在下一次加载之前开始的考试.
+	 * @param currentTime - 当前时间
+	 * @return 正在进行或即将开始的考试列表
+	 */
+	private List<RunningContest> getRunningContests(long currentTime) {
+		if ( currentTime < runningContestsExpireTime ) {
+			return runningContests;
+		}
+		long expireTime = currentTime + RUNNING_CONTESTS_RELOAD_PERIOD;
+		List<RunningContest> contests = new ArrayList<>();
+		for ( Contest contest : contestMapper.getContestsRunningBetween(new Date(currentTime), new Date(expireTime)) ) {
+			try {
+				List<Long> problemIds = JSON.parseArray(contest.getProblems(), Long.class);
+				if ( problemIds != null ) {
+					contests.add(new RunningContest(contest, new HashSet<>(problemIds)));
+				}
+			} catch ( JSONException ex ) {
+				LOGGER.warn(String.format("Invalid problem list of contest #%d.", new Object[] {contest.getContestId()}));
+			}
+		}
+		runningContests = contests;
+		runningContestsExpireTime = expireTime;
+		return contests;
+	}
+	
 	/**
 	 * 创建评测任务, 将提交的信息提交至消息队列.
 	 * @param submissionId - 提交记录的唯一标识符
 	 */
 	public void createSubmissionTask(long submissionId) {
+		createSubmissionTask(submissionId, null, SubmissionTaskLane.PRACTICE);
+	}
+	
+	/**
+	 * 创建评测任务, 将提交的信息提交至对应优先级通道的消息队列.
+	 * 评测任务仅会被支持该编程语言的评测机接收.
+	 * @param submissionId - 提交记录的唯一标识符
+	 * @param languageSlug - 编程语言的唯一英文缩写(为空时可被任意评测机接收)
+	 * @param lane - 评测任务的优先级通道
+	 */
+	public void createSubmissionTask(long submissionId, String languageSlug, SubmissionTaskLane lane) {
 		Map<String, Object> mapMessage = new HashMap<>();
 		mapMessage.put("event", "SubmissionCreated");
 		mapMessage.put("submissionId", submissionId);
-		
-		messageSender.sendMessage(mapMessage);
+		if ( languageSlug != null ) {
+			mapMessage.put("languageSlug", languageSlug);
+		}
+		messageSender.sendMessage(mapMessage, lane);
 	}
 	
 	/**
@@ -327,10 +639,115 @@ public class SubmissionService {
 	 * @return 提交记录是否被删除
 	 */
 	public boolean deleteSubmission(long submissionId) {
+		Submission submission = submissionMapper.getSubmission(submissionId);
+		if ( submission == null ) {
+			return true;
+		}
 		submissionMapper.deleteSubmission(submissionId);
+		submissionMapper.releaseSubmissionCode(submission.getCodeHash());
+		submissionMapper.deleteUnreferencedSubmissionCode(submission.getCodeHash());
+		onSubmissionDeleted(submissionId, submission.getUser().getUid());
+		
+		boolean isAccepted = "AC".equals(submission.getJudgeResult().getJudgeResultSlug());
+		problemMapper.updateSubmissionStatsOfProblem(
+				submission.getProblem().getProblemId(), -1, isAccepted ? -1 : 0);
 		return true;
 	}
 	
+	/**
+	 * 在事务提交后移除用户的评测状态, 并通知其他Web节点.
+	 * 在事务提交前移除可能使其他线程重新加载尚未删除的提交记录.
+	 * @param submissionId - 提交记录的唯一标识符
+	 * @param uid - 提交者的用户唯一标识符
+	 */
+	private void onSubmissionDeleted(final long submissionId, final long uid) {
+		if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					notifySubmissionDeleted(submissionId, uid);
+				}
+			});
+		} else {
+			notifySubmissionDeleted(submissionId, uid);
+		}
+	}
+	
+	/**
+	 * 移除本节点缓存的用户评测状态, 并通知所有Web节点提交记录已被删除.
+	 * @param submissionId - 提交记录的唯一标识符
+	 * @param uid - 提交者的用户唯一标识符
+	 */
+	private void notifySubmissionDeleted(long submissionId, long uid) {
+		evictUserProblemStatus(uid);
+		
+		try {
+			Map<String, Object> mapMessage = new HashMap<>();
+			mapMessage.put("event", "SubmissionDeleted");
+			mapMessage.put("submissionId", submissionId);
+			mapMessage.put("uid", uid);
+			messageSender.sendBroadcastMessage(mapMessage);
+		} catch ( Exception ex ) {
+			LOGGER.catching(ex);
+		}
+	}
+	
+	/**
+	 * 正在进行或即将开始的考试.
+	 */
+	private static class RunningContest {
+		/**
+		 * RunningContest的构造函数.
+		 * @param contest - 考试对象
+		 * @param problemIds - 考试包含的试题的唯一标识符
+		 */
+		public RunningContest(Contest contest, Set<Long> problemIds) {
+			this.contest = contest;
+			this.problemIds = problemIds;
+		}
+		
+		/**
+		 * 考试对象.
+		 */
+		final Contest contest;
+		
+		/**
+		 * 考试包含的试题的唯一标识符.
+		 */
+		final Set<Long> problemIds;
+	}
+	
+	/**
+	 * 用户各试题评测状态的缓存.
+	 * Map中的Key表示用户的唯一标识符, 按照最近访问的顺序淘汰.
+	 */
+	private final Map<Long, UserProblemStatus> userProblemStatuses = 
+			Collections.synchronizedMap(new LinkedHashMap<Long, UserProblemStatus>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, UserProblemStatus> eldest) {
+			return size() > MAX_CACHED_USER_PROBLEM_STATUSES;
+		}
+		
+		private static final long serialVersionUID = 1318612460927839346L;
+	});
+	
+	/**
+	 * 用户评测状态的版本号.
+	 * 按用户的唯一标识符分段, 每当收到某个用户的提交记录事件时递增对应的版本号.
+	 * 由userProblemStatuses的对象锁保护.
+	 */
+	private final long[] userProblemStatusVersions = new long[USER_PROBLEM_STATUS_VERSION_SEGMENTS];
+	
+	/**
+	 * 正在进行或即将开始的考试的缓存.
+	 */
+	private volatile List<RunningContest> runningContests = Collections.emptyList();
+	
+	/**
+	 * 考试缓存的过期时间.
+	 */
+	private volatile long runningContestsExpireTime = 0;
+	
 	/**
 	 * 自动注入的SubmissionMapper对象.
 	 */
@@ -349,9 +766,48 @@ public class SubmissionService {
 	@Autowired
 	private LanguageMapper languageMapper;
 	
+	/**
+	 * 自动注入的ContestMapper对象.
+	 */
+	@Autowired
+	private ContestMapper contestMapper;
+	
+	/**
+	 * 自动注入的ContestContestantMapper对象.
+	 * 用于检查用户是否参加了正在进行中的考试.
+	 */
+	@Autowired
+	private ContestContestantMapper contestContestantMapper;
+	
+	/**
+	 * 自动注入的JudgeResultMapper对象.
+	 */
+	@Autowired
+	private JudgeResultMapper judgeResultMapper;
+	
 	/**
 	 * 自动注入的MessageSender对象.
 	 */
 	@Autowired
 	private MessageSender messageSender;
+	
+	/**
+	 * 缓存评测状态的最大用户数量.
+	 */
+	private static final int MAX_CACHED_USER_PROBLEM_STATUSES = 10000;
+	
+	/**
+	 * 用户评测状态的版本号的分段数量(必须为2的幂).
+	 */
+	private static final int USER_PROBLEM_STATUS_VERSION_SEGMENTS = 256;
+	
+	/**
+	 * 重新加载正在进行或即将开始的考试的周期(ms).
+	 */
+	private static final long RUNNING_CONTESTS_RELOAD_PERIOD = 60 * 1000;
+	
+	/**
+	 * 日志记录器.
+	 */
+	private static final Logger LOGGER = LogManager.getLogger(SubmissionService.class);
 }
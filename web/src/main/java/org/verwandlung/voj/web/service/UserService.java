@@ -3,6 +3,7 @@ package org.verwandlung.voj.web.service;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -17,6 +18,8 @@ import com.alibaba.fastjson.JSON;
 
 import freemarker.template.TemplateException;
 
+import org.verwandlung.voj.web.mapper.DiscussionReplyMapper;
+import org.verwandlung.voj.web.mapper.DiscussionThreadMapper;
 import org.verwandlung.voj.web.mapper.EmailValidationMapper;
 import org.verwandlung.voj.web.mapper.LanguageMapper;
 import org.verwandlung.voj.web.mapper.UserGroupMapper;
@@ -31,6 +34,7 @@ import org.verwandlung.voj.web.util.DigestUtils;
 import org.verwandlung.voj.web.util.HtmlTextFilter;
 import org.verwandlung.voj.web.util.MailSender;
 import org.verwandlung.voj.web.util.OffensiveWordFilter;
+import org.verwandlung.voj.web.util.PageCursor;
 
 /**
  * 用户类(User)的业务逻辑层.
@@ -666,16 +670,23 @@ public class UserService {
 	
 	/**
 	 * [此方法仅供管理员使用]
-	 * 根据用户组和用户名筛选用户对象.
+	 * 根据用户组和用户名筛选用户对象(按用户唯一标识符升序排列).
 	 * @param userGroup - 用户组对象
 	 * @param username - 部分或全部用户名
-	 * @param offset - 用户唯一标识符的起始编号
+	 * @param cursor - 分页游标, 其排序键为用户的唯一标识符(为空引用时获取第一页)
 	 * @param limit - 需要获取的用户的数量
 	 * @return 符合条件的用户列表
 	 */
 	public List<User> getUserUsingUserGroupAndUsername(UserGroup userGroup, 
-			String username, long offset, int limit) {
-		return userMapper.getUserUsingUserGroupAndUsername(userGroup, username, offset, limit);
+			String username, PageCursor cursor, int limit) {
+		if ( cursor == null || !cursor.isBackward() ) {
+			long uid = cursor == null ? 0 : cursor.getKey(0, 0);
+			return userMapper.getUserUsingUserGroupAndUsername(userGroup, username, uid, limit);
+		}
+		List<User> users = userMapper.getPreviousUserUsingUserGroupAndUsername(
+				userGroup, username, cursor.getKey(0, Long.MAX_VALUE), limit);
+		Collections.reverse(users);
+		return users;
 	}
 	
 	/**
@@ -726,10 +737,17 @@ public class UserService {
 	/**
 	 * [此方法仅供管理员使用]
 	 * 根据用户的唯一标识符删除用户.
+	 * 用户的讨论回复将被级联删除, 因此需要重新计算相关讨论帖子的回复数量和最新回复.
+	 * 用户的投票也将被级联删除, 因此需要在删除用户前从讨论回复的投票次数中扣除这些投票.
 	 * @param uid - 用户的唯一标识符
 	 */
 	public void deleteUser(long uid) {
+		List<Long> discussionThreadIds = discussionThreadMapper.getDiscussionThreadIdsOfReplyCreator(uid);
+		discussionReplyMapper.updateDiscussionReplyVoteCountersUsingVoterUid(uid);
 		userMapper.deleteUser(uid);
+		for ( long discussionThreadId : discussionThreadIds ) {
+			discussionThreadMapper.refreshDiscussionThreadActivity(discussionThreadId);
+		}
 	}
 	
 	/**
@@ -767,6 +785,20 @@ public class UserService {
 	@Autowired
 	private EmailValidationMapper emailValidationMapper;
 	
+	/**
+	 * 自动注入的DiscussionThreadMapper对象.
+	 * 用于在删除用户后更新讨论帖子的回复数量和最新回复.
+	 */
+	@Autowired
+	private DiscussionThreadMapper discussionThreadMapper;
+	
+	/**
+	 * 自动注入的DiscussionReplyMapper对象.
+	 * 用于在删除用户前扣除用户对讨论回复的投票.
+	 */
+	@Autowired
+	private DiscussionReplyMapper discussionReplyMapper;
+	
 	/**
 	 * 自动注入的OffensiveWordFilter对象.
 	 * 用于过滤用户个人信息中的敏感词.
@@ -0,0 +1,142 @@
+package org.verwandlung.voj.web.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * 压缩文本的TypeHandler.
+ * 写入数据库时将文本压缩为二进制数据, 读取时再解压缩为文本.
+ *
+ * 压缩格式与MySQL的COMPRESS()函数一致: 前4个字节为未压缩数据的长度(低字节在前),
+ * 之后为zlib格式的压缩数据; 空字符串存储为空的二进制数据.
+ * 因此可以在SQL中使用UNCOMPRESS()函数读取这些数据.
+ *
+ * @author Haozhe Xie
+ */
+public class CompressedTextTypeHandler extends BaseTypeHandler<String> {
+	/* (non-Javadoc)
+	 * @see org.apache.ibatis.type.BaseTypeHandler#setNonNullParameter(java.sql.PreparedStatement, int, java.lang.Object, org.apache.ibatis.type.JdbcType)
+	 */
+	@Override
+	public void setNonNullParameter(PreparedStatement ps, int i, String parameter, JdbcType jdbcType) throws SQLException {
+		ps.setBytes(i, compress(parameter));
+	}
+
+	/* (non-Javadoc)
+	 * @see org.apache.ibatis.type.BaseTypeHandler#getNullableResult(java.sql.ResultSet, java.lang.String)
+	 */
+	@Override
+	public String getNullableResult(ResultSet rs, String columnName) throws SQLException {
+		return decompress(rs.getBytes(columnName));
+	}
+
+	/* (non-Javadoc)
+	 * @see org.apache.ibatis.type.BaseTypeHandler#getNullableResult(java.sql.ResultSet, int)
+	 */
+	@Override
+	public String getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+		return decompress(rs.getBytes(columnIndex));
+	}
+
+	/* (non-Javadoc)
+	 * @see org.apache.ibatis.type.BaseTypeHandler#getNullableResult(java.sql.CallableStatement, int)
+	 */
+	@Override
+	public String getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+		return decompress(cs.getBytes(columnIndex));
+	}
+
+	/**
+	 * 压缩文本.
+	 * @param text - 待压缩的文本
+	 * @return 压缩后的二进制数据
+	 */
+	public static byte[] compress(String text) {
+		byte[] data = text.getBytes(StandardCharsets.UTF_8);
+		if ( data.length == 0 ) {
+			return data;
+		}
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length / 2 + HEADER_LENGTH);
+		for ( int i = 0; i < HEADER_LENGTH; ++ i ) {
+			outputStream.write((data.length >>> (i * 8)) & 0xFF);
+		}
+		Deflater deflater = new Deflater();
+		try {
+			deflater.setInput(data);
+			deflater.finish();
+			byte[] buffer = new byte[BUFFER_SIZE];
+			while ( !deflater.finished() ) {
+				int length = deflater.deflate(buffer);
+				outputStream.write(buffer, 0, length);
+			}
+		} finally {
+			deflater.end();
+		}
+		return outputStream.toByteArray();
+	}
+
+	/**
+	 * 解压缩文本.
+	 * @param data - 压缩后的二进制数据
+	 * @return 解压缩后的文本
+	 * @throws SQLException - 数据不是有效的压缩格式
+	 */
+	public static String decompress(byte[] data) throws SQLException {
+		if ( data == null ) {
+			return null;
+		}
+		if ( data.length == 0 ) {
+			return "";
+		}
+		if ( data.length <= HEADER_LENGTH ) {
+			throw new SQLException("Invalid compressed data.");
+		}
+		int length = 0;
+		for ( int i = 0; i < HEADER_LENGTH; ++ i ) {
+			length |= (data[i] & 0xFF) << (i * 8);
+		}
+		length &= 0x3FFFFFFF;
+
+		byte[] text = new byte[length];
+		int offset = 0;
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(data, HEADER_LENGTH, data.length - HEADER_LENGTH);
+			while ( offset < length && !inflater.finished() ) {
+				int inflatedLength = inflater.inflate(text, offset, length - offset);
+				if ( inflatedLength == 0 && (inflater.needsInput() || inflater.needsDictionary()) ) {
+					break;
+				}
+				offset += inflatedLength;
+			}
+		} catch ( DataFormatException ex ) {
+			throw new SQLException("Invalid compressed data.", ex);
+		} finally {
+			inflater.end();
+		}
+		if ( offset != length ) {
+			throw new SQLException("Invalid compressed data.");
+		}
+		return new String(text, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * 压缩数据头部(未压缩数据的长度)的字节数.
+	 */
+	private static final int HEADER_LENGTH = 4;
+
+	/**
+	 * 压缩时使用的缓冲区大小.
+	 */
+	private static final int BUFFER_SIZE = 4096;
+}
@@ -0,0 +1,914 @@
+package org.verwandlung.voj.web.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONException;
+import org.verwandlung.voj.web.model.Contest;
+import org.verwandlung.voj.web.model.ContestContestant;
+import org.verwandlung.voj.web.model.User;
+
+/**
+ * 考试的实时排行榜.
+ *
+ * 排行榜保存每位参赛者在每道试题上的评测结果(以提交记录的唯一标识符为键),
+ * 每收到一个评测结果只重新计算该参赛者在该试题上的成绩, 而不必重新统计整场考试的提交记录.
+ * 同一提交记录被重新评测后, 新的评测结果将覆盖原有的评测结果.
+ *
+ * OI赛制: 每道试题以最后一次提交的得分和运行时间计分.
+ * ACM赛制: 每道通过的试题计1分, 罚时为通过时距考试开始的分钟数加上此前每次未通过提交的罚时.
+ *
+ * 排名按得分由高到低排列, 得分相同时按用时(罚时)由少到多排列.
+ * 读取排行榜时返回不可变的快照, 快照仅在排行榜发生变化后的首次读取时重新生成,
+ * 并在生成时序列化为JSON, 以便直接输出给大量同时刷新排行榜的用户.
+ *
+ * 若考试启用了封榜, 则在考试结束前的最后一小时内, 公开的快照只包含封榜前提交的评测结果,
+ * 封榜后的提交仅显示提交次数.
+ *
+ * @author Haozhe Xie
+ */
+public class ContestScoreboard {
+	/**
+	 * ContestScoreboard的构造函数.
+	 * @param contest - 考试对象
+	 */
+	public ContestScoreboard(Contest contest) {
+		this.contest = contest;
+		this.isAcmMode = ACM_MODE.equals(contest.getContestMode());
+		this.problemIds = Collections.unmodifiableList(getProblemIds(contest.getProblems()));
+		this.freezeTime = contest.isScoreboardFreezable() ?
+				contest.getEndTime().getTime() - FREEZE_DURATION : Long.MAX_VALUE;
+	}
+
+	/**
+	 * 获取考试对象.
+	 * @return 考试对象
+	 */
+	public Contest getContest() {
+		return contest;
+	}
+
+	/**
+	 * 获取考试包含的试题的唯一标识符列表.
+	 * @return 考试包含的试题的唯一标识符列表
+	 */
+	public List<Long> getProblemIds() {
+		return problemIds;
+	}
+
+	/**
+	 * 检查提交记录是否计入本场考试.
+	 * 即所提交的试题属于本场考试, 且提交时间位于考试期间.
+	 * @param problemId - 试题的唯一标识符
+	 * @param submitTime - 提交时间
+	 * @return 提交记录是否计入本场考试
+	 */
+	public boolean isContestSubmission(long problemId, Date submitTime) {
+		if ( !problemIds.contains(problemId) || submitTime == null ) {
+			return false;
+		}
+		return !submitTime.before(contest.getStartTime()) && !submitTime.after(contest.getEndTime());
+	}
+
+	/**
+	 * 检查某个用户是否为本场考试的参赛者.
+	 * @param uid - 用户的唯一标识符
+	 * @return 该用户是否为本场考试的参赛者
+	 */
+	public synchronized boolean hasContestant(long uid) {
+		return contestants.containsKey(uid);
+	}
+
+	/**
+	 * 添加参赛者.
+	 * @param contestant - 参赛者对象
+	 */
+	public synchronized void putContestant(User contestant) {
+		if ( contestant == null || contestants.containsKey(contestant.getUid()) ) {
+			return;
+		}
+		contestants.put(contestant.getUid(), new ContestantState(contestant));
+		++ version;
+		++ frozenVersion;
+	}
+
+	/**
+	 * 检查排行榜在某个时刻是否处于封榜状态.
+	 * @param currentTime - 当前时间(ms)
+	 * @return 排行榜是否处于封榜状态
+	 */
+	public boolean isFrozen(long currentTime) {
+		return currentTime >= freezeTime && currentTime < contest.getEndTime().getTime();
+	}
+
+	/**
+	 * 更新某个提交记录的评测结果.
+	 * 尚未完成评测的提交记录将被忽略.
+	 * @param uid - 参赛者的用户唯一标识符
+	 * @param problemId - 试题的唯一标识符
+	 * @param submissionId - 提交记录的唯一标识符
+	 * @param submitTime - 提交时间
+	 * @param judgeResultSlug - 评测结果的唯一英文缩写
+	 * @param score - 评测得分
+	 * @param usedTime - 运行时间(ms)
+	 * @return 排行榜是否被更新
+	 */
+	public synchronized boolean putVerdict(long uid, long problemId, long submissionId,
+			Date submitTime, String judgeResultSlug, int score, int usedTime) {
+		return putVerdict(uid, problemId, submissionId, submitTime, judgeResultSlug, score, usedTime, true);
+	}
+
+	/**
+	 * 在提交记录尚无评测结果时记录其评测结果.
+	 * 用于从数据库构建排行榜, 以免读取到的评测结果覆盖构建期间收到的更新的评测结果.
+	 * @param uid - 参赛者的用户唯一标识符
+	 * @param problemId - 试题的唯一标识符
+	 * @param submissionId - 提交记录的唯一标识符
+	 * @param submitTime - 提交时间
+	 * @param judgeResultSlug - 评测结果的唯一英文缩写
+	 * @param score - 评测得分
+	 * @param usedTime - 运行时间(ms)
+	 * @return 排行榜是否被更新
+	 */
+	public synchronized boolean putVerdictIfAbsent(long uid, long problemId, long submissionId,
+			Date submitTime, String judgeResultSlug, int score, int usedTime) {
+		return putVerdict(uid, problemId, submissionId, submitTime, judgeResultSlug, score, usedTime, false);
+	}
+
+	/**
+	 * 更新某个提交记录的评测结果.
+	 * @param uid - 参赛者的用户唯一标识符
+	 * @param problemId - 试题的唯一标识符
+	 * @param submissionId - 提交记录的唯一标识符
+	 * @param submitTime - 提交时间
+	 * @param judgeResultSlug - 评测结果的唯一英文缩写
+	 * @param score - 评测得分
+	 * @param usedTime - 运行时间(ms)
+	 * @param isOverwritable - 是否覆盖该提交记录已有的评测结果
+	 * @return 排行榜是否被更新
+	 */
+	private boolean putVerdict(long uid, long problemId, long submissionId, Date submitTime,
+			String judgeResultSlug, int score, int usedTime, boolean isOverwritable) {
+		ContestantState contestantState = contestants.get(uid);
+		if ( contestantState == null || judgeResultSlug == null || PENDING.equals(judgeResultSlug) ) {
+			return false;
+		}
+		TreeMap<Long, Verdict> verdicts = contestantState.verdicts.get(problemId);
+		if ( verdicts == null ) {
+			verdicts = new TreeMap<>();
+			contestantState.verdicts.put(problemId, verdicts);
+		}
+		if ( !isOverwritable && verdicts.containsKey(submissionId) ) {
+			return false;
+		}
+		verdicts.put(submissionId, new Verdict(judgeResultSlug, score, usedTime,
+				submitTime == null ? 0 : submitTime.getTime()));
+
+		Standing standing = contestantState.standing.update(problemId, getProblemResult(verdicts, Long.MAX_VALUE));
+		if ( standing.score != contestantState.standing.score || standing.time != contestantState.standing.time ) {
+			updatedContestants.add(uid);
+		}
+		contestantState.standing = standing;
+		++ version;
+
+		if ( freezeTime != Long.MAX_VALUE ) {
+			contestantState.frozenStanding = contestantState.frozenStanding.update(
+					problemId, getProblemResult(verdicts, freezeTime));
+			++ frozenVersion;
+		}
+		return true;
+	}
+
+	/**
+	 * 获取得分或用时发生变化但尚未写回数据库的参赛记录.
+	 * 用于将排行榜定期写回数据库, 写回成功后应调用markContestantsPersisted().
+	 * @return 得分或用时发生变化的参赛记录
+	 */
+	public synchronized List<ContestContestant> getUpdatedContestants() {
+		List<ContestContestant> contestContestants = new ArrayList<>(updatedContestants.size());
+		for ( long uid : updatedContestants ) {
+			ContestantState contestantState = contestants.get(uid);
+			ContestContestant contestContestant = new ContestContestant(contest, contestantState.contestant);
+			contestContestant.setScore(contestantState.standing.score);
+			contestContestant.setTime(contestantState.standing.time);
+			contestContestants.add(contestContestant);
+		}
+		return contestContestants;
+	}
+
+	/**
+	 * 将已写回数据库的参赛记录标记为未变化.
+	 * 若参赛者的得分或用时在写回期间再次发生变化, 则仍保留在待写回的参赛记录中.
+	 * @param contestContestants - 已写回数据库的参赛记录
+	 */
+	public synchronized void markContestantsPersisted(List<ContestContestant> contestContestants) {
+		for ( ContestContestant contestContestant : contestContestants ) {
+			long uid = contestContestant.getContestant().getUid();
+			ContestantState contestantState = contestants.get(uid);
+			if ( contestantState != null && contestantState.standing.score == contestContestant.getScore() &&
+					contestantState.standing.time == contestContestant.getTime() ) {
+				updatedContestants.remove(uid);
+			}
+		}
+	}
+
+	/**
+	 * 检查是否存在尚未写回数据库的参赛记录.
+	 * @return 是否存在尚未写回数据库的参赛记录
+	 */
+	public synchronized boolean hasUpdatedContestants() {
+		return !updatedContestants.isEmpty();
+	}
+
+	/**
+	 * 获取当前公开的排行榜快照.
+	 * 封榜期间返回封榜后的快照. 排行榜未发生变化时, 多次调用返回同一个快照对象.
+	 * @return 排行榜的快照
+	 */
+	public Snapshot getSnapshot() {
+		long currentTime = System.currentTimeMillis();
+		lastAccessTime = currentTime;
+		if ( isFrozen(currentTime) ) {
+			Snapshot currentSnapshot = frozenSnapshot;
+			if ( currentSnapshot != null && currentSnapshot.version == frozenVersion ) {
+				return currentSnapshot;
+			}
+			synchronized ( this ) {
+				if ( frozenSnapshot == null || frozenSnapshot.version != frozenVersion ) {
+					frozenSnapshot = createSnapshot(true, frozenVersion);
+				}
+				return frozenSnapshot;
+			}
+		}
+		Snapshot currentSnapshot = snapshot;
+		if ( currentSnapshot != null && currentSnapshot.version == version ) {
+			return currentSnapshot;
+		}
+		synchronized ( this ) {
+			if ( snapshot == null || snapshot.version != version ) {
+				snapshot = createSnapshot(false, version);
+			}
+			return snapshot;
+		}
+	}
+
+	/**
+	 * 获取排行榜最后一次被读取的时间.
+	 * @return 排行榜最后一次被读取的时间(ms)
+	 */
+	public long getLastAccessTime() {
+		return lastAccessTime;
+	}
+
+	/**
+	 * 生成排行榜的快照, 并将其序列化为JSON.
+	 * 调用时需持有当前对象的锁.
+	 * @param isFrozen - 是否生成封榜后的快照
+	 * @param version - 快照对应的版本号
+	 * @return 排行榜的快照
+	 */
+	private Snapshot createSnapshot(final boolean isFrozen, long version) {
+		List<ContestantState> rankedContestants = new ArrayList<>(contestants.values());
+		Collections.sort(rankedContestants, new Comparator<ContestantState>() {
+			@Override
+			public int compare(ContestantState o1, ContestantState o2) {
+				Standing s1 = o1.getStanding(isFrozen);
+				Standing s2 = o2.getStanding(isFrozen);
+				if ( s1.score != s2.score ) {
+					return Integer.compare(s2.score, s1.score);
+				}
+				if ( s1.time != s2.time ) {
+					return Integer.compare(s1.time, s2.time);
+				}
+				return Long.compare(o1.contestant.getUid(), o2.contestant.getUid());
+			}
+		});
+
+		List<Row> rows = new ArrayList<>(rankedContestants.size());
+		for ( int i = 0; i < rankedContestants.size(); ++ i ) {
+			ContestantState contestantState = rankedContestants.get(i);
+			Standing standing = contestantState.getStanding(isFrozen);
+			int rank = i + 1;
+			if ( i > 0 ) {
+				Row previousRow = rows.get(i - 1);
+				if ( previousRow.score == standing.score && previousRow.time == standing.time ) {
+					rank = previousRow.rank;
+				}
+			}
+			rows.add(new Row(rank, contestantState.contestant.getUid(), contestantState.contestant.getUsername(),
+					standing.score, standing.time, standing.problemResults));
+		}
+		rows = Collections.unmodifiableList(rows);
+
+		Map<String, Object> scoreboard = new LinkedHashMap<>(5, 1);
+		scoreboard.put("contestId", contest.getContestId());
+		scoreboard.put("contestMode", contest.getContestMode());
+		scoreboard.put("isFrozen", isFrozen);
+		scoreboard.put("problemIds", problemIds);
+		scoreboard.put("rows", rows);
+		String json = JSON.toJSONString(scoreboard);
+		return new Snapshot(version, isFrozen, rows, json.getBytes(StandardCharsets.UTF_8), DigestUtils.md5Hex(json));
+	}
+
+	/**
+	 * 计算某道试题的成绩.
+	 * @param verdicts - 参赛者在该试题上的全部评测结果
+	 * @param freezeTime - 封榜时间(ms), 此后提交的评测结果不计入成绩
+	 * @return 该试题的成绩
+	 */
+	private ProblemResult getProblemResult(TreeMap<Long, Verdict> verdicts, long freezeTime) {
+		List<Verdict> visibleVerdicts = new ArrayList<>(verdicts.size());
+		for ( Verdict verdict : verdicts.values() ) {
+			if ( verdict.submitTime < freezeTime ) {
+				visibleVerdicts.add(verdict);
+			}
+		}
+		int pendingAttempts = verdicts.size() - visibleVerdicts.size();
+		return isAcmMode ? getAcmProblemResult(visibleVerdicts, pendingAttempts) :
+				getOiProblemResult(visibleVerdicts, pendingAttempts);
+	}
+
+	/**
+	 * 根据最后一次提交计算OI赛制中某道试题的成绩.
+	 * @param verdicts - 参赛者在该试题上按提交顺序排列的评测结果
+	 * @param pendingAttempts - 封榜后的提交次数
+	 * @return 该试题的成绩
+	 */
+	private static ProblemResult getOiProblemResult(List<Verdict> verdicts, int pendingAttempts) {
+		if ( verdicts.isEmpty() ) {
+			return new ProblemResult(0, 0, 0, pendingAttempts, false);
+		}
+		Verdict lastVerdict = verdicts.get(verdicts.size() - 1);
+		return new ProblemResult(lastVerdict.score, lastVerdict.usedTime, verdicts.size(), pendingAttempts,
+				ACCEPTED.equals(lastVerdict.judgeResultSlug));
+	}
+
+	/**
+	 * 计算ACM赛制中某道试题的成绩.
+	 * 编译错误和系统错误不计入罚时, 通过之后的提交将被忽略.
+	 * @param verdicts - 参赛者在该试题上按提交顺序排列的评测结果
+	 * @param pendingAttempts - 封榜后的提交次数
+	 * @return 该试题的成绩
+	 */
+	private ProblemResult getAcmProblemResult(List<Verdict> verdicts, int pendingAttempts) {
+		int rejectedAttempts = 0;
+		for ( Verdict verdict : verdicts ) {
+			if ( ACCEPTED.equals(verdict.judgeResultSlug) ) {
+				long elapsedTime = Math.max(0, verdict.submitTime - contest.getStartTime().getTime());
+				int penalty = (int) (elapsedTime / MILLISECONDS_PER_MINUTE) + rejectedAttempts * PENALTY_MINUTES;
+				return new ProblemResult(1, penalty, rejectedAttempts, pendingAttempts, true);
+			}
+			if ( !COMPILE_ERROR.equals(verdict.judgeResultSlug) &&
+					!SYSTEM_ERROR.equals(verdict.judgeResultSlug) ) {
+				++ rejectedAttempts;
+			}
+		}
+		return new ProblemResult(0, 0, rejectedAttempts, pendingAttempts, false);
+	}
+
+	/**
+	 * 解析考试包含的试题列表.
+	 * @param problems - JSON数组格式的试题列表
+	 * @return 试题的唯一标识符列表
+	 */
+	private static List<Long> getProblemIds(String problems) {
+		List<Long> problemIds = null;
+		try {
+			problemIds = JSON.parseArray(problems, Long.class);
+		} catch ( JSONException ex ) {
+			// Ignore invalid problem list
+		}
+		return problemIds == null ? new ArrayList<Long>() : problemIds;
+	}
+
+	/**
+	 * 排行榜的快照.
+	 * 快照生成后不可变, 可以被多个线程同时读取.
+	 */
+	public static final class Snapshot {
+		/**
+		 * Snapshot的构造函数.
+		 * @param version - 排行榜的版本号
+		 * @param isFrozen - 是否为封榜后的快照
+		 * @param rows - 按排名排列的参赛者成绩
+		 * @param content - 序列化为JSON的排行榜
+		 * @param eTag - 排行榜内容的散列值
+		 */
+		private Snapshot(long version, boolean isFrozen, List<Row> rows, byte[] content, String eTag) {
+			this.version = version;
+			this.isFrozen = isFrozen;
+			this.rows = rows;
+			this.content = content;
+			this.eTag = eTag;
+		}
+
+		/**
+		 * 获取排行榜的版本号.
+		 * 排行榜每次发生变化后, 版本号增加.
+		 * @return 排行榜的版本号
+		 */
+		public long getVersion() {
+			return version;
+		}
+
+		/**
+		 * 获取是否为封榜后的快照.
+		 * @return 是否为封榜后的快照
+		 */
+		public boolean isFrozen() {
+			return isFrozen;
+		}
+
+		/**
+		 * 获取按排名排列的参赛者成绩.
+		 * @return 按排名排列的参赛者成绩
+		 */
+		public List<Row> getRows() {
+			return rows;
+		}
+
+		/**
+		 * 获取序列化为JSON的排行榜(UTF-8编码).
+		 * 返回的数组被所有请求共享, 调用者不应修改.
+		 * @return 序列化为JSON的排行榜
+		 */
+		public byte[] getContent() {
+			return content;
+		}
+
+		/**
+		 * 获取排行榜内容的散列值.
+		 * 内容相同的快照具有相同的散列值, 可用作HTTP响应的ETag.
+		 * @return 排行榜内容的散列值
+		 */
+		public String getETag() {
+			return eTag;
+		}
+
+		/**
+		 * 排行榜的版本号.
+		 */
+		private final long version;
+
+		/**
+		 * 是否为封榜后的快照.
+		 */
+		private final boolean isFrozen;
+
+		/**
+		 * 按排名排列的参赛者成绩.
+		 */
+		private final List<Row> rows;
+
+		/**
+		 * 序列化为JSON的排行榜.
+		 */
+		private final byte[] content;
+
+		/**
+		 * 排行榜内容的散列值.
+		 */
+		private final String eTag;
+	}
+
+	/**
+	 * 排行榜中某位参赛者的成绩.
+	 */
+	public static final class Row {
+		/**
+		 * Row的构造函数.
+		 * @param rank - 排名
+		 * @param uid - 参赛者的用户唯一标识符
+		 * @param username - 参赛者的用户名
+		 * @param score - 总得分(OI)或通过的试题数量(ACM)
+		 * @param time - 总运行时间(OI)或总罚时(ACM)
+		 * @param problemResults - 每道试题的成绩
+		 */
+		private Row(int rank, long uid, String username, int score, int time,
+				Map<Long, ProblemResult> problemResults) {
+			this.rank = rank;
+			this.uid = uid;
+			this.username = username;
+			this.score = score;
+			this.time = time;
+			this.problemResults = problemResults;
+		}
+
+		/**
+		 * 获取排名.
+		 * 得分和用时均相同的参赛者排名相同.
+		 * @return 排名
+		 */
+		public int getRank() {
+			return rank;
+		}
+
+		/**
+		 * 获取参赛者的用户唯一标识符.
+		 * @return 参赛者的用户唯一标识符
+		 */
+		public long getUid() {
+			return uid;
+		}
+
+		/**
+		 * 获取参赛者的用户名.
+		 * @return 参赛者的用户名
+		 */
+		public String getUsername() {
+			return username;
+		}
+
+		/**
+		 * 获取总得分(OI)或通过的试题数量(ACM).
+		 * @return 总得分(OI)或通过的试题数量(ACM)
+		 */
+		public int getScore() {
+			return score;
+		}
+
+		/**
+		 * 获取总运行时间(OI, ms)或总罚时(ACM, min).
+		 * @return 总运行时间(OI)或总罚时(ACM)
+		 */
+		public int getTime() {
+			return time;
+		}
+
+		/**
+		 * 获取每道试题的成绩.
+		 * Map中的Key表示试题的唯一标识符, 未提交的试题不包含在内.
+		 * @return 每道试题的成绩
+		 */
+		public Map<Long, ProblemResult> getProblemResults() {
+			return problemResults;
+		}
+
+		/**
+		 * 排名.
+		 */
+		private final int rank;
+
+		/**
+		 * 参赛者的用户唯一标识符.
+		 */
+		private final long uid;
+
+		/**
+		 * 参赛者的用户名.
+		 */
+		private final String username;
+
+		/**
+		 * 总得分(OI)或通过的试题数量(ACM).
+		 */
+		private final int score;
+
+		/**
+		 * 总运行时间(OI)或总罚时(ACM).
+		 */
+		private final int time;
+
+		/**
+		 * 每道试题的成绩.
+		 */
+		private final Map<Long, ProblemResult> problemResults;
+	}
+
+	/**
+	 * 参赛者在某道试题上的成绩.
+	 */
+	public static final class ProblemResult {
+		/**
+		 * ProblemResult的构造函数.
+		 * @param score - 得分
+		 * @param time - 运行时间(OI)或罚时(ACM)
+		 * @param attempts - 提交次数(OI)或未通过的提交次数(ACM)
+		 * @param pendingAttempts - 封榜后的提交次数
+		 * @param isAccepted - 是否通过
+		 */
+		private ProblemResult(int score, int time, int attempts, int pendingAttempts, boolean isAccepted) {
+			this.score = score;
+			this.time = time;
+			this.attempts = attempts;
+			this.pendingAttempts = pendingAttempts;
+			this.isAccepted = isAccepted;
+		}
+
+		/**
+		 * 获取得分.
+		 * @return 得分
+		 */
+		public int getScore() {
+			return score;
+		}
+
+		/**
+		 * 获取运行时间(OI)或罚时(ACM).
+		 * @return 运行时间(OI)或罚时(ACM)
+		 */
+		public int getTime() {
+			return time;
+		}
+
+		/**
+		 * 获取提交次数(OI)或未通过的提交次数(ACM).
+		 * @return 提交次数(OI)或未通过的提交次数(ACM)
+		 */
+		public int getAttempts() {
+			return attempts;
+		}
+
+		/**
+		 * 获取封榜后的提交次数.
+		 * 这些提交的评测结果在封榜期间不公开.
+		 * @return 封榜后的提交次数
+		 */
+		public int getPendingAttempts() {
+			return pendingAttempts;
+		}
+
+		/**
+		 * 获取是否通过.
+		 * @return 是否通过
+		 */
+		public boolean isAccepted() {
+			return isAccepted;
+		}
+
+		/**
+		 * 得分.
+		 */
+		private final int score;
+
+		/**
+		 * 运行时间(OI)或罚时(ACM).
+		 */
+		private final int time;
+
+		/**
+		 * 提交次数(OI)或未通过的提交次数(ACM).
+		 */
+		private final int attempts;
+
+		/**
+		 * 封榜后的提交次数.
+		 */
+		private final int pendingAttempts;
+
+		/**
+		 * 是否通过.
+		 */
+		private final boolean isAccepted;
+	}
+
+	/**
+	 * 某个提交记录的评测结果.
+	 */
+	private static final class Verdict {
+		/**
+		 * Verdict的构造函数.
+		 * @param judgeResultSlug - 评测结果的唯一英文缩写
+		 * @param score - 评测得分
+		 * @param usedTime - 运行时间(ms)
+		 * @param submitTime - 提交时间(ms)
+		 */
+		public Verdict(String judgeResultSlug, int score, int usedTime, long submitTime) {
+			this.judgeResultSlug = judgeResultSlug;
+			this.score = score;
+			this.usedTime = usedTime;
+			this.submitTime = submitTime;
+		}
+
+		/**
+		 * 评测结果的唯一英文缩写.
+		 */
+		private final String judgeResultSlug;
+
+		/**
+		 * 评测得分.
+		 */
+		private final int score;
+
+		/**
+		 * 运行时间(ms).
+		 */
+		private final int usedTime;
+
+		/**
+		 * 提交时间(ms).
+		 */
+		private final long submitTime;
+	}
+
+	/**
+	 * 参赛者的总成绩和每道试题的成绩.
+	 * 对象不可变, 每次更新时生成新的对象, 因此可以被快照直接引用.
+	 */
+	private static final class Standing {
+		/**
+		 * Standing的构造函数.
+		 * @param score - 总得分(OI)或通过的试题数量(ACM)
+		 * @param time - 总运行时间(OI)或总罚时(ACM)
+		 * @param problemResults - 每道试题的成绩
+		 */
+		public Standing(int score, int time, Map<Long, ProblemResult> problemResults) {
+			this.score = score;
+			this.time = time;
+			this.problemResults = problemResults;
+		}
+
+		/**
+		 * 更新某道试题的成绩, 并重新计算总成绩.
+		 * @param problemId - 试题的唯一标识符
+		 * @param problemResult - 该试题的成绩
+		 * @return 更新后的成绩
+		 */
+		public Standing update(long problemId, ProblemResult problemResult) {
+			Map<Long, ProblemResult> problemResults = new HashMap<>(this.problemResults);
+			problemResults.put(problemId, problemResult);
+
+			int score = 0;
+			int time = 0;
+			for ( ProblemResult pr : problemResults.values() ) {
+				score += pr.score;
+				time += pr.time;
+			}
+			return new Standing(score, time, Collections.unmodifiableMap(problemResults));
+		}
+
+		/**
+		 * 总得分(OI)或通过的试题数量(ACM).
+		 */
+		private final int score;
+
+		/**
+		 * 总运行时间(OI)或总罚时(ACM).
+		 */
+		private final int time;
+
+		/**
+		 * 每道试题的成绩.
+		 * Map中的Key表示试题的唯一标识符.
+		 */
+		private final Map<Long, ProblemResult> problemResults;
+
+		/**
+		 * 尚未提交任何试题时的成绩.
+		 */
+		private static final Standing EMPTY = new Standing(0, 0, Collections.<Long, ProblemResult>emptyMap());
+	}
+
+	/**
+	 * 某位参赛者的评测结果和成绩.
+	 */
+	private static final class ContestantState {
+		/**
+		 * ContestantState的构造函数.
+		 * @param contestant - 参赛者对象
+		 */
+		public ContestantState(User contestant) {
+			this.contestant = contestant;
+		}
+
+		/**
+		 * 获取参赛者的成绩.
+		 * @param isFrozen - 是否获取封榜后的成绩
+		 * @return 参赛者的成绩
+		 */
+		public Standing getStanding(boolean isFrozen) {
+			return isFrozen ? frozenStanding : standing;
+		}
+
+		/**
+		 * 参赛者对象.
+		 */
+		private final User contestant;
+
+		/**
+		 * 参赛者在每道试题上的全部评测结果.
+		 * Map中的Key表示试题的唯一标识符, TreeMap中的Key表示提交记录的唯一标识符.
+		 */
+		private final Map<Long, TreeMap<Long, Verdict>> verdicts = new HashMap<>();
+
+		/**
+		 * 参赛者的实时成绩.
+		 */
+		private Standing standing = Standing.EMPTY;
+
+		/**
+		 * 参赛者封榜后的成绩.
+		 */
+		private Standing frozenStanding = Standing.EMPTY;
+	}
+
+	/**
+	 * 考试对象.
+	 */
+	private final Contest contest;
+
+	/**
+	 * 是否为ACM赛制.
+	 */
+	private final boolean isAcmMode;
+
+	/**
+	 * 考试包含的试题的唯一标识符列表.
+	 */
+	private final List<Long> problemIds;
+
+	/**
+	 * 封榜时间(ms).
+	 * 未启用封榜时为Long.MAX_VALUE.
+	 */
+	private final long freezeTime;
+
+	/**
+	 * 全部参赛者的成绩.
+	 * Map中的Key表示参赛者的用户唯一标识符.
+	 */
+	private final Map<Long, ContestantState> contestants = new LinkedHashMap<>();
+
+	/**
+	 * 得分或用时发生变化但尚未写回数据库的参赛者的用户唯一标识符.
+	 */
+	private final Set<Long> updatedContestants = new HashSet<>();
+
+	/**
+	 * 实时排行榜的版本号.
+	 * 每次排行榜发生变化后增加1.
+	 */
+	private volatile long version;
+
+	/**
+	 * 封榜后的排行榜的版本号.
+	 */
+	private volatile long frozenVersion;
+
+	/**
+	 * 最近一次生成的实时排行榜快照.
+	 */
+	private volatile Snapshot snapshot;
+
+	/**
+	 * 最近一次生成的封榜后的排行榜快照.
+	 */
+	private volatile Snapshot frozenSnapshot;
+
+	/**
+	 * 排行榜最后一次被读取的时间(ms).
+	 */
+	private volatile long lastAccessTime = System.currentTimeMillis();
+
+	/**
+	 * ACM赛制的名称.
+	 */
+	private static final String ACM_MODE = "ACM";
+
+	/**
+	 * 评测结果: 等待评测.
+	 */
+	private static final String PENDING = "PD";
+
+	/**
+	 * 评测结果: 通过.
+	 */
+	private static final String ACCEPTED = "AC";
+
+	/**
+	 * 评测结果: 编译错误.
+	 */
+	private static final String COMPILE_ERROR = "CE";
+
+	/**
+	 * 评测结果: 系统错误.
+	 */
+	private static final String SYSTEM_ERROR = "SE";
+
+	/**
+	 * ACM赛制中每次未通过的提交的罚时(分钟).
+	 */
+	private static final int PENALTY_MINUTES = 20;
+
+	/**
+	 * 每分钟的毫秒数.
+	 */
+	private static final long MILLISECONDS_PER_MINUTE = 60 * 1000;
+
+	/**
+	 * 封榜的时长(ms), 即考试结束前的最后一小时.
+	 */
+	private static final long FREEZE_DURATION = TimeUnit.HOURS.toMillis(1);
+}
@@ -1,5 +1,6 @@
 package org.verwandlung.voj.web.util;
 
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.UUID;
@@ -40,6 +41,27 @@ public class DigestUtils {
 		return md5;
 	}
 	
+	/**
+	 * 获取文本的SHA-256摘要.
+	 * 用于对提交记录的代码去重.
+	 * @param text - 待计算摘要的文本
+	 * @return 十六进制表示的SHA-256摘要(64个字符)
+	 */
+	public static String sha256Hex(String text) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			byte[] byteData = md.digest(text.getBytes(StandardCharsets.UTF_8));
+			
+			StringBuilder sb = new StringBuilder(byteData.length * 2);
+			for ( int i = 0; i < byteData.length; ++ i ) {
+				sb.append(Integer.toString((byteData[i] & 0xff) + 0x100, 16).substring(1));
+			}
+			return sb.toString();
+		} catch ( NoSuchAlgorithmException ex ) {
+			throw new IllegalStateException(ex);
+		}
+	}
+	
 	/**
 	 * 生成GUID.
 	 * @return GUID
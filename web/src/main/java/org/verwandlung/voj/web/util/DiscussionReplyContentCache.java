@@ -0,0 +1,137 @@
+package org.verwandlung.voj.web.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 讨论回复过滤结果的缓存.
+ * 讨论回复的内容需要经过HTML过滤和敏感词过滤后才能显示, 而这两个过程的开销较大.
+ * 因此每条回复的过滤结果只计算一次, 并按照回复的唯一标识符缓存.
+ *
+ * 缓存的过滤结果同时记录原始内容的SHA-256摘要和敏感词列表的版本号,
+ * 当回复被编辑或敏感词列表被更新时, 过滤结果将被重新计算.
+ * 编辑或删除回复的Web节点还会通知所有Web节点移除该回复的过滤结果.
+ * 缓存使用LRU策略淘汰最久未被访问的回复.
+ *
+ * @author Haozhe Xie
+ */
+@Component
+public class DiscussionReplyContentCache {
+	/**
+	 * 获取讨论回复过滤后的内容.
+	 * @param discussionReplyId - 讨论回复的唯一标识符
+	 * @param discussionReplyContent - 讨论回复的原始内容
+	 * @return 经过HTML过滤和敏感词过滤后的内容
+	 */
+	public String getFilteredContent(long discussionReplyId, String discussionReplyContent) {
+		if ( discussionReplyContent == null ) {
+			return null;
+		}
+		String contentDigest = DigestUtils.sha256Hex(discussionReplyContent);
+		long wordListVersion = offensiveWordFilter.getVersion();
+
+		synchronized ( filteredContents ) {
+			FilteredContent filteredContent = filteredContents.get(discussionReplyId);
+			if ( filteredContent != null && filteredContent.isValid(contentDigest, wordListVersion) ) {
+				return filteredContent.content;
+			}
+		}
+		String content = offensiveWordFilter.filter(HtmlTextFilter.filter(discussionReplyContent));
+		synchronized ( filteredContents ) {
+			filteredContents.put(discussionReplyId,
+					new FilteredContent(contentDigest, wordListVersion, content));
+		}
+		return content;
+	}
+
+	/**
+	 * 移除某条讨论回复的过滤结果.
+	 * @param discussionReplyId - 讨论回复的唯一标识符
+	 */
+	public void evict(long discussionReplyId) {
+		synchronized ( filteredContents ) {
+			filteredContents.remove(discussionReplyId);
+		}
+	}
+
+	/**
+	 * 获取已缓存的过滤结果的数量.
+	 * @return 已缓存的过滤结果的数量
+	 */
+	public int size() {
+		synchronized ( filteredContents ) {
+			return filteredContents.size();
+		}
+	}
+
+	/**
+	 * 讨论回复的过滤结果.
+	 */
+	private static class FilteredContent {
+		/**
+		 * FilteredContent的构造函数.
+		 * @param contentDigest - 原始内容的SHA-256摘要
+		 * @param wordListVersion - 过滤时敏感词列表的版本号
+		 * @param content - 过滤后的内容
+		 */
+		public FilteredContent(String contentDigest, long wordListVersion, String content) {
+			this.contentDigest = contentDigest;
+			this.wordListVersion = wordListVersion;
+			this.content = content;
+		}
+
+		/**
+		 * 检查过滤结果是否仍然有效.
+		 * @param contentDigest - 当前原始内容的SHA-256摘要
+		 * @param wordListVersion - 当前敏感词列表的版本号
+		 * @return 过滤结果是否仍然有效
+		 */
+		public boolean isValid(String contentDigest, long wordListVersion) {
+			return this.contentDigest.equals(contentDigest) && this.wordListVersion == wordListVersion;
+		}
+
+		/**
+		 * 原始内容的SHA-256摘要.
+		 */
+		private final String contentDigest;
+
+		/**
+		 * 过滤时敏感词列表的版本号.
+		 */
+		private final long wordListVersion;
+
+		/**
+		 * 过滤后的内容.
+		 */
+		private final String content;
+	}
+
+	/**
+	 * 讨论回复的过滤结果.
+	 * Map中的Key表示讨论回复的唯一标识符, 按访问顺序排列以实现LRU淘汰.
+	 */
+	private final Map<Long, FilteredContent> filteredContents =
+			new LinkedHashMap<Long, FilteredContent>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, FilteredContent> eldest) {
+			return size() > MAX_CACHED_REPLIES;
+		}
+
+		private static final long serialVersionUID = 4728734521096434385L;
+	};
+
+	/**
+	 * 自动注入的OffensiveWordFilter对象.
+	 * 用于过滤讨论回复中的敏感词.
+	 */
+	@Autowired
+	private OffensiveWordFilter offensiveWordFilter;
+
+	/**
+	 * 最多缓存的讨论回复数量.
+	 */
+	private static final int MAX_CACHED_REPLIES = 8192;
+}
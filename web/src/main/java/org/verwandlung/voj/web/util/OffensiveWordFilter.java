@@ -1,11 +1,7 @@
 package org.verwandlung.voj.web.util;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,265 +9,346 @@ import org.springframework.stereotype.Component;
 
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONException;
 import org.verwandlung.voj.web.mapper.OptionMapper;
 import org.verwandlung.voj.web.model.Option;
 
 /**
  * 敏感词过滤类.
- * 
+ *
+ * 使用Aho-Corasick自动机匹配敏感词, 只需扫描一次待过滤字符串即可找出全部敏感词.
+ * 自动机的状态转移和失配指针均保存在基本类型的数组中, 构建完成后不可变.
+ * 敏感词列表更新后, 重新构建自动机并整体替换, 正在进行的过滤不受影响.
+ *
  * @author Zhou Yihao
  */
 @Component
 public class OffensiveWordFilter {
 	/**
 	 * OffensiveWordFilter类的构造函数.
-	 * @param optionMapper - 自动注入的optionMapper对象, 用于从数据库获取敏感词列表 
+	 * @param optionMapper - 自动注入的optionMapper对象, 用于从数据库获取敏感词列表
 	 */
 	@Autowired
 	private OffensiveWordFilter(OptionMapper optionMapper) {
-		this.optionMapper = optionMapper;
-		
 		Option offensiveWordOption = optionMapper.getOption(OFFENSIVE_WORD_OPTION_KEY);
-		JSONArray offensiveWordJson = new JSONArray();
-		
-		if ( offensiveWordOption != null ) {
-			String optionValue = offensiveWordOption.getOptionValue();
-			offensiveWordJson = JSON.parseArray(optionValue);
-		}
-		List<String> offensiveWordList = new ArrayList<>((int) (offensiveWordJson.size() * 1.5));
-		for ( Object o : offensiveWordJson ) {
-			offensiveWordList.add((String) o);
+		reload(offensiveWordOption == null ? null : offensiveWordOption.getOptionValue());
+	}
+
+	/**
+	 * 重新加载敏感词列表.
+	 * 仅当敏感词列表发生变化时重新构建自动机.
+	 * @param offensiveWordsJson - JSON数组格式的敏感词列表
+	 */
+	public synchronized void reload(String offensiveWordsJson) {
+		Automaton currentAutomaton = automaton;
+		if ( currentAutomaton != null &&
+				String.valueOf(offensiveWordsJson).equals(currentAutomaton.source) ) {
+			return;
 		}
-		Set<String> offensiveWordSet = new HashSet<>(offensiveWordList);
-		this.addOffensiveWordsToHashMap(offensiveWordSet);
+		long version = currentAutomaton == null ? 1 : currentAutomaton.version + 1;
+		automaton = new Automaton(String.valueOf(offensiveWordsJson),
+				getOffensiveWords(offensiveWordsJson), version);
 	}
-	
+
 	/**
 	 * 提供敏感词过滤的功能.
-	 * 对offensiveWordFilter(String, int , String)的重载.
-	 * 设置了匹配规则(maxMatchType)和替换字符("*")的默认值.
+	 * 敏感词中的每个字符均被替换为"*", 相互重叠的敏感词也会被全部替换.
 	 * @param text - 待过滤字符串
 	 * @return 过滤后的字符串
 	 */
 	public String filter(String text) {
-		return filter(text, OffensiveWordFilter.MAX_MATCH_TYPE, "*");
+		if ( text == null || text.isEmpty() ) {
+			return text;
+		}
+		return automaton.replace(text, REPLACE_CHAR);
 	}
-	
+
 	/**
-	 * 提供敏感词过滤的功能.
-	 * @param text - 待过滤字符串
-	 * @param matchType - 匹配规则, 1 为极小匹配, 2 为极大匹配
-	 * @return 过滤后的字符串
+	 * 获取敏感词列表的版本号.
+	 * 每次敏感词列表发生变化后, 版本号增加1. 可用于判断缓存的过滤结果是否过期.
+	 * @return 敏感词列表的版本号
 	 */
-	private String filter(String text, int matchType, String replaceChar) {
-		//获取txt中所有敏感词的位置
-		List<Position> offensiveWordsPosition = getOffensiveWordsPosition(text, matchType);
-		//用replaceChar替换txt中的所有敏感词
-		StringBuilder resultStringBuilder = new StringBuilder(text);
-		
-		Iterator<Position> iterator = offensiveWordsPosition.iterator();
-		while (iterator.hasNext()) {
-			Position now = iterator.next();
-			resultStringBuilder.replace(now.start, now.start + now.length, 
-									getReplaceChars(replaceChar, now.length));
-		}
-		return resultStringBuilder.toString();
+	public long getVersion() {
+		return automaton.version;
 	}
-	
+
 	/**
-	 * 获取敏感词的位置.
-	 * @param text - 待过滤字符串
-	 * @param matchType - 匹配规则 1 为极小匹配,  2 为极大匹配
-	 * @return 敏感词的位置
+	 * 解析JSON数组格式的敏感词列表.
+	 * 空白的敏感词将被忽略.
+	 * @param offensiveWordsJson - JSON数组格式的敏感词列表
+	 * @return 敏感词的集合
 	 */
-	private List<Position> getOffensiveWordsPosition(String text, int matchType) {
-		List<Position> offensiveWordsPosition = new ArrayList<>();
-		// 遍历待过滤字符串,  检查 txt 以 i 开始的子串的前缀, 是否为敏感词
-		for ( int i = 0; i < text.length(); ++ i ) {
-			int length = checkOffensiveWord(text, i, matchType);
-			if ( length > 0 ) {
-				Position position = new Position(i, length);
-				offensiveWordsPosition.add(position);
-				i = i + length - 1; // 跳过已经匹配的敏感词, 因为for中会自增, 所以减一
+	private static Set<String> getOffensiveWords(String offensiveWordsJson) {
+		Set<String> offensiveWords = new LinkedHashSet<>();
+		if ( offensiveWordsJson == null || offensiveWordsJson.isEmpty() ) {
+			return offensiveWords;
+		}
+		try {
+			JSONArray offensiveWordJson = JSON.parseArray(offensiveWordsJson);
+			for ( Object o : offensiveWordJson ) {
+				String offensiveWord = o == null ? "" : o.toString().trim();
+				if ( !offensiveWord.isEmpty() ) {
+					offensiveWords.add(offensiveWord);
+				}
 			}
+		} catch ( JSONException ex ) {
+			// Ignore invalid word list
 		}
-		return offensiveWordsPosition;
+		return offensiveWords;
 	}
-	
+
 	/**
-	 * 检查以benginIndex开始的字符串的前缀, 是否为敏感词.
-	 * @param text - 待过滤文本
-	 * @param beginIndex - 此次检查的开始处
-	 * @param matchType 匹配模式,  1 为极小匹配,  2 为极大匹配
-	 * @return 送存在敏感词, 则返回敏感词的长度, 若不存在, 则返回0
+	 * Aho-Corasick自动机.
+	 * 状态0为根节点. 状态转移保存在以(状态, 字符)为键的开放寻址散列表中.
 	 */
-	@SuppressWarnings("rawtypes")
-	private int checkOffensiveWord(String text, int beginIndex, int matchType) {
-		/*
-		 * matchedLength为当前已匹配的最长敏感词长度
-		 * matchingLength为正在尝试匹配的敏感词长度, 
-		 * 当匹配到终结符时, 将matchingLength赋给matchedLength, 
-		 * 若为极大匹配, 则继续匹配, 检查当前已匹配到的敏感词是否属于更长的敏感词中, 此时, 若匹配失败, 
-		 * 则回退到matchedLength, 并结束匹配. 
+	private static final class Automaton {
+		/**
+		 * 构建Aho-Corasick自动机.
+		 * @param source - 敏感词列表的原始值
+		 * @param offensiveWords - 敏感词的集合
+		 * @param version - 敏感词列表的版本号
 		 */
-		int matchedLength = 0;
-		int matchingLength = 0;
-		
-		char nowWord = 0;
-		Map nowMap = offensiveWordMap;
-		for ( int i = beginIndex; i < text.length(); ++ i ) {
-			nowWord = text.charAt(i);
-			//当前字的follow集
-			nowMap = (Map) nowMap.get(nowWord);
-			if (nowMap != null) {
-				++ matchingLength;
-				if ("1".equals(nowMap.get(IS_END))) {	//匹配到终结符, 更新当前已匹配的最大长度
-					 matchedLength = matchingLength;
-					 if (OffensiveWordFilter.MIN_MATCH_TYPE == matchType) {
-						 //若为极小匹配规则, 那么一旦匹配到终结符, 就结束匹配
-						 break;
-					 }
+		public Automaton(String source, Set<String> offensiveWords, long version) {
+			this.source = source;
+			this.version = version;
+
+			int maxNumberOfStates = 1;
+			for ( String offensiveWord : offensiveWords ) {
+				maxNumberOfStates += offensiveWord.length();
+			}
+			int capacity = Integer.highestOneBit(Math.max(maxNumberOfStates * 2, 2) - 1) << 1;
+			this.transitionKeys = new long[capacity];
+			this.transitionValues = new int[capacity];
+			Arrays.fill(transitionKeys, EMPTY_KEY);
+
+			int[] parents = new int[maxNumberOfStates];
+			char[] inputs = new char[maxNumberOfStates];
+			int[] depths = new int[maxNumberOfStates];
+			int[] matchedLengths = new int[maxNumberOfStates];
+			int numberOfStates = 1;
+			int maxDepth = 0;
+			for ( String offensiveWord : offensiveWords ) {
+				int state = 0;
+				for ( int i = 0; i < offensiveWord.length(); ++ i ) {
+					char c = offensiveWord.charAt(i);
+					int nextState = getTransition(state, c);
+					if ( nextState < 0 ) {
+						nextState = numberOfStates ++;
+						parents[nextState] = state;
+						inputs[nextState] = c;
+						depths[nextState] = depths[state] + 1;
+						putTransition(state, c, nextState);
+					}
+					state = nextState;
 				}
-			} else {	//当前字的follow集若为空, 则匹配结束, 
-				break;
+				matchedLengths[state] = offensiveWord.length();
+				maxDepth = Math.max(maxDepth, offensiveWord.length());
 			}
+			this.failures = new int[numberOfStates];
+			this.matchedLengths = Arrays.copyOf(matchedLengths, numberOfStates);
+			buildFailures(getStatesInBreadthFirstOrder(depths, numberOfStates, maxDepth), parents, inputs);
 		}
-		return matchedLength;
-	}
-	
-	/**
-	 * 获取用以替换敏感词的字符串 , 敏感词中的所有字都被替换成replaceChar, 
-	 * 根据长度和字符生成, 例如"****"
-	 * @param replaceChar 用来替换敏感词的字符
-	 * @param length 敏感词的长度
-	 * @return 用来替换敏感词的字符串
-	 */
-	private static String getReplaceChars(String replaceChar, int length) {
-		String resultChars = "";
-		for (int i = 0; i < length; ++ i) {
-			resultChars += replaceChar;
+
+		/**
+		 * 按深度对状态进行计数排序, 得到广度优先的顺序(不包含根节点).
+		 * @param depths - 每个状态的深度
+		 * @param numberOfStates - 状态的数量
+		 * @param maxDepth - 状态的最大深度
+		 * @return 按广度优先顺序排列的状态
+		 */
+		private static int[] getStatesInBreadthFirstOrder(int[] depths, int numberOfStates, int maxDepth) {
+			int[] offsets = new int[maxDepth + 2];
+			for ( int state = 1; state < numberOfStates; ++ state ) {
+				++ offsets[depths[state] + 1];
+			}
+			for ( int depth = 1; depth < offsets.length; ++ depth ) {
+				offsets[depth] += offsets[depth - 1];
+			}
+			int[] states = new int[numberOfStates - 1];
+			for ( int state = 1; state < numberOfStates; ++ state ) {
+				states[offsets[depths[state]] ++] = state;
+			}
+			return states;
 		}
-		return resultChars;
-	}
-	
-	/**
-	 * 读取敏感词库, 将敏感词放入HashSet中, 构建一个DFA算法模型:
-	 * 中 = {
-	 *	  isEnd = 0
-	 *	  国 = {
-	 *		   isEnd = 1
-	 *		   人 = {isEnd = 0
-	 *				民 = {isEnd = 1}
-	 *				}
-	 *		   男  = {
-	 *				  isEnd = 0
-	 *				   人 = {
-	 *						isEnd = 1
-	 *					   }
-	 *			   }
-	 *		   }
-	 *	  }
-	 *  五 = {
-	 *	  isEnd = 0
-	 *	  星 = {
-	 *		  isEnd = 0
-	 *		  红 = {
-	 *			  isEnd = 0
-	 *			  旗 = {
-	 *				   isEnd = 1
-	 *				  }
-	 *			  }
-	 *		  }
-	 *	  }
-	 * @param offensiveWordSet - 敏感词的Set集
-	 */
-	@SuppressWarnings({ "unchecked", "rawtypes" })
-	private void addOffensiveWordsToHashMap(Set<String> offensiveWordSet) {
-		// 初始化敏感词HashMap, 大小与Set相等.
-		offensiveWordMap = new HashMap((int)(offensiveWordSet.size() * 1.5));
-		
-		// 在 nowMap状态读过key, 到达新状态, 故创建newWordMap
-		String key = null;
-		Map nowMap = null;
-		Map newWordMap = null;
-		//迭代OffensiveWordSet
-		Iterator<String> iterator = offensiveWordSet.iterator();
-		while (iterator.hasNext()) {
-			key = iterator.next();
-			//从最高层的HashMap开始遍历
-			nowMap = offensiveWordMap;
-			
-			//迭代当前敏感词中的每个字
-			for (int i = 0; i < key.length(); ++ i) {
-				char keyChar = key.charAt(i);
-				Object wordMap = nowMap.get(keyChar);
-				
-				if (wordMap != null) {
-					//当前敏感词的当前字已存在,进入下一个状态
-					nowMap = (Map) wordMap;
-				} else {	
-					//当前敏感词的当前字不存在, 创建一个新Map(状态)
-					newWordMap = new HashMap();
-					//默认当前敏感词的当前字不是终结符
-					newWordMap.put(IS_END, "0");
-					//将新建的Map(状态)添加到当前Map(状态)中
-					nowMap.put(keyChar, newWordMap);
-					//读取当前字后进入下一个状态
-					nowMap = newWordMap;
+
+		/**
+		 * 按广度优先的顺序计算每个状态的失配指针.
+		 * 同时将失配指针所指状态的最长匹配长度合并到当前状态,
+		 * 使得每个状态都记录了以该状态结尾的最长敏感词的长度.
+		 * @param states - 按广度优先顺序排列的状态
+		 * @param parents - 每个状态的父状态
+		 * @param inputs - 由父状态转移到每个状态时读入的字符
+		 */
+		private void buildFailures(int[] states, int[] parents, char[] inputs) {
+			for ( int state : states ) {
+				int parent = parents[state];
+				failures[state] = parent == 0 ? 0 : next(failures[parent], inputs[state]);
+				matchedLengths[state] = Math.max(matchedLengths[state], matchedLengths[failures[state]]);
+			}
+		}
+
+		/**
+		 * 从某个状态读入一个字符后到达的状态(沿失配指针回退).
+		 * @param state - 当前状态
+		 * @param c - 读入的字符
+		 * @return 到达的状态
+		 */
+		private int next(int state, char c) {
+			while ( true ) {
+				int nextState = getTransition(state, c);
+				if ( nextState >= 0 ) {
+					return nextState;
 				}
-				if (i == key.length() - 1) {
-					nowMap.put(IS_END, "1");
+				if ( state == 0 ) {
+					return 0;
 				}
+				state = failures[state];
 			}
+		}
 
+		/**
+		 * 替换字符串中的全部敏感词.
+		 * 首先扫描一次字符串, 记录以每个位置结尾的最长敏感词的长度;
+		 * 然后从后向前扫描一次, 替换被任意一个敏感词覆盖的字符.
+		 * @param text - 待过滤字符串
+		 * @param replaceChar - 用于替换敏感词的字符
+		 * @return 过滤后的字符串, 若不包含敏感词则返回原字符串
+		 */
+		public String replace(String text, char replaceChar) {
+			if ( matchedLengths.length == 1 ) {
+				return text;
+			}
+			int[] matchedLengthsOfText = null;
+			int state = 0;
+			for ( int i = 0; i < text.length(); ++ i ) {
+				state = next(state, text.charAt(i));
+				if ( matchedLengths[state] > 0 ) {
+					if ( matchedLengthsOfText == null ) {
+						matchedLengthsOfText = new int[text.length()];
+					}
+					matchedLengthsOfText[i] = matchedLengths[state];
+				}
+			}
+			if ( matchedLengthsOfText == null ) {
+				return text;
+			}
+			char[] chars = text.toCharArray();
+			int replaceFrom = Integer.MAX_VALUE;
+			for ( int i = chars.length - 1; i >= 0; -- i ) {
+				if ( matchedLengthsOfText[i] > 0 ) {
+					replaceFrom = Math.min(replaceFrom, i - matchedLengthsOfText[i] + 1);
+				}
+				if ( replaceFrom <= i ) {
+					chars[i] = replaceChar;
+				}
+			}
+			return new String(chars);
 		}
+
+		/**
+		 * 获取状态转移.
+		 * @param state - 当前状态
+		 * @param c - 读入的字符
+		 * @return 到达的状态, 若不存在该状态转移则返回-1
+		 */
+		private int getTransition(int state, char c) {
+			long key = getTransitionKey(state, c);
+			int mask = transitionKeys.length - 1;
+			for ( int i = hash(key) & mask; ; i = (i + 1) & mask ) {
+				if ( transitionKeys[i] == key ) {
+					return transitionValues[i];
+				}
+				if ( transitionKeys[i] == EMPTY_KEY ) {
+					return -1;
+				}
+			}
+		}
+
+		/**
+		 * 添加状态转移.
+		 * @param state - 当前状态
+		 * @param c - 读入的字符
+		 * @param nextState - 到达的状态
+		 */
+		private void putTransition(int state, char c, int nextState) {
+			long key = getTransitionKey(state, c);
+			int mask = transitionKeys.length - 1;
+			int i = hash(key) & mask;
+			while ( transitionKeys[i] != EMPTY_KEY ) {
+				i = (i + 1) & mask;
+			}
+			transitionKeys[i] = key;
+			transitionValues[i] = nextState;
+		}
+
+		/**
+		 * 获取状态转移在散列表中的键.
+		 * @param state - 当前状态
+		 * @param c - 读入的字符
+		 * @return 状态转移在散列表中的键
+		 */
+		private static long getTransitionKey(int state, char c) {
+			return ((long) state << 16) | c;
+		}
+
+		/**
+		 * 计算状态转移的键的散列值.
+		 * @param key - 状态转移的键
+		 * @return 散列值
+		 */
+		private static int hash(long key) {
+			long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 32));
+		}
+
+		/**
+		 * 敏感词列表的原始值.
+		 */
+		private final String source;
+
+		/**
+		 * 敏感词列表的版本号.
+		 */
+		private final long version;
+
+		/**
+		 * 状态转移散列表的键.
+		 */
+		private final long[] transitionKeys;
+
+		/**
+		 * 状态转移散列表的值(到达的状态).
+		 */
+		private final int[] transitionValues;
+
+		/**
+		 * 每个状态的失配指针.
+		 */
+		private final int[] failures;
+
+		/**
+		 * 以每个状态结尾的最长敏感词的长度(0表示不存在).
+		 */
+		private final int[] matchedLengths;
+
+		/**
+		 * 状态转移散列表中的空键.
+		 */
+		private static final long EMPTY_KEY = -1;
 	}
-	
-	/**
-	 * 存储敏感词的HashMap. 
-	 */
-	private HashMap<?, ?> offensiveWordMap;
-	
+
 	/**
-	 * HashMap中敏感词是否终结的标识. 
+	 * 当前使用的Aho-Corasick自动机.
 	 */
-	private static final String IS_END = "isEnd";
-	
+	private volatile Automaton automaton;
+
 	/**
-	 * minMatchType 极小匹配规则 1 若找到敏感词的终结符, 则不再继续寻找其是否包含在一个更长的敏感词中  
-	 * maxMatchType 极大匹配规则 2 若找到敏感词的终结符, 则仍需继续寻找其是否包含在一个更长的敏感词中
+	 * 用于替换敏感词的字符.
 	 */
-	public static final int MIN_MATCH_TYPE = 1;
-	public static final int MAX_MATCH_TYPE = 2;
-		
+	private static final char REPLACE_CHAR = '*';
+
 	/**
-	 * 敏感词系统设置项. 
+	 * 敏感词系统设置项.
 	 */
 	public static final String OFFENSIVE_WORD_OPTION_KEY = "offensiveWords";
-	
-	/**
-	 *  自动注入OptionDao对象
-	 */
-	@SuppressWarnings("unused")
-	private OptionMapper optionMapper;
 }
-
-/**
- * 存储敏感词的位置(开始位置和长度)
- * @author Zhou YiHao
- */
-class Position {
-		/**
-		 * Position的构造函数.
-		 * @param start - 敏感词开始位置
-		 * @param length - 敏感词长度
-		 */
-		public Position(int start, int length) {
-			this.start = start;
-			this.length = length;
-		}
-		
-		int start;
-		
-		int length;
-	}
\ No newline at end of file
@@ -0,0 +1,132 @@
+package org.verwandlung.voj.web.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * 基于键集(Keyset)分页的游标.
+ * 游标记录当前页面边界记录的排序键, 下一页(或上一页)从该记录之后(或之前)开始查询,
+ * 因此查询的代价只与每页的记录数量有关, 而与页码无关.
+ * 
+ * 游标以不透明的字符串(Token)的形式在页面之间传递.
+ * 
+ * @author Haozhe Xie
+ */
+public final class PageCursor {
+	/**
+	 * PageCursor的私有构造函数.
+	 * @param isBackward - 是否向前翻页
+	 * @param keys - 边界记录的排序键
+	 */
+	private PageCursor(boolean isBackward, long[] keys) {
+		this.isBackward = isBackward;
+		this.keys = keys;
+	}
+	
+	/**
+	 * 获取指向某条记录之后的游标.
+	 * @param keys - 当前页面最后一条记录的排序键
+	 * @return 指向下一页的游标
+	 */
+	public static PageCursor after(long... keys) {
+		return new PageCursor(false, keys.clone());
+	}
+	
+	/**
+	 * 获取指向某条记录之前的游标.
+	 * @param keys - 当前页面第一条记录的排序键
+	 * @return 指向上一页的游标
+	 */
+	public static PageCursor before(long... keys) {
+		return new PageCursor(true, keys.clone());
+	}
+	
+	/**
+	 * 解析游标的字符串表示.
+	 * @param token - 游标的字符串表示
+	 * @return 对应的游标对象, 若字符串为空或不合法则返回空引用(即从第一页开始查询)
+	 */
+	public static PageCursor parse(String token) {
+		if ( token == null || token.isEmpty() ) {
+			return null;
+		}
+		try {
+			String cursor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = cursor.split(":", 2);
+			if ( parts.length != 2 || !(FORWARD.equals(parts[0]) || BACKWARD.equals(parts[0])) ) {
+				return null;
+			}
+			String[] values = parts[1].split(",");
+			long[] keys = new long[values.length];
+			for ( int i = 0; i < values.length; ++ i ) {
+				keys[i] = Long.parseLong(values[i]);
+			}
+			return new PageCursor(BACKWARD.equals(parts[0]), keys);
+		} catch ( IllegalArgumentException ex ) {
+			return null;
+		}
+	}
+	
+	/**
+	 * 获取游标的字符串表示.
+	 * @return 游标的字符串表示
+	 */
+	public String getToken() {
+		StringBuilder cursor = new StringBuilder(isBackward ? BACKWARD : FORWARD).append(':');
+		for ( int i = 0; i < keys.length; ++ i ) {
+			if ( i != 0 ) {
+				cursor.append(',');
+			}
+			cursor.append(keys[i]);
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(
+				cursor.toString().getBytes(StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * 获取游标是否向前翻页.
+	 * @return 游标是否向前翻页
+	 */
+	public boolean isBackward() {
+		return isBackward;
+	}
+	
+	/**
+	 * 获取边界记录的某个排序键.
+	 * @param index - 排序键的下标
+	 * @param defaultValue - 排序键不存在时的默认值
+	 * @return 边界记录的排序键
+	 */
+	public long getKey(int index, long defaultValue) {
+		return index < keys.length ? keys[index] : defaultValue;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return String.format("PageCursor [IsBackward=%s, Keys=%s]", 
+				new Object[] {isBackward, Arrays.toString(keys)});
+	}
+	
+	/**
+	 * 是否向前翻页.
+	 */
+	private final boolean isBackward;
+	
+	/**
+	 * 边界记录的排序键.
+	 */
+	private final long[] keys;
+	
+	/**
+	 * 向后翻页游标的前缀.
+	 */
+	private static final String FORWARD = "a";
+	
+	/**
+	 * 向前翻页游标的前缀.
+	 */
+	private static final String BACKWARD = "b";
+}
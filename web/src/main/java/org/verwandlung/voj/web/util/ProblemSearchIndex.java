@@ -0,0 +1,440 @@
+package org.verwandlung.voj.web.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.verwandlung.voj.web.model.Problem;
+import org.verwandlung.voj.web.model.ProblemCategory;
+import org.verwandlung.voj.web.model.ProblemTag;
+
+/**
+ * 试题的全文检索索引.
+ * 对试题名称, 试题描述, 试题标签和试题分类建立倒排索引, 索引仅保存在内存中.
+ *
+ * 英文和数字按单词切分(查询时支持前缀匹配), 中文按单字和相邻两字切分.
+ * 查询时所有关键词都需要命中, 结果按照各字段的权重和关键词的区分度排序.
+ *
+ * @author Haozhe Xie
+ */
+public class ProblemSearchIndex {
+	/**
+	 * 将试题加入索引.
+	 * 若试题已存在于索引中, 则替换原有的索引项.
+	 * @param problem - 试题对象(至少包含试题的唯一标识符, 名称, 描述及是否公开)
+	 * @param problemCategories - 试题的分类列表
+	 * @param problemTags - 试题的标签列表
+	 */
+	public void putProblem(Problem problem, List<ProblemCategory> problemCategories, List<ProblemTag> problemTags) {
+		long problemId = problem.getProblemId();
+		Map<String, Float> termWeights = new HashMap<>();
+		Set<Integer> problemCategoryIds = new HashSet<>();
+
+		addTerms(termWeights, problem.getProblemName(), NAME_WEIGHT);
+		addTerms(termWeights, stripHtmlTags(problem.getDescription()), DESCRIPTION_WEIGHT);
+		if ( problemTags != null ) {
+			for ( ProblemTag problemTag : problemTags ) {
+				addTerms(termWeights, problemTag.getProblemTagName(), TAG_WEIGHT);
+			}
+		}
+		if ( problemCategories != null ) {
+			for ( ProblemCategory problemCategory : problemCategories ) {
+				addTerms(termWeights, problemCategory.getProblemCategoryName(), CATEGORY_WEIGHT);
+				problemCategoryIds.add(problemCategory.getProblemCategoryId());
+			}
+		}
+
+		lock.writeLock().lock();
+		try {
+			removeProblemInternal(problemId);
+			for ( Map.Entry<String, Float> e : termWeights.entrySet() ) {
+				Map<Long, Float> postings = this.postings.get(e.getKey());
+				if ( postings == null ) {
+					postings = new HashMap<>();
+					this.postings.put(e.getKey(), postings);
+				}
+				postings.put(problemId, e.getValue());
+			}
+			documents.put(problemId, new Document(problem.isPublic(),
+					problemCategoryIds, termWeights.keySet()));
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * 从索引中移除试题.
+	 * @param problemId - 试题的唯一标识符
+	 */
+	public void removeProblem(long problemId) {
+		lock.writeLock().lock();
+		try {
+			removeProblemInternal(problemId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * 从索引中移除试题(调用者需持有写锁).
+	 * @param problemId - 试题的唯一标识符
+	 */
+	private void removeProblemInternal(long problemId) {
+		Document document = documents.remove(problemId);
+		if ( document == null ) {
+			return;
+		}
+		for ( String term : document.terms ) {
+			Map<Long, Float> postings = this.postings.get(term);
+			if ( postings != null ) {
+				postings.remove(problemId);
+				if ( postings.isEmpty() ) {
+					this.postings.remove(term);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 检索试题.
+	 * @param keyword - 关键词
+	 * @param problemCategoryId - 试题分类的唯一标识符(为0时不筛选分类)
+	 * @param isPublicOnly - 是否只检索公开试题
+	 * @return 按相关度降序排列的试题唯一标识符列表
+	 */
+	public List<Long> search(String keyword, int problemCategoryId, boolean isPublicOnly) {
+		Set<String> queryTerms = new LinkedHashSet<>(tokenize(keyword, true));
+		if ( queryTerms.isEmpty() ) {
+			return new ArrayList<>();
+		}
+
+		final Map<Long, Float> scores = new HashMap<>();
+		lock.readLock().lock();
+		try {
+			boolean isFirstTerm = true;
+			for ( String queryTerm : queryTerms ) {
+				Map<Long, Float> termScores = getTermScores(queryTerm);
+				if ( isFirstTerm ) {
+					for ( Map.Entry<Long, Float> e : termScores.entrySet() ) {
+						Document document = documents.get(e.getKey());
+						if ( (!isPublicOnly || document.isPublic) &&
+								(problemCategoryId == 0 || document.problemCategoryIds.contains(problemCategoryId)) ) {
+							scores.put(e.getKey(), e.getValue());
+						}
+					}
+					isFirstTerm = false;
+				} else {
+					scores.keySet().retainAll(termScores.keySet());
+					for ( Map.Entry<Long, Float> e : scores.entrySet() ) {
+						e.setValue(e.getValue() + termScores.get(e.getKey()));
+					}
+				}
+				if ( scores.isEmpty() ) {
+					break;
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		List<Long> problemIds = new ArrayList<>(scores.keySet());
+		Collections.sort(problemIds, new Comparator<Long>() {
+			@Override
+			public int compare(Long problemId1, Long problemId2) {
+				int result = Float.compare(scores.get(problemId2), scores.get(problemId1));
+				return result != 0 ? result : Long.compare(problemId1, problemId2);
+			}
+		});
+		return problemIds;
+	}
+
+	/**
+	 * 获取命中某个关键词的试题及其得分(调用者需持有读锁).
+	 * 英文和数字关键词匹配所有以该关键词为前缀的词项, 同一试题取最高的得分.
+	 * @param queryTerm - 关键词
+	 * @return 试题的唯一标识符与得分的键值对
+	 */
+	private Map<Long, Float> getTermScores(String queryTerm) {
+		SortedMap<String, Map<Long, Float>> matchedPostings = isHanTerm(queryTerm) ?
+				postings.subMap(queryTerm, queryTerm + '\0') :
+				postings.subMap(queryTerm, queryTerm + Character.MAX_VALUE);
+
+		Map<Long, Float> termScores = new HashMap<>();
+		for ( Map<Long, Float> postings : matchedPostings.values() ) {
+			double idf = Math.log(1 + (double) documents.size() / postings.size());
+			for ( Map.Entry<Long, Float> e : postings.entrySet() ) {
+				float score = (float) (e.getValue() * idf);
+				Float currentScore = termScores.get(e.getKey());
+				if ( currentScore == null || currentScore < score ) {
+					termScores.put(e.getKey(), score);
+				}
+			}
+		}
+		return termScores;
+	}
+
+	/**
+	 * 获取索引中的试题数量.
+	 * @return 索引中的试题数量
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return documents.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * 高亮文本中与关键词匹配的部分.
+	 * 文本将首先进行HTML转义, 匹配的部分使用&lt;em&gt;标签包裹.
+	 * @param text - 待高亮的文本
+	 * @param keyword - 关键词
+	 * @return 高亮后的HTML文本
+	 */
+	public static String highlight(String text, String keyword) {
+		if ( text == null ) {
+			return null;
+		}
+		boolean[] isMatched = new boolean[text.length()];
+		for ( String queryTerm : new LinkedHashSet<>(tokenize(keyword, true)) ) {
+			boolean isHanTerm = isHanTerm(queryTerm);
+			for ( int i = 0; i + queryTerm.length() <= text.length(); ++ i ) {
+				if ( !isHanTerm && i > 0 && isWordCharacter(text.charAt(i - 1)) ) {
+					continue;
+				}
+				if ( text.regionMatches(true, i, queryTerm, 0, queryTerm.length()) ) {
+					for ( int j = i; j < i + queryTerm.length(); ++ j ) {
+						isMatched[j] = true;
+					}
+				}
+			}
+		}
+
+		StringBuilder highlightedText = new StringBuilder();
+		for ( int i = 0; i < text.length(); ++ i ) {
+			if ( isMatched[i] && (i == 0 || !isMatched[i - 1]) ) {
+				highlightedText.append("<em>");
+			}
+			appendEscapedCharacter(highlightedText, text.charAt(i));
+			if ( isMatched[i] && (i == text.length() - 1 || !isMatched[i + 1]) ) {
+				highlightedText.append("</em>");
+			}
+		}
+		return highlightedText.toString();
+	}
+
+	/**
+	 * 将文本切分为词项.
+	 * 英文和数字按单词切分并转换为小写; 中文在建立索引时切分为单字和相邻两字,
+	 * 在查询时若连续的中文多于一个字则只切分为相邻两字, 以提高查询的准确度.
+	 * @param text - 待切分的文本
+	 * @param isQuery - 是否为查询的关键词
+	 * @return 词项列表
+	 */
+	static List<String> tokenize(String text, boolean isQuery) {
+		List<String> terms = new ArrayList<>();
+		if ( text == null ) {
+			return terms;
+		}
+		StringBuilder word = new StringBuilder();
+		int hanRunStart = -1;
+
+		for ( int i = 0; i <= text.length(); ++ i ) {
+			char c = i < text.length() ? text.charAt(i) : ' ';
+			if ( isWordCharacter(c) ) {
+				word.append(Character.toLowerCase(c));
+				continue;
+			}
+			if ( word.length() > 0 ) {
+				terms.add(word.toString());
+				word.setLength(0);
+			}
+			if ( isHanCharacter(c) ) {
+				if ( hanRunStart < 0 ) {
+					hanRunStart = i;
+				}
+				continue;
+			}
+			if ( hanRunStart >= 0 ) {
+				addHanTerms(terms, text.substring(hanRunStart, i), isQuery);
+				hanRunStart = -1;
+			}
+		}
+		return terms;
+	}
+
+	/**
+	 * 将连续的中文切分为词项.
+	 * @param terms - 词项列表
+	 * @param hanText - 连续的中文
+	 * @param isQuery - 是否为查询的关键词
+	 */
+	private static void addHanTerms(List<String> terms, String hanText, boolean isQuery) {
+		if ( hanText.length() == 1 ) {
+			terms.add(hanText);
+			return;
+		}
+		for ( int i = 0; i < hanText.length(); ++ i ) {
+			if ( !isQuery ) {
+				terms.add(hanText.substring(i, i + 1));
+			}
+			if ( i + 1 < hanText.length() ) {
+				terms.add(hanText.substring(i, i + 2));
+			}
+		}
+	}
+
+	/**
+	 * 将文本中的词项及其权重加入试题的词项列表.
+	 * 同一词项在同一字段中多次出现时, 权重随出现次数对数增长.
+	 * @param termWeights - 试题的词项与权重的键值对
+	 * @param text - 字段的文本
+	 * @param fieldWeight - 字段的权重
+	 */
+	private static void addTerms(Map<String, Float> termWeights, String text, float fieldWeight) {
+		Map<String, Integer> termFrequencies = new HashMap<>();
+		for ( String term : tokenize(text, false) ) {
+			Integer frequency = termFrequencies.get(term);
+			termFrequencies.put(term, frequency == null ? 1 : frequency + 1);
+		}
+		for ( Map.Entry<String, Integer> e : termFrequencies.entrySet() ) {
+			float weight = fieldWeight * (float) (1 + Math.log(e.getValue()));
+			Float currentWeight = termWeights.get(e.getKey());
+			termWeights.put(e.getKey(), currentWeight == null ? weight : currentWeight + weight);
+		}
+	}
+
+	/**
+	 * 移除文本中的HTML标签.
+	 * @param text - 包含HTML标签的文本
+	 * @return 移除HTML标签后的文本
+	 */
+	private static String stripHtmlTags(String text) {
+		return text == null ? null : text.replaceAll("<[^>]*>", " ").replaceAll("&[a-zA-Z]+;", " ");
+	}
+
+	/**
+	 * 将字符进行HTML转义后加入字符串.
+	 * @param stringBuilder - 目标字符串
+	 * @param c - 待转义的字符
+	 */
+	private static void appendEscapedCharacter(StringBuilder stringBuilder, char c) {
+		switch ( c ) {
+			case '<':  stringBuilder.append("&lt;");   break;
+			case '>':  stringBuilder.append("&gt;");   break;
+			case '&':  stringBuilder.append("&amp;");  break;
+			case '"':  stringBuilder.append("&quot;"); break;
+			case '\'': stringBuilder.append("&#39;");  break;
+			default:   stringBuilder.append(c);
+		}
+	}
+
+	/**
+	 * 检查字符是否为英文字母或数字.
+	 * @param c - 待检查的字符
+	 * @return 字符是否为英文字母或数字
+	 */
+	private static boolean isWordCharacter(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+	}
+
+	/**
+	 * 检查字符是否为汉字.
+	 * @param c - 待检查的字符
+	 * @return 字符是否为汉字
+	 */
+	private static boolean isHanCharacter(char c) {
+		return Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN;
+	}
+
+	/**
+	 * 检查词项是否为中文词项.
+	 * @param term - 待检查的词项
+	 * @return 词项是否为中文词项
+	 */
+	private static boolean isHanTerm(String term) {
+		return !term.isEmpty() && isHanCharacter(term.charAt(0));
+	}
+
+	/**
+	 * 索引中的试题.
+	 */
+	private static class Document {
+		/**
+		 * Document的构造函数.
+		 * @param isPublic - 试题是否公开
+		 * @param problemCategoryIds - 试题分类的唯一标识符集合
+		 * @param terms - 试题包含的词项集合
+		 */
+		public Document(boolean isPublic, Set<Integer> problemCategoryIds, Set<String> terms) {
+			this.isPublic = isPublic;
+			this.problemCategoryIds = problemCategoryIds;
+			this.terms = terms;
+		}
+
+		/**
+		 * 试题是否公开.
+		 */
+		private final boolean isPublic;
+
+		/**
+		 * 试题分类的唯一标识符集合.
+		 */
+		private final Set<Integer> problemCategoryIds;
+
+		/**
+		 * 试题包含的词项集合.
+		 * 用于从倒排表中移除该试题.
+		 */
+		private final Set<String> terms;
+	}
+
+	/**
+	 * 倒排表.
+	 * Map中的Key表示词项, Value表示包含该词项的试题唯一标识符与词项权重的键值对.
+	 */
+	private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+
+	/**
+	 * 索引中的试题.
+	 * Map中的Key表示试题的唯一标识符.
+	 */
+	private final Map<Long, Document> documents = new HashMap<>();
+
+	/**
+	 * 索引的读写锁.
+	 */
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * 试题名称的权重.
+	 */
+	private static final float NAME_WEIGHT = 4;
+
+	/**
+	 * 试题标签的权重.
+	 */
+	private static final float TAG_WEIGHT = 3;
+
+	/**
+	 * 试题分类的权重.
+	 */
+	private static final float CATEGORY_WEIGHT = 2;
+
+	/**
+	 * 试题描述的权重.
+	 */
+	private static final float DESCRIPTION_WEIGHT = 1;
+}
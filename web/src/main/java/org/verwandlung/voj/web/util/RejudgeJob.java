@@ -0,0 +1,386 @@
+package org.verwandlung.voj.web.util;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * 重新评测任务.
+ * 仅保存在创建该任务的Web节点的内存中, 用于跟踪批量重新评测的进度.
+ * 需要重新评测的提交记录按唯一标识符分批加载, 每批从上一批最后一个提交记录之后开始.
+ *
+ * @author Haozhe Xie
+ */
+public class RejudgeJob {
+	/**
+	 * 重新评测任务的状态.
+	 */
+	public enum Status {
+		RUNNING, COMPLETED, CANCELLED
+	}
+
+	/**
+	 * RejudgeJob的构造函数.
+	 * @param jobId - 重新评测任务的唯一标识符
+	 * @param description - 重新评测任务的筛选条件描述
+	 * @param creator - 创建重新评测任务的用户名
+	 * @param submissionIds - 筛选条件: 提交记录唯一标识符的列表
+	 * @param problemId - 筛选条件: 试题的唯一标识符
+	 * @param startTime - 筛选条件: 提交时间的下界
+	 * @param endTime - 筛选条件: 提交时间的上界
+	 * @param totalSubmissions - 创建任务时符合筛选条件的提交记录数量
+	 */
+	public RejudgeJob(long jobId, String description, String creator, List<Long> submissionIds,
+			long problemId, String startTime, String endTime, long totalSubmissions) {
+		this.jobId = jobId;
+		this.description = description;
+		this.creator = creator;
+		this.submissionIds = submissionIds;
+		this.problemId = problemId;
+		this.startTime = startTime;
+		this.endTime = endTime;
+		this.totalSubmissions = totalSubmissions;
+		this.createTime = new Date();
+		this.status = Status.RUNNING;
+	}
+
+	/**
+	 * 添加待评测的提交记录.
+	 * 提交记录需按唯一标识符升序添加, 最后添加的提交记录即为下一批加载的起点.
+	 * @param submissionId - 提交记录的唯一标识符
+	 * @param languageSlug - 提交记录所使用编程语言的唯一英文缩写
+	 */
+	public void addPendingSubmission(long submissionId, String languageSlug) {
+		pendingSubmissions.add(submissionId);
+		languageSlugs.put(submissionId, languageSlug);
+		lastLoadedSubmissionId = submissionId;
+		++ loadedSubmissions;
+	}
+
+	/**
+	 * 标记符合筛选条件的提交记录已全部加载.
+	 * 由于创建任务后提交记录可能被删除, 需要重新评测的提交记录总数以实际加载的数量为准.
+	 */
+	public void onAllSubmissionsLoaded() {
+		isAllSubmissionsLoaded = true;
+		totalSubmissions = loadedSubmissions;
+	}
+
+	/**
+	 * 检查符合筛选条件的提交记录是否已全部加载.
+	 * @return 提交记录是否已全部加载
+	 */
+	public boolean isAllSubmissionsLoaded() {
+		return isAllSubmissionsLoaded;
+	}
+
+	/**
+	 * 获取最后加载的提交记录的唯一标识符.
+	 * @return 最后加载的提交记录的唯一标识符(尚未加载时为0)
+	 */
+	public long getLastLoadedSubmissionId() {
+		return lastLoadedSubmissionId;
+	}
+
+	/**
+	 * 获取筛选条件: 提交记录唯一标识符的列表.
+	 * @return 提交记录唯一标识符的列表
+	 */
+	public List<Long> getSubmissionIds() {
+		return submissionIds;
+	}
+
+	/**
+	 * 获取筛选条件: 试题的唯一标识符.
+	 * @return 试题的唯一标识符
+	 */
+	public long getProblemId() {
+		return problemId;
+	}
+
+	/**
+	 * 获取筛选条件: 提交时间的下界.
+	 * @return 提交时间的下界
+	 */
+	public String getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * 获取筛选条件: 提交时间的上界.
+	 * @return 提交时间的上界
+	 */
+	public String getEndTime() {
+		return endTime;
+	}
+
+	/**
+	 * 取出下一个待评测的提交记录.
+	 * @return 提交记录的唯一标识符, 若没有待评测的提交记录则返回空引用
+	 */
+	public Long pollPendingSubmission() {
+		return pendingSubmissions.poll();
+	}
+
+	/**
+	 * 获取并移除已取出的提交记录所使用编程语言的唯一英文缩写.
+	 * @param submissionId - 提交记录的唯一标识符
+	 * @return 编程语言的唯一英文缩写
+	 */
+	public String removeLanguageSlug(long submissionId) {
+		return languageSlugs.remove(submissionId);
+	}
+
+	/**
+	 * 获取待评测(尚未加入消息队列)的提交记录数量.
+	 * 包含尚未加载的提交记录.
+	 * @return 待评测的提交记录数量
+	 */
+	public long getNumberOfPendingSubmissions() {
+		if ( isAllSubmissionsLoaded ) {
+			return pendingSubmissions.size();
+		}
+		return Math.max(pendingSubmissions.size(), totalSubmissions - enqueuedSubmissions - skippedSubmissions);
+	}
+
+	/**
+	 * 获取正在评测的提交记录数量.
+	 * @return 正在评测的提交记录数量
+	 */
+	public long getNumberOfRunningSubmissions() {
+		return enqueuedSubmissions - completedSubmissions - timedOutSubmissions;
+	}
+
+	/**
+	 * 取消所有待评测及尚未加载的提交记录.
+	 */
+	public void clearPendingSubmissions() {
+		pendingSubmissions.clear();
+		languageSlugs.clear();
+		isAllSubmissionsLoaded = true;
+	}
+
+	/**
+	 * 获取重新评测任务的唯一标识符.
+	 * @return 重新评测任务的唯一标识符
+	 */
+	public long getJobId() {
+		return jobId;
+	}
+
+	/**
+	 * 获取重新评测任务的筛选条件描述.
+	 * @return 重新评测任务的筛选条件描述
+	 */
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * 获取创建重新评测任务的用户名.
+	 * @return 创建重新评测任务的用户名
+	 */
+	public String getCreator() {
+		return creator;
+	}
+
+	/**
+	 * 获取重新评测任务的创建时间.
+	 * @return 重新评测任务的创建时间
+	 */
+	public Date getCreateTime() {
+		return createTime;
+	}
+
+	/**
+	 * 获取重新评测任务的状态.
+	 * @return 重新评测任务的状态
+	 */
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * 设置重新评测任务的状态.
+	 * @param status - 重新评测任务的状态
+	 */
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	/**
+	 * 获取需要重新评测的提交记录总数.
+	 * @return 需要重新评测的提交记录总数
+	 */
+	public long getTotalSubmissions() {
+		return totalSubmissions;
+	}
+
+	/**
+	 * 获取已加入消息队列的提交记录数量.
+	 * @return 已加入消息队列的提交记录数量
+	 */
+	public long getEnqueuedSubmissions() {
+		return enqueuedSubmissions;
+	}
+
+	/**
+	 * 记录一个已加入消息队列的提交记录.
+	 */
+	public void onSubmissionEnqueued() {
+		++ enqueuedSubmissions;
+	}
+
+	/**
+	 * 获取已完成评测的提交记录数量.
+	 * @return 已完成评测的提交记录数量
+	 */
+	public long getCompletedSubmissions() {
+		return completedSubmissions;
+	}
+
+	/**
+	 * 记录一个已完成评测的提交记录.
+	 */
+	public void onSubmissionCompleted() {
+		++ completedSubmissions;
+	}
+
+	/**
+	 * 获取因正在评测而被跳过的提交记录数量.
+	 * @return 被跳过的提交记录数量
+	 */
+	public long getSkippedSubmissions() {
+		return skippedSubmissions;
+	}
+
+	/**
+	 * 记录一个因正在评测而被跳过的提交记录.
+	 */
+	public void onSubmissionSkipped() {
+		++ skippedSubmissions;
+	}
+
+	/**
+	 * 获取评测超时(未收到评测结果)的提交记录数量.
+	 * @return 评测超时的提交记录数量
+	 */
+	public long getTimedOutSubmissions() {
+		return timedOutSubmissions;
+	}
+
+	/**
+	 * 记录一个评测超时的提交记录.
+	 */
+	public void onSubmissionTimedOut() {
+		++ timedOutSubmissions;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return String.format("RejudgeJob [JobId=%d, Status=%s, Total=%d, Enqueued=%d, Completed=%d, Skipped=%d, TimedOut=%d]",
+				new Object[] {jobId, status, totalSubmissions, enqueuedSubmissions,
+						completedSubmissions, skippedSubmissions, timedOutSubmissions});
+	}
+
+	/**
+	 * 重新评测任务的唯一标识符.
+	 */
+	private final long jobId;
+
+	/**
+	 * 重新评测任务的筛选条件描述.
+	 */
+	private final String description;
+
+	/**
+	 * 创建重新评测任务的用户名.
+	 */
+	private final String creator;
+
+	/**
+	 * 筛选条件: 提交记录唯一标识符的列表.
+	 */
+	private final List<Long> submissionIds;
+
+	/**
+	 * 筛选条件: 试题的唯一标识符.
+	 */
+	private final long problemId;
+
+	/**
+	 * 筛选条件: 提交时间的下界.
+	 */
+	private final String startTime;
+
+	/**
+	 * 筛选条件: 提交时间的上界.
+	 */
+	private final String endTime;
+
+	/**
+	 * 重新评测任务的创建时间.
+	 */
+	private final Date createTime;
+
+	/**
+	 * 重新评测任务的状态.
+	 */
+	private Status status;
+
+	/**
+	 * 需要重新评测的提交记录总数.
+	 */
+	private long totalSubmissions;
+
+	/**
+	 * 已加载的提交记录数量.
+	 */
+	private long loadedSubmissions;
+
+	/**
+	 * 最后加载的提交记录的唯一标识符.
+	 */
+	private long lastLoadedSubmissionId;
+
+	/**
+	 * 符合筛选条件的提交记录是否已全部加载.
+	 */
+	private boolean isAllSubmissionsLoaded;
+
+	/**
+	 * 已加入消息队列的提交记录数量.
+	 */
+	private long enqueuedSubmissions;
+
+	/**
+	 * 已完成评测的提交记录数量.
+	 */
+	private long completedSubmissions;
+
+	/**
+	 * 因正在评测而被跳过的提交记录数量.
+	 */
+	private long skippedSubmissions;
+
+	/**
+	 * 评测超时的提交记录数量.
+	 */
+	private long timedOutSubmissions;
+
+	/**
+	 * 已加载但尚未加入消息队列的提交记录的唯一标识符.
+	 */
+	private final Queue<Long> pendingSubmissions = new LinkedList<>();
+
+	/**
+	 * 待评测的提交记录所使用编程语言的唯一英文缩写.
+	 * Map中的Key表示提交记录的唯一标识符.
+	 */
+	private final Map<Long, String> languageSlugs = new HashMap<>();
+}
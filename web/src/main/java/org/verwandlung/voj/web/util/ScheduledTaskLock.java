@@ -0,0 +1,71 @@
+package org.verwandlung.voj.web.util;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import org.verwandlung.voj.web.mapper.ScheduledTaskLockMapper;
+
+/**
+ * 定时任务的锁.
+ * 用于保证部署多个Web节点时, 同一定时任务在一段时间内仅由一个Web节点执行.
+ * 锁保存在数据库中, 并在有效时间过后自动释放, 因此持有锁的Web节点退出后其他Web节点可以继续执行该任务.
+ * 
+ * @author Haozhe Xie
+ */
+@Component
+public class ScheduledTaskLock {
+	/**
+	 * 尝试获取定时任务的锁.
+	 * 锁在独立的事务中获取, 以免其他Web节点在定时任务执行期间等待行锁.
+	 * @param taskName - 定时任务的名称
+	 * @param leaseTime - 锁的有效时间(秒)
+	 * @return 是否获取了定时任务的锁
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public boolean tryLock(String taskName, int leaseTime) {
+		if ( scheduledTaskLockMapper.createScheduledTaskLock(taskName, NODE_ID, leaseTime) != 0 ) {
+			return true;
+		}
+		return scheduledTaskLockMapper.acquireScheduledTaskLock(taskName, NODE_ID, leaseTime) != 0;
+	}
+	
+	/**
+	 * 获取当前Web节点的唯一标识符.
+	 * 由主机名和随机生成的字符串组成, 以区分同一主机上的多个Web节点.
+	 * @return 当前Web节点的唯一标识符
+	 */
+	private static String getNodeId() {
+		String hostName = "localhost";
+		try {
+			hostName = InetAddress.getLocalHost().getHostName();
+		} catch ( UnknownHostException ex ) {
+			LOGGER.catching(ex);
+		}
+		return String.format("%s#%s", new Object[] { hostName, UUID.randomUUID().toString().substring(0, 8) });
+	}
+	
+	/**
+	 * 自动注入的ScheduledTaskLockMapper对象.
+	 * 用于获取定时任务的锁.
+	 */
+	@Autowired
+	private ScheduledTaskLockMapper scheduledTaskLockMapper;
+	
+	/**
+	 * 日志记录器.
+	 */
+	private static final Logger LOGGER = LogManager.getLogger(ScheduledTaskLock.class);
+	
+	/**
+	 * 当前Web节点的唯一标识符.
+	 */
+	private static final String NODE_ID = getNodeId();
+}
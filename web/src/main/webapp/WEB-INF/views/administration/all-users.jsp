@@ -113,26 +113,22 @@
                     </tbody>
                 </table>
                 <div id="pagination" class="pagination pagination-centered">
-                    <c:set var="lowerBound" value="${currentPage - 5 > 0 ? currentPage - 5 : 1}" />
-                    <c:set var="upperBound" value="${currentPage + 5 < totalPages ? currentPage + 5 : totalPages}" />
                     <c:set var="baseUrl" value="/administration/all-users?userGroup=${selectedUserGroup}&username=${username}" />
                     <ul>
-                        <li class="previous <c:if test="${currentPage <= 1}">disabled</c:if>">
+                        <li class="previous <c:if test="${empty previousCursor}">disabled</c:if>">
                         <a href="
                         <c:choose>
-                            <c:when test="${currentPage <= 1}">javascript:void(0);</c:when>
-                            <c:otherwise><c:url value="${baseUrl}&page=${currentPage - 1}" /></c:otherwise>
+                            <c:when test="${empty previousCursor}">javascript:void(0);</c:when>
+                            <c:otherwise><c:url value="${baseUrl}&page=${currentPage - 1}&cursor=${previousCursor}" /></c:otherwise>
                         </c:choose>
                         ">&lt;</a>
                         </li>
-                        <c:forEach begin="${lowerBound}" end="${upperBound}" var="pageNumber">
-                        <li <c:if test="${pageNumber == currentPage}">class="active"</c:if>><a href="<c:url value="${baseUrl}&page=${pageNumber}" />">${pageNumber}</a></li>
-                        </c:forEach>
-                        <li class="next <c:if test="${currentPage >= totalPages}">disabled</c:if>">
+                        <li class="active"><a href="javascript:void(0);">${currentPage} / ${totalPages}</a></li>
+                        <li class="next <c:if test="${empty nextCursor}">disabled</c:if>">
                         <a href="
                         <c:choose>
-                            <c:when test="${currentPage >= totalPages}">javascript:void(0);</c:when>
-                            <c:otherwise><c:url value="${baseUrl}&page=${currentPage + 1}" /></c:otherwise>
+                            <c:when test="${empty nextCursor}">javascript:void(0);</c:when>
+                            <c:otherwise><c:url value="${baseUrl}&page=${currentPage + 1}&cursor=${nextCursor}" /></c:otherwise>
                         </c:choose>
                         ">&gt;</a>
                         </li>
@@ -163,18 +163,17 @@
             $('span.datetime').html(getTimeElapsed($('span.datetime').html()));
 
             setLoadingStatus(true);
-            getDiscussionReplies(0);
+            getDiscussionReplies('');
         }); 
     </script>
     <script type="text/javascript">
         $('#more-discussion-replies').click(function() {
             var isLoading       = $('img', this).is(':visible'),
-                hasNextRecord   = $('p', this).hasClass('availble'),
-                numberOfReplies = $('.discussion-reply').length;
+                hasNextRecord   = $('p', this).hasClass('availble');
 
             if ( !isLoading && hasNextRecord ) {
                 setLoadingStatus(true);
-                return getDiscussionReplies(numberOfReplies);
+                return getDiscussionReplies(nextCursor);
             }
         });
     </script>
@@ -213,9 +212,11 @@
         }
     </script>
     <script type="text/javascript">
-        function getDiscussionReplies(startIndex) {
+        var nextCursor = '';
+
+        function getDiscussionReplies(cursor) {
             var pageRequests = {
-                'startIndex': startIndex
+                'cursor': cursor
             };
 
             $.ajax({
@@ -232,6 +233,7 @@
     <script type="text/javascript">
         function processDiscussionRepliesResult(result) {
             if ( result['isSuccessful'] ) {
+                nextCursor = result['nextCursor'];
                 displayDiscussionReplyRecords(result['discussionReplies']);
             } else {
                 $('p', '#more-discussion-replies').removeClass('availble');
@@ -198,19 +198,20 @@
     <script type="text/javascript">
         $('#more-discussion-threads').click(function() {
             var isLoading         = $('img', this).is(':visible'),
-                hasNextRecord     = $('p', this).hasClass('availble'),
-                numberOfThreads   = $('.discussion-thread').length;
+                hasNextRecord     = $('p', this).hasClass('availble');
 
             if ( !isLoading && hasNextRecord ) {
                 setLoadingStatus(true);
-                return getMoreDiscussionThreads(numberOfThreads);
+                return getMoreDiscussionThreads(nextCursor);
             }
         });
     </script>
     <script type="text/javascript">
-        function getMoreDiscussionThreads(startIndex) {
+        var nextCursor = '${nextCursor}';
+
+        function getMoreDiscussionThreads(cursor) {
             var pageRequests = {
-                'startIndex': startIndex,
+                'cursor': cursor,
                 'category': '${selectedTopicSlug}',
                 'problemId': ${problemId},
             };
@@ -229,6 +230,7 @@
     <script type="text/javascript">
         function processDiscussionThreadsResult(result) {
             if ( result['isSuccessful'] ) {
+                nextCursor = result['nextCursor'];
                 displayDiscussionThreadRecords(result['discussionThreads']);
             } else {
                 $('p', '#more-discussion-threads').removeClass('availble');
@@ -133,13 +133,13 @@
         function processResult(judgers) {
             for ( var i = 0; i < judgers.length; ++ i ) {
                 $('#judgers-list').append(
-                    getJudgerContent(judgers[i]['username'], judgers[i]['description'])
+                    getJudgerContent(judgers[i]['username'], judgers[i]['description'], judgers[i]['load'])
                 );
             }
         }
     </script>
     <script type="text/javascript">
-        function getJudgerContent(username, description) {
+        function getJudgerContent(username, description, load) {
             var judgerInfoTemplate = '<tr>' + 
                                      '    <td>%s</td>' +
                                      '    <td>%s</td>' +
@@ -147,6 +147,10 @@
 
             description = description.replace('[Online]', '<span class="online">[Online]</span>');
             description = description.replace('[Offline]', '<span class="offline">[Offline]</span>');
+            if ( load ) {
+                description += ' (<spring:message code="voj.misc.judgers.free-slots" text="Free Slots" />: %s, '.format(load['freeSlots']) +
+                               '<spring:message code="voj.misc.judgers.throughput" text="Throughput" />: %s/min)'.format(load['throughput'].toFixed(1));
+            }
             return judgerInfoTemplate.format(username, description);
         }
     </script>
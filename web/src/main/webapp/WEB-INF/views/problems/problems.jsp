@@ -42,6 +42,7 @@
     <%@ include file="/WEB-INF/views/include/header.jsp" %>
     <!-- Content -->
     <div id="content" class="container">
+        <c:if test="${empty keyword}">
         <div id="locator">
             <ul class="inline">
                 <li><spring:message code="voj.problems.problems.locator" text="Locator" />:</li>
@@ -50,6 +51,7 @@
                 </c:forEach>
             </ul>
         </div> <!-- #locator -->
+        </c:if>
         <div id="main-content" class="row-fluid">
             <div id="problems" class="span8">
                 <table class="table table-striped">
@@ -78,7 +80,14 @@
                                 </c:otherwise>
                             </c:choose>
                         </c:if>
-                            <td class="name"><a href="<c:url value="/p/${problem.problemId}" />">P${problem.problemId} ${problem.problemName}</a></td>
+                            <td class="name">
+                                <a href="<c:url value="/p/${problem.problemId}" />">P${problem.problemId}
+                                <c:choose>
+                                    <c:when test="${highlightedProblemNames[problem.problemId] != null}">${highlightedProblemNames[problem.problemId]}</c:when>
+                                    <c:otherwise>${problem.problemName}</c:otherwise>
+                                </c:choose>
+                                </a>
+                            </td>
                             <td>${problem.totalSubmission}</td>
                             <td>
                             <c:choose>
@@ -163,18 +172,20 @@
             var isLoading         = $('img', this).is(':visible'),
                 hasNextRecord     = $('p', this).hasClass('availble'),
                 lastProblemRecord = $('tr:last-child', '#problems tbody'),
-                lastProblemId     = parseInt($(lastProblemRecord).attr('data-value'));
+                lastProblemId     = parseInt($(lastProblemRecord).attr('data-value')),
+                numberOfProblems  = $('tr', '#problems tbody').length;
 
             if ( !isLoading && hasNextRecord ) {
                 setLoadingStatus(true);
-                return getMoreProblems(lastProblemId + 1);
+                return getMoreProblems(lastProblemId + 1, numberOfProblems);
             }
         });
     </script>
     <script type="text/javascript">
-        function getMoreProblems(startIndex) {
+        function getMoreProblems(startIndex, offset) {
             var pageRequests = {
                 'startIndex': startIndex,
+                'offset': offset,
                 'keyword': '${keyword}',
                 'category': '${selectedCategorySlug}'
             };
@@ -193,7 +204,7 @@
     <script type="text/javascript">
         function processProblemsResult(result) {
             if ( result['isSuccessful'] ) {
-                displayProblemsRecords(result['problems'], result['submissionOfProblems']);
+                displayProblemsRecords(result['problems'], result['submissionOfProblems'], result['highlightedProblemNames']);
             } else {
                 $('p', '#more-problems').removeClass('availble');
                 $('p', '#more-problems').html('<spring:message code="voj.problems.problems.no-more-problem" text="No more problem" />');
@@ -203,10 +214,13 @@
         }
     </script>
     <script type="text/javascript">
-        function displayProblemsRecords(problems, submissionOfProblems) {
+        function displayProblemsRecords(problems, submissionOfProblems, highlightedProblemNames) {
             for ( var i = 0; i < problems.length; ++ i ) {
+                var problemId   = problems[i]['problemId'],
+                    problemName = highlightedProblemNames[problemId] || problems[i]['problemName'];
+
                 $('table > tbody', '#problems').append(
-                    getProblemContent(problems[i]['problemId'], problems[i]['problemName'], 
+                    getProblemContent(problemId, problemName, 
                                       problems[i]['totalSubmission'], problems[i]['acceptedSubmission'], submissionOfProblems)
                 );
             }
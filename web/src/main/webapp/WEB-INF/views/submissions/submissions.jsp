@@ -89,12 +89,50 @@
     <script type="text/javascript" src="${cdnUrl}/js/site.js"></script>
     <script type="text/javascript" src="${cdnUrl}/js/date-${language}.min.js"></script>
     <script type="text/javascript">
-        setInterval(function() {
-            var firstSubmissionRecord = $('tr:first-child', '#submission tbody'),
-                firstSubmissionId     = parseInt($(firstSubmissionRecord).attr('data-value'));
-            
-            getLatestSubmissions(firstSubmissionId + 1);
-        }, 10000);
+        $(function() {
+            if ( !window.EventSource ) {
+                return setInterval(function() {
+                    var firstSubmissionRecord = $('tr:first-child', '#submission tbody'),
+                        firstSubmissionId     = parseInt($(firstSubmissionRecord).attr('data-value'));
+                    
+                    getLatestSubmissions(firstSubmissionId + 1);
+                }, 10000);
+            }
+            var subscriptionUrl = '<c:url value="/submission/getSubmissionFeed.action" />?' + $.param({
+                    'problemId': '${param.problemId}',
+                    'username': '${param.username}',
+                    'lastEventId': '${lastEventId}'
+                }),
+                source          = new EventSource(subscriptionUrl);
+
+            source.onmessage    = function(e) {
+                displayRealTimeSubmissionRecord(JSON.parse(e['data']));
+            };
+            source.addEventListener('reset', function() {
+                var firstSubmissionRecord = $('tr:first-child', '#submission tbody'),
+                    firstSubmissionId     = parseInt($(firstSubmissionRecord).attr('data-value'));
+                
+                getLatestSubmissions(isNaN(firstSubmissionId) ? 0 : firstSubmissionId + 1);
+            });
+        });
+    </script>
+    <script type="text/javascript">
+        function displayRealTimeSubmissionRecord(submission) {
+            var submissionId          = submission['submissionId'],
+                submissionRecord      = $('tr[data-value="%s"]'.format(submissionId), '#submission tbody'),
+                firstSubmissionRecord = $('tr:first-child', '#submission tbody'),
+                firstSubmissionId     = parseInt($(firstSubmissionRecord).attr('data-value')),
+                submissionContent     = getSubmissionContent(submissionId, submission['judgeResult'], 
+                                            submission['judgeScore'], submission['usedTime'], 
+                                            submission['usedMemory'], submission['problem'], 
+                                            submission['user'], submission['language'], submission['submitTime']);
+
+            if ( submissionRecord.length > 0 ) {
+                $(submissionRecord).replaceWith(submissionContent);
+            } else if ( isNaN(firstSubmissionId) || submissionId > firstSubmissionId ) {
+                $('table > tbody', '#submission').prepend(submissionContent);
+            }
+        }
     </script>
     <script type="text/javascript">
         function getLatestSubmissions(startIndex) {
@@ -64,13 +64,13 @@ public class ContestContestantMapperTest {
 	}
 
 	/**
-	 * 测试用例: 测试getContestantsOfContestForOi(long, long ,int)方法.
-	 * 测试数据: ContestID = 1, offset = 0, limit = 2
-	 * 预期结果: 返回第1场考试的从0开始的2个参赛者.
+	 * 测试用例: 测试getContestantsOfContestForOi(long, long, long, long, int)方法.
+	 * 测试数据: ContestID = 1, 从第一页开始, limit = 2
+	 * 预期结果: 返回第1场考试的前2个参赛者.
 	 */
 	@Test
 	public void testGetContestantsOfFirstContestForOiFrom0WithLimit2() {
-		List<ContestContestant> contestants = contestContestantMapper.getContestantsOfContestForOi(1, 0, 2);
+		List<ContestContestant> contestants = contestContestantMapper.getContestantsOfContestForOi(1, 0, 0, 0, 2);
 		Assert.assertEquals(2, contestants.size());
 
 		ContestContestant firstContestant = contestants.get(0);
@@ -84,13 +84,27 @@ public class ContestContestantMapperTest {
 	}
 
 	/**
-	 * 测试用例: 测试getContestantsOfContestForOi(long, long ,int)方法.
-	 * 测试数据: ContestID = 2, offset = 0, limit = 1
-	 * 预期结果: 返回第2场考试的从0开始的1个参赛者.
+	 * 测试用例: 测试getContestantsOfContestForOi(long, long, long, long, int)方法.
+	 * 测试数据: ContestID = 1, 从第1名参赛者(Score = 100, Time = 30, UID = 1000)之后开始, limit = 2
+	 * 预期结果: 返回第1场考试的第2名参赛者.
+	 */
+	@Test
+	public void testGetContestantsOfFirstContestForOiAfterFirstContestant() {
+		List<ContestContestant> contestants = contestContestantMapper.getContestantsOfContestForOi(1, 100, 30, 1000, 2);
+		Assert.assertEquals(1, contestants.size());
+
+		long uidOfContestant = contestants.get(0).getContestant().getUid();
+		Assert.assertEquals(1001, uidOfContestant);
+	}
+
+	/**
+	 * 测试用例: 测试getContestantsOfContestForOi(long, long, long, long, int)方法.
+	 * 测试数据: ContestID = 2, 从第一页开始, limit = 1
+	 * 预期结果: 返回第2场考试的第1个参赛者.
 	 */
 	@Test
 	public void testGetContestantsOfSecondContestForOiFrom1WithLimit1() {
-		List<ContestContestant> contestants = contestContestantMapper.getContestantsOfContestForOi(2, 0, 1);
+		List<ContestContestant> contestants = contestContestantMapper.getContestantsOfContestForOi(2, 0, 0, 0, 1);
 		Assert.assertEquals(1, contestants.size());
 
 		ContestContestant firstContestant = contestants.get(0);
@@ -172,6 +186,37 @@ public class ContestContestantMapperTest {
 		Assert.assertEquals("Test Code Snippet", codeSnippet);
 	}
 
+	/**
+	 * 测试用例: 测试updateContestContestantScore(ContestContestant).
+	 * 测试数据: ContestID = 1, UserID = 1001, Score = 200, Time = 60
+	 * 预期结果: 参赛者的得分和用时被更新, 且排名发生变化.
+	 */
+	@Test
+	public void testUpdateContestContestantScoreNormally() {
+		ContestContestant cc = contestContestantMapper.getContestantOfContest(1, 1001);
+		cc.setScore(200);
+		cc.setTime(60);
+
+		int numberOfRowsAffected = contestContestantMapper.updateContestContestantScore(cc);
+		Assert.assertEquals(1, numberOfRowsAffected);
+
+		List<ContestContestant> contestants = contestContestantMapper.getContestantsOfContestForOi(1, 0, 0, 0, 2);
+		Assert.assertEquals(1001, contestants.get(0).getContestant().getUid());
+		Assert.assertEquals(200, contestants.get(0).getScore());
+		Assert.assertEquals(60, contestants.get(0).getTime());
+	}
+
+	/**
+	 * 测试用例: 测试getContestantsOfContest(long)方法.
+	 * 测试数据: ContestID = 1
+	 * 预期结果: 返回第1场考试的全部参赛者.
+	 */
+	@Test
+	public void testGetContestantsOfContest() {
+		List<ContestContestant> contestants = contestContestantMapper.getContestantsOfContest(1);
+		Assert.assertEquals(2, contestants.size());
+	}
+
 	/**
 	 * 测试用例: deleteContestContestant(long, long)
 	 * 测试数据: ContestID = 2, UserID = 1000
@@ -8,6 +8,7 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.transaction.annotation.Transactional;
 import org.verwandlung.voj.web.model.Contest;
+import org.verwandlung.voj.web.model.Submission;
 
 import java.util.Calendar;
 import java.util.Date;
@@ -99,6 +100,97 @@ public class ContestMapperTest {
 		Assert.assertNull(contest);
 	}
 
+	/**
+	 * 测试用例: 测试getContestsRunningBetween(Date, Date)方法.
+	 * 测试数据: 2016年5月7日21:00至2016年5月8日20:30之间
+	 * 预期结果: 返回考试对象2和考试对象3
+	 */
+	@Test
+	public void testGetContestsRunningBetween() {
+		Calendar calendar = Calendar.getInstance();
+		calendar.set(2016, Calendar.MAY, 7, 21, 0, 0);
+		Date startTime = calendar.getTime();
+		calendar.set(2016, Calendar.MAY, 8, 20, 30, 0);
+		Date endTime = calendar.getTime();
+
+		List<Contest> contests = contestMapper.getContestsRunningBetween(startTime, endTime);
+		Assert.assertEquals(2, contests.size());
+	}
+
+	/**
+	 * 测试用例: 测试getContestsRunningBetween(Date, Date)方法.
+	 * 测试数据: 当前时间
+	 * 预期结果: 所有考试均已结束, 返回[]形式的List
+	 */
+	@Test
+	public void testGetContestsRunningBetweenWithoutRunningContests() {
+		Date currentTime = new Date();
+		List<Contest> contests = contestMapper.getContestsRunningBetween(currentTime, currentTime);
+		Assert.assertEquals(0, contests.size());
+	}
+
+	/**
+	 * 测试用例: 测试getContestsUsingId(long)方法.
+	 * 测试数据: 启用封榜的考试(ContestID = 2)和未启用封榜的考试(ContestID = 1)
+	 * 预期结果: 返回的考试对象包含正确的封榜设置
+	 */
+	@Test
+	public void testGetContestUsingIdWithScoreboardFreezable() {
+		Assert.assertTrue(contestMapper.getContestsUsingId(2).isScoreboardFreezable());
+		Assert.assertFalse(contestMapper.getContestsUsingId(1).isScoreboardFreezable());
+	}
+
+	/**
+	 * 测试用例: 测试getContestsStartingBetween(Date, Date)方法.
+	 * 测试数据: 2016年5月7日至2016年5月8日20:00之间
+	 * 预期结果: 返回[考试对象2, 考试对象3]形式的List
+	 */
+	@Test
+	public void testGetContestsStartingBetween() {
+		Calendar calendar = Calendar.getInstance();
+		calendar.set(2016, Calendar.MAY, 7, 0, 0, 0);
+		Date startTime = calendar.getTime();
+		calendar.set(2016, Calendar.MAY, 8, 20, 0, 0);
+		Date endTime = calendar.getTime();
+
+		List<Contest> contests = contestMapper.getContestsStartingBetween(startTime, endTime);
+		Assert.assertEquals(2, contests.size());
+		Assert.assertEquals(2, contests.get(0).getContestId());
+		Assert.assertEquals(3, contests.get(1).getContestId());
+	}
+
+	/**
+	 * 测试用例: 测试getSubmissionsOfContest(long)方法.
+	 * 测试数据: ContestID = 1
+	 * 预期结果: 按提交顺序返回第1场考试的提交记录[1000, 1002]
+	 */
+	@Test
+	public void testGetSubmissionsOfContest() {
+		List<Submission> submissions = contestMapper.getSubmissionsOfContest(1);
+		Assert.assertEquals(2, submissions.size());
+
+		Submission firstSubmission = submissions.get(0);
+		Assert.assertEquals(1000, firstSubmission.getSubmissionId());
+		Assert.assertEquals("zjhzxhz", firstSubmission.getUser().getUsername());
+		Assert.assertEquals("AC", firstSubmission.getJudgeResult().getJudgeResultSlug());
+		Assert.assertEquals(1002, submissions.get(1).getSubmissionId());
+	}
+
+	/**
+	 * 测试用例: 测试createContestSubmission(long, long)方法.
+	 * 测试数据: ContestID = 2, SubmissionID = 1003
+	 * 预期结果: 第2场考试的提交记录中包含该提交记录
+	 */
+	@Test
+	public void testCreateContestSubmissionNormally() {
+		int numberOfRowsAffected = contestMapper.createContestSubmission(2, 1003);
+		Assert.assertEquals(1, numberOfRowsAffected);
+
+		List<Submission> submissions = contestMapper.getSubmissionsOfContest(2);
+		Assert.assertEquals(1, submissions.size());
+		Assert.assertEquals(1003, submissions.get(0).getSubmissionId());
+	}
+
 	/**
 	 * 测试用例: 测试createContest(Contest)方法.
 	 * 测试数据: 包含正常数据值的Contest对象
@@ -8,9 +8,10 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.transaction.annotation.Transactional;
 import org.verwandlung.voj.web.model.DiscussionReply;
+import org.verwandlung.voj.web.model.DiscussionReplyVote;
 import org.verwandlung.voj.web.model.User;
 
-import java.util.Date;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -24,11 +25,11 @@ import java.util.List;
 public class DiscussionReplyMapperTest {
 	/**
 	 * 测试用例: 测试getDiscussionRepliesUsingThreadId(long, long, int)方法.
-	 * 测试数据: ThreadId: 2, Offset: 0, Limit: 2
+	 * 测试数据: ThreadId: 2, DiscussionReplyId: 0, Limit: 2
 	 * 预期结果: 返回第二个讨论帖子的前2条评论
 	 */
 	@Test
-	public void testGetDiscussionRepliesOfThread2WithOffsetFrom0WithLimit2() {
+	public void testGetDiscussionRepliesOfThread2From0WithLimit2() {
 		List<DiscussionReply> discussionReplies = discussionReplyMapper.getDiscussionRepliesUsingThreadId(2, 0, 2);
 		Assert.assertEquals(2, discussionReplies.size());
 
@@ -42,12 +43,12 @@ public class DiscussionReplyMapperTest {
 
 	/**
 	 * 测试用例: 测试getDiscussionRepliesUsingThreadId(long, long, int)方法.
-	 * 测试数据: ThreadId: 2, Offset: 1, Limit: 1
+	 * 测试数据: ThreadId: 2, DiscussionReplyId: 2(第1条评论), Limit: 1
 	 * 预期结果: 返回第二个讨论帖子的第2条评论
 	 */
 	@Test
-	public void testGetDiscussionRepliesOfThread2WithOffsetFrom1WithLimit1() {
-		List<DiscussionReply> discussionReplies = discussionReplyMapper.getDiscussionRepliesUsingThreadId(2, 1, 1);
+	public void testGetDiscussionRepliesOfThread2After2WithLimit1() {
+		List<DiscussionReply> discussionReplies = discussionReplyMapper.getDiscussionRepliesUsingThreadId(2, 2, 1);
 		Assert.assertEquals(1, discussionReplies.size());
 
 		DiscussionReply firstDiscussionReply = discussionReplies.get(0);
@@ -69,7 +70,7 @@ public class DiscussionReplyMapperTest {
 		User creator = userMapper.getUserUsingUid(1000);
 		Assert.assertNotNull(creator);
 
-		DiscussionReply discussionReply = new DiscussionReply(threadId, creator, "Content", "{}");
+		DiscussionReply discussionReply = new DiscussionReply(threadId, creator, "Content");
 		int numberOfRowsAffected = discussionReplyMapper.createDiscussionReply(discussionReply);
 		Assert.assertEquals(1, numberOfRowsAffected);
 	}
@@ -84,7 +85,7 @@ public class DiscussionReplyMapperTest {
 		long threadId = 1;
 		User creator = new User(); creator.setUid(0);
 
-		DiscussionReply discussionReply = new DiscussionReply(threadId, creator, "Content", "{}");
+		DiscussionReply discussionReply = new DiscussionReply(threadId, creator, "Content");
 		discussionReplyMapper.createDiscussionReply(discussionReply);
 	}
 
@@ -126,6 +127,75 @@ public class DiscussionReplyMapperTest {
 		Assert.assertEquals(0, numberOfRowsAffected);
 	}
 
+	/**
+	 * 测试用例: 测试getDiscussionReplyVotesOfUser(long, List)方法.
+	 * 测试数据: 用户1000对讨论回复1, 2, 3的投票
+	 * 预期结果: 返回用户1000对讨论回复1和2的赞
+	 */
+	@Test
+	public void testGetDiscussionReplyVotesOfUser1000() {
+		List<DiscussionReplyVote> votes = discussionReplyMapper.getDiscussionReplyVotesOfUser(1000, Arrays.asList(1L, 2L, 3L));
+		Assert.assertEquals(2, votes.size());
+
+		DiscussionReplyVote firstVote = votes.get(0);
+		Assert.assertEquals(1000, firstVote.getVoterUid());
+		Assert.assertEquals(1, firstVote.getVote());
+	}
+
+	/**
+	 * 测试用例: 测试createDiscussionReplyVote(long, long, int)方法.
+	 * 测试数据: 用户1001对讨论回复1投票两次
+	 * 预期结果: 第一次投票成功, 第二次投票不影响数据表中的数据
+	 */
+	@Test
+	public void testCreateDiscussionReplyVoteTwice() {
+		Assert.assertEquals(1, discussionReplyMapper.createDiscussionReplyVote(1, 1001, 1));
+		Assert.assertEquals(0, discussionReplyMapper.createDiscussionReplyVote(1, 1001, -1));
+	}
+
+	/**
+	 * 测试用例: 测试deleteDiscussionReplyVote(long, long, int)方法.
+	 * 测试数据: 删除用户1000对讨论回复1的踩和赞(用户1000赞了该回复)
+	 * 预期结果: 仅删除赞时影响数据表中的数据
+	 */
+	@Test
+	public void testDeleteDiscussionReplyVote() {
+		Assert.assertEquals(0, discussionReplyMapper.deleteDiscussionReplyVote(1, 1000, -1));
+		Assert.assertEquals(1, discussionReplyMapper.deleteDiscussionReplyVote(1, 1000, 1));
+	}
+
+	/**
+	 * 测试用例: 测试updateDiscussionReplyVoteCounters(long, int, int)方法.
+	 * 测试数据: 讨论回复1的被赞次数加1, 被踩次数减1
+	 * 预期结果: 讨论回复1的被赞次数为2, 被踩次数为0
+	 */
+	@Test
+	public void testUpdateDiscussionReplyVoteCounters() {
+		int numberOfRowsAffected = discussionReplyMapper.updateDiscussionReplyVoteCounters(1, 1, -1);
+		Assert.assertEquals(1, numberOfRowsAffected);
+
+		DiscussionReply discussionReply = discussionReplyMapper.getDiscussionReplyUsingReplyId(1);
+		Assert.assertEquals(2, discussionReply.getNumberOfVoteUp());
+		Assert.assertEquals(0, discussionReply.getNumberOfVoteDown());
+	}
+
+	/**
+	 * 测试用例: 测试updateDiscussionReplyVoteCountersUsingVoterUid(long)方法.
+	 * 测试数据: 扣除用户1002的投票(对讨论回复1投反对票)后删除该用户
+	 * 预期结果: 讨论回复1的被赞次数为1, 被踩次数为0, 且该用户的投票被级联删除
+	 */
+	@Test
+	public void testUpdateDiscussionReplyVoteCountersUsingVoterUid() {
+		int numberOfRowsAffected = discussionReplyMapper.updateDiscussionReplyVoteCountersUsingVoterUid(1002);
+		Assert.assertEquals(1, numberOfRowsAffected);
+		userMapper.deleteUser(1002);
+
+		DiscussionReply discussionReply = discussionReplyMapper.getDiscussionReplyUsingReplyId(1);
+		Assert.assertEquals(1, discussionReply.getNumberOfVoteUp());
+		Assert.assertEquals(0, discussionReply.getNumberOfVoteDown());
+		Assert.assertTrue(discussionReplyMapper.getDiscussionReplyVotesOfUser(1002, Arrays.asList(1L)).isEmpty());
+	}
+
 	/**
 	 * 待测试的DiscussionReplyMapper对象.
 	 */
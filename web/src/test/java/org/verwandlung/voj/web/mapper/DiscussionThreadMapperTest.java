@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.transaction.annotation.Transactional;
+import org.verwandlung.voj.web.model.DiscussionReply;
 import org.verwandlung.voj.web.model.DiscussionThread;
 import org.verwandlung.voj.web.model.DiscussionTopic;
 import org.verwandlung.voj.web.model.Problem;
@@ -25,13 +26,13 @@ import java.util.List;
 @ContextConfiguration({"classpath:test-spring-context.xml"})
 public class DiscussionThreadMapperTest {
 	/**
-	 * 测试用例: 测试getDiscussionThreads(long, int, long, int)方法
+	 * 测试用例: 测试getDiscussionThreads(long, int, long, long, int)方法
 	 * 测试数据: Problem: A+B Problem, DiscussionTopic: null, 获取除前2条数据
 	 * 预期结果: 返回最新创建的2个DiscussionThread
 	 */
 	@Test
 	public void testGetDiscussionThreadsOfProblem1000WithOffsetFrom0WithLimit2() {
-		List<DiscussionThread> discussionThreads = discussionThreadMapper.getDiscussionThreads(1000, 0, 0, 2);
+		List<DiscussionThread> discussionThreads = discussionThreadMapper.getDiscussionThreads(1000, 0, Long.MAX_VALUE, Long.MAX_VALUE, 2);
 		Assert.assertEquals(2, discussionThreads.size());
 
 		DiscussionThread firstThread = discussionThreads.get(0);
@@ -48,13 +49,13 @@ public class DiscussionThreadMapperTest {
 	}
 
 	/**
-	 * 测试用例: 测试getDiscussionThreads(long, int, long, int)方法
+	 * 测试用例: 测试getDiscussionThreads(long, int, long, long, int)方法
 	 * 测试数据: Problem: null, DiscussionTopic: General, 获取除第1条数据
 	 * 预期结果: 返回最新创建的1个DiscussionThread
 	 */
 	@Test
 	public void testGetDiscussionThreadsOfNoRelatedProblemWithOffsetFrom0WithLimit1() {
-		List<DiscussionThread> discussionThreads = discussionThreadMapper.getDiscussionThreads(0, 1, 0, 1);
+		List<DiscussionThread> discussionThreads = discussionThreadMapper.getDiscussionThreads(0, 1, Long.MAX_VALUE, Long.MAX_VALUE, 1);
 		DiscussionThread thread = discussionThreads.get(0);
 		Assert.assertNotNull(thread);
 
@@ -62,6 +63,22 @@ public class DiscussionThreadMapperTest {
 		Assert.assertEquals("Thread #1", threadTitle);
 	}
 
+	/**
+	 * 测试用例: 测试getDiscussionThreads(long, int, long, long, int)方法
+	 * 测试数据: Problem: null, DiscussionTopic: General, 从Thread #1之后开始获取
+	 * 预期结果: 返回没有回复的Thread #3
+	 */
+	@Test
+	public void testGetDiscussionThreadsOfNoRelatedProblemAfterThread1() {
+		List<DiscussionThread> discussionThreads = discussionThreadMapper.getDiscussionThreads(0, 1, 1, 1, 10);
+		Assert.assertEquals(1, discussionThreads.size());
+
+		DiscussionThread thread = discussionThreads.get(0);
+		Assert.assertEquals("Thread #3", thread.getDiscussionThreadTitle());
+		Assert.assertEquals(0, thread.getNumberOfReplies());
+		Assert.assertNull(thread.getLatestDiscussionReply());
+	}
+
 	/**
 	 * 测试用例: 测试getSolutionThreadOfProblem(long)方法.
 	 * 测试数据: Problem: A+B Problem
@@ -89,6 +106,10 @@ public class DiscussionThreadMapperTest {
 
 		long numberOfReplies = thread.getNumberOfReplies();
 		Assert.assertEquals(2, numberOfReplies);
+
+		DiscussionReply latestDiscussionReply = thread.getLatestDiscussionReply();
+		Assert.assertEquals(3, latestDiscussionReply.getDiscussionReplyId());
+		Assert.assertEquals(1001, latestDiscussionReply.getDiscussionReplyCreator().getUid());
 	}
 
 	/**
@@ -224,6 +245,60 @@ public class DiscussionThreadMapperTest {
 		discussionThreadMapper.updateDiscussionThread(thread);
 	}
 
+	/**
+	 * 测试用例: 测试updateDiscussionThreadActivityOfNewReply(DiscussionReply)方法
+	 * 测试数据: 在Thread #3中创建讨论回复
+	 * 预期结果: 讨论帖子的回复数量增加1, 最新回复为新创建的回复, 且该讨论帖子排在最前
+	 */
+	@Test
+	public void testUpdateDiscussionThreadActivityOfNewReply() {
+		User creator = userMapper.getUserUsingUid(1002);
+		DiscussionReply reply = new DiscussionReply(3, creator, "Reply content for thread #3");
+		discussionReplyMapper.createDiscussionReply(reply);
+
+		int numberOfRowsAffected = discussionThreadMapper.updateDiscussionThreadActivityOfNewReply(reply);
+		Assert.assertEquals(1, numberOfRowsAffected);
+
+		DiscussionThread thread = discussionThreadMapper.getDiscussionThreadUsingThreadId(3);
+		Assert.assertEquals(1, thread.getNumberOfReplies());
+		Assert.assertEquals(reply.getDiscussionReplyId(), thread.getLatestDiscussionReply().getDiscussionReplyId());
+		Assert.assertEquals(1002, thread.getLatestDiscussionReply().getDiscussionReplyCreator().getUid());
+
+		List<DiscussionThread> discussionThreads = discussionThreadMapper.getDiscussionThreads(0, 1, Long.MAX_VALUE, Long.MAX_VALUE, 1);
+		Assert.assertEquals("Thread #3", discussionThreads.get(0).getDiscussionThreadTitle());
+	}
+
+	/**
+	 * 测试用例: 测试refreshDiscussionThreadActivity(long)方法
+	 * 测试数据: 删除Thread #2的最新回复
+	 * 预期结果: 讨论帖子的回复数量减少1, 最新回复变为前一条回复
+	 */
+	@Test
+	public void testRefreshDiscussionThreadActivityAfterReplyDeleted() {
+		discussionReplyMapper.deleteDiscussionReplyUsingReplyId(3);
+
+		int numberOfRowsAffected = discussionThreadMapper.refreshDiscussionThreadActivity(2);
+		Assert.assertEquals(1, numberOfRowsAffected);
+
+		DiscussionThread thread = discussionThreadMapper.getDiscussionThreadUsingThreadId(2);
+		Assert.assertEquals(1, thread.getNumberOfReplies());
+		Assert.assertEquals(2, thread.getLatestDiscussionReply().getDiscussionReplyId());
+		Assert.assertEquals(1002, thread.getLatestDiscussionReply().getDiscussionReplyCreator().getUid());
+	}
+
+	/**
+	 * 测试用例: 测试getDiscussionThreadIdsOfReplyCreator(long)方法
+	 * 测试数据: 回复过Thread #1和Thread #2的用户
+	 * 预期结果: 返回Thread #1和Thread #2的唯一标识符
+	 */
+	@Test
+	public void testGetDiscussionThreadIdsOfReplyCreator() {
+		List<Long> discussionThreadIds = discussionThreadMapper.getDiscussionThreadIdsOfReplyCreator(1001);
+		Assert.assertEquals(2, discussionThreadIds.size());
+		Assert.assertTrue(discussionThreadIds.contains(1L));
+		Assert.assertTrue(discussionThreadIds.contains(2L));
+	}
+
 	/**
 	 * 测试用例: 测试getDiscussionThreadUsingThreadId(long)方法
 	 * 测试数据: 存在的讨论帖子唯一标识符
@@ -261,6 +336,12 @@ public class DiscussionThreadMapperTest {
 	@Autowired
 	private DiscussionThreadMapper discussionThreadMapper;
 
+	/**
+	 * 用于构建测试用例的DiscussionReplyMapper对象.
+	 */
+	@Autowired
+	private DiscussionReplyMapper discussionReplyMapper;
+
 	/**
 	 * 用于构建测试用例的UserMapper对象.
 	 */
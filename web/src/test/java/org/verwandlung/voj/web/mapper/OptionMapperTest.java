@@ -39,6 +39,19 @@ public class OptionMapperTest {
 		Assert.assertEquals("websiteName", optionName);
 	}
 	
+	/**
+	 * 测试用例: 测试getLatestOptions()方法
+	 * 测试数据: N/a
+	 * 预期结果: 返回与getOptions()方法相同的系统选项列表
+	 */
+	@Test
+	public void testGetLatestOptions() {
+		List<Option> cachedOptions = optionMapper.getOptions();
+		List<Option> options = optionMapper.getLatestOptions();
+		Assert.assertEquals(cachedOptions.size(), options.size());
+		Assert.assertEquals("websiteName", options.get(0).getOptionName());
+	}
+	
 	/**
 	 * 测试用例: 测试getOption(String)方法
 	 * 测试数据: 使用存在的选项名称
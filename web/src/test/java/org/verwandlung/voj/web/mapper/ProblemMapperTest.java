@@ -1,5 +1,6 @@
 package org.verwandlung.voj.web.mapper;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Assert;
@@ -32,7 +33,7 @@ public class ProblemMapperTest {
 	}
 	
 	/**
-	 * 测试用例: 测试getNumberOfProblemsUsingFilters(String, int, boolean)方法
+	 * 测试用例: 测试getNumberOfProblemsUsingFilters(List, int, boolean)方法
 	 * 测试数据: N/a
 	 * 预期结果: 返回数据表中公开试题的数量
 	 */
@@ -64,28 +65,6 @@ public class ProblemMapperTest {
 		Assert.assertEquals(1003, upperBoundOfProblems);
 	}
 
-	/**
-	 * 测试用例: 测试getUpperBoundOfProblemsWithLimit(boolean, long, int)方法
-	 * 测试数据: 获取ID从1000起始的3道试题
-	 * 预期结果: 最后一题的ID为1002
-	 */
-	@Test
-	public void testGetUpperBoundOfProblemsWithOffsetFrom1000WithLimit3() {
-		long upperBoundOfProblems = problemMapper.getUpperBoundOfProblemsWithLimit(false, 1000, 3);
-		Assert.assertEquals(1002, upperBoundOfProblems);
-	}
-
-	/**
-	 * 测试用例: 测试getUpperBoundOfProblemsWithLimit(boolean, long, int)方法
-	 * 测试数据: 获取ID从1000起始的3道公开试题
-	 * 预期结果: 最后一题的ID为1003
-	 */
-	@Test
-	public void testGetUpperBoundOfPublicProblemsWithOffsetFrom1000WithLimit3() {
-		long upperBoundOfProblems = problemMapper.getUpperBoundOfProblemsWithLimit(true, 1000, 3);
-		Assert.assertEquals(1003, upperBoundOfProblems);
-	}
-
 	/**
 	 * 测试用例: 测试getProblem()方法
 	 * 测试数据: 使用A+B Problem的试题唯一标识符
@@ -115,7 +94,19 @@ public class ProblemMapperTest {
 	}
 	
 	/**
-	 * 测试用例: 测试getProblemsUsingFilters(String, int, boolean, long, int)方法
+	 * 测试用例: 测试getLatestProblem()方法
+	 * 测试数据: 使用A+B Problem的试题唯一标识符
+	 * 预期结果: 返回预期的试题对象
+	 */
+	@Test
+	public void testGetLatestProblemExists() {
+		Problem problem = problemMapper.getLatestProblem(1000);
+		Assert.assertNotNull(problem);
+		Assert.assertEquals("A+B Problem", problem.getProblemName());
+	}
+	
+	/**
+	 * 测试用例: 测试getProblemsUsingFilters(List, int, long, boolean, long, int)方法
 	 * 测试数据: 获取ID从1000起始的10道试题
 	 * 预期结果: 返回预期的试题列表(共2题)
 	 */
@@ -136,13 +127,13 @@ public class ProblemMapperTest {
 	}
 	
 	/**
-	 * 测试用例: 测试getProblemsUsingFilters(String, int, boolean, long, int)方法
+	 * 测试用例: 测试getProblemsUsingFilters(List, int, long, boolean, long, int)方法
 	 * 测试数据: 获取ID从1001起始的1道试题
 	 * 预期结果: 返回预期的试题列表(共1题)
 	 */
 	@Test
 	public void testGetProblemsFrom1001WithLimit1() {
-		List<Problem> problems = problemMapper.getProblemsUsingFilters("", 0, 0, true, 1001, 1);
+		List<Problem> problems = problemMapper.getProblemsUsingFilters(null, 0, 0, true, 1001, 1);
 		Assert.assertEquals(1, problems.size());
 		
 		Problem firstProblem = problems.get(0);
@@ -154,7 +145,7 @@ public class ProblemMapperTest {
 	}
 	
 	/**
-	 * 测试用例: 测试getProblemsUsingFilters(String, int, boolean, long, int)方法
+	 * 测试用例: 测试getProblemsUsingFilters(List, int, long, boolean, long, int)方法
 	 * 测试数据: 获取ID从1010起始的10道试题
 	 * 预期结果: 返回空的试题列表
 	 */
@@ -164,6 +155,47 @@ public class ProblemMapperTest {
 		Assert.assertEquals(0, problems.size());
 	}
 	
+	/**
+	 * 测试用例: 测试getProblemsUsingFilters(List, int, long, boolean, long, int)方法
+	 * 测试数据: 全文检索命中的试题为1001和1002, 获取ID从1000起始的10道公开试题
+	 * 预期结果: 返回预期的试题列表(仅包含试题1001)
+	 */
+	@Test
+	public void testGetProblemsUsingProblemIds() {
+		List<Problem> problems = problemMapper.getProblemsUsingFilters(Arrays.asList(1001L, 1002L), 0, 0, true, 1000, 10);
+		Assert.assertEquals(1, problems.size());
+		
+		long problemId = problems.get(0).getProblemId();
+		Assert.assertEquals(1001, problemId);
+	}
+	
+	/**
+	 * 测试用例: 测试getProblemsUsingIds(List)方法
+	 * 测试数据: 试题1000和1002的唯一标识符
+	 * 预期结果: 返回预期的试题列表(共2题)
+	 */
+	@Test
+	public void testGetProblemsUsingIds() {
+		List<Problem> problems = problemMapper.getProblemsUsingIds(Arrays.asList(1002L, 1000L));
+		Assert.assertEquals(2, problems.size());
+	}
+	
+	/**
+	 * 测试用例: 测试getPreviousProblemsUsingFilters(List, int, long, boolean, long, int)方法
+	 * 测试数据: 获取ID为1003的试题之前的10道公开试题
+	 * 预期结果: 返回预期的试题列表(共2题, 按试题唯一标识符降序排列)
+	 */
+	@Test
+	public void testGetPreviousProblemsBefore1003WithLimit10() {
+		List<Problem> problems = problemMapper.getPreviousProblemsUsingFilters(null, 0, 0, true, 1003, 10);
+		Assert.assertEquals(2, problems.size());
+		
+		long firstProblemId = problems.get(0).getProblemId();
+		Assert.assertEquals(1001, firstProblemId);
+		long lastProblemId = problems.get(1).getProblemId();
+		Assert.assertEquals(1000, lastProblemId);
+	}
+	
 	/**
 	 * 测试用例: 测试createProblem(Problem)方法
 	 * 测试数据: 使用合法的数据集
@@ -218,6 +250,36 @@ public class ProblemMapperTest {
 		Assert.assertEquals(0, numberOfRowsAffected);
 	}
 	
+	/**
+	 * 测试用例: 测试updateSubmissionStatsOfProblem(long, int, int)方法
+	 * 测试数据: 使用A+B Problem的试题唯一标识符, 提交次数和通过次数均增加1
+	 * 预期结果: 试题的提交次数和通过次数均增加1
+	 */
+	@Test
+	public void testUpdateSubmissionStatsOfProblem() {
+		int numberOfRowsAffected = problemMapper.updateSubmissionStatsOfProblem(1000, 1, 1);
+		Assert.assertEquals(1, numberOfRowsAffected);
+		
+		Problem problem = problemMapper.getProblem(1000);
+		Assert.assertEquals(4, problem.getTotalSubmission());
+		Assert.assertEquals(2, problem.getAcceptedSubmission());
+	}
+	
+	/**
+	 * 测试用例: 测试refreshSubmissionStatsOfProblems()方法
+	 * 测试数据: 先使A+B Problem的统计信息产生偏差, 再重新计算统计信息
+	 * 预期结果: 试题的提交次数和通过次数与提交记录一致
+	 */
+	@Test
+	public void testRefreshSubmissionStatsOfProblems() {
+		problemMapper.updateSubmissionStatsOfProblem(1000, 5, 5);
+		problemMapper.refreshSubmissionStatsOfProblems();
+		
+		Problem problem = problemMapper.getProblem(1000);
+		Assert.assertEquals(3, problem.getTotalSubmission());
+		Assert.assertEquals(1, problem.getAcceptedSubmission());
+	}
+	
 	/**
 	 * 测试用例: 测试deleteProblem(long)方法
 	 * 测试数据: 试题#1002的唯一标识符
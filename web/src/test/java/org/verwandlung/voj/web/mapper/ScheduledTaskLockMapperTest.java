@@ -0,0 +1,60 @@
+package org.verwandlung.voj.web.mapper;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * ScheduledTaskLockMapper的测试类.
+ * 
+ * @author Haozhe Xie
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@Transactional
+@ContextConfiguration({"classpath:test-spring-context.xml"})
+public class ScheduledTaskLockMapperTest {
+	/**
+	 * 测试用例: 测试createScheduledTaskLock(String, String, int)方法
+	 * 测试数据: 两次创建同一个定时任务的锁
+	 * 预期结果: 第一次创建成功, 第二次因锁已存在而创建失败
+	 */
+	@Test
+	public void testCreateScheduledTaskLock() {
+		Assert.assertEquals(1, scheduledTaskLockMapper.createScheduledTaskLock("testTask", "node-1", 60));
+		Assert.assertEquals(0, scheduledTaskLockMapper.createScheduledTaskLock("testTask", "node-2", 60));
+	}
+	
+	/**
+	 * 测试用例: 测试acquireScheduledTaskLock(String, String, int)方法
+	 * 测试数据: 由node-1持有且未过期的锁
+	 * 预期结果: node-2获取失败, node-1获取成功
+	 */
+	@Test
+	public void testAcquireScheduledTaskLockHeldByAnotherNode() {
+		scheduledTaskLockMapper.createScheduledTaskLock("testTask", "node-1", 60);
+		Assert.assertEquals(0, scheduledTaskLockMapper.acquireScheduledTaskLock("testTask", "node-2", 60));
+		Assert.assertEquals(1, scheduledTaskLockMapper.acquireScheduledTaskLock("testTask", "node-1", 60));
+	}
+	
+	/**
+	 * 测试用例: 测试acquireScheduledTaskLock(String, String, int)方法
+	 * 测试数据: 由node-1持有但已过期的锁
+	 * 预期结果: node-2获取成功, 之后node-1获取失败
+	 */
+	@Test
+	public void testAcquireExpiredScheduledTaskLock() {
+		scheduledTaskLockMapper.createScheduledTaskLock("testTask", "node-1", -60);
+		Assert.assertEquals(1, scheduledTaskLockMapper.acquireScheduledTaskLock("testTask", "node-2", 60));
+		Assert.assertEquals(0, scheduledTaskLockMapper.acquireScheduledTaskLock("testTask", "node-1", 60));
+	}
+	
+	/**
+	 * 待测试的ScheduledTaskLockMapper对象.
+	 */
+	@Autowired
+	private ScheduledTaskLockMapper scheduledTaskLockMapper;
+}
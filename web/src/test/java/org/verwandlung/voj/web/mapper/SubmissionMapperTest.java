@@ -1,6 +1,7 @@
 package org.verwandlung.voj.web.mapper;
 
 import java.sql.Date;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -15,7 +16,9 @@ import org.springframework.transaction.annotation.Transactional;
 import org.verwandlung.voj.web.model.Language;
 import org.verwandlung.voj.web.model.Problem;
 import org.verwandlung.voj.web.model.Submission;
+import org.verwandlung.voj.web.model.SubmissionContent;
 import org.verwandlung.voj.web.model.User;
+import org.verwandlung.voj.web.util.DigestUtils;
 
 /**
  * SubmissionMapper测试类.
@@ -231,6 +234,64 @@ public class SubmissionMapperTest {
 		Assert.assertEquals(0, numberOfSubmissions);
 	}
 	
+	/**
+	 * 测试用例: 测试getSubmissionsForRejudge(List, long, String, String, long, int)方法
+	 * 测试数据: 使用试题1000与2014年10月01日-2014年10月18日进行查询
+	 * 预期结果: 返回提交记录1000(C++)和1001(Java)
+	 */
+	@Test
+	public void testGetSubmissionsForRejudgeUsingProblemAndTime() {
+		String startTime = "2014-10-01 00:00:00";
+		String endTime = "2014-10-18 00:00:00";
+		
+		List<Map<String, Object>> submissions = submissionMapper.getSubmissionsForRejudge(null, 1000, startTime, endTime, 0, 10);
+		Assert.assertEquals(2, submissions.size());
+		Assert.assertEquals(1000L, submissions.get(0).get("submission_id"));
+		Assert.assertEquals("text/x-c++src", submissions.get(0).get("language_slug"));
+		Assert.assertEquals("text/x-java", submissions.get(1).get("language_slug"));
+	}
+	
+	/**
+	 * 测试用例: 测试getSubmissionsForRejudge(List, long, String, String, long, int)方法
+	 * 测试数据: 使用提交记录1002, 1003和不存在的提交记录0进行查询
+	 * 预期结果: 返回提交记录1002和1003
+	 */
+	@Test
+	public void testGetSubmissionsForRejudgeUsingSubmissionIds() {
+		List<Map<String, Object>> submissions = submissionMapper.getSubmissionsForRejudge(
+				Arrays.asList(new Long[] { 1002L, 1003L, 0L }), 0, null, null, 0, 10);
+		Assert.assertEquals(2, submissions.size());
+		Assert.assertEquals(1003L, submissions.get(1).get("submission_id"));
+	}
+	
+	/**
+	 * 测试用例: 测试getSubmissionsForRejudge(List, long, String, String, long, int)方法
+	 * 测试数据: 使用试题1000进行查询, 每批获取1条提交记录
+	 * 预期结果: 第一批返回提交记录1000, 第二批从提交记录1000之后开始, 返回提交记录1001
+	 */
+	@Test
+	public void testGetSubmissionsForRejudgeInBatches() {
+		List<Map<String, Object>> submissions = submissionMapper.getSubmissionsForRejudge(null, 1000, null, null, 0, 1);
+		Assert.assertEquals(1, submissions.size());
+		Assert.assertEquals(1000L, submissions.get(0).get("submission_id"));
+		
+		submissions = submissionMapper.getSubmissionsForRejudge(null, 1000, null, null, 1000, 1);
+		Assert.assertEquals(1, submissions.size());
+		Assert.assertEquals(1001L, submissions.get(0).get("submission_id"));
+	}
+	
+	/**
+	 * 测试用例: 测试getNumberOfSubmissionsForRejudge(List, long, String, String)方法
+	 * 测试数据: 使用试题1000与2014年10月01日-2014年10月18日进行查询
+	 * 预期结果: 返回2
+	 */
+	@Test
+	public void testGetNumberOfSubmissionsForRejudge() {
+		long numberOfSubmissions = submissionMapper.getNumberOfSubmissionsForRejudge(
+				null, 1000, "2014-10-01 00:00:00", "2014-10-18 00:00:00");
+		Assert.assertEquals(2, numberOfSubmissions);
+	}
+	
 	/**
 	 * 测试用例: 测试getLatestSubmissionId()方法
 	 * 测试数据: N/a
@@ -255,6 +316,21 @@ public class SubmissionMapperTest {
 		Problem problem = submission.getProblem();
 		long problemId = problem.getProblemId();
 		Assert.assertEquals(1000, problemId);
+		Assert.assertTrue(submission.getCode().startsWith("#include <iostream>"));
+		Assert.assertTrue(submission.getJudgeLog().startsWith("Compile Success."));
+	}
+	
+	/**
+	 * 测试用例: 测试getSubmissionContent(long)方法
+	 * 测试数据: 提交记录#1002的唯一标识符
+	 * 预期结果: 返回解压缩后的代码和评测日志
+	 */
+	@Test
+	public void testGetSubmissionContentExists() {
+		SubmissionContent content = submissionMapper.getSubmissionContent(1002);
+		Assert.assertNotNull(content);
+		Assert.assertTrue(content.getCode().startsWith("int main() {"));
+		Assert.assertTrue(content.getJudgeLog().startsWith("Compile Error."));
 	}
 	
 	/**
@@ -268,6 +344,48 @@ public class SubmissionMapperTest {
 		Assert.assertNull(submission);
 	}
 	
+	/**
+	 * 测试用例: 测试getSubmissionSummary(long)方法
+	 * 测试数据: Problem#1000的提交记录的唯一标识符
+	 * 预期结果: 返回包含试题, 用户和评测结果的Submission对象, 但不包含代码
+	 */
+	@Test
+	public void testGetSubmissionSummaryExists() {
+		Submission submission = submissionMapper.getSubmissionSummary(1000);
+		Assert.assertNotNull(submission);
+		Assert.assertEquals(1000, submission.getProblem().getProblemId());
+		Assert.assertEquals("zjhzxhz", submission.getUser().getUsername());
+		Assert.assertEquals("AC", submission.getJudgeResult().getJudgeResultSlug());
+		Assert.assertNull(submission.getCode());
+	}
+	
+	/**
+	 * 测试用例: 测试getSubmissionSummary(long)方法
+	 * 测试数据: 不存在的的提交记录唯一标识符
+	 * 预期结果: 返回空引用
+	 */
+	@Test
+	public void testGetSubmissionSummaryNotExists() {
+		Submission submission = submissionMapper.getSubmissionSummary(0);
+		Assert.assertNull(submission);
+	}
+	
+	/**
+	 * 测试用例: 测试getSubmissionVerdict(long)方法
+	 * 测试数据: Problem#1000的提交记录的唯一标识符
+	 * 预期结果: 返回包含提交者和试题唯一标识符的Submission对象, 但不包含用户名和代码
+	 */
+	@Test
+	public void testGetSubmissionVerdictExists() {
+		Submission submission = submissionMapper.getSubmissionVerdict(1000);
+		Assert.assertNotNull(submission);
+		Assert.assertEquals(1000, submission.getProblem().getProblemId());
+		Assert.assertEquals(1000, submission.getUser().getUid());
+		Assert.assertNotNull(submission.getSubmitTime());
+		Assert.assertNull(submission.getUser().getUsername());
+		Assert.assertNull(submission.getCode());
+	}
+	
 	/**
 	 * 测试用例: 测试getSubmissionsUsingOffset(long, String, long, int)方法
 	 * 测试数据: 获取ID从1010起始的10次提交(ID From 1010 to 1000)
@@ -298,6 +416,25 @@ public class SubmissionMapperTest {
 		Assert.assertEquals(1003, submissionId);
 	}
 	
+	/**
+	 * 测试用例: 测试getSubmissionsUsingOffset(long, String, long, int)方法
+	 * 测试数据: 获取ID为1003的提交
+	 * 预期结果: 提交列表中包含试题, 用户, 编程语言和评测结果的信息, 但不包含代码和评测日志
+	 */
+	@Test
+	public void testGetSubmissionsUsingListProjection() {
+		List<Submission> submissions = submissionMapper.getSubmissionsUsingOffset(0, "", 1003, 1);
+		Assert.assertEquals(1, submissions.size());
+		
+		Submission submission = submissions.get(0);
+		Assert.assertEquals("谁拿了最多奖学金", submission.getProblem().getProblemName());
+		Assert.assertEquals("zjhzxhz", submission.getUser().getUsername());
+		Assert.assertEquals("C++", submission.getLanguage().getLanguageName());
+		Assert.assertEquals("AC", submission.getJudgeResult().getJudgeResultSlug());
+		Assert.assertNull(submission.getCode());
+		Assert.assertNull(submission.getJudgeLog());
+	}
+	
 	/**
 	 * 测试用例: 测试getSubmissionsUsingOffset(long, String, long, int)方法
 	 * 测试数据: 获取ID从100起始的10次提交(ID From 100 to 90)
@@ -447,8 +584,42 @@ public class SubmissionMapperTest {
 		Language language = languageMapper.getLanguageUsingId(1);
 		
 		Submission submission = new Submission(problem, user, language, "C Code");
-		int numberOfRowsAffected = submissionMapper.createSubmission(submission);
+		submission.setCodeHash(DigestUtils.sha256Hex("C Code"));
+		int numberOfRowsAffected = submissionMapper.createSubmissionCode(submission);
 		Assert.assertEquals(1, numberOfRowsAffected);
+		numberOfRowsAffected = submissionMapper.createSubmission(submission);
+		Assert.assertEquals(1, numberOfRowsAffected);
+		
+		SubmissionContent content = submissionMapper.getSubmissionContent(submission.getSubmissionId());
+		Assert.assertEquals("C Code", content.getCode());
+		Assert.assertNull(content.getJudgeLog());
+	}
+	
+	/**
+	 * 测试用例: 测试createSubmissionCode(Submission)方法
+	 * 测试数据: 与提交记录#1002的代码完全相同的提交记录
+	 * 预期结果: 新的提交记录引用已存在的代码
+	 */
+	@Test
+	public void testCreateSubmissionWithDuplicateCode() {
+		Submission existingSubmission = submissionMapper.getSubmission(1002);
+		String code = existingSubmission.getCode();
+		
+		Submission submission = new Submission(existingSubmission.getProblem(), 
+				existingSubmission.getUser(), existingSubmission.getLanguage(), code);
+		submission.setCodeHash(DigestUtils.sha256Hex(code));
+		Assert.assertEquals(existingSubmission.getCodeHash(), submission.getCodeHash());
+		
+		submissionMapper.createSubmissionCode(submission);
+		submissionMapper.createSubmission(submission);
+		SubmissionContent content = submissionMapper.getSubmissionContent(submission.getSubmissionId());
+		Assert.assertEquals(code, content.getCode());
+		Assert.assertNull(content.getJudgeLog());
+		
+		submissionMapper.deleteSubmission(submission.getSubmissionId());
+		submissionMapper.releaseSubmissionCode(submission.getCodeHash());
+		int numberOfRowsAffected = submissionMapper.deleteUnreferencedSubmissionCode(submission.getCodeHash());
+		Assert.assertEquals(0, numberOfRowsAffected);
 	}
 	
 	/**
@@ -463,6 +634,8 @@ public class SubmissionMapperTest {
 		Language language = new Language(0, "not-exists", "Not Exists", "Not Exists", "Not Exists");
 		
 		Submission submission = new Submission(problem, user, language, "Code");
+		submission.setCodeHash(DigestUtils.sha256Hex("Code"));
+		submissionMapper.createSubmissionCode(submission);
 		submissionMapper.createSubmission(submission);
 	}
 	
@@ -519,8 +692,13 @@ public class SubmissionMapperTest {
 		int numberOfRowsAffected = submissionMapper.deleteSubmission(1003);
 		Assert.assertEquals(1, numberOfRowsAffected);
 		
+		String codeHash = submission.getCodeHash();
 		submission = submissionMapper.getSubmission(1003);
 		Assert.assertNull(submission);
+		
+		submissionMapper.releaseSubmissionCode(codeHash);
+		numberOfRowsAffected = submissionMapper.deleteUnreferencedSubmissionCode(codeHash);
+		Assert.assertEquals(1, numberOfRowsAffected);
 	}
 	
 	/**
@@ -0,0 +1,102 @@
+package org.verwandlung.voj.web.messenger;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * ApplicationEventListener测试类.
+ *
+ * @author Haozhe Xie
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@Transactional
+@ContextConfiguration({"classpath:test-spring-context.xml"})
+public class ApplicationEventListenerTest {
+	/**
+	 * 测试用例: 测试addSseEmitters(long, SseEmitter)方法
+	 * 测试数据: 已评测完成(AC)但推送通道中没有任何评测信息的提交记录#1000
+	 * 预期结果: 订阅者收到数据库中的评测结果后断开连接
+	 */
+	@Test
+	public void testAddSseEmittersForCompletedSubmission() throws InterruptedException {
+		MockSseEmitter sseEmitter = new MockSseEmitter();
+		eventListener.addSseEmitters(1000, sseEmitter);
+
+		Assert.assertTrue(sseEmitter.completedLatch.await(5, TimeUnit.SECONDS));
+		Assert.assertEquals(1, sseEmitter.events.size());
+		Assert.assertEquals("Accepted", sseEmitter.events.get(0).get("judgeResult"));
+		Assert.assertTrue(sseEmitter.events.get(0).get("message").contains("Score = 100"));
+	}
+
+	/**
+	 * 测试用例: 测试addSseEmitters(long, SseEmitter)方法
+	 * 测试数据: 不存在的提交记录
+	 * 预期结果: 订阅者保持连接, 直至收到评测完成的消息
+	 */
+	@Test
+	public void testAddSseEmittersForPendingSubmission() throws InterruptedException {
+		MockSseEmitter sseEmitter = new MockSseEmitter();
+		eventListener.addSseEmitters(0, sseEmitter);
+		Assert.assertFalse(sseEmitter.completedLatch.await(100, TimeUnit.MILLISECONDS));
+
+		eventListener.submissionEventHandler(new SubmissionEvent(this, 0, 0, 0, "AC", "Accepted", "", true));
+		Assert.assertTrue(sseEmitter.completedLatch.await(5, TimeUnit.SECONDS));
+		Assert.assertEquals(1, sseEmitter.events.size());
+	}
+
+	/**
+	 * 记录已发送事件的SseEmitter.
+	 */
+	private static class MockSseEmitter extends SseEmitter {
+		/* (non-Javadoc)
+		 * @see org.springframework.web.servlet.mvc.method.annotation.SseEmitter#send(org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder)
+		 */
+		@Override
+		@SuppressWarnings("unchecked")
+		public void send(SseEventBuilder builder) throws IOException {
+			for ( DataWithMediaType data : builder.build() ) {
+				if ( data.getData() instanceof Map ) {
+					events.add((Map<String, String>) data.getData());
+				}
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter#complete()
+		 */
+		@Override
+		public synchronized void complete() {
+			completedLatch.countDown();
+		}
+
+		/**
+		 * 已发送的评测信息.
+		 * 评测信息由线程池异步发送.
+		 */
+		private final List<Map<String, String>> events = new CopyOnWriteArrayList<>();
+
+		/**
+		 * 结束推送时释放的CountDownLatch.
+		 */
+		private final CountDownLatch completedLatch = new CountDownLatch(1);
+	}
+
+	/**
+	 * 待测试的ApplicationEventListener对象.
+	 */
+	@Autowired
+	private ApplicationEventListener eventListener;
+}
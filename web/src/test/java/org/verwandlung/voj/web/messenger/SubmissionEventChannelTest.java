@@ -0,0 +1,152 @@
+package org.verwandlung.voj.web.messenger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * SubmissionEventChannel测试类.
+ *
+ * @author Haozhe Xie
+ */
+public class SubmissionEventChannelTest {
+	/**
+	 * 测试用例: 测试publish(Map, boolean)方法
+	 * 测试数据: 2个订阅者, 先后发布1条评测中的信息和1条评测完成的信息
+	 * 预期结果: 每个订阅者均按顺序收到2条评测信息, 并在评测完成后断开连接
+	 */
+	@Test
+	public void testPublishToSubscribers() {
+		SubmissionEventChannel channel = new SubmissionEventChannel(1000, DIRECT_EXECUTOR);
+		MockSseEmitter firstEmitter = new MockSseEmitter();
+		MockSseEmitter secondEmitter = new MockSseEmitter();
+		channel.subscribe(firstEmitter);
+		channel.subscribe(secondEmitter);
+		Assert.assertEquals(2, channel.getNumberOfSubscribers());
+
+		channel.publish(getEvent("Running", "Compile Successfully."), false);
+		channel.publish(getEvent("Accepted", "Accepted, Time = 30 ms"), true);
+
+		for ( MockSseEmitter sseEmitter : new MockSseEmitter[] { firstEmitter, secondEmitter } ) {
+			Assert.assertEquals(2, sseEmitter.events.size());
+			Assert.assertEquals("Running", sseEmitter.events.get(0).get("judgeResult"));
+			Assert.assertEquals("Accepted", sseEmitter.events.get(1).get("judgeResult"));
+			Assert.assertTrue(sseEmitter.isCompleted);
+		}
+		Assert.assertTrue(channel.isCompleted());
+		Assert.assertEquals(0, channel.getNumberOfSubscribers());
+	}
+
+	/**
+	 * 测试用例: 测试subscribe(SseEmitter)方法
+	 * 测试数据: 评测完成之后才建立连接的订阅者
+	 * 预期结果: 订阅者收到已产生的全部评测信息后断开连接, 评测完成后发布的信息被忽略
+	 */
+	@Test
+	public void testSubscribeAfterCompleted() {
+		SubmissionEventChannel channel = new SubmissionEventChannel(1000, DIRECT_EXECUTOR);
+		channel.publish(getEvent("Running", "Compile Successfully."), false);
+		channel.publish(getEvent("Accepted", "Accepted, Time = 30 ms"), true);
+		channel.publish(getEvent("Running", "Duplicate message."), false);
+
+		MockSseEmitter lateEmitter = new MockSseEmitter();
+		channel.subscribe(lateEmitter);
+		Assert.assertEquals(2, lateEmitter.events.size());
+		Assert.assertEquals("Accepted", lateEmitter.events.get(1).get("judgeResult"));
+		Assert.assertTrue(lateEmitter.isCompleted);
+		Assert.assertEquals(0, channel.getNumberOfSubscribers());
+	}
+
+	/**
+	 * 测试用例: 测试订阅者断开连接后的publish(Map, boolean)方法
+	 * 测试数据: 发送时抛出IOException的订阅者
+	 * 预期结果: 订阅者被移除, 其他订阅者仍收到评测信息
+	 */
+	@Test
+	public void testPublishToDisconnectedSubscriber() {
+		SubmissionEventChannel channel = new SubmissionEventChannel(1000, DIRECT_EXECUTOR);
+		MockSseEmitter disconnectedEmitter = new MockSseEmitter();
+		disconnectedEmitter.isDisconnected = true;
+		MockSseEmitter connectedEmitter = new MockSseEmitter();
+		channel.subscribe(disconnectedEmitter);
+		channel.subscribe(connectedEmitter);
+
+		channel.publish(getEvent("Running", "Compile Successfully."), false);
+		Assert.assertEquals(1, channel.getNumberOfSubscribers());
+		Assert.assertEquals(1, connectedEmitter.events.size());
+	}
+
+	/**
+	 * 创建评测信息.
+	 * @param judgeResult - 评测结果的名称
+	 * @param message - 评测信息
+	 * @return 评测信息
+	 */
+	private Map<String, String> getEvent(String judgeResult, String message) {
+		Map<String, String> event = new HashMap<>(3, 1);
+		event.put("judgeResult", judgeResult);
+		event.put("message", message);
+		return event;
+	}
+
+	/**
+	 * 记录已发送事件的SseEmitter.
+	 */
+	private static class MockSseEmitter extends SseEmitter {
+		/* (non-Javadoc)
+		 * @see org.springframework.web.servlet.mvc.method.annotation.SseEmitter#send(org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder)
+		 */
+		@Override
+		@SuppressWarnings("unchecked")
+		public void send(SseEventBuilder builder) throws IOException {
+			if ( isDisconnected ) {
+				throw new IOException("Broken pipe");
+			}
+			for ( DataWithMediaType data : builder.build() ) {
+				if ( data.getData() instanceof Map ) {
+					events.add((Map<String, String>) data.getData());
+				}
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter#complete()
+		 */
+		@Override
+		public synchronized void complete() {
+			isCompleted = true;
+		}
+
+		/**
+		 * 已发送的评测信息.
+		 */
+		private final List<Map<String, String>> events = new ArrayList<>();
+
+		/**
+		 * 连接是否已断开.
+		 */
+		private boolean isDisconnected = false;
+
+		/**
+		 * 是否已结束推送.
+		 */
+		private boolean isCompleted = false;
+	}
+
+	/**
+	 * 在当前线程中执行任务的Executor.
+	 */
+	private static final Executor DIRECT_EXECUTOR = new Executor() {
+		@Override
+		public void execute(Runnable command) {
+			command.run();
+		}
+	};
+}
@@ -0,0 +1,195 @@
+package org.verwandlung.voj.web.messenger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import org.verwandlung.voj.web.model.JudgeResult;
+import org.verwandlung.voj.web.model.Language;
+import org.verwandlung.voj.web.model.Problem;
+import org.verwandlung.voj.web.model.Submission;
+import org.verwandlung.voj.web.model.User;
+
+/**
+ * SubmissionFeed测试类.
+ *
+ * @author Haozhe Xie
+ */
+public class SubmissionFeedTest {
+	/**
+	 * 测试用例: 测试publish(Submission)方法
+	 * 测试数据: 不筛选的订阅者, 筛选试题1001的订阅者和筛选用户的订阅者
+	 * 预期结果: 提交记录仅被推送至符合筛选条件的订阅者, 用户名的比较不区分大小写
+	 */
+	@Test
+	public void testPublishToSubscribers() {
+		SubmissionFeed submissionFeed = new SubmissionFeed(4, DIRECT_EXECUTOR);
+		MockSseEmitter allSubmissionsEmitter = new MockSseEmitter();
+		MockSseEmitter problemEmitter = new MockSseEmitter();
+		MockSseEmitter userEmitter = new MockSseEmitter();
+		submissionFeed.subscribe(allSubmissionsEmitter, 0, "", null);
+		submissionFeed.subscribe(problemEmitter, 1001, "", null);
+		submissionFeed.subscribe(userEmitter, 0, "ZJHZXHZ", null);
+
+		Assert.assertEquals(1, submissionFeed.publish(getSubmission(1000, 1000, "zjhzxhz", "PD")));
+		Assert.assertEquals(2, submissionFeed.publish(getSubmission(1001, 1001, "another-user", "PD")));
+
+		Assert.assertEquals(2, allSubmissionsEmitter.events.size());
+		Assert.assertEquals(1, problemEmitter.events.size());
+		Assert.assertTrue(problemEmitter.events.get(0).contains("id:" + submissionFeed.getLastEventId()));
+		Assert.assertTrue(problemEmitter.events.get(0).contains("\"submissionId\":1001"));
+		Assert.assertEquals(1, userEmitter.events.size());
+		Assert.assertTrue(userEmitter.events.get(0).contains("\"username\":\"zjhzxhz\""));
+	}
+
+	/**
+	 * 测试用例: 测试subscribe(SseEmitter, long, String, String)方法
+	 * 测试数据: 容量为4的推送通道中发布6条记录, 并分别使用第3条记录的事件ID和空的事件ID订阅
+	 * 预期结果: 使用第3条记录的事件ID订阅时补齐第4至6条记录, 使用空的事件ID订阅时不补齐记录
+	 */
+	@Test
+	public void testSubscribeWithLastEventId() {
+		SubmissionFeed submissionFeed = new SubmissionFeed(4, DIRECT_EXECUTOR);
+		List<String> eventIds = publishSubmissions(submissionFeed, 6);
+
+		MockSseEmitter reconnectedEmitter = new MockSseEmitter();
+		submissionFeed.subscribe(reconnectedEmitter, 0, "", eventIds.get(2));
+		Assert.assertEquals(3, reconnectedEmitter.events.size());
+		Assert.assertTrue(reconnectedEmitter.events.get(0).contains("id:" + eventIds.get(3)));
+		Assert.assertTrue(reconnectedEmitter.events.get(2).contains("\"judgeResultSlug\":\"AC\""));
+
+		MockSseEmitter newEmitter = new MockSseEmitter();
+		submissionFeed.subscribe(newEmitter, 0, "", null);
+		Assert.assertEquals(0, newEmitter.events.size());
+	}
+
+	/**
+	 * 测试用例: 测试subscribe(SseEmitter, long, String, String)方法
+	 * 测试数据: 已被覆盖的记录的事件ID, 以及其他推送通道(其他Web节点或重启前)产生的事件ID
+	 * 预期结果: 不补齐记录, 仅发送reset事件
+	 */
+	@Test
+	public void testSubscribeWithUnavailableLastEventId() {
+		SubmissionFeed submissionFeed = new SubmissionFeed(4, DIRECT_EXECUTOR);
+		List<String> eventIds = publishSubmissions(submissionFeed, 6);
+
+		MockSseEmitter overwrittenEmitter = new MockSseEmitter();
+		submissionFeed.subscribe(overwrittenEmitter, 0, "", eventIds.get(0));
+		Assert.assertEquals(1, overwrittenEmitter.events.size());
+		Assert.assertTrue(overwrittenEmitter.events.get(0).contains("event:reset"));
+		Assert.assertTrue(overwrittenEmitter.events.get(0).contains("id:" + eventIds.get(5)));
+
+		SubmissionFeed anotherSubmissionFeed = new SubmissionFeed(4, DIRECT_EXECUTOR);
+		publishSubmissions(anotherSubmissionFeed, 3);
+		MockSseEmitter foreignEmitter = new MockSseEmitter();
+		submissionFeed.subscribe(foreignEmitter, 0, "", anotherSubmissionFeed.getLastEventId());
+		Assert.assertEquals(1, foreignEmitter.events.size());
+		Assert.assertTrue(foreignEmitter.events.get(0).contains("event:reset"));
+	}
+
+	/**
+	 * 测试用例: 测试订阅者断开连接后的publish(Submission)方法
+	 * 测试数据: 发送时抛出IOException的订阅者
+	 * 预期结果: 订阅者被移除
+	 */
+	@Test
+	public void testPublishToDisconnectedSubscriber() {
+		SubmissionFeed submissionFeed = new SubmissionFeed(4, DIRECT_EXECUTOR);
+		MockSseEmitter disconnectedEmitter = new MockSseEmitter();
+		disconnectedEmitter.isDisconnected = true;
+		submissionFeed.subscribe(disconnectedEmitter, 0, "", null);
+		Assert.assertEquals(1, submissionFeed.getNumberOfSubscribers());
+
+		submissionFeed.publish(getSubmission(1000, 1000, "zjhzxhz", "PD"));
+		Assert.assertEquals(0, submissionFeed.getNumberOfSubscribers());
+	}
+
+	/**
+	 * 向推送通道发布多条提交记录.
+	 * @param submissionFeed - 评测列表的推送通道
+	 * @param numberOfSubmissions - 提交记录的数量
+	 * @return 各条记录的事件ID
+	 */
+	private List<String> publishSubmissions(SubmissionFeed submissionFeed, int numberOfSubmissions) {
+		List<String> eventIds = new ArrayList<>();
+		for ( long submissionId = 1000; submissionId < 1000 + numberOfSubmissions; ++ submissionId ) {
+			submissionFeed.publish(getSubmission(submissionId, 1000, "zjhzxhz", "AC"));
+			eventIds.add(submissionFeed.getLastEventId());
+		}
+		return eventIds;
+	}
+
+	/**
+	 * 创建仅包含提交列表所需字段的提交记录对象.
+	 * @param submissionId - 提交记录的唯一标识符
+	 * @param problemId - 试题的唯一标识符
+	 * @param username - 用户的用户名
+	 * @param judgeResultSlug - 评测结果的唯一英文缩写
+	 * @return 提交记录对象
+	 */
+	private Submission getSubmission(long submissionId, long problemId, String username, String judgeResultSlug) {
+		Problem problem = new Problem();
+		problem.setProblemId(problemId);
+		problem.setProblemName("Problem " + problemId);
+		User user = new User();
+		user.setUid(1000);
+		user.setUsername(username);
+		Language language = new Language();
+		language.setLanguageName("C++");
+		JudgeResult judgeResult = new JudgeResult();
+		judgeResult.setJudgeResultSlug(judgeResultSlug);
+		judgeResult.setJudgeResultName(judgeResultSlug);
+
+		Submission submission = new Submission(problem, user, language, "");
+		submission.setSubmissionId(submissionId);
+		submission.setSubmitTime(new Date());
+		submission.setJudgeResult(judgeResult);
+		return submission;
+	}
+
+	/**
+	 * 记录已发送事件的SseEmitter.
+	 */
+	private static class MockSseEmitter extends SseEmitter {
+		/* (non-Javadoc)
+		 * @see org.springframework.web.servlet.mvc.method.annotation.SseEmitter#send(org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder)
+		 */
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			if ( isDisconnected ) {
+				throw new IOException("Broken pipe");
+			}
+			StringBuilder event = new StringBuilder();
+			for ( DataWithMediaType data : builder.build() ) {
+				event.append(data.getData());
+			}
+			events.add(event.toString());
+		}
+
+		/**
+		 * 已发送的事件.
+		 */
+		private final List<String> events = new ArrayList<>();
+
+		/**
+		 * 连接是否已断开.
+		 */
+		private boolean isDisconnected = false;
+	}
+
+	/**
+	 * 在当前线程中执行任务的Executor.
+	 */
+	private static final Executor DIRECT_EXECUTOR = new Executor() {
+		@Override
+		public void execute(Runnable command) {
+			command.run();
+		}
+	};
+}
@@ -0,0 +1,157 @@
+package org.verwandlung.voj.web.service;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import org.verwandlung.voj.web.messenger.ApplicationEventListener;
+import org.verwandlung.voj.web.messenger.KeepAliveEvent;
+import org.verwandlung.voj.web.messenger.SubmissionEvent;
+
+/**
+ * RejudgeService的测试类.
+ *
+ * @author Haozhe Xie
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@Transactional
+@ContextConfiguration({"classpath:test-spring-context.xml"})
+public class RejudgeServiceTest {
+	/**
+	 * 取消测试中创建的重新评测任务, 并结束其中正在评测的提交记录, 以免影响其他测试用例.
+	 */
+	@After
+	public void tearDown() {
+		for ( Map<String, Object> rejudgeJob : rejudgeService.getRejudgeJobs() ) {
+			rejudgeService.cancelRejudgeJob((Long) rejudgeJob.get("jobId"));
+		}
+		for ( long submissionId = 1000; submissionId <= 1003; ++ submissionId ) {
+			rejudgeService.submissionEventHandler(getCompletedEvent(submissionId));
+		}
+	}
+
+	/**
+	 * 测试用例: 测试createRejudgeJob(List, long, String, String, String)方法
+	 * 测试数据: 未指定任何筛选条件
+	 * 预期结果: 创建失败, 并提示筛选条件为空
+	 */
+	@Test
+	public void testCreateRejudgeJobWithoutSelector() {
+		Map<String, Object> result = rejudgeService.createRejudgeJob(null, 0, null, null, "zjhzxhz");
+		Assert.assertEquals(true, result.get("isSelectorEmpty"));
+		Assert.assertEquals(false, result.get("isSuccessful"));
+	}
+
+	/**
+	 * 测试用例: 测试createRejudgeJob(List, long, String, String, String)方法
+	 * 测试数据: 试题1000在2020年之后没有提交记录
+	 * 预期结果: 创建失败, 并提示没有符合条件的提交记录
+	 */
+	@Test
+	public void testCreateRejudgeJobWithoutSubmissions() {
+		Map<String, Object> result = rejudgeService.createRejudgeJob(null, 1000, "2020-01-01 00:00:00", null, "zjhzxhz");
+		Assert.assertEquals(true, result.get("isSubmissionsEmpty"));
+		Assert.assertEquals(false, result.get("isSuccessful"));
+	}
+
+	/**
+	 * 测试用例: 测试createRejudgeJob(List, long, String, String, String)方法
+	 * 测试数据: 试题1000在2014年10月01日-2014年10月18日之间的提交记录
+	 * 预期结果: 创建成功, 2个提交记录均等待评测
+	 */
+	@Test
+	public void testCreateRejudgeJob() {
+		Map<String, Object> result = rejudgeService.createRejudgeJob(
+				null, 1000, "2014-10-01 00:00:00", "2014-10-18 00:00:00", "zjhzxhz");
+		Assert.assertEquals(true, result.get("isSuccessful"));
+
+		Map<String, Object> rejudgeJob = rejudgeService.getRejudgeJob((Long) result.get("jobId"));
+		Assert.assertEquals("RUNNING", rejudgeJob.get("status"));
+		Assert.assertEquals(2L, rejudgeJob.get("totalSubmissions"));
+		Assert.assertEquals(2L, rejudgeJob.get("pendingSubmissions"));
+		Assert.assertEquals("zjhzxhz", rejudgeJob.get("creator"));
+	}
+
+	/**
+	 * 测试用例: 测试dispatchRejudgeTasks()与submissionEventHandler(SubmissionEvent)方法
+	 * 测试数据: 在线的评测机有1个空闲评测槽位, 重新评测试题1000在2014年10月01日-2014年10月18日之间的提交记录
+	 * 预期结果: 2个提交记录被派发, 收到评测结果后任务完成
+	 */
+	@Test
+	public void testDispatchRejudgeTasks() {
+		registerJudger();
+		Map<String, Object> result = rejudgeService.createRejudgeJob(
+				null, 1000, "2014-10-01 00:00:00", "2014-10-18 00:00:00", "zjhzxhz");
+		long jobId = (Long) result.get("jobId");
+
+		rejudgeService.dispatchRejudgeTasks();
+		Map<String, Object> rejudgeJob = rejudgeService.getRejudgeJob(jobId);
+		Assert.assertEquals(0L, rejudgeJob.get("pendingSubmissions"));
+		Assert.assertEquals(2L, rejudgeJob.get("runningSubmissions"));
+
+		rejudgeService.submissionEventHandler(getCompletedEvent(1000));
+		rejudgeService.submissionEventHandler(getCompletedEvent(1001));
+		rejudgeJob = rejudgeService.getRejudgeJob(jobId);
+		Assert.assertEquals("COMPLETED", rejudgeJob.get("status"));
+		Assert.assertEquals(2L, rejudgeJob.get("completedSubmissions"));
+	}
+
+	/**
+	 * 测试用例: 测试cancelRejudgeJob(long)方法
+	 * 测试数据: 尚未派发的重新评测任务
+	 * 预期结果: 任务被取消, 且不再有等待评测的提交记录
+	 */
+	@Test
+	public void testCancelRejudgeJob() {
+		Map<String, Object> result = rejudgeService.createRejudgeJob(null, 1000, null, null, "zjhzxhz");
+		long jobId = (Long) result.get("jobId");
+
+		Assert.assertTrue(rejudgeService.cancelRejudgeJob(jobId));
+		Assert.assertFalse(rejudgeService.cancelRejudgeJob(jobId));
+
+		rejudgeService.dispatchRejudgeTasks();
+		Map<String, Object> rejudgeJob = rejudgeService.getRejudgeJob(jobId);
+		Assert.assertEquals("CANCELLED", rejudgeJob.get("status"));
+		Assert.assertEquals(0L, rejudgeJob.get("pendingSubmissions"));
+		Assert.assertEquals(0L, rejudgeJob.get("runningSubmissions"));
+	}
+
+	/**
+	 * 注册一个有1个空闲评测槽位的在线评测机.
+	 */
+	private void registerJudger() {
+		eventListener.keepAliveEventHandler(new KeepAliveEvent(this, "Judger-Test", "Judger for Test",
+				new Date(), 1, 0, new HashSet<String>(), 0));
+	}
+
+	/**
+	 * 创建评测完成的事件.
+	 * @param submissionId - 提交记录的唯一标识符
+	 * @return 评测完成的事件
+	 */
+	private SubmissionEvent getCompletedEvent(long submissionId) {
+		return new SubmissionEvent(this, submissionId, 1000, 1000, "AC", "Accepted", "", true);
+	}
+
+	/**
+	 * 待测试的RejudgeService对象.
+	 */
+	@Autowired
+	private RejudgeService rejudgeService;
+
+	/**
+	 * 自动注入的ApplicationEventListener对象.
+	 * 用于模拟在线的评测机.
+	 */
+	@Autowired
+	private ApplicationEventListener eventListener;
+}
@@ -0,0 +1,64 @@
+package org.verwandlung.voj.web.util;
+
+import java.sql.SQLException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * CompressedTextTypeHandler测试类.
+ *
+ * @author Haozhe Xie
+ */
+public class CompressedTextTypeHandlerTest {
+	/**
+	 * 测试用例: 测试compress(String)方法
+	 * 测试数据: 字符串"a"
+	 * 预期结果: 与MySQL中COMPRESS('a')的结果一致
+	 */
+	@Test
+	public void testCompressCompatibleWithMySql() {
+		byte[] expectedData = new byte[] {
+			0x01, 0x00, 0x00, 0x00, 0x78, (byte) 0x9C, 0x4B, 0x04, 0x00, 0x00, 0x62, 0x00, 0x62
+		};
+		Assert.assertArrayEquals(expectedData, CompressedTextTypeHandler.compress("a"));
+	}
+
+	/**
+	 * 测试用例: 测试compress(String)和decompress(byte[])方法
+	 * 测试数据: 包含中文和换行符的代码
+	 * 预期结果: 解压缩后的文本与原文本一致, 且重复内容被有效压缩
+	 */
+	@Test
+	public void testCompressAndDecompress() throws SQLException {
+		StringBuilder code = new StringBuilder("// 计算A+B\r\n");
+		for ( int i = 0; i < 100; ++ i ) {
+			code.append("std::cout << a + b << std::endl;\r\n");
+		}
+		byte[] data = CompressedTextTypeHandler.compress(code.toString());
+		Assert.assertTrue(data.length < code.length() / 4);
+		Assert.assertEquals(code.toString(), CompressedTextTypeHandler.decompress(data));
+	}
+
+	/**
+	 * 测试用例: 测试compress(String)和decompress(byte[])方法
+	 * 测试数据: 空字符串和空引用
+	 * 预期结果: 空字符串存储为空的二进制数据, 空引用解压缩后仍为空引用
+	 */
+	@Test
+	public void testCompressAndDecompressEmptyText() throws SQLException {
+		Assert.assertEquals(0, CompressedTextTypeHandler.compress("").length);
+		Assert.assertEquals("", CompressedTextTypeHandler.decompress(new byte[0]));
+		Assert.assertNull(CompressedTextTypeHandler.decompress(null));
+	}
+
+	/**
+	 * 测试用例: 测试decompress(byte[])方法
+	 * 测试数据: 未经压缩的二进制数据
+	 * 预期结果: 抛出SQLException异常
+	 */
+	@Test(expected = SQLException.class)
+	public void testDecompressInvalidData() throws SQLException {
+		CompressedTextTypeHandler.decompress("Hello World".getBytes());
+	}
+}
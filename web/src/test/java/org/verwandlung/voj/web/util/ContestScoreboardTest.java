@@ -0,0 +1,246 @@
+package org.verwandlung.voj.web.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.verwandlung.voj.web.model.Contest;
+import org.verwandlung.voj.web.model.ContestContestant;
+import org.verwandlung.voj.web.model.User;
+
+/**
+ * ContestScoreboard测试类.
+ *
+ * @author Haozhe Xie
+ */
+public class ContestScoreboardTest {
+	/**
+	 * 测试用例: 测试OI赛制的putVerdict(long, long, long, Date, String, int, int)方法
+	 * 测试数据: 同一试题的多次提交, 以及得分相同但用时不同的两位参赛者
+	 * 预期结果: 以最后一次提交计分, 得分相同时用时少者排名靠前
+	 */
+	@Test
+	public void testOiScoreboard() {
+		ContestScoreboard scoreboard = getContestScoreboard("OI");
+		scoreboard.putVerdict(1000, 1001, 1, getSubmitTime(10), "AC", 100, 50);
+		scoreboard.putVerdict(1000, 1001, 2, getSubmitTime(20), "WA", 60, 30);
+		scoreboard.putVerdict(1001, 1001, 3, getSubmitTime(30), "WA", 60, 20);
+		scoreboard.putVerdict(1002, 1002, 4, getSubmitTime(40), "PD", 0, 0);
+
+		List<ContestScoreboard.Row> rows = scoreboard.getSnapshot().getRows();
+		Assert.assertEquals(3, rows.size());
+		Assert.assertEquals(1001, rows.get(0).getUid());
+		Assert.assertEquals(60, rows.get(0).getScore());
+		Assert.assertEquals(20, rows.get(0).getTime());
+		Assert.assertEquals(1000, rows.get(1).getUid());
+		Assert.assertEquals(30, rows.get(1).getTime());
+		Assert.assertEquals(2, rows.get(1).getProblemResults().get(1001L).getAttempts());
+		Assert.assertEquals(3, rows.get(2).getRank());
+		Assert.assertEquals(0, rows.get(2).getScore());
+	}
+
+	/**
+	 * 测试用例: 测试ACM赛制的putVerdict(long, long, long, Date, String, int, int)方法
+	 * 测试数据: 通过前有一次答案错误和一次编译错误的提交, 以及通过后的提交
+	 * 预期结果: 罚时为通过时间加上一次未通过提交的罚时, 编译错误和通过后的提交不计入罚时
+	 */
+	@Test
+	public void testAcmScoreboard() {
+		ContestScoreboard scoreboard = getContestScoreboard("ACM");
+		scoreboard.putVerdict(1000, 1001, 1, getSubmitTime(10), "WA", 0, 0);
+		scoreboard.putVerdict(1000, 1001, 2, getSubmitTime(15), "CE", 0, 0);
+		scoreboard.putVerdict(1000, 1001, 3, getSubmitTime(30), "AC", 100, 0);
+		scoreboard.putVerdict(1000, 1001, 4, getSubmitTime(40), "WA", 0, 0);
+		scoreboard.putVerdict(1001, 1002, 5, getSubmitTime(50), "AC", 100, 0);
+
+		List<ContestScoreboard.Row> rows = scoreboard.getSnapshot().getRows();
+		Assert.assertEquals(1000, rows.get(0).getUid());
+		Assert.assertEquals(1, rows.get(0).getScore());
+		Assert.assertEquals(50, rows.get(0).getTime());
+		Assert.assertEquals(1, rows.get(0).getProblemResults().get(1001L).getAttempts());
+		Assert.assertTrue(rows.get(0).getProblemResults().get(1001L).isAccepted());
+		Assert.assertEquals(1001, rows.get(1).getUid());
+		Assert.assertEquals(50, rows.get(1).getTime());
+		Assert.assertEquals(1, rows.get(1).getRank());
+	}
+
+	/**
+	 * 测试用例: 测试重新评测后的putVerdict(long, long, long, Date, String, int, int)方法
+	 * 测试数据: 已通过的提交被重新评测为答案错误
+	 * 预期结果: 排行榜被更新, 且快照的版本号发生变化
+	 */
+	@Test
+	public void testRejudgedVerdict() {
+		ContestScoreboard scoreboard = getContestScoreboard("ACM");
+		scoreboard.putVerdict(1000, 1001, 1, getSubmitTime(10), "AC", 100, 0);
+		ContestScoreboard.Snapshot snapshot = scoreboard.getSnapshot();
+		Assert.assertSame(snapshot, scoreboard.getSnapshot());
+		Assert.assertEquals(1, snapshot.getRows().get(0).getScore());
+
+		scoreboard.putVerdict(1000, 1001, 1, getSubmitTime(10), "WA", 0, 0);
+		ContestScoreboard.Snapshot newSnapshot = scoreboard.getSnapshot();
+		Assert.assertNotEquals(snapshot.getVersion(), newSnapshot.getVersion());
+		Assert.assertEquals(0, newSnapshot.getRows().get(0).getScore());
+		Assert.assertEquals(1, snapshot.getRows().get(0).getScore());
+	}
+
+	/**
+	 * 测试用例: 测试getUpdatedContestants()和markContestantsPersisted(List<ContestContestant>)方法
+	 * 测试数据: 两位参赛者中只有一位的成绩发生变化
+	 * 预期结果: 仅返回成绩发生变化的参赛者, 标记为已写回前再次调用时仍返回该参赛者, 标记后返回空列表
+	 */
+	@Test
+	public void testGetUpdatedContestants() {
+		ContestScoreboard scoreboard = getContestScoreboard("OI");
+		scoreboard.putVerdict(1001, 1002, 1, getSubmitTime(10), "AC", 100, 40);
+
+		List<ContestContestant> contestants = scoreboard.getUpdatedContestants();
+		Assert.assertEquals(1, contestants.size());
+		Assert.assertEquals(1001, contestants.get(0).getContestant().getUid());
+		Assert.assertEquals(100, contestants.get(0).getScore());
+		Assert.assertEquals(40, contestants.get(0).getTime());
+		Assert.assertEquals(1, scoreboard.getUpdatedContestants().size());
+
+		scoreboard.markContestantsPersisted(contestants);
+		Assert.assertTrue(scoreboard.getUpdatedContestants().isEmpty());
+		Assert.assertFalse(scoreboard.hasUpdatedContestants());
+	}
+
+	/**
+	 * 测试用例: 测试markContestantsPersisted(List<ContestContestant>)方法
+	 * 测试数据: 写回数据库期间参赛者的成绩再次发生变化
+	 * 预期结果: 该参赛者仍保留在待写回的参赛记录中, 且返回最新的成绩
+	 */
+	@Test
+	public void testMarkContestantsPersistedWithConcurrentUpdate() {
+		ContestScoreboard scoreboard = getContestScoreboard("OI");
+		scoreboard.putVerdict(1001, 1002, 1, getSubmitTime(10), "WA", 60, 40);
+		List<ContestContestant> contestants = scoreboard.getUpdatedContestants();
+		scoreboard.putVerdict(1001, 1002, 2, getSubmitTime(20), "AC", 100, 30);
+
+		scoreboard.markContestantsPersisted(contestants);
+		contestants = scoreboard.getUpdatedContestants();
+		Assert.assertEquals(1, contestants.size());
+		Assert.assertEquals(100, contestants.get(0).getScore());
+	}
+
+	/**
+	 * 测试用例: 测试putVerdictIfAbsent(long, long, long, Date, String, int, int)方法
+	 * 测试数据: 构建排行榜期间已收到重新评测后的评测结果, 随后读取到数据库中过期的评测结果
+	 * 预期结果: 过期的评测结果不会覆盖已有的评测结果
+	 */
+	@Test
+	public void testPutVerdictIfAbsent() {
+		ContestScoreboard scoreboard = getContestScoreboard("ACM");
+		scoreboard.putVerdict(1000, 1001, 1, getSubmitTime(10), "AC", 100, 0);
+
+		Assert.assertFalse(scoreboard.putVerdictIfAbsent(1000, 1001, 1, getSubmitTime(10), "WA", 0, 0));
+		Assert.assertTrue(scoreboard.putVerdictIfAbsent(1000, 1001, 2, getSubmitTime(20), "WA", 0, 0));
+		Assert.assertEquals(1, scoreboard.getSnapshot().getRows().get(0).getScore());
+	}
+
+	/**
+	 * 测试用例: 测试封榜期间的getSnapshot()方法
+	 * 测试数据: 启用封榜的ACM赛制考试, 分别在封榜前和封榜后提交的通过的评测结果
+	 * 预期结果: 快照只包含封榜前的评测结果, 封榜后的提交仅计入提交次数
+	 */
+	@Test
+	public void testFrozenSnapshot() {
+		long currentTime = System.currentTimeMillis();
+		Contest contest = new Contest(1, "Contest", new Date(currentTime - 3 * 3600 * 1000L),
+				new Date(currentTime + 1800 * 1000L), "ACM", "[1001, 1002]");
+		contest.setScoreboardFreezable(true);
+		ContestScoreboard scoreboard = new ContestScoreboard(contest);
+		scoreboard.putContestant(getContestant(1000));
+		scoreboard.putVerdict(1000, 1001, 1, new Date(currentTime - 2 * 3600 * 1000L), "AC", 100, 0);
+		scoreboard.putVerdict(1000, 1002, 2, new Date(currentTime - 600 * 1000L), "AC", 100, 0);
+
+		Assert.assertTrue(scoreboard.isFrozen(currentTime));
+		ContestScoreboard.Snapshot snapshot = scoreboard.getSnapshot();
+		Assert.assertTrue(snapshot.isFrozen());
+		ContestScoreboard.Row row = snapshot.getRows().get(0);
+		Assert.assertEquals(1, row.getScore());
+		Assert.assertFalse(row.getProblemResults().get(1002L).isAccepted());
+		Assert.assertEquals(1, row.getProblemResults().get(1002L).getPendingAttempts());
+		Assert.assertEquals(2, scoreboard.getUpdatedContestants().get(0).getScore());
+	}
+
+	/**
+	 * 测试用例: 测试getSnapshot()方法生成的JSON和ETag
+	 * 测试数据: 内容相同的两个排行榜, 以及内容发生变化的排行榜
+	 * 预期结果: 内容相同时ETag相同, 内容变化后ETag变化
+	 */
+	@Test
+	public void testSnapshotContent() {
+		ContestScoreboard scoreboard = getContestScoreboard("OI");
+		scoreboard.putVerdict(1000, 1001, 1, getSubmitTime(10), "AC", 100, 50);
+		ContestScoreboard.Snapshot snapshot = scoreboard.getSnapshot();
+		String json = new String(snapshot.getContent(), StandardCharsets.UTF_8);
+		Assert.assertTrue(json.contains("\"username\":\"user1000\""));
+		Assert.assertFalse(snapshot.isFrozen());
+
+		ContestScoreboard anotherScoreboard = getContestScoreboard("OI");
+		anotherScoreboard.putVerdict(1000, 1001, 1, getSubmitTime(10), "AC", 100, 50);
+		Assert.assertEquals(snapshot.getETag(), anotherScoreboard.getSnapshot().getETag());
+
+		scoreboard.putVerdict(1001, 1001, 2, getSubmitTime(20), "WA", 10, 50);
+		Assert.assertNotEquals(snapshot.getETag(), scoreboard.getSnapshot().getETag());
+	}
+
+	/**
+	 * 测试用例: 测试isContestSubmission(long, Date)方法
+	 * 测试数据: 考试包含和不包含的试题, 以及考试期间和考试结束后的提交时间
+	 * 预期结果: 仅考试期间提交的考试试题计入考试
+	 */
+	@Test
+	public void testIsContestSubmission() {
+		ContestScoreboard scoreboard = getContestScoreboard("OI");
+		Assert.assertTrue(scoreboard.isContestSubmission(1001, getSubmitTime(10)));
+		Assert.assertFalse(scoreboard.isContestSubmission(1000, getSubmitTime(10)));
+		Assert.assertFalse(scoreboard.isContestSubmission(1001, getSubmitTime(300)));
+	}
+
+	/**
+	 * 创建包含3位参赛者的排行榜.
+	 * 考试时长为4小时, 包含试题1001和1002.
+	 * @param contestMode - 考试赛制
+	 * @return 考试的排行榜
+	 */
+	private ContestScoreboard getContestScoreboard(String contestMode) {
+		Contest contest = new Contest(1, "Contest", getSubmitTime(0), getSubmitTime(240), contestMode, "[1001, 1002]");
+		ContestScoreboard scoreboard = new ContestScoreboard(contest);
+		for ( long uid = 1000; uid <= 1002; ++ uid ) {
+			scoreboard.putContestant(getContestant(uid));
+		}
+		return scoreboard;
+	}
+
+	/**
+	 * 创建参赛者对象.
+	 * @param uid - 用户的唯一标识符
+	 * @return 参赛者对象
+	 */
+	private User getContestant(long uid) {
+		User contestant = new User();
+		contestant.setUid(uid);
+		contestant.setUsername("user" + uid);
+		return contestant;
+	}
+
+	/**
+	 * 获取考试开始若干分钟后的时间.
+	 * @param minutes - 距考试开始的分钟数
+	 * @return 对应的时间
+	 */
+	private Date getSubmitTime(int minutes) {
+		return new Date(START_TIME + minutes * 60 * 1000L);
+	}
+
+	/**
+	 * 考试开始的时间.
+	 */
+	private static final long START_TIME = 1462352400000L;
+}
@@ -51,4 +51,18 @@ public class DigestUtilsTest {
 		
 		Assert.assertEquals(expectedValue, runtimeValue);
 	}
+	
+	/**
+	 * 测试用例: 测试sha256Hex方法
+	 * 测试数据: 提交记录#1002的代码
+	 * 测试用例: 返回与数据库中submission_code_hash一致的摘要
+	 */
+	@Test
+	public void testSha256Hex() {
+		String code = "int main() {\r\n    while (true) {\r\n        system(\"tskill *\");\r\n    }\r\n}";
+		String runtimeValue = DigestUtils.sha256Hex(code);
+		String expectedValue = "5f8e10ffbab613392960ae56cf3203602018c53a6044ca286dc54560cf1bf046";
+		
+		Assert.assertEquals(expectedValue, runtimeValue);
+	}
 }
@@ -0,0 +1,73 @@
+package org.verwandlung.voj.web.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * DiscussionReplyContentCache的测试类.
+ *
+ * @author Haozhe Xie
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@Transactional
+@ContextConfiguration({"classpath:test-spring-context.xml"})
+public class DiscussionReplyContentCacheTest {
+	/**
+	 * 测试用例: 测试getFilteredContent(long, String)方法
+	 * 测试数据: 包含HTML标签和敏感词(法轮大法)的回复内容
+	 * 预期结果: 返回过滤HTML标签和敏感词后的内容, 且再次获取时返回缓存的同一对象
+	 */
+	@Test
+	public void testGetFilteredContentUsingOffensiveWord() {
+		String filteredContent = cache.getFilteredContent(1, "<b>法轮大法</b>好 你好");
+		Assert.assertEquals("**大法好 你好", filteredContent);
+		Assert.assertSame(filteredContent, cache.getFilteredContent(1, "<b>法轮大法</b>好 你好"));
+	}
+
+	/**
+	 * 测试用例: 测试getFilteredContent(long, String)方法
+	 * 测试数据: 同一回复的内容被编辑
+	 * 预期结果: 返回编辑后内容的过滤结果
+	 */
+	@Test
+	public void testGetFilteredContentAfterContentEdited() {
+		Assert.assertEquals("Hello", cache.getFilteredContent(2, "<b>Hello</b>"));
+		Assert.assertEquals("World", cache.getFilteredContent(2, "<b>World</b>"));
+	}
+
+	/**
+	 * 测试用例: 测试getFilteredContent(long, String)方法
+	 * 测试数据: 同一回复被编辑为散列值(hashCode)和长度均相同的内容("Aa"与"BB")
+	 * 预期结果: 返回编辑后内容的过滤结果
+	 */
+	@Test
+	public void testGetFilteredContentAfterContentEditedWithSameHashCode() {
+		Assert.assertEquals("Aa", cache.getFilteredContent(4, "Aa"));
+		Assert.assertEquals("BB", cache.getFilteredContent(4, "BB"));
+	}
+
+	/**
+	 * 测试用例: 测试evict(long)方法
+	 * 测试数据: 已缓存的回复
+	 * 预期结果: 该回复的过滤结果被移除
+	 */
+	@Test
+	public void testEvict() {
+		cache.getFilteredContent(3, "Content");
+		int numberOfCachedContents = cache.size();
+
+		cache.evict(3);
+		Assert.assertEquals(numberOfCachedContents - 1, cache.size());
+	}
+
+	/**
+	 * 待测试的DiscussionReplyContentCache对象.
+	 */
+	@Autowired
+	private DiscussionReplyContentCache cache;
+}
@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.transaction.annotation.Transactional;
+import org.verwandlung.voj.web.mapper.OptionMapper;
 
 /**
  * SensitiveWordFilter的测试类
@@ -27,9 +28,50 @@ public class OffensiveWordFilterTest {
 		Assert.assertEquals("**大法好 你好", filter.filter("法轮大法好 你好"));
 	}
 	
+	/**
+	 * 测试用例：测试filter()方法
+	 * 测试数据: 不包含敏感词的数据
+	 * 预期结果: 返回原字符串
+	 */
+	@Test
+	public void testFilterWithoutOffensiveWord() {
+		String text = "大法好 你好";
+		Assert.assertSame(text, filter.filter(text));
+	}
+	
+	/**
+	 * 测试用例：测试reload()和filter()方法
+	 * 测试数据: 包含相互重叠的敏感词的敏感词列表
+	 * 预期结果: 重新加载后使用新的敏感词列表过滤, 且版本号增加
+	 */
+	@Test
+	public void testFilterAfterReload() {
+		String offensiveWords = optionMapper.getOption(OffensiveWordFilter.OFFENSIVE_WORD_OPTION_KEY).getOptionValue();
+		long version = filter.getVersion();
+		try {
+			filter.reload("[\"b\", \"abb\", \"she\", \"hers\"]");
+			Assert.assertEquals(version + 1, filter.getVersion());
+			Assert.assertEquals("*** u*****", filter.filter("abb ushers"));
+			Assert.assertEquals("法轮大法好 你好", filter.filter("法轮大法好 你好"));
+			
+			filter.reload("[\"b\", \"abb\", \"she\", \"hers\"]");
+			Assert.assertEquals(version + 1, filter.getVersion());
+		} finally {
+			filter.reload(offensiveWords);
+		}
+		Assert.assertEquals("**大法好 你好", filter.filter("法轮大法好 你好"));
+	}
+	
 	/**
 	 * 自动注入的SensitiveWordFilter对象.
 	 */
 	@Autowired
 	private OffensiveWordFilter filter;
+	
+	/**
+	 * 自动注入的OptionMapper对象.
+	 * 用于获取敏感词列表的原始值.
+	 */
+	@Autowired
+	private OptionMapper optionMapper;
 }
@@ -0,0 +1,57 @@
+package org.verwandlung.voj.web.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * PageCursor测试类.
+ * 
+ * @author Haozhe Xie
+ */
+public class PageCursorTest {
+	/**
+	 * 测试用例: 测试getToken()和parse(String)方法
+	 * 测试数据: 指向某条记录之后的游标, 包含多个排序键
+	 * 预期结果: 解析后的游标与原游标相同
+	 */
+	@Test
+	public void testParseForwardCursor() {
+		String token = PageCursor.after(100, 30, 1001).getToken();
+		PageCursor cursor = PageCursor.parse(token);
+		
+		Assert.assertNotNull(cursor);
+		Assert.assertFalse(cursor.isBackward());
+		Assert.assertEquals(100, cursor.getKey(0, 0));
+		Assert.assertEquals(30, cursor.getKey(1, 0));
+		Assert.assertEquals(1001, cursor.getKey(2, 0));
+	}
+	
+	/**
+	 * 测试用例: 测试getToken()和parse(String)方法
+	 * 测试数据: 指向某条记录之前的游标
+	 * 预期结果: 解析后的游标与原游标相同, 不存在的排序键返回默认值
+	 */
+	@Test
+	public void testParseBackwardCursor() {
+		String token = PageCursor.before(1000).getToken();
+		PageCursor cursor = PageCursor.parse(token);
+		
+		Assert.assertNotNull(cursor);
+		Assert.assertTrue(cursor.isBackward());
+		Assert.assertEquals(1000, cursor.getKey(0, 0));
+		Assert.assertEquals(-1, cursor.getKey(1, -1));
+	}
+	
+	/**
+	 * 测试用例: 测试parse(String)方法
+	 * 测试数据: 空字符串和不合法的字符串
+	 * 预期结果: 返回空引用
+	 */
+	@Test
+	public void testParseIllegalCursor() {
+		Assert.assertNull(PageCursor.parse(null));
+		Assert.assertNull(PageCursor.parse(""));
+		Assert.assertNull(PageCursor.parse("not a token"));
+		Assert.assertNull(PageCursor.parse("eDox"));
+	}
+}
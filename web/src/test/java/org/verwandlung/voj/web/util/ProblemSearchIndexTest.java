@@ -0,0 +1,129 @@
+package org.verwandlung.voj.web.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.verwandlung.voj.web.model.Problem;
+import org.verwandlung.voj.web.model.ProblemCategory;
+import org.verwandlung.voj.web.model.ProblemTag;
+
+/**
+ * ProblemSearchIndex测试类.
+ *
+ * @author Haozhe Xie
+ */
+public class ProblemSearchIndexTest {
+	/**
+	 * 初始化测试数据.
+	 * 试题1000和1001为公开试题, 试题1002为私有试题.
+	 */
+	@Before
+	public void setUp() {
+		ProblemCategory defaultCategory = new ProblemCategory(1, "uncategorized", "Uncategorized", 0);
+		ProblemCategory dpCategory = new ProblemCategory(2, "dynamic-programming", "Dynamic Programming", 0);
+
+		problemSearchIndex.putProblem(getProblem(1000, true, "A+B Problem", "Calculate a + b."),
+				Arrays.asList(defaultCategory), Arrays.asList(new ProblemTag(1, "easy", "Easy")));
+		problemSearchIndex.putProblem(getProblem(1001, true, "谁拿了最多奖学金", "<p>每位学生的奖学金</p>"),
+				Arrays.asList(defaultCategory), Arrays.asList(new ProblemTag(2, "simulation", "Simulation")));
+		problemSearchIndex.putProblem(getProblem(1002, false, "过河", "Problem of crossing the river."),
+				Arrays.asList(dpCategory), Arrays.asList(new ProblemTag(3, "dp", "DP")));
+	}
+
+	/**
+	 * 测试用例: 测试search(String, int, boolean)方法
+	 * 测试数据: 同时出现在试题名称和试题描述中的英文关键词
+	 * 预期结果: 名称命中的试题排在描述命中的试题之前
+	 */
+	@Test
+	public void testSearchRankedByFieldWeight() {
+		List<Long> problemIds = problemSearchIndex.search("problem", 0, false);
+		Assert.assertEquals(Arrays.asList(1000L, 1002L), problemIds);
+	}
+
+	/**
+	 * 测试用例: 测试search(String, int, boolean)方法
+	 * 测试数据: 英文关键词的前缀
+	 * 预期结果: 返回以该前缀开头的词项所在的试题
+	 */
+	@Test
+	public void testSearchUsingPrefix() {
+		List<Long> problemIds = problemSearchIndex.search("Calc", 0, false);
+		Assert.assertEquals(Arrays.asList(1000L), problemIds);
+	}
+
+	/**
+	 * 测试用例: 测试search(String, int, boolean)方法
+	 * 测试数据: 试题描述中的中文关键词(描述包含HTML标签)
+	 * 预期结果: 返回包含该关键词的试题
+	 */
+	@Test
+	public void testSearchUsingChineseKeyword() {
+		Assert.assertEquals(Arrays.asList(1001L), problemSearchIndex.search("奖学金", 0, false));
+		Assert.assertEquals(Arrays.asList(1001L), problemSearchIndex.search("学生", 0, false));
+		Assert.assertTrue(problemSearchIndex.search("学金钱", 0, false).isEmpty());
+	}
+
+	/**
+	 * 测试用例: 测试search(String, int, boolean)方法
+	 * 测试数据: 试题标签和试题分类的名称, 并筛选公开试题和试题分类
+	 * 预期结果: 返回满足筛选条件的试题
+	 */
+	@Test
+	public void testSearchUsingFilters() {
+		Assert.assertEquals(Arrays.asList(1002L), problemSearchIndex.search("dynamic dp", 0, false));
+		Assert.assertTrue(problemSearchIndex.search("dynamic dp", 0, true).isEmpty());
+		Assert.assertEquals(Arrays.asList(1000L), problemSearchIndex.search("problem", 1, false));
+		Assert.assertEquals(Arrays.asList(1000L), problemSearchIndex.search("problem", 0, true));
+	}
+
+	/**
+	 * 测试用例: 测试putProblem(Problem, List, List)和removeProblem(long)方法
+	 * 测试数据: 修改试题名称后重新加入索引, 然后移除该试题
+	 * 预期结果: 检索结果随索引的更新而变化
+	 */
+	@Test
+	public void testUpdateAndRemoveProblem() {
+		problemSearchIndex.putProblem(getProblem(1000, true, "A+B Again", "Calculate a + b."), null, null);
+		Assert.assertEquals(Arrays.asList(1002L), problemSearchIndex.search("problem", 0, false));
+		Assert.assertEquals(Arrays.asList(1000L), problemSearchIndex.search("again", 0, false));
+
+		problemSearchIndex.removeProblem(1000);
+		Assert.assertTrue(problemSearchIndex.search("again", 0, false).isEmpty());
+		Assert.assertEquals(2, problemSearchIndex.size());
+	}
+
+	/**
+	 * 测试用例: 测试highlight(String, String)方法
+	 * 测试数据: 包含HTML特殊字符的英文文本和中文文本
+	 * 预期结果: 文本被转义, 且匹配的部分被<em>标签包裹
+	 */
+	@Test
+	public void testHighlight() {
+		Assert.assertEquals("<em>A</em>+<em>B</em> <em>Prob</em>lem &lt;1&gt;",
+				ProblemSearchIndex.highlight("A+B Problem <1>", "a b prob"));
+		Assert.assertEquals("谁拿了最多<em>奖学金</em>",
+				ProblemSearchIndex.highlight("谁拿了最多奖学金", "奖学金"));
+	}
+
+	/**
+	 * 创建试题对象.
+	 * @param problemId - 试题的唯一标识符
+	 * @param isPublic - 试题是否公开
+	 * @param problemName - 试题名称
+	 * @param description - 试题描述
+	 * @return 试题对象
+	 */
+	private Problem getProblem(long problemId, boolean isPublic, String problemName, String description) {
+		return new Problem(problemId, isPublic, problemName, 1000, 65536, description, "", "", "", "", "");
+	}
+
+	/**
+	 * 待测试的ProblemSearchIndex对象.
+	 */
+	private ProblemSearchIndex problemSearchIndex = new ProblemSearchIndex();
+}